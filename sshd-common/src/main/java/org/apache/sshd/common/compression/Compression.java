@@ -47,6 +47,18 @@ public interface Compression extends CompressionInformation {
      */
     void init(Type type, int level);
 
+    /**
+     * Initialize this object with a compression strategy - by default the strategy is ignored
+     *
+     * @param type     compression type
+     * @param level    compression level
+     * @param strategy compression strategy - e.g., {@link java.util.zip.Deflater#DEFAULT_STRATEGY}
+     * @see            #init(Type, int)
+     */
+    default void init(Type type, int level, int strategy) {
+        init(type, level);
+    }
+
     /**
      * Compress the given buffer in place.
      *
@@ -63,4 +75,12 @@ public interface Compression extends CompressionInformation {
      * @throws IOException if an error occurs
      */
     void uncompress(Buffer from, Buffer to) throws IOException;
+
+    /**
+     * Releases any resources held by this instance - e.g., native compression contexts. The instance must not be used
+     * afterwards unless re-initialized.
+     */
+    default void release() {
+        // ignored
+    }
 }
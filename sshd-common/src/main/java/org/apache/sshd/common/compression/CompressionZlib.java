@@ -19,6 +19,7 @@
 package org.apache.sshd.common.compression;
 
 import java.io.IOException;
+import java.util.Objects;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
@@ -26,7 +27,8 @@ import java.util.zip.Inflater;
 import org.apache.sshd.common.util.buffer.Buffer;
 
 /**
- * ZLib based Compression.
+ * ZLib based Compression. The zlib contexts are obtained from a {@link ZlibContextPool} and returned to it when the
+ * instance is {@link #release() released}.
  *
  * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
  */
@@ -34,7 +36,7 @@ public class CompressionZlib extends BaseCompression {
 
     private static final int BUF_SIZE = 4096;
 
-    private byte[] tmpbuf = new byte[BUF_SIZE];
+    private final ZlibContextPool contextPool;
     private Deflater compresser;
     private Inflater decompresser;
 
@@ -46,7 +48,16 @@ public class CompressionZlib extends BaseCompression {
     }
 
     protected CompressionZlib(String name) {
+        this(name, ZlibContextPool.DEFAULT);
+    }
+
+    protected CompressionZlib(String name, ZlibContextPool contextPool) {
         super(name);
+        this.contextPool = Objects.requireNonNull(contextPool, "No context pool");
+    }
+
+    public ZlibContextPool getContextPool() {
+        return contextPool;
     }
 
     @Override
@@ -56,30 +67,89 @@ public class CompressionZlib extends BaseCompression {
 
     @Override
     public void init(Type type, int level) {
-        compresser = new Deflater(level);
-        decompresser = new Inflater();
+        init(type, level, Deflater.DEFAULT_STRATEGY);
+    }
+
+    @Override
+    public void init(Type type, int level, int strategy) {
+        release();
+        if (type == Type.Deflater) {
+            compresser = contextPool.acquireDeflater(level, strategy);
+        } else {
+            decompresser = contextPool.acquireInflater();
+        }
     }
 
     @Override
     public void compress(Buffer buffer) throws IOException {
-        compresser.setInput(buffer.array(), buffer.rpos(), buffer.available());
-        buffer.wpos(buffer.rpos());
-        for (int len = compresser.deflate(tmpbuf, 0, tmpbuf.length, Deflater.SYNC_FLUSH);
-             len > 0;
-             len = compresser.deflate(tmpbuf, 0, tmpbuf.length, Deflater.SYNC_FLUSH)) {
-            buffer.putRawBytes(tmpbuf, 0, len);
+        Deflater deflater = compresser;
+        if (deflater == null) {
+            throw new IOException("Compression not initialized or already released");
+        }
+
+        // deflate into the space following the data, then move the result to the start of the data
+        int start = buffer.rpos();
+        int inputEnd = buffer.wpos();
+        int inputLen = inputEnd - start;
+        buffer.ensureCapacity(deflateBound(inputLen));
+        deflater.setInput(buffer.array(), start, inputLen);
+        for (int room = buffer.capacity();; room = buffer.capacity()) {
+            int len = deflater.deflate(buffer.array(), buffer.wpos(), room, Deflater.SYNC_FLUSH);
+            buffer.wpos(buffer.wpos() + len);
+            if (len < room) {
+                break;
+            }
+            // NOTE: the input array is not modified if re-allocated, so the deflater can keep using it
+            buffer.ensureCapacity(BUF_SIZE);
         }
+
+        int outputLen = buffer.wpos() - inputEnd;
+        System.arraycopy(buffer.array(), inputEnd, buffer.array(), start, outputLen);
+        buffer.wpos(start + outputLen);
     }
 
     @Override
     public void uncompress(Buffer from, Buffer to) throws IOException {
-        decompresser.setInput(from.array(), from.rpos(), from.available());
+        Inflater inflater = decompresser;
+        if (inflater == null) {
+            throw new IOException("Decompression not initialized or already released");
+        }
+
+        int inputLen = from.available();
+        inflater.setInput(from.array(), from.rpos(), inputLen);
         try {
-            for (int len = decompresser.inflate(tmpbuf); len > 0; len = decompresser.inflate(tmpbuf)) {
-                to.putRawBytes(tmpbuf, 0, len);
+            // SSH traffic typically compresses by a factor of 2-4
+            to.ensureCapacity(Math.max(BUF_SIZE, 4 * inputLen));
+            for (int room = to.capacity();; room = to.capacity()) {
+                int len = inflater.inflate(to.array(), to.wpos(), room);
+                to.wpos(to.wpos() + len);
+                if (len < room) {
+                    break;
+                }
+                to.ensureCapacity(Math.max(BUF_SIZE, to.wpos()));
             }
         } catch (DataFormatException e) {
             throw new IOException("Error decompressing data", e);
         }
     }
+
+    @Override
+    public void release() {
+        Deflater deflater = compresser;
+        compresser = null;
+        contextPool.releaseDeflater(deflater);
+
+        Inflater inflater = decompresser;
+        decompresser = null;
+        contextPool.releaseInflater(inflater);
+    }
+
+    /**
+     * @param  len The input length
+     * @return     An upper bound of the compressed length - including the {@link Deflater#SYNC_FLUSH} marker
+     */
+    public static int deflateBound(int len) {
+        // same as zlib's deflateBound() + extra room for the sync flush empty block
+        return len + (len >>> 12) + (len >>> 14) + (len >>> 25) + 13 + 5;
+    }
 }
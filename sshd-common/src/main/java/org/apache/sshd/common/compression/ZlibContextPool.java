@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.common.compression;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.sshd.common.util.ValidateUtils;
+
+/**
+ * Keeps a bounded number of idle {@link Deflater}/{@link Inflater} instances so that their native zlib contexts can be
+ * re-used by new sessions instead of being allocated (and eventually finalized) for each session and direction.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class ZlibContextPool {
+    /** Default max. number of idle instances kept for each of the deflate/inflate directions */
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    public static final ZlibContextPool DEFAULT = new ZlibContextPool(DEFAULT_MAX_IDLE);
+
+    private static final byte[] NO_OUTPUT = {};
+
+    private final int maxIdle;
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleDeflaters = new AtomicInteger();
+    private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleInflaters = new AtomicInteger();
+
+    /**
+     * @param maxIdle Max. number of idle instances kept for each direction - zero disables pooling
+     */
+    public ZlibContextPool(int maxIdle) {
+        ValidateUtils.checkTrue(maxIdle >= 0, "Invalid max. idle count: %d", maxIdle);
+        this.maxIdle = maxIdle;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    public int getIdleDeflatersCount() {
+        return idleDeflaters.get();
+    }
+
+    public int getIdleInflatersCount() {
+        return idleInflaters.get();
+    }
+
+    /**
+     * @param  level    The compression level
+     * @param  strategy The compression strategy
+     * @return          A {@link Deflater} configured with the specified level and strategy
+     */
+    public Deflater acquireDeflater(int level, int strategy) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level);
+        } else {
+            idleDeflaters.decrementAndGet();
+            deflater.setLevel(level);
+        }
+        deflater.setStrategy(strategy);
+        // apply changed parameters while there is no input - otherwise the first packet's deflate call would only apply
+        // them without honoring the requested flush mode, leaving the packet's data in the deflater
+        deflater.deflate(NO_OUTPUT, 0, 0, Deflater.NO_FLUSH);
+        return deflater;
+    }
+
+    /**
+     * @param deflater The {@link Deflater} to release - reset and kept if there is room in the pool, otherwise its
+     *                 resources are released. Ignored if {@code null}
+     */
+    public void releaseDeflater(Deflater deflater) {
+        if (deflater == null) {
+            return;
+        }
+
+        if (idleDeflaters.incrementAndGet() > maxIdle) {
+            idleDeflaters.decrementAndGet();
+            deflater.end();
+            return;
+        }
+
+        deflater.reset();
+        deflaters.offer(deflater);
+    }
+
+    public Inflater acquireInflater() {
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            return new Inflater();
+        }
+
+        idleInflaters.decrementAndGet();
+        return inflater;
+    }
+
+    /**
+     * @param inflater The {@link Inflater} to release - reset and kept if there is room in the pool, otherwise its
+     *                 resources are released. Ignored if {@code null}
+     */
+    public void releaseInflater(Inflater inflater) {
+        if (inflater == null) {
+            return;
+        }
+
+        if (idleInflaters.incrementAndGet() > maxIdle) {
+            idleInflaters.decrementAndGet();
+            inflater.end();
+            return;
+        }
+
+        inflater.reset();
+        inflaters.offer(inflater);
+    }
+
+    /**
+     * Releases the resources of all the idle instances
+     */
+    public void clear() {
+        for (Deflater deflater = deflaters.poll(); deflater != null; deflater = deflaters.poll()) {
+            idleDeflaters.decrementAndGet();
+            deflater.end();
+        }
+        for (Inflater inflater = inflaters.poll(); inflater != null; inflater = inflaters.poll()) {
+            idleInflaters.decrementAndGet();
+            inflater.end();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[maxIdle=" + getMaxIdle()
+               + ", deflaters=" + getIdleDeflatersCount() + ", inflaters=" + getIdleInflatersCount() + "]";
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sshd.common.util.buffer;
+
+/**
+ * Provides the {@link Buffer}-s used for outgoing packets and incoming requests. An allocated buffer is owned by
+ * whoever allocated it until {@link #release(Buffer) released} - after which it must no longer be accessed since its
+ * backing storage may be handed out again.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FunctionalInterface
+public interface BufferAllocator {
+    /**
+     * Allocates a new {@link ByteArrayBuffer} on every call - i.e., no pooling, and releasing a buffer is a no-op
+     */
+    BufferAllocator DEFAULT = size -> new ByteArrayBuffer(size, false);
+
+    /**
+     * @param  size The minimum required capacity
+     * @return      A {@link Buffer} ready for writing (i.e., {@code rpos=wpos=0}) whose capacity is at least the
+     *              requested size
+     */
+    Buffer allocate(int size);
+
+    /**
+     * Adds a reference to the buffer - e.g., when it is handed over to an asynchronous writer. Each such call must be
+     * matched by a call to {@link #release(Buffer)}.
+     *
+     * @param  buffer The {@link Buffer} to retain - ignored if {@code null} or not allocated by this allocator
+     * @return        The same buffer
+     */
+    default Buffer retain(Buffer buffer) {
+        return buffer;
+    }
+
+    /**
+     * Indicates that the caller no longer needs the buffer. If the buffer is reference counted this only decrements its
+     * count, and the backing storage is reclaimed when the last reference is released.
+     *
+     * @param  buffer The {@link Buffer} to release - ignored if {@code null} or not allocated by this allocator
+     * @return        {@code true} if this was the last reference to the buffer
+     */
+    default boolean release(Buffer buffer) {
+        return true;
+    }
+}
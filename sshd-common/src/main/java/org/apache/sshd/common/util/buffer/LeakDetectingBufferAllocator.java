@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sshd.common.util.buffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Wraps another {@link BufferAllocator} and keeps track of the buffers that have been allocated but not (fully)
+ * released yet along with the stack trace of the allocation. Intended for tests - it adds considerable overhead to
+ * every allocation.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class LeakDetectingBufferAllocator implements BufferAllocator {
+    private final BufferAllocator delegate;
+    private final Map<Buffer, Throwable> outstanding = new IdentityHashMap<>();
+
+    public LeakDetectingBufferAllocator(BufferAllocator delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "No delegate allocator");
+    }
+
+    public BufferAllocator getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Buffer allocate(int size) {
+        Buffer buffer = delegate.allocate(size);
+        Throwable location = new Throwable("Allocated " + size + " bytes by " + Thread.currentThread().getName());
+        synchronized (outstanding) {
+            outstanding.put(buffer, location);
+        }
+        return buffer;
+    }
+
+    @Override
+    public Buffer retain(Buffer buffer) {
+        return delegate.retain(buffer);
+    }
+
+    @Override
+    public boolean release(Buffer buffer) {
+        if (buffer == null) {
+            return true;
+        }
+
+        synchronized (outstanding) {
+            boolean released = delegate.release(buffer);
+            if (released) {
+                outstanding.remove(buffer);
+            }
+            return released;
+        }
+    }
+
+    /**
+     * @return The stack traces of the allocations of buffers that have not been released yet
+     */
+    public Collection<Throwable> getLeaks() {
+        synchronized (outstanding) {
+            return new ArrayList<>(outstanding.values());
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if any allocated buffers have not been released - the allocation stack traces of
+     *                               the leaked buffers are attached as suppressed exceptions
+     */
+    public void assertNoLeaks() {
+        Collection<Throwable> leaks = getLeaks();
+        if (leaks.isEmpty()) {
+            return;
+        }
+
+        IllegalStateException err = new IllegalStateException(leaks.size() + " buffers have not been released");
+        for (Throwable t : leaks) {
+            err.addSuppressed(t);
+        }
+        throw err;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + getDelegate() + "]";
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sshd.common.util.buffer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sshd.common.util.NumberUtils;
+import org.apache.sshd.common.util.ValidateUtils;
+
+/**
+ * A {@link BufferAllocator} that recycles the backing arrays of released buffers. Requested sizes are rounded up to
+ * the next power of 2 and each such size class keeps a bounded number of free arrays. Requests beyond the largest size
+ * class are served by plain (non-pooled) {@link ByteArrayBuffer}-s.
+ *
+ * <B>Note:</B> recycled arrays are <U>not</U> cleared - the buffer positions guarantee that stale data is never read,
+ * but the caller should not assume a freshly allocated buffer contains only zeroes.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class PooledBufferAllocator implements BufferAllocator {
+    /**
+     * Default smallest size class - same as the default {@link ByteArrayBuffer} size
+     */
+    public static final int DEFAULT_MIN_POOLED_SIZE = ByteArrayBuffer.DEFAULT_SIZE;
+
+    /**
+     * Default largest size class - enough to hold a maximum size SFTP read/write request or channel data packet
+     */
+    public static final int DEFAULT_MAX_POOLED_SIZE = 128 * 1024;
+
+    /**
+     * Default maximum number of free arrays kept per size class
+     */
+    public static final int DEFAULT_MAX_POOLED_PER_SIZE = 64;
+
+    private final int minPooledSize;
+    private final int maxPooledSize;
+    private final int maxPooledPerSize;
+    private final int minSizeShift;
+    private final Queue<byte[]>[] pools;
+    private final AtomicInteger[] pooledCounts;
+    private final AtomicLong allocationsCount = new AtomicLong();
+    private final AtomicLong reusedCount = new AtomicLong();
+    private final AtomicLong recycledCount = new AtomicLong();
+
+    public PooledBufferAllocator() {
+        this(DEFAULT_MIN_POOLED_SIZE, DEFAULT_MAX_POOLED_SIZE, DEFAULT_MAX_POOLED_PER_SIZE);
+    }
+
+    /**
+     * @param minPooledSize    Smallest size class - rounded up to a power of 2
+     * @param maxPooledSize    Largest size class - rounded up to a power of 2
+     * @param maxPooledPerSize Maximum number of free arrays kept per size class
+     */
+    public PooledBufferAllocator(int minPooledSize, int maxPooledSize, int maxPooledPerSize) {
+        ValidateUtils.checkTrue(minPooledSize > 0, "Invalid min. pooled size: %d", minPooledSize);
+        ValidateUtils.checkTrue(maxPooledSize >= minPooledSize,
+                "Max. pooled size (%d) below min. (%d)", maxPooledSize, minPooledSize);
+        ValidateUtils.checkTrue(maxPooledPerSize > 0, "Invalid max. pooled per size: %d", maxPooledPerSize);
+
+        this.minPooledSize = NumberUtils.getNextPowerOf2(minPooledSize);
+        this.maxPooledSize = NumberUtils.getNextPowerOf2(maxPooledSize);
+        ValidateUtils.checkTrue(Integer.bitCount(this.maxPooledSize) == 1,
+                "Max. pooled size too large: %d", maxPooledSize);
+        this.maxPooledPerSize = maxPooledPerSize;
+        this.minSizeShift = Integer.numberOfTrailingZeros(this.minPooledSize);
+
+        int numClasses = Integer.numberOfTrailingZeros(this.maxPooledSize) - minSizeShift + 1;
+        pools = newPoolsArray(numClasses);
+        pooledCounts = new AtomicInteger[numClasses];
+        for (int index = 0; index < numClasses; index++) {
+            pools[index] = new ConcurrentLinkedQueue<>();
+            pooledCounts[index] = new AtomicInteger();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Queue<byte[]>[] newPoolsArray(int numClasses) {
+        return (Queue<byte[]>[]) new Queue<?>[numClasses];
+    }
+
+    public int getMinPooledSize() {
+        return minPooledSize;
+    }
+
+    public int getMaxPooledSize() {
+        return maxPooledSize;
+    }
+
+    public int getMaxPooledPerSize() {
+        return maxPooledPerSize;
+    }
+
+    /**
+     * @return Total number of pooled buffers allocated so far
+     */
+    public long getAllocationsCount() {
+        return allocationsCount.get();
+    }
+
+    /**
+     * @return How many of the {@link #getAllocationsCount() allocations} re-used a recycled array
+     */
+    public long getReusedCount() {
+        return reusedCount.get();
+    }
+
+    /**
+     * @return How many arrays were returned to the pool
+     */
+    public long getRecycledCount() {
+        return recycledCount.get();
+    }
+
+    @Override
+    public Buffer allocate(int size) {
+        ValidateUtils.checkTrue(size >= 0, "Invalid requested size: %d", size);
+        if (size > maxPooledSize) {
+            return new ByteArrayBuffer(size, false);
+        }
+
+        int index = resolveSizeClassIndex(Math.max(size, minPooledSize));
+        byte[] data = pools[index].poll();
+        if (data == null) {
+            data = new byte[minPooledSize << index];
+        } else {
+            pooledCounts[index].decrementAndGet();
+            reusedCount.incrementAndGet();
+        }
+
+        allocationsCount.incrementAndGet();
+        return new PooledByteArrayBuffer(this, data);
+    }
+
+    @Override
+    public Buffer retain(Buffer buffer) {
+        if ((buffer instanceof PooledByteArrayBuffer) && (((PooledByteArrayBuffer) buffer).getAllocator() == this)) {
+            ((PooledByteArrayBuffer) buffer).retain();
+        }
+        return buffer;
+    }
+
+    @Override
+    public boolean release(Buffer buffer) {
+        if (!(buffer instanceof PooledByteArrayBuffer)) {
+            return true;
+        }
+
+        PooledByteArrayBuffer pooled = (PooledByteArrayBuffer) buffer;
+        if (pooled.getAllocator() != this) {
+            return false;
+        }
+
+        if (!pooled.releaseReference()) {
+            return false;
+        }
+
+        // the array may have been replaced if the buffer had to grow
+        recycle(pooled.array());
+        return true;
+    }
+
+    protected void recycle(byte[] data) {
+        int len = data.length;
+        if ((len < minPooledSize) || (len > maxPooledSize) || (Integer.bitCount(len) != 1)) {
+            return;
+        }
+
+        int index = resolveSizeClassIndex(len);
+        AtomicInteger count = pooledCounts[index];
+        if (count.incrementAndGet() > maxPooledPerSize) {
+            count.decrementAndGet();
+            return;
+        }
+
+        pools[index].offer(data);
+        recycledCount.incrementAndGet();
+    }
+
+    protected int resolveSizeClassIndex(int size) {
+        int classSize = NumberUtils.getNextPowerOf2(size);
+        return Integer.numberOfTrailingZeros(classSize) - minSizeShift;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName()
+               + "[min=" + getMinPooledSize()
+               + ", max=" + getMaxPooledSize()
+               + ", perSize=" + getMaxPooledPerSize()
+               + ", allocations=" + getAllocationsCount()
+               + ", reused=" + getReusedCount()
+               + "]";
+    }
+}
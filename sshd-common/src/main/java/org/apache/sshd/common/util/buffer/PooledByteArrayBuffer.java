@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sshd.common.util.buffer;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference counted {@link ByteArrayBuffer} whose backing array is borrowed from a {@link PooledBufferAllocator}. It
+ * starts with a single reference held by whoever allocated it - additional holders should {@link #retain()} it and
+ * then {@link BufferAllocator#release(Buffer) release} it via the allocator when done.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class PooledByteArrayBuffer extends ByteArrayBuffer {
+    private final PooledBufferAllocator allocator;
+    private final AtomicInteger refCount = new AtomicInteger(1);
+
+    public PooledByteArrayBuffer(PooledBufferAllocator allocator, byte[] data) {
+        super(data, false);
+        this.allocator = Objects.requireNonNull(allocator, "No allocator");
+    }
+
+    public PooledBufferAllocator getAllocator() {
+        return allocator;
+    }
+
+    public int refCount() {
+        return refCount.get();
+    }
+
+    /**
+     * Adds a reference to the buffer
+     *
+     * @return                       This buffer
+     * @throws IllegalStateException if the buffer has already been fully released
+     */
+    public PooledByteArrayBuffer retain() {
+        for (int count = refCount.get();; count = refCount.get()) {
+            if (count <= 0) {
+                throw new IllegalStateException("retain(" + this + ") buffer already released");
+            }
+            if (refCount.compareAndSet(count, count + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Removes a reference from the buffer
+     *
+     * @return                       {@code true} if this was the last reference
+     * @throws IllegalStateException if the buffer has already been fully released
+     */
+    protected boolean releaseReference() {
+        for (int count = refCount.get();; count = refCount.get()) {
+            if (count <= 0) {
+                throw new IllegalStateException("release(" + this + ") buffer already released");
+            }
+            if (refCount.compareAndSet(count, count - 1)) {
+                return count == 1;
+            }
+        }
+    }
+}
@@ -18,12 +18,14 @@
  */
 package org.apache.sshd.common.util.threads;
 
+import java.lang.reflect.Method;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -36,6 +38,36 @@ import org.apache.sshd.common.util.ReflectionUtils;
  * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
  */
 public final class ThreadUtils {
+    /**
+     * System property that enables the use of virtual threads (if supported by the JVM) for the executors that run a
+     * single unit of work per session, channel or command - see {@link #newSingleThreadExecutor(String)}
+     */
+    public static final String VIRTUAL_THREADS_PROP = "org.apache.sshd.virtualThreads";
+
+    private static final Method VIRTUAL_BUILDER_NAME_METHOD;
+    private static final Method VIRTUAL_BUILDER_FACTORY_METHOD;
+
+    static {
+        Method nameMethod = null;
+        Method factoryMethod = null;
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            nameMethod = builderType.getMethod("name", String.class, long.class);
+            factoryMethod = builderType.getMethod("factory");
+            // make sure it works - e.g., might be a preview feature that has not been enabled
+            factoryMethod.invoke(nameMethod.invoke(builder, "sshd-probe-", 1L));
+        } catch (Throwable t) { // NOPMD
+            nameMethod = null;
+            factoryMethod = null;
+        }
+
+        VIRTUAL_BUILDER_NAME_METHOD = nameMethod;
+        VIRTUAL_BUILDER_FACTORY_METHOD = factoryMethod;
+    }
+
+    private static volatile Boolean virtualThreadsEnabled;
+
     private ThreadUtils() {
         throw new UnsupportedOperationException("No instance");
     }
@@ -223,7 +255,70 @@ public final class ThreadUtils {
         return new ScheduledThreadPoolExecutor(1, new SshdThreadFactory(poolName));
     }
 
+    /**
+     * @param  poolName The pool name
+     * @return          An executor for running a single unit of work (e.g., a command or a subsystem) - the tasks
+     *                  are executed one after the other in submission order by a single thread, which is a virtual one
+     *                  if {@link #isVirtualThreadsEnabled() virtual threads are enabled}
+     */
     public static CloseableExecutorService newSingleThreadExecutor(String poolName) {
-        return newFixedThreadPool(poolName, 1);
+        if (!isVirtualThreadsEnabled()) {
+            return newFixedThreadPool(poolName, 1);
+        }
+
+        return new SshThreadPoolExecutor(
+                1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                newVirtualThreadFactory(poolName),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * @return {@code true} if the running JVM supports virtual threads
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_BUILDER_FACTORY_METHOD != null;
+    }
+
+    /**
+     * @return {@code true} if virtual threads are supported and enabled - either programmatically or via the
+     *         {@link #VIRTUAL_THREADS_PROP} system property
+     * @see    #setVirtualThreadsEnabled(Boolean)
+     */
+    public static boolean isVirtualThreadsEnabled() {
+        if (!isVirtualThreadsSupported()) {
+            return false;
+        }
+
+        Boolean enabled = virtualThreadsEnabled;
+        return (enabled == null) ? Boolean.getBoolean(VIRTUAL_THREADS_PROP) : enabled;
+    }
+
+    /**
+     * @param enabled Whether to use virtual threads (if supported) - {@code null} reverts to the
+     *                {@link #VIRTUAL_THREADS_PROP} system property value
+     */
+    public static void setVirtualThreadsEnabled(Boolean enabled) {
+        virtualThreadsEnabled = enabled;
+    }
+
+    /**
+     * @param  poolName                      The pool name
+     * @return                               A {@link ThreadFactory} of virtual threads
+     * @throws UnsupportedOperationException If {@link #isVirtualThreadsSupported() virtual threads not supported}
+     */
+    public static ThreadFactory newVirtualThreadFactory(String poolName) {
+        if (!isVirtualThreadsSupported()) {
+            throw new UnsupportedOperationException("Virtual threads not supported");
+        }
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = VIRTUAL_BUILDER_NAME_METHOD.invoke(builder, "sshd-" + poolName.replace(' ', '-') + "-vthread-", 1L);
+            return (ThreadFactory) VIRTUAL_BUILDER_FACTORY_METHOD.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Failed to create virtual threads factory: " + e.getMessage(), e);
+        }
     }
 }
@@ -0,0 +1,383 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.common.util.threads;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.ValidateUtils;
+import org.apache.sshd.common.util.logging.AbstractLoggingBean;
+
+/**
+ * A hashed timer wheel - each {@link Timeout} is placed in the bucket matching its deadline tick, so scheduling,
+ * re-scheduling and cancelling are O(1) regardless of the number of pending timeouts. The wheel does not own a thread -
+ * it is driven by calling {@link #run()} at (roughly) the {@link #getTickDuration() tick} rate, usually via some
+ * {@code ScheduledExecutorService}. Timeouts are never expired before their deadline, but may expire up to one tick
+ * after it. The expired timeouts are reported in batches - i.e., all the ones of the same {@link TimerTask} that
+ * expired on the same {@link #run()} call are reported together.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class TimerWheel extends AbstractLoggingBean implements Runnable {
+    public static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(100L);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Invoked with the batch of expired timeouts
+     */
+    @FunctionalInterface
+    public interface TimerTask {
+        /**
+         * @param  timeouts  The {@link Timeout}s of this task that expired - never empty. A one-shot timeout may be
+         *                   {@link Timeout#reschedule(Duration) re-scheduled} by the task.
+         * @throws Exception If failed to handle the expiration - logged and ignored
+         */
+        void expired(List<Timeout> timeouts) throws Exception;
+    }
+
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_EXPIRED = 1;
+    private static final int STATE_CANCELLED = 2;
+
+    // avoids overflowing the deadline computation for "infinite" delays
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 2;
+
+    private final Object lock = new Object();
+    private final long tickNanos;
+    private final long startNanos;
+    private final Timeout[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    public TimerWheel() {
+        this(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param tickDuration The wheel resolution
+     * @param wheelSize    Number of buckets - rounded up to a power of 2. Timeouts beyond a full revolution of the
+     *                     wheel share the buckets with nearer ones, so the size should cover the commonly used delays.
+     */
+    public TimerWheel(Duration tickDuration, int wheelSize) {
+        ValidateUtils.checkTrue(GenericUtils.isPositive(tickDuration), "Non-positive tick duration: %s", tickDuration);
+        ValidateUtils.checkTrue((wheelSize > 0) && (wheelSize <= (1 << 30)), "Invalid wheel size: %d", wheelSize);
+
+        int numBuckets = (wheelSize == 1) ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = Math.max(1L, tickDuration.toNanos());
+        this.buckets = new Timeout[numBuckets];
+        this.mask = numBuckets - 1;
+        this.startNanos = System.nanoTime();
+    }
+
+    public Duration getTickDuration() {
+        return Duration.ofNanos(tickNanos);
+    }
+
+    public int getWheelSize() {
+        return buckets.length;
+    }
+
+    /**
+     * @return Number of currently pending timeouts
+     */
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * @param  task       The {@link TimerTask} to invoke on expiration
+     * @param  attachment An optional attachment - available via {@link Timeout#getAttachment()}
+     * @param  delay      The delay until expiration - if {@code null}/non-positive then expires on the next tick
+     * @return            The scheduled {@link Timeout}
+     */
+    public Timeout schedule(TimerTask task, Object attachment, Duration delay) {
+        return schedule(task, attachment, delay, 0L);
+    }
+
+    /**
+     * @param  task         The {@link TimerTask} to invoke on each expiration
+     * @param  attachment   An optional attachment - available via {@link Timeout#getAttachment()}
+     * @param  initialDelay The delay until first expiration
+     * @param  period       The (positive) period between successive expirations - if an expiration is missed (e.g.,
+     *                      due to a slow task) it is skipped rather than reported again
+     * @return              The scheduled {@link Timeout} - expires repeatedly until {@link Timeout#cancel()
+     *                      cancelled}
+     */
+    public Timeout scheduleAtFixedRate(TimerTask task, Object attachment, Duration initialDelay, Duration period) {
+        ValidateUtils.checkTrue(GenericUtils.isPositive(period), "Non-positive period: %s", period);
+        long periodTicks = Math.max(1L, (toNanos(period) + tickNanos - 1L) / tickNanos);
+        return schedule(task, attachment, initialDelay, periodTicks);
+    }
+
+    protected Timeout schedule(TimerTask task, Object attachment, Duration delay, long periodTicks) {
+        Timeout timeout = new Timeout(this, ValidateUtils.checkNotNull(task, "No task"), attachment, periodTicks);
+        long now = System.nanoTime();
+        synchronized (lock) {
+            timeout.deadline = toDeadline(now, delay);
+            insert(timeout);
+        }
+        return timeout;
+    }
+
+    /**
+     * Expires all the pending timeouts whose deadline has passed and reports them to their tasks
+     */
+    @Override
+    public void run() {
+        List<Timeout> expired = collectExpired(System.nanoTime());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        Map<TimerTask, List<Timeout>> batches = new LinkedHashMap<>();
+        for (Timeout timeout : expired) {
+            batches.computeIfAbsent(timeout.getTask(), t -> new ArrayList<>()).add(timeout);
+        }
+
+        for (Map.Entry<TimerTask, List<Timeout>> be : batches.entrySet()) {
+            TimerTask task = be.getKey();
+            List<Timeout> timeouts = be.getValue();
+            try {
+                task.expired(Collections.unmodifiableList(timeouts));
+            } catch (Throwable e) {
+                warn("run({}) failed ({}) to handle {} expired timeouts of {}: {}",
+                        this, e.getClass().getSimpleName(), timeouts.size(), task, e.getMessage(), e);
+            }
+        }
+
+        synchronized (lock) {
+            for (Timeout timeout : expired) {
+                // unless cancelled or re-scheduled by the task
+                if ((timeout.periodTicks > 0L) && (timeout.state == STATE_EXPIRED)) {
+                    timeout.deadline = Math.max(timeout.deadline + timeout.periodTicks, currentTick + 1L);
+                    insert(timeout);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels all the pending timeouts
+     *
+     * @return Number of cancelled timeouts
+     */
+    public int clear() {
+        int count = 0;
+        synchronized (lock) {
+            for (int index = 0; index < buckets.length; index++) {
+                for (Timeout timeout = buckets[index]; timeout != null; timeout = buckets[index]) {
+                    unlink(timeout);
+                    timeout.state = STATE_CANCELLED;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    protected List<Timeout> collectExpired(long nowNanos) {
+        List<Timeout> expired = null;
+        synchronized (lock) {
+            long targetTick = (nowNanos - startNanos) / tickNanos;
+            if (targetTick <= currentTick) {
+                return Collections.emptyList();
+            }
+
+            // if lagging by more than a full revolution then each bucket needs to be visited only once
+            for (long tick = Math.max(currentTick + 1L, targetTick - buckets.length + 1L); tick <= targetTick; tick++) {
+                int index = (int) (tick & mask);
+                for (Timeout timeout = buckets[index], next; timeout != null; timeout = next) {
+                    next = timeout.next;
+                    if (timeout.deadline > targetTick) {
+                        continue;   // belongs to some future revolution
+                    }
+
+                    unlink(timeout);
+                    timeout.state = STATE_EXPIRED;
+                    if (expired == null) {
+                        expired = new ArrayList<>();
+                    }
+                    expired.add(timeout);
+                }
+            }
+            currentTick = targetTick;
+        }
+
+        return (expired == null) ? Collections.emptyList() : expired;
+    }
+
+    // NOTE: must be called while holding the lock
+    protected long toDeadline(long nowNanos, Duration delay) {
+        long delayNanos = ((delay == null) || delay.isNegative()) ? 0L : toNanos(delay);
+        // round up so that the timeout never expires before the requested delay
+        long deadline = (nowNanos - startNanos + delayNanos + tickNanos - 1L) / tickNanos;
+        return Math.max(deadline, currentTick + 1L);
+    }
+
+    // NOTE: must be called while holding the lock
+    protected void insert(Timeout timeout) {
+        int index = (int) (timeout.deadline & mask);
+        Timeout head = buckets[index];
+        timeout.bucket = index;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[index] = timeout;
+        timeout.state = STATE_PENDING;
+        size++;
+    }
+
+    // NOTE: must be called while holding the lock
+    protected void unlink(Timeout timeout) {
+        Timeout prev = timeout.prev;
+        Timeout next = timeout.next;
+        if (prev == null) {
+            buckets[timeout.bucket] = next;
+        } else {
+            prev.next = next;
+        }
+        if (next != null) {
+            next.prev = prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        size--;
+    }
+
+    protected static long toNanos(Duration d) {
+        return (d.getSeconds() >= TimeUnit.NANOSECONDS.toSeconds(MAX_DELAY_NANOS)) ? MAX_DELAY_NANOS : d.toNanos();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName()
+               + "[tick=" + getTickDuration()
+               + ", size=" + getWheelSize()
+               + "]";
+    }
+
+    /**
+     * Represents a scheduled expiration of a {@link TimerTask}
+     *
+     * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+     */
+    public static final class Timeout {
+        private final TimerWheel wheel;
+        private final TimerTask task;
+        private final Object attachment;
+        private final long periodTicks;
+        // all the following are guarded by the wheel's lock
+        private long deadline;
+        private int bucket;
+        private int state;
+        private Timeout prev;
+        private Timeout next;
+
+        Timeout(TimerWheel wheel, TimerTask task, Object attachment, long periodTicks) {
+            this.wheel = wheel;
+            this.task = task;
+            this.attachment = attachment;
+            this.periodTicks = periodTicks;
+        }
+
+        public TimerTask getTask() {
+            return task;
+        }
+
+        public Object getAttachment() {
+            return attachment;
+        }
+
+        public boolean isPeriodic() {
+            return periodTicks > 0L;
+        }
+
+        public boolean isExpired() {
+            synchronized (wheel.lock) {
+                return state == STATE_EXPIRED;
+            }
+        }
+
+        public boolean isCancelled() {
+            synchronized (wheel.lock) {
+                return state == STATE_CANCELLED;
+            }
+        }
+
+        /**
+         * Moves the timeout to a new deadline - O(1). May be invoked also after expiration in order to re-use the same
+         * instance (e.g., from within the {@link TimerTask}).
+         *
+         * @param  delay The delay from now until expiration
+         * @return       {@code false} if the timeout has been cancelled
+         */
+        public boolean reschedule(Duration delay) {
+            long now = System.nanoTime();
+            synchronized (wheel.lock) {
+                if (state == STATE_CANCELLED) {
+                    return false;
+                }
+                if (state == STATE_PENDING) {
+                    wheel.unlink(this);
+                }
+                deadline = wheel.toDeadline(now, delay);
+                wheel.insert(this);
+            }
+            return true;
+        }
+
+        /**
+         * @return {@code true} if the timeout was pending (or a periodic one) and is now cancelled
+         */
+        public boolean cancel() {
+            synchronized (wheel.lock) {
+                if (state == STATE_CANCELLED) {
+                    return false;
+                }
+
+                boolean pending = state == STATE_PENDING;
+                if (pending) {
+                    wheel.unlink(this);
+                }
+                state = STATE_CANCELLED;
+                return pending || isPeriodic();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName()
+                   + "[task=" + task
+                   + ", attachment=" + attachment
+                   + ", periodic=" + isPeriodic()
+                   + "]";
+        }
+    }
+}
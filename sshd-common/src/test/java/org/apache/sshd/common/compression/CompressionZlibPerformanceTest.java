@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.common.compression;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.util.test.JUnitTestSupport;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the pooled {@link CompressionZlib} that deflates/inflates directly into the packet buffers against the
+ * previous implementation that allocated new zlib contexts per session and copied the data through a fixed 4KB
+ * temporary buffer.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@Ignore("Special class used for development only - not really a test just useful to run as such")
+public class CompressionZlibPerformanceTest extends JUnitTestSupport {
+    public static final int WARMUP_ROUNDS = 2_000;
+    public static final int MEASURED_ROUNDS = 20_000;
+    public static final int SESSIONS = 20_000;
+
+    public CompressionZlibPerformanceTest() {
+        super();
+    }
+
+    @Test
+    public void testPacketsRoundTrip() throws Exception {
+        for (int payloadSize : new int[] { 64, 1024, 8 * 1024, 32 * 1024 }) {
+            byte[] payload = createPayload(payloadSize);
+            Compression[] current = newPair(CompressionZlib::new);
+            Compression[] legacy = newPair(LegacyCompressionZlib::new);
+            try {
+                measure(current, payload, WARMUP_ROUNDS);
+                measure(legacy, payload, WARMUP_ROUNDS);
+
+                long newTime = measure(current, payload, MEASURED_ROUNDS);
+                long orgTime = measure(legacy, payload, MEASURED_ROUNDS);
+                System.out.append(getCurrentTestName())
+                        .append(String.format(": payload=%5d bytes: %6d down to %6d ms, gain = %d%%",
+                                payloadSize, orgTime, newTime, (int) (100 * (orgTime - newTime) / Math.max(orgTime, 1L))))
+                        .println();
+            } finally {
+                release(current);
+                release(legacy);
+            }
+        }
+    }
+
+    @Test
+    public void testSessionsSetup() throws Exception {
+        byte[] payload = createPayload(Byte.MAX_VALUE);
+        for (int round = 0; round < 2; round++) {
+            long newTime = measureSessions(CompressionZlib::new, payload);
+            long orgTime = measureSessions(LegacyCompressionZlib::new, payload);
+            System.out.append(getCurrentTestName())
+                    .append(String.format(": sessions=%d: %6d down to %6d ms, gain = %d%%",
+                            SESSIONS, orgTime, newTime, (int) (100 * (orgTime - newTime) / Math.max(orgTime, 1L))))
+                    .println();
+        }
+    }
+
+    private static long measureSessions(CompressionFactory factory, byte[] payload) throws IOException {
+        long start = System.nanoTime();
+        for (int index = 0; index < SESSIONS; index++) {
+            Compression[] pair = newPair(factory);
+            try {
+                roundTrip(pair, payload);
+            } finally {
+                release(pair);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static long measure(Compression[] pair, byte[] payload, int rounds) throws IOException {
+        long start = System.nanoTime();
+        for (int index = 0; index < rounds; index++) {
+            roundTrip(pair, payload);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void roundTrip(Compression[] pair, byte[] payload) throws IOException {
+        Buffer buffer = new ByteArrayBuffer(payload.length + Long.SIZE, false);
+        buffer.putRawBytes(payload);
+        pair[0].compress(buffer);
+
+        Buffer uncompressed = new ByteArrayBuffer(payload.length + Long.SIZE, false);
+        pair[1].uncompress(buffer, uncompressed);
+        assertEquals("Mismatched round trip length", payload.length, uncompressed.available());
+    }
+
+    private static Compression[] newPair(CompressionFactory factory) {
+        Compression deflater = factory.create();
+        deflater.init(Compression.Type.Deflater, -1);
+        Compression inflater = factory.create();
+        inflater.init(Compression.Type.Inflater, -1);
+        return new Compression[] { deflater, inflater };
+    }
+
+    private static void release(Compression[] pair) {
+        for (Compression c : pair) {
+            c.release();
+        }
+    }
+
+    // interactive sessions traffic is mostly text
+    private static byte[] createPayload(int size) {
+        byte[] text = CompressionZlibPerformanceTest.class.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[size];
+        for (int index = 0; index < size; index++) {
+            payload[index] = text[(index * 7) % text.length];
+        }
+        return payload;
+    }
+
+    @FunctionalInterface
+    private interface CompressionFactory {
+        Compression create();
+    }
+
+    private static class LegacyCompressionZlib extends BaseCompression {
+        private final byte[] tmpbuf = new byte[4096];
+        private Deflater compresser;
+        private Inflater decompresser;
+
+        LegacyCompressionZlib() {
+            super(BuiltinCompressions.Constants.ZLIB);
+        }
+
+        @Override
+        public boolean isDelayed() {
+            return false;
+        }
+
+        @Override
+        public void init(Type type, int level) {
+            compresser = new Deflater(level);
+            decompresser = new Inflater();
+        }
+
+        @Override
+        public void compress(Buffer buffer) throws IOException {
+            compresser.setInput(buffer.array(), buffer.rpos(), buffer.available());
+            buffer.wpos(buffer.rpos());
+            for (int len = compresser.deflate(tmpbuf, 0, tmpbuf.length, Deflater.SYNC_FLUSH);
+                 len > 0;
+                 len = compresser.deflate(tmpbuf, 0, tmpbuf.length, Deflater.SYNC_FLUSH)) {
+                buffer.putRawBytes(tmpbuf, 0, len);
+            }
+        }
+
+        @Override
+        public void uncompress(Buffer from, Buffer to) throws IOException {
+            decompresser.setInput(from.array(), from.rpos(), from.available());
+            try {
+                for (int len = decompresser.inflate(tmpbuf); len > 0; len = decompresser.inflate(tmpbuf)) {
+                    to.putRawBytes(tmpbuf, 0, len);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Error decompressing data", e);
+            }
+        }
+    }
+}
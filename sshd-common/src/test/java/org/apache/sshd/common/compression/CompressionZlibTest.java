@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.common.compression;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.util.test.CompressionTestSupportUtils;
+import org.apache.sshd.util.test.JUnitTestSupport;
+import org.apache.sshd.util.test.NoIoTestCase;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runners.MethodSorters;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@Category({ NoIoTestCase.class })
+public class CompressionZlibTest extends JUnitTestSupport {
+    public CompressionZlibTest() {
+        super();
+    }
+
+    @Test
+    public void testCompressUncompressStream() throws IOException {
+        ZlibContextPool pool = new ZlibContextPool(1);
+        CompressionZlib deflater = new CompressionZlib(BuiltinCompressions.Constants.ZLIB, pool);
+        CompressionZlib inflater = new CompressionZlib(BuiltinCompressions.Constants.ZLIB, pool);
+        deflater.init(Compression.Type.Deflater, Deflater.BEST_SPEED, Deflater.FILTERED);
+        inflater.init(Compression.Type.Inflater, -1);
+
+        CompressionTestSupportUtils.assertCompressUncompressStream(getCurrentTestName(), deflater, inflater);
+
+        assertEquals("Mismatched idle deflaters", 1, pool.getIdleDeflatersCount());
+        assertEquals("Mismatched idle inflaters", 1, pool.getIdleInflatersCount());
+    }
+
+    @Test
+    public void testReleasedContextsAreReused() throws IOException {
+        ZlibContextPool pool = new ZlibContextPool(ZlibContextPool.DEFAULT_MAX_IDLE);
+        byte[] data = getCurrentTestName().getBytes(StandardCharsets.UTF_8);
+        byte[] expected = null;
+        for (int index = 0; index < Byte.SIZE; index++) {
+            CompressionZlib compression = new CompressionZlib(BuiltinCompressions.Constants.ZLIB, pool);
+            compression.init(Compression.Type.Deflater, -1);
+            Buffer buffer = new ByteArrayBuffer(data.length, false);
+            buffer.putRawBytes(data);
+            compression.compress(buffer);
+            compression.release();
+
+            // a reused context must behave as a fresh one
+            byte[] actual = buffer.getCompactData();
+            if (expected == null) {
+                expected = actual;
+            } else {
+                assertArrayEquals("Mismatched output at round #" + index, expected, actual);
+            }
+            assertEquals("Context not returned at round #" + index, 1, pool.getIdleDeflatersCount());
+        }
+        pool.clear();
+        assertEquals("Pool not cleared", 0, pool.getIdleDeflatersCount());
+    }
+
+    @Test
+    public void testReusedContextWithDifferentParameters() throws IOException {
+        ZlibContextPool pool = new ZlibContextPool(1);
+        byte[] data = getCurrentTestName().getBytes(StandardCharsets.UTF_8);
+        int[][] params = {
+                { Deflater.BEST_COMPRESSION, Deflater.DEFAULT_STRATEGY },
+                { Deflater.BEST_SPEED, Deflater.FILTERED },
+                { Deflater.DEFAULT_COMPRESSION, Deflater.HUFFMAN_ONLY } };
+        for (int[] p : params) {
+            CompressionZlib deflater = new CompressionZlib(BuiltinCompressions.Constants.ZLIB, pool);
+            CompressionZlib inflater = new CompressionZlib(BuiltinCompressions.Constants.ZLIB, pool);
+            deflater.init(Compression.Type.Deflater, p[0], p[1]);
+            inflater.init(Compression.Type.Inflater, -1);
+            try {
+                Buffer buffer = new ByteArrayBuffer(data.length, false);
+                buffer.putRawBytes(data);
+                deflater.compress(buffer);
+
+                // each packet must be fully flushed by the deflater
+                Buffer uncompressed = new ByteArrayBuffer(Byte.SIZE, false);
+                inflater.uncompress(buffer, uncompressed);
+                assertArrayEquals("Mismatched data for level=" + p[0] + ", strategy=" + p[1],
+                        data, uncompressed.getCompactData());
+            } finally {
+                deflater.release();
+                inflater.release();
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCompressAfterRelease() throws IOException {
+        CompressionZlib compression = new CompressionZlib();
+        compression.init(Compression.Type.Deflater, -1);
+        compression.release();
+        compression.compress(new ByteArrayBuffer(new byte[] { 1, 2, 3 }));
+    }
+}
@@ -19,12 +19,18 @@
 
 package org.apache.sshd.common.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.sshd.common.util.threads.CloseableExecutorService;
 import org.apache.sshd.common.util.threads.ThreadUtils;
 import org.apache.sshd.util.test.JUnitTestSupport;
 import org.apache.sshd.util.test.NoIoTestCase;
+import org.junit.Assume;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -70,4 +76,46 @@ public class ThreadUtilsTest extends JUnitTestSupport {
             service.shutdownNow(); // just in case...
         }
     }
+
+    @Test
+    public void testVirtualSingleThreadExecutor() throws Exception {
+        Assume.assumeTrue("Virtual threads not supported", ThreadUtils.isVirtualThreadsSupported());
+
+        ThreadUtils.setVirtualThreadsEnabled(true);
+        try {
+            assertTrue("Virtual threads not enabled", ThreadUtils.isVirtualThreadsEnabled());
+
+            CloseableExecutorService service = ThreadUtils.newSingleThreadExecutor(getCurrentTestName());
+            try {
+                List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+                List<Future<Thread>> futures = new ArrayList<>();
+                for (int index = 0; index < Byte.SIZE; index++) {
+                    int taskIndex = index;
+                    futures.add(service.submit(() -> {
+                        // the first task is slow so that a concurrent execution of the others would overtake it
+                        if (taskIndex == 0) {
+                            Thread.sleep(100L);
+                        }
+                        executed.add(taskIndex);
+                        return Thread.currentThread();
+                    }));
+                }
+
+                Thread first = futures.get(0).get(5L, TimeUnit.SECONDS);
+                assertEquals("Not a virtual thread: " + first, Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(first));
+                assertTrue("Mismatched thread name: " + first, first.getName().contains(getCurrentTestName()));
+                for (Future<Thread> f : futures) {
+                    assertSame("Tasks executed by different threads", first, f.get(5L, TimeUnit.SECONDS));
+                }
+
+                for (int index = 0; index < executed.size(); index++) {
+                    assertEquals("Mismatched execution order at #" + index, Integer.valueOf(index), executed.get(index));
+                }
+            } finally {
+                service.shutdownNow();
+            }
+        } finally {
+            ThreadUtils.setVirtualThreadsEnabled(null);
+        }
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.common.util.buffer;
+
+import java.util.Collection;
+
+import org.apache.sshd.util.test.JUnitTestSupport;
+import org.apache.sshd.util.test.NoIoTestCase;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@Category({ NoIoTestCase.class })
+public class PooledBufferAllocatorTest extends JUnitTestSupport {
+    public PooledBufferAllocatorTest() {
+        super();
+    }
+
+    @Test
+    public void testSizeClassRounding() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator(256, 4096, 4);
+        assertEquals("Mismatched min. class", 256, allocator.allocate(1).capacity());
+        assertEquals("Mismatched exact class", 1024, allocator.allocate(1024).capacity());
+        assertEquals("Mismatched rounded class", 2048, allocator.allocate(1025).capacity());
+
+        Buffer large = allocator.allocate(4097);
+        assertFalse("Unexpected pooled large buffer", large instanceof PooledByteArrayBuffer);
+        assertEquals("Mismatched large buffer capacity", 4097, large.capacity());
+    }
+
+    @Test
+    public void testReleasedArrayIsReused() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator();
+        Buffer buffer = allocator.allocate(Long.SIZE);
+        buffer.putLong(7365L);
+        byte[] data = buffer.array();
+        assertTrue("Single reference not released", allocator.release(buffer));
+
+        Buffer reused = allocator.allocate(Integer.SIZE);
+        assertSame("Array not reused", data, reused.array());
+        assertEquals("Reused buffer not reset", 0, reused.available());
+        assertEquals("Mismatched reuse count", 1L, allocator.getReusedCount());
+    }
+
+    @Test
+    public void testRetainedBufferReleasedOnLastReference() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator();
+        PooledByteArrayBuffer buffer = (PooledByteArrayBuffer) allocator.allocate(Byte.MAX_VALUE);
+        buffer.retain();
+        assertEquals("Mismatched references", 2, buffer.refCount());
+        assertFalse("Released while still referenced", allocator.release(buffer));
+        assertEquals("Nothing should have been recycled", 0L, allocator.getRecycledCount());
+        assertTrue("Last reference not released", allocator.release(buffer));
+        assertEquals("Array not recycled", 1L, allocator.getRecycledCount());
+
+        try {
+            allocator.release(buffer);
+            fail("Unexpected success to release an already released buffer");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPoolSizeIsBounded() {
+        int maxPerSize = 3;
+        PooledBufferAllocator allocator = new PooledBufferAllocator(256, 1024, maxPerSize);
+        Buffer[] buffers = new Buffer[maxPerSize * 2];
+        for (int index = 0; index < buffers.length; index++) {
+            buffers[index] = allocator.allocate(Short.SIZE);
+        }
+        for (Buffer b : buffers) {
+            allocator.release(b);
+        }
+
+        assertEquals("Mismatched recycled count", maxPerSize, allocator.getRecycledCount());
+    }
+
+    @Test
+    public void testLeakDetection() {
+        LeakDetectingBufferAllocator allocator = new LeakDetectingBufferAllocator(new PooledBufferAllocator());
+        Buffer released = allocator.allocate(Byte.SIZE);
+        Buffer leaked = allocator.allocate(Short.SIZE);
+        allocator.release(released);
+
+        Collection<Throwable> leaks = allocator.getLeaks();
+        assertEquals("Mismatched leaks count", 1, leaks.size());
+
+        try {
+            allocator.assertNoLeaks();
+            fail("Unexpected success to detect leaked buffer");
+        } catch (IllegalStateException e) {
+            assertEquals("Mismatched suppressed allocation traces", 1, e.getSuppressed().length);
+        }
+
+        allocator.release(leaked);
+        allocator.assertNoLeaks();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.common.util.threads;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sshd.common.util.threads.TimerWheel.Timeout;
+import org.apache.sshd.util.test.JUnitTestSupport;
+import org.apache.sshd.util.test.NoIoTestCase;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runners.MethodSorters;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@Category({ NoIoTestCase.class })
+public class TimerWheelTest extends JUnitTestSupport {
+    private static final Duration TICK = Duration.ofMillis(10L);
+
+    public TimerWheelTest() {
+        super();
+    }
+
+    @Test
+    public void testWheelSizeRoundedToPowerOf2() {
+        for (int size : new int[] { 1, 2, 3, 7, 8, 100, 512 }) {
+            TimerWheel wheel = new TimerWheel(TICK, size);
+            int actual = wheel.getWheelSize();
+            assertTrue("Not a power of 2: " + actual, Integer.bitCount(actual) == 1);
+            assertTrue("Too small for " + size + ": " + actual, actual >= size);
+            assertTrue("Too large for " + size + ": " + actual, actual < (2 * size));
+        }
+    }
+
+    @Test
+    public void testExpiredNotBeforeDeadline() throws Exception {
+        // use a small wheel so that the delay spans several revolutions
+        TimerWheel wheel = new TimerWheel(TICK, 4);
+        List<Timeout> expired = new ArrayList<>();
+        Duration delay = TICK.multipliedBy(15L);
+        long start = System.nanoTime();
+        Timeout timeout = wheel.schedule(expired::addAll, getCurrentTestName(), delay);
+        assertEquals("Mismatched pending count", 1, wheel.size());
+
+        while (expired.isEmpty()) {
+            wheel.run();
+            Thread.sleep(TICK.toMillis() / 2L);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        assertTrue("Expired too early: " + elapsed, elapsed.compareTo(delay) >= 0);
+        assertEquals("Mismatched expiration count", 1, expired.size());
+        assertSame("Mismatched timeout", timeout, expired.get(0));
+        assertEquals("Mismatched attachment", getCurrentTestName(), timeout.getAttachment());
+        assertTrue("Not marked as expired", timeout.isExpired());
+        assertEquals("Expired timeout still pending", 0, wheel.size());
+    }
+
+    @Test
+    public void testExpiredReportedInBatches() throws Exception {
+        TimerWheel wheel = new TimerWheel(TICK, 8);
+        List<List<Timeout>> batches = new ArrayList<>();
+        TimerWheel.TimerTask task = timeouts -> batches.add(new ArrayList<>(timeouts));
+        List<Timeout> other = new ArrayList<>();
+        for (int index = 0; index < Byte.SIZE; index++) {
+            wheel.schedule(task, index, TICK.multipliedBy(index % 3L));
+            wheel.schedule(other::addAll, index, TICK);
+        }
+
+        Thread.sleep(TICK.multipliedBy(5L).toMillis());
+        wheel.run();
+
+        assertEquals("Mismatched batches count", 1, batches.size());
+        assertEquals("Mismatched batch size", Byte.SIZE, batches.get(0).size());
+        assertEquals("Mismatched other task expirations", Byte.SIZE, other.size());
+        assertEquals("Timeouts still pending", 0, wheel.size());
+    }
+
+    @Test
+    public void testRescheduleAndCancel() throws Exception {
+        TimerWheel wheel = new TimerWheel(TICK, 8);
+        AtomicInteger count = new AtomicInteger();
+        Timeout rescheduled = wheel.schedule(timeouts -> count.addAndGet(timeouts.size()), null, TICK);
+        Timeout cancelled = wheel.schedule(timeouts -> count.addAndGet(timeouts.size()), null, TICK);
+        assertTrue("Not rescheduled", rescheduled.reschedule(Duration.ofMinutes(1L)));
+        assertTrue("Not cancelled", cancelled.cancel());
+        assertFalse("Cancelled twice", cancelled.cancel());
+        assertFalse("Rescheduled after cancel", cancelled.reschedule(TICK));
+        assertEquals("Mismatched pending count", 1, wheel.size());
+
+        Thread.sleep(TICK.multipliedBy(5L).toMillis());
+        wheel.run();
+        assertEquals("Unexpected expirations", 0, count.get());
+
+        assertTrue("Not rescheduled again", rescheduled.reschedule(Duration.ZERO));
+        Thread.sleep(TICK.multipliedBy(2L).toMillis());
+        wheel.run();
+        assertEquals("Mismatched expirations", 1, count.get());
+    }
+
+    @Test
+    public void testPeriodicTimeout() throws Exception {
+        TimerWheel wheel = new TimerWheel(TICK, 8);
+        AtomicInteger count = new AtomicInteger();
+        Timeout timeout = wheel.scheduleAtFixedRate(timeouts -> count.incrementAndGet(), null, TICK, TICK.multipliedBy(2L));
+        for (int index = 0; count.get() < 3; index++) {
+            assertTrue("Too many rounds: " + index, index < 100);
+            Thread.sleep(TICK.toMillis());
+            wheel.run();
+        }
+
+        assertEquals("Periodic timeout not re-inserted", 1, wheel.size());
+        assertTrue("Not cancelled", timeout.cancel());
+        assertEquals("Cancelled timeout still pending", 0, wheel.size());
+
+        int expected = count.get();
+        Thread.sleep(TICK.multipliedBy(5L).toMillis());
+        wheel.run();
+        assertEquals("Cancelled periodic timeout expired", expected, count.get());
+    }
+
+    @Test
+    public void testClear() {
+        TimerWheel wheel = new TimerWheel(TICK, 4);
+        List<Timeout> timeouts = new ArrayList<>();
+        for (int index = 0; index < Byte.SIZE; index++) {
+            timeouts.add(wheel.schedule(t -> fail("Unexpected expiration"), index, TICK.multipliedBy(index)));
+        }
+
+        assertEquals("Mismatched cleared count", timeouts.size(), wheel.clear());
+        assertEquals("Timeouts still pending", 0, wheel.size());
+        for (Timeout timeout : timeouts) {
+            assertTrue("Not cancelled: " + timeout, timeout.isCancelled());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.util.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.sshd.common.compression.Compression;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.junit.Assert;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public final class CompressionTestSupportUtils {
+    /**
+     * Mix of small packets, highly compressible large ones (even sizes) and incompressible ones (odd sizes)
+     */
+    private static final int[] STREAM_PACKET_SIZES = { 1, 7, 128, 4096, 32768, 65536, 3, 100_000 };
+
+    private CompressionTestSupportUtils() {
+        throw new UnsupportedOperationException("No instance");
+    }
+
+    /**
+     * Compresses a sequence of packets as a single stream and verifies that each one is uncompressed back to its
+     * original data - the {@link Compression}s are released when done
+     *
+     * @param  text        The text used to generate the compressible packets
+     * @param  deflater    The {@link Compression} initialized for {@link Compression.Type#Deflater}
+     * @param  inflater    The {@link Compression} initialized for {@link Compression.Type#Inflater}
+     * @throws IOException If failed to compress or uncompress
+     */
+    public static void assertCompressUncompressStream(String text, Compression deflater, Compression inflater)
+            throws IOException {
+        Random rnd = new Random(System.nanoTime());
+        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            for (int size : STREAM_PACKET_SIZES) {
+                byte[] data = new byte[size];
+                if ((size % 2) == 0) {
+                    for (int index = 0; index < size; index++) {
+                        data[index] = textBytes[index % textBytes.length];
+                    }
+                } else {
+                    rnd.nextBytes(data);
+                }
+
+                // simulate the packet header preceding the payload
+                Buffer buffer = new ByteArrayBuffer(Long.SIZE + size, false);
+                buffer.putLong(size);
+                buffer.rpos(Long.BYTES);
+                buffer.putRawBytes(data);
+                deflater.compress(buffer);
+                Assert.assertEquals("Mismatched compressed data start", Long.BYTES, buffer.rpos());
+
+                Buffer uncompressed = new ByteArrayBuffer(Byte.SIZE, false);
+                inflater.uncompress(buffer, uncompressed);
+                Assert.assertArrayEquals("Mismatched data for size=" + size, data, uncompressed.getCompactData());
+            }
+        } finally {
+            deflater.release();
+            inflater.release();
+        }
+    }
+}
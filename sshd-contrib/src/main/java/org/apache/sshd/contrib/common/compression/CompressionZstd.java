@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.contrib.common.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.apache.sshd.common.compression.BaseCompression;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.io.IoUtils;
+import org.apache.sshd.contrib.common.util.io.ExposedBufferByteArrayOutputStream;
+
+/**
+ * Zstandard based compression - each packet is flushed as one or more zstd blocks of a single (never ending) frame so
+ * that the peer can decompress it as soon as it is received. <B>Note:</B> requires the (optional) {@code zstd-jni}
+ * artifact - use the {@link ZstdCompressionFactory} which checks its availability.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class CompressionZstd extends BaseCompression {
+    /**
+     * Default zstd level - provides better ratio than zlib at a fraction of its CPU cost
+     */
+    public static final int DEFAULT_LEVEL = 3;
+
+    private static final int BUF_SIZE = 8192;
+
+    private final byte[] tmpbuf = new byte[BUF_SIZE];
+    private ExposedBufferByteArrayOutputStream compressed;
+    private ZstdOutputStream compressor;
+    private PacketInputStream packet;
+    private ZstdInputStream decompressor;
+
+    public CompressionZstd() {
+        this(ZstdCompressionFactory.NAME);
+    }
+
+    protected CompressionZstd(String name) {
+        super(name);
+    }
+
+    /**
+     * Compression is delayed until the user is authenticated - same as {@code zlib@openssh.com}
+     */
+    @Override
+    public boolean isDelayed() {
+        return true;
+    }
+
+    /**
+     * @param type  compression type
+     * @param level zstd compression level - if non-positive then {@link #DEFAULT_LEVEL} is used
+     */
+    @Override
+    public void init(Type type, int level) {
+        release();
+        try {
+            if (type == Type.Deflater) {
+                compressed = new ExposedBufferByteArrayOutputStream(BUF_SIZE);
+                compressor = new ZstdOutputStream(compressed, (level > 0) ? level : DEFAULT_LEVEL);
+            } else {
+                packet = new PacketInputStream();
+                decompressor = new ZstdInputStream(packet);
+                // do not fail on the (by design) unfinished frame
+                decompressor.setContinuous(true);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to initialize " + getName() + " " + type + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void compress(Buffer buffer) throws IOException {
+        if (compressor == null) {
+            throw new IOException("Compression not initialized or already released");
+        }
+
+        compressed.reset();
+        compressor.write(buffer.array(), buffer.rpos(), buffer.available());
+        compressor.flush();
+
+        buffer.wpos(buffer.rpos());
+        buffer.putRawBytes(compressed.getBuffer(), 0, compressed.size());
+    }
+
+    @Override
+    public void uncompress(Buffer from, Buffer to) throws IOException {
+        if (decompressor == null) {
+            throw new IOException("Decompression not initialized or already released");
+        }
+
+        packet.setData(from.array(), from.rpos(), from.available());
+        for (int len = decompressor.read(tmpbuf); len > 0; len = decompressor.read(tmpbuf)) {
+            to.putRawBytes(tmpbuf, 0, len);
+        }
+    }
+
+    @Override
+    public void release() {
+        IoUtils.closeQuietly(compressor, decompressor);
+        compressor = null;
+        compressed = null;
+        decompressor = null;
+        packet = null;
+    }
+
+    /**
+     * Feeds the current packet's data to the decompressor - reports EOF once the packet is exhausted
+     */
+    protected static class PacketInputStream extends InputStream {
+        private byte[] data;
+        private int pos;
+        private int end;
+
+        protected PacketInputStream() {
+            super();
+        }
+
+        public void setData(byte[] data, int offset, int len) {
+            this.data = data;
+            this.pos = offset;
+            this.end = offset + len;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return (pos < end) ? (data[pos++] & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int remaining = end - pos;
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int count = Math.min(remaining, len);
+            System.arraycopy(data, pos, b, off, count);
+            pos += count;
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return Math.max(0, end - pos);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.contrib.common.compression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.common.NamedResource;
+import org.apache.sshd.common.compression.BuiltinCompressions;
+import org.apache.sshd.common.compression.Compression;
+import org.apache.sshd.common.compression.CompressionFactory;
+import org.apache.sshd.common.kex.KexFactoryManager;
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.ValidateUtils;
+
+/**
+ * Provides {@link CompressionZstd} under a private name. Since the name is negotiated like any other compression the
+ * algorithm is used only if both peers support it - otherwise the next mutually supported one (e.g., {@code zlib}) is
+ * selected.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class ZstdCompressionFactory implements CompressionFactory {
+    public static final String NAME = "zstd@sshd.apache.org";
+
+    public static final ZstdCompressionFactory INSTANCE = new ZstdCompressionFactory();
+
+    private static final String ZSTD_CLASS_NAME = "com.github.luben.zstd.Zstd";
+
+    private static volatile Boolean supported;
+
+    public ZstdCompressionFactory() {
+        super();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isDelayed() {
+        return true;
+    }
+
+    @Override
+    public boolean isCompressionExecuted() {
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the {@code zstd-jni} artifact is available and its native library can be loaded
+     */
+    @Override
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            result = checkSupported();
+            supported = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Compression create() {
+        ValidateUtils.checkState(isSupported(), "%s not supported", NAME);
+        return new CompressionZstd();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    /**
+     * Registers the factory as a {@link BuiltinCompressions} extension so it can be referenced by name - e.g., in
+     * configuration files
+     *
+     * @return {@code true} if registered - {@code false} if not supported or already registered
+     */
+    public static boolean registerExtension() {
+        if ((!INSTANCE.isSupported()) || (BuiltinCompressions.resolveFactory(NAME) != null)) {
+            return false;
+        }
+
+        BuiltinCompressions.registerExtension(INSTANCE);
+        return true;
+    }
+
+    /**
+     * Adds the factory (if supported) as the most preferred compression of the manager - the existing ones are kept
+     * as fallback in case the peer does not support it
+     *
+     * @param  manager The {@link KexFactoryManager} to update
+     * @return         {@code true} if the factory was added
+     */
+    public static boolean setupCompressionFactories(KexFactoryManager manager) {
+        List<NamedFactory<Compression>> current = manager.getCompressionFactories();
+        if ((!INSTANCE.isSupported())
+                || (NamedResource.findByName(NAME, String.CASE_INSENSITIVE_ORDER, current) != null)) {
+            return false;
+        }
+
+        List<NamedFactory<Compression>> factories = new ArrayList<>(GenericUtils.size(current) + 1);
+        factories.add(INSTANCE);
+        if (GenericUtils.isNotEmpty(current)) {
+            factories.addAll(current);
+        }
+        manager.setCompressionFactories(factories);
+        return true;
+    }
+
+    private static boolean checkSupported() {
+        try {
+            Class<?> zstd = Class.forName(ZSTD_CLASS_NAME, true, ZstdCompressionFactory.class.getClassLoader());
+            // forces the native library loading
+            zstd.getMethod("maxCompressionLevel").invoke(null);
+            return true;
+        } catch (Throwable t) { // NOPMD - including LinkageError(s) of missing native libraries
+            return false;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.contrib.common.compression;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.channel.ChannelShell;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.compression.BuiltinCompressions;
+import org.apache.sshd.common.compression.Compression;
+import org.apache.sshd.common.kex.KexProposalOption;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.apache.sshd.util.test.CompressionTestSupportUtils;
+import org.apache.sshd.util.test.CoreTestSupportUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ZstdCompressionTest extends BaseTestSupport {
+    public ZstdCompressionTest() {
+        super();
+    }
+
+    @Before
+    public void ensureZstdSupported() {
+        Assume.assumeTrue("zstd not supported", ZstdCompressionFactory.INSTANCE.isSupported());
+    }
+
+    @Test
+    public void testCompressUncompressStream() throws Exception {
+        Compression deflater = ZstdCompressionFactory.INSTANCE.create();
+        deflater.init(Compression.Type.Deflater, -1);
+        Compression inflater = ZstdCompressionFactory.INSTANCE.create();
+        inflater.init(Compression.Type.Inflater, -1);
+
+        CompressionTestSupportUtils.assertCompressUncompressStream(getCurrentTestName(), deflater, inflater);
+    }
+
+    @Test
+    public void testNegotiatedIfSupportedByBothPeers() throws Exception {
+        testNegotiation(true, ZstdCompressionFactory.NAME);
+    }
+
+    @Test
+    public void testFallbackIfNotSupportedByPeer() throws Exception {
+        testNegotiation(false, BuiltinCompressions.Constants.DELAYED_ZLIB);
+    }
+
+    private void testNegotiation(boolean clientZstd, String expected) throws Exception {
+        SshServer sshd = CoreTestSupportUtils.setupTestServer(getClass());
+        sshd.setCompressionFactories(Arrays.asList(BuiltinCompressions.delayedZlib, BuiltinCompressions.none));
+        assertTrue("Server factories not updated", ZstdCompressionFactory.setupCompressionFactories(sshd));
+        sshd.start();
+
+        SshClient client = CoreTestSupportUtils.setupTestClient(getClass());
+        client.setCompressionFactories(Arrays.asList(BuiltinCompressions.delayedZlib, BuiltinCompressions.none));
+        if (clientZstd) {
+            assertTrue("Client factories not updated", ZstdCompressionFactory.setupCompressionFactories(client));
+        }
+        client.start();
+
+        try (ClientSession session = createAuthenticatedClientSession(client, sshd.getPort());
+             ChannelShell channel = session.createShellChannel()) {
+            for (KexProposalOption option : new KexProposalOption[] { KexProposalOption.C2SCOMP, KexProposalOption.S2CCOMP }) {
+                assertEquals("Mismatched " + option, expected, session.getNegotiatedKexParameter(option));
+            }
+
+            channel.open().verify(OPEN_TIMEOUT);
+            try (BufferedWriter writer = new BufferedWriter(
+                    new OutputStreamWriter(channel.getInvertedIn(), StandardCharsets.UTF_8));
+                 BufferedReader reader = new BufferedReader(
+                         new InputStreamReader(channel.getInvertedOut(), StandardCharsets.UTF_8))) {
+                for (int index = 0; index < Byte.SIZE; index++) {
+                    String message = getCurrentTestName() + "-" + index;
+                    writer.write(message);
+                    writer.write("\n");
+                    writer.flush();
+                    assertEquals("Mismatched message #" + index, message, reader.readLine());
+                }
+            }
+        } finally {
+            client.stop();
+            sshd.stop(true);
+        }
+    }
+}
@@ -52,6 +52,7 @@ import org.apache.sshd.client.auth.password.PasswordIdentityProvider;
 import org.apache.sshd.client.auth.password.UserAuthPasswordFactory;
 import org.apache.sshd.client.auth.pubkey.PublicKeyAuthenticationReporter;
 import org.apache.sshd.client.auth.pubkey.UserAuthPublicKeyFactory;
+import org.apache.sshd.client.channel.DirectTcpipIoSession;
 import org.apache.sshd.client.config.hosts.HostConfigEntry;
 import org.apache.sshd.client.config.hosts.HostConfigEntryResolver;
 import org.apache.sshd.client.config.keys.ClientIdentity;
@@ -67,7 +68,6 @@ import org.apache.sshd.client.session.ClientProxyConnector;
 import org.apache.sshd.client.session.ClientSession;
 import org.apache.sshd.client.session.ClientUserAuthServiceFactory;
 import org.apache.sshd.client.session.SessionFactory;
-import org.apache.sshd.client.session.forward.ExplicitPortForwardingTracker;
 import org.apache.sshd.client.simple.AbstractSimpleClientSessionCreator;
 import org.apache.sshd.client.simple.SimpleClient;
 import org.apache.sshd.common.AttributeRepository;
@@ -92,6 +92,7 @@ import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.io.resource.PathResource;
 import org.apache.sshd.common.util.net.SshdSocketAddress;
 import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.forward.SharedTcpipConnector;
 
 /**
  * <P>
@@ -485,7 +486,7 @@ public class SshClient extends AbstractFactoryManager implements ClientFactoryMa
         Object closeId = toString();
         return builder()
                 .run(closeId, () -> removeSessionTimeout(sessionFactory))
-                .sequential(connector, ioServiceFactory)
+                .sequential(removeAttribute(SharedTcpipConnector.SHARED_CONNECTOR), connector, ioServiceFactory)
                 .run(closeId, () -> {
                     connector = null;
                     ioServiceFactory = null;
@@ -573,27 +574,12 @@ public class SshClient extends AbstractFactoryManager implements ClientFactoryMa
                         AuthFuture auth = proxySession.auth();
                         auth.addListener(f3 -> {
                             if (f3.isSuccess()) {
+                                SshdSocketAddress address
+                                        = new SshdSocketAddress(hostConfig.getHostName(), hostConfig.getPort());
                                 try {
-                                    SshdSocketAddress address
-                                            = new SshdSocketAddress(hostConfig.getHostName(), hostConfig.getPort());
-                                    ExplicitPortForwardingTracker tracker = proxySession
-                                            .createLocalPortForwardingTracker(SshdSocketAddress.LOCALHOST_ADDRESS, address);
-                                    SshdSocketAddress bound = tracker.getBoundAddress();
-                                    ConnectFuture f4 = doConnect(hostConfig.getUsername(), bound.toInetSocketAddress(),
-                                            context, localAddress, keys, !hostConfig.isIdentitiesOnly());
-                                    f4.addListener(f5 -> {
-                                        if (f5.isConnected()) {
-                                            ClientSession clientSession = f5.getClientSession();
-                                            clientSession.setAttribute(TARGET_SERVER, address);
-                                            connectFuture.setSession(clientSession);
-                                            proxySession.addCloseFutureListener(f6 -> clientSession.close(true));
-                                            clientSession.addCloseFutureListener(f6 -> proxySession.close(true));
-                                        } else {
-                                            proxySession.close(true);
-                                            connectFuture.setException(f5.getException());
-                                        }
-                                    });
-                                } catch (IOException e) {
+                                    connectThroughProxy(proxySession, username, address, connectFuture, context,
+                                            keys, !hostConfig.isIdentitiesOnly());
+                                } catch (IOException | RuntimeException e) {
                                     proxySession.close(true);
                                     connectFuture.setException(e);
                                 }
@@ -617,6 +603,54 @@ public class SshClient extends AbstractFactoryManager implements ClientFactoryMa
         }
     }
 
+    /**
+     * Connects to the target through a {@code direct-tcpip} channel of an authenticated proxy (jump) session - the
+     * target session runs directly on top of the channel without any intermediate socket
+     *
+     * @param  proxySession         The authenticated proxy {@link ClientSession}
+     * @param  username             The username for the target session
+     * @param  address              The target address as seen by the proxy
+     * @param  connectFuture        The {@link ConnectFuture} to be signalled once the target session is created
+     * @param  context              Optional context to associate with the target session
+     * @param  identities           The {@link KeyIdentityProvider} for the target session
+     * @param  useDefaultIdentities Whether to use the default identities in addition to the provided ones
+     * @throws IOException          If failed to open the channel
+     */
+    protected void connectThroughProxy(
+            ClientSession proxySession, String username, SshdSocketAddress address, ConnectFuture connectFuture,
+            AttributeRepository context, KeyIdentityProvider identities, boolean useDefaultIdentities)
+            throws IOException {
+        DirectTcpipIoSession ioSession = new DirectTcpipIoSession(
+                proxySession, getSessionFactory(), SshdSocketAddress.LOCALHOST_ADDRESS, address);
+        if (context != null) {
+            ioSession.setAttribute(AttributeRepository.class, context);
+        }
+
+        ioSession.open().addListener(f -> {
+            if (!f.isOpened()) {
+                proxySession.close(true);
+                connectFuture.setException(f.getException());
+                return;
+            }
+
+            try {
+                onConnectOperationComplete(ioSession, connectFuture, username, address, identities, useDefaultIdentities);
+            } catch (RuntimeException e) {
+                warn("connectThroughProxy({}@{}) failed ({}) to signal completion of session={}: {}",
+                        username, address, e.getClass().getSimpleName(), ioSession, e.getMessage(), e);
+                connectFuture.setException(e);
+                ioSession.close(true);
+                proxySession.close(true);
+                return;
+            }
+
+            ClientSession clientSession = connectFuture.getClientSession();
+            clientSession.setAttribute(TARGET_SERVER, address);
+            proxySession.addCloseFutureListener(f6 -> clientSession.close(true));
+            clientSession.addCloseFutureListener(f6 -> proxySession.close(true));
+        });
+    }
+
     protected ConnectFuture doConnect(
             String username, SocketAddress targetAddress,
             AttributeRepository context, SocketAddress localAddress,
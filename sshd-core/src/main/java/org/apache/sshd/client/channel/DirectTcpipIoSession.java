@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.client.channel;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.WriteAbortedException;
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sshd.client.future.OpenFuture;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.channel.IoWriteFutureImpl;
+import org.apache.sshd.common.channel.Window;
+import org.apache.sshd.common.future.CloseFuture;
+import org.apache.sshd.common.io.IoHandler;
+import org.apache.sshd.common.io.IoOutputStream;
+import org.apache.sshd.common.io.IoService;
+import org.apache.sshd.common.io.IoSession;
+import org.apache.sshd.common.io.IoWriteFuture;
+import org.apache.sshd.common.session.ConnectionService;
+import org.apache.sshd.common.util.ValidateUtils;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.common.util.closeable.AbstractCloseable;
+import org.apache.sshd.common.util.net.SshdSocketAddress;
+
+/**
+ * An {@link IoSession} that runs on top of a {@code direct-tcpip} channel of another (proxy) session instead of a
+ * socket - e.g., when connecting through jump hosts. The data written to this session is sent as-is as the channel's
+ * data, and the data received on the channel is handed directly to the {@link IoHandler} - i.e., no local port
+ * forwarding is required, and a chain of jump hosts involves only in-memory hand-overs.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class DirectTcpipIoSession extends AbstractCloseable implements IoSession {
+    private static final AtomicLong SESSION_ID_GENERATOR = new AtomicLong(100L);
+
+    private final long id = SESSION_ID_GENERATOR.incrementAndGet();
+    private final IoHandler ioHandler;
+    private final IoSessionChannel channel;
+    private final Map<Object, Object> attributes = new HashMap<>();
+    private final Queue<IoWriteFutureImpl> writes = new LinkedList<>();
+    private final Object earlyDataLock = new Object();
+    private Buffer earlyData;
+    private boolean created;
+
+    /**
+     * @param  proxySession The {@link ClientSession} through which the target is reached - must be authenticated
+     * @param  handler      The {@link IoHandler} to be informed of this session's events - usually the session factory
+     * @param  local        The originator address reported to the proxy - if {@code null} then local host is used
+     * @param  remote       The target address to be reached from the proxy
+     * @throws IOException  If failed to register the channel
+     */
+    public DirectTcpipIoSession(
+                                ClientSession proxySession, IoHandler handler, SshdSocketAddress local,
+                                SshdSocketAddress remote)
+                                                          throws IOException {
+        this.ioHandler = Objects.requireNonNull(handler, "No IoHandler");
+        this.channel = new IoSessionChannel(local, remote);
+        this.channel.setStreaming(ClientChannel.Streaming.Async);
+
+        ConnectionService service = Objects.requireNonNull(
+                proxySession.getService(ConnectionService.class), "No connection service");
+        service.registerChannel(channel);
+        // if the proxy closes the channel then this session is gone as well
+        channel.addCloseFutureListener(f -> close(true));
+    }
+
+    public ChannelDirectTcpip getChannel() {
+        return channel;
+    }
+
+    public IoHandler getIoHandler() {
+        return ioHandler;
+    }
+
+    /**
+     * Opens the underlying channel - once open, {@link IoHandler#sessionCreated(IoSession)} is invoked before any data
+     * is received on it
+     *
+     * @return             The channel's {@link OpenFuture}
+     * @throws IOException If failed to send the open request
+     */
+    public OpenFuture open() throws IOException {
+        return channel.open();
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public SocketAddress getAcceptanceAddress() {
+        return null;    // we always initiate the connection
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return channel.getRemoteSocketAddress();
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return channel.getLocalSocketAddress();
+    }
+
+    @Override
+    public Object getAttribute(Object key) {
+        synchronized (attributes) {
+            return attributes.get(key);
+        }
+    }
+
+    @Override
+    public Object setAttribute(Object key, Object value) {
+        synchronized (attributes) {
+            return attributes.put(key, value);
+        }
+    }
+
+    @Override
+    public Object setAttributeIfAbsent(Object key, Object value) {
+        synchronized (attributes) {
+            return attributes.putIfAbsent(key, value);
+        }
+    }
+
+    @Override
+    public Object removeAttribute(Object key) {
+        synchronized (attributes) {
+            return attributes.remove(key);
+        }
+    }
+
+    /**
+     * @return {@code null} - the session is not managed by any {@link IoService}
+     */
+    @Override
+    public IoService getService() {
+        return null;
+    }
+
+    @Override
+    public IoWriteFuture writeBuffer(Buffer buffer) throws IOException {
+        if (isClosing()) {
+            throw new EOFException("Closing: " + state);
+        }
+
+        // the channel stream accepts only one pending write at a time, so queue the rest
+        IoWriteFutureImpl future = new IoWriteFutureImpl(this, buffer);
+        boolean startWrite;
+        synchronized (writes) {
+            writes.add(future);
+            startWrite = writes.size() == 1;
+        }
+
+        if (startWrite) {
+            startWriting(future);
+        }
+        return future;
+    }
+
+    protected void startWriting(IoWriteFutureImpl future) {
+        try {
+            IoOutputStream out = ValidateUtils.checkNotNull(channel.getAsyncIn(), "Channel not open: %s", channel);
+            IoWriteFuture written = out.writeBuffer(future.getBuffer());
+            written.addListener(f -> onWritten(future, f.getException()));
+        } catch (IOException | RuntimeException e) {
+            onWritten(future, e);
+        }
+    }
+
+    protected void onWritten(IoWriteFutureImpl future, Throwable reason) {
+        IoWriteFutureImpl next;
+        synchronized (writes) {
+            writes.remove(future);
+            next = writes.peek();
+        }
+
+        if (reason == null) {
+            future.setValue(Boolean.TRUE);
+        } else {
+            debug("onWritten({}) failed ({}) to write: {}",
+                    this, reason.getClass().getSimpleName(), reason.getMessage(), reason);
+            future.setValue(reason);
+            close(true);
+            return;
+        }
+
+        if (next != null) {
+            startWriting(next);
+        }
+    }
+
+    @Override
+    public void shutdownOutputStream() throws IOException {
+        if (channel.isOpen()) {
+            if (log.isDebugEnabled()) {
+                log.debug("shutdownOutputStream({})", this);
+            }
+            channel.shutdownOutput();
+        }
+    }
+
+    /**
+     * Invoked once the channel is open in order to create the session
+     *
+     * @throws Exception If failed to create the session
+     */
+    protected void sessionCreated() throws Exception {
+        IoHandler handler = getIoHandler();
+        handler.sessionCreated(this);
+
+        // the proxy may relay the target's data even before confirming the channel open
+        Buffer pending;
+        synchronized (earlyDataLock) {
+            pending = earlyData;
+            earlyData = null;
+            created = true;
+        }
+
+        if (pending != null) {
+            handler.messageReceived(this, pending);
+        }
+    }
+
+    /**
+     * Invoked when data is received on the channel
+     *
+     * @param  data      The data array
+     * @param  off       Offset of the data in the array
+     * @param  len       Data length
+     * @throws Exception If failed to process the data
+     */
+    protected void messageReceived(byte[] data, int off, int len) throws Exception {
+        synchronized (earlyDataLock) {
+            if (!created) {
+                if (earlyData == null) {
+                    earlyData = new ByteArrayBuffer(len + Byte.MAX_VALUE, false);
+                }
+                earlyData.putRawBytes(data, off, len);
+                return;
+            }
+        }
+
+        IoHandler handler = getIoHandler();
+        handler.messageReceived(this, new ByteArrayBuffer(data, off, len));
+    }
+
+    @Override
+    protected CloseFuture doCloseGracefully() {
+        Object closeId = toString();
+        synchronized (writes) {
+            return builder()
+                    .when(closeId, writes)
+                    .build()
+                    .close(false);
+        }
+    }
+
+    @Override
+    protected void doCloseImmediately() {
+        while (true) {
+            IoWriteFutureImpl future;
+            synchronized (writes) {
+                future = writes.poll();
+            }
+            if (future == null) {
+                break;
+            }
+
+            if ((!future.isWritten()) && (future.getException() == null)) {
+                future.setValue(new WriteAbortedException("Write request aborted due to immediate session close", null));
+            }
+        }
+
+        channel.close(true);
+        super.doCloseImmediately();
+
+        IoHandler handler = getIoHandler();
+        try {
+            handler.sessionClosed(this);
+        } catch (Throwable e) {
+            debug("doCloseImmediately({}) {} while calling IoHandler#sessionClosed: {}",
+                    this, e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+
+        synchronized (attributes) {
+            attributes.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + channel + "]";
+    }
+
+    /**
+     * The {@code direct-tcpip} channel backing the session
+     */
+    protected class IoSessionChannel extends ChannelDirectTcpip {
+        protected IoSessionChannel(SshdSocketAddress local, SshdSocketAddress remote) {
+            super(local, remote);
+        }
+
+        @Override
+        protected void doOpen() throws IOException {
+            super.doOpen();
+
+            try {
+                sessionCreated();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed (" + e.getClass().getSimpleName() + ") to create session: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        protected void doWriteData(byte[] data, int off, long len) throws IOException {
+            if (isClosing()) {
+                return;
+            }
+
+            ValidateUtils.checkTrue(len <= Integer.MAX_VALUE, "Data length exceeds int boundaries: %d", len);
+            try {
+                messageReceived(data, off, (int) len);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed (" + e.getClass().getSimpleName() + ") to handle message: " + e.getMessage(), e);
+            }
+
+            // the data has been fully consumed by the session
+            Window wLocal = getLocalWindow();
+            wLocal.consumeAndCheck(len);
+        }
+
+        protected void shutdownOutput() throws IOException {
+            sendEof();
+        }
+
+        @Override
+        protected void doWriteExtendedData(byte[] data, int off, long len) throws IOException {
+            if (log.isDebugEnabled()) {
+                log.debug("doWriteExtendedData({}) ignored {} bytes", this, len);
+            }
+            getLocalWindow().consumeAndCheck(len);
+        }
+    }
+}
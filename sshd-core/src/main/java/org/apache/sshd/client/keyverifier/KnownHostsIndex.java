@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.client.keyverifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.apache.sshd.client.config.hosts.HostPatternValue;
+import org.apache.sshd.client.config.hosts.KnownHostEntry;
+import org.apache.sshd.client.config.hosts.KnownHostHashValue;
+import org.apache.sshd.client.keyverifier.KnownHostsServerKeyVerifier.HostEntryPair;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.common.RuntimeSshException;
+import org.apache.sshd.common.mac.Mac;
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.NumberUtils;
+import org.apache.sshd.common.util.buffer.BufferUtils;
+import org.apache.sshd.common.util.net.SshdSocketAddress;
+
+/**
+ * An immutable lookup index over a snapshot of loaded known hosts entries. The entries are split into 3 groups:
+ * <UL>
+ * <LI>Plain host names/addresses - looked up directly by their (case insensitive) name and effective port.</LI>
+ *
+ * <LI>Hashed entries - grouped by their digester and salt value, so that a candidate host is hashed only once per
+ * distinct salt and the result looked up in the group's digest values. The per-host outcome of this (costly) lookup is
+ * also cached.</LI>
+ *
+ * <LI>Everything else (wildcards, negations, custom patterns) - scanned linearly, but only up to the best match found
+ * so far via the previous groups.</LI>
+ * </UL>
+ * The result is the same as scanning the entries in their original order and returning the first one that matches any
+ * of the candidates.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class KnownHostsIndex {
+    /**
+     * Default maximum number of cached hashed lookup results
+     */
+    public static final int DEFAULT_MAX_CACHED_HASH_LOOKUPS = 1024;
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final Collection<HostEntryPair> source;
+    private final List<HostEntryPair> entries;
+    private final Map<String, Integer> plainHosts = new HashMap<>();
+    private final List<SaltedDigests> hashedGroups;
+    private final int[] unindexedPositions;
+    private final int maxCachedHashLookups;
+    private final Map<String, Integer> hashLookups;
+
+    public KnownHostsIndex(Collection<HostEntryPair> knownHosts) {
+        this(knownHosts, DEFAULT_MAX_CACHED_HASH_LOOKUPS);
+    }
+
+    /**
+     * @param knownHosts           The {@link HostEntryPair}s to index - <B>Note:</B> the collection is assumed not to
+     *                             be modified after the index is built
+     * @param maxCachedHashLookups Maximum number of hashed lookup results to cache - non-positive means no caching
+     */
+    public KnownHostsIndex(Collection<HostEntryPair> knownHosts, int maxCachedHashLookups) {
+        this.source = knownHosts;
+        this.entries = GenericUtils.isEmpty(knownHosts) ? new ArrayList<>() : new ArrayList<>(knownHosts);
+        this.maxCachedHashLookups = maxCachedHashLookups;
+
+        Map<String, SaltedDigests> groups = new LinkedHashMap<>();
+        int[] unindexed = new int[entries.size()];
+        int numUnindexed = 0;
+        for (int position = 0; position < entries.size(); position++) {
+            HostEntryPair pair = entries.get(position);
+            KnownHostEntry entry = (pair == null) ? null : pair.getHostEntry();
+            if (entry == null) {
+                continue;   // cannot match anything anyway
+            }
+
+            if (!indexHostPatterns(entry.getPatterns(), position)
+                    || !indexHashedEntry(entry.getHashedEntry(), position, groups)) {
+                unindexed[numUnindexed++] = position;
+            }
+        }
+
+        this.hashedGroups = new ArrayList<>(groups.values());
+        this.unindexedPositions = Arrays.copyOf(unindexed, numUnindexed);
+        this.hashLookups = hashedGroups.isEmpty() || (maxCachedHashLookups <= 0)
+                ? null : new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param  knownHosts The entries to check
+     * @return            {@code true} if this index was built from the same (unmodified) collection instance
+     */
+    public boolean isIndexOf(Collection<HostEntryPair> knownHosts) {
+        return (source == knownHosts) && (GenericUtils.size(knownHosts) == entries.size());
+    }
+
+    /**
+     * @return Number of indexed entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Number of distinct digester + salt combinations among the hashed entries
+     */
+    public int getHashedGroupsCount() {
+        return hashedGroups.size();
+    }
+
+    /**
+     * @return Number of entries that have to be scanned linearly
+     */
+    public int getUnindexedCount() {
+        return unindexedPositions.length;
+    }
+
+    /**
+     * @param  candidates       The host network identities to match
+     * @return                  The first entry (in original order) that matches any of the candidates - {@code null}
+     *                          if no match found
+     * @throws RuntimeException If failed to calculate a hash value or to evaluate a non-indexed entry
+     */
+    public HostEntryPair findMatch(Collection<SshdSocketAddress> candidates) {
+        if (entries.isEmpty() || GenericUtils.isEmpty(candidates)) {
+            return null;
+        }
+
+        int best = NO_MATCH;
+        for (SshdSocketAddress host : candidates) {
+            String hostName = host.getHostName();
+            if (GenericUtils.isEmpty(hostName)) {
+                continue;
+            }
+
+            int port = host.getPort();
+            Integer position = plainHosts.get(toPlainHostKey(hostName, port));
+            if (position != null) {
+                best = Math.min(best, position);
+            }
+
+            if (!hashedGroups.isEmpty()) {
+                best = Math.min(best, findHashedMatch(hostName, port));
+            }
+        }
+
+        for (int position : unindexedPositions) {
+            if (position >= best) {
+                break;  // positions are ascending
+            }
+
+            KnownHostEntry entry = entries.get(position).getHostEntry();
+            for (SshdSocketAddress host : candidates) {
+                if (entry.isHostMatch(host.getHostName(), host.getPort())) {
+                    return entries.get(position);
+                }
+            }
+        }
+
+        return (best == NO_MATCH) ? null : entries.get(best);
+    }
+
+    protected int findHashedMatch(String host, int port) {
+        String hostPattern = KnownHostHashValue.createHostPattern(host, port);
+        Integer cached = (hashLookups == null) ? null : hashLookups.get(hostPattern);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] hostBytes = hostPattern.getBytes(StandardCharsets.UTF_8);
+        Map<String, Mac> macs = new HashMap<>();
+        int best = NO_MATCH;
+        try {
+            for (SaltedDigests group : hashedGroups) {
+                if (group.firstPosition >= best) {
+                    continue;
+                }
+
+                NamedFactory<Mac> digester = group.digester;
+                Mac mac = macs.computeIfAbsent(digester.getName(), name -> digester.create());
+                mac.init(group.salt);
+                mac.update(hostBytes);
+                Integer position = group.digests.get(new DigestValue(mac.doFinal()));
+                if (position != null) {
+                    best = Math.min(best, position);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeSshException(
+                    "Failed (" + e.getClass().getSimpleName() + ") to calculate hash value: " + e.getMessage(), e);
+        }
+
+        // the index is immutable so the result remains valid - just don't let it grow unbounded
+        if ((hashLookups != null) && (hashLookups.size() < maxCachedHashLookups)) {
+            hashLookups.put(hostPattern, best);
+        }
+        return best;
+    }
+
+    /**
+     * @param  patterns The entry's plain patterns
+     * @param  position The entry's position
+     * @return          {@code true} if all the patterns (if any) were indexed
+     */
+    protected boolean indexHostPatterns(Collection<HostPatternValue> patterns, int position) {
+        if (GenericUtils.isEmpty(patterns)) {
+            return true;
+        }
+
+        // make sure all patterns are indexable before registering any of them
+        List<String> keys = new ArrayList<>(patterns.size());
+        for (HostPatternValue pv : patterns) {
+            String host = (pv == null) || pv.isNegated() ? null : toSpecificHostName(pv.getPattern());
+            if (host == null) {
+                return false;
+            }
+            keys.add(toPlainHostKey(host, pv.getPort()));
+        }
+
+        for (String key : keys) {
+            plainHosts.putIfAbsent(key, position);
+        }
+        return true;
+    }
+
+    protected boolean indexHashedEntry(KnownHostHashValue hash, int position, Map<String, SaltedDigests> groups) {
+        if (hash == null) {
+            return true;
+        }
+
+        NamedFactory<Mac> digester = hash.getDigester();
+        byte[] salt = hash.getSaltValue();
+        byte[] digest = hash.getDigestValue();
+        if ((digester == null) || NumberUtils.isEmpty(salt) || NumberUtils.isEmpty(digest)) {
+            return false;
+        }
+
+        String groupKey = digester.getName() + ":" + BufferUtils.toHex(BufferUtils.EMPTY_HEX_SEPARATOR, salt);
+        SaltedDigests group = groups.computeIfAbsent(groupKey, k -> new SaltedDigests(digester, salt, position));
+        group.digests.putIfAbsent(new DigestValue(digest), position);
+        return true;
+    }
+
+    /**
+     * @param  pattern The compiled host {@link Pattern}
+     * @return         The literal host name/address it matches - {@code null} if not a specific host pattern
+     * @see            org.apache.sshd.client.config.hosts.HostPatternsHolder#toPattern(CharSequence)
+     */
+    public static String toSpecificHostName(Pattern pattern) {
+        if ((pattern == null) || ((pattern.flags() & Pattern.CASE_INSENSITIVE) == 0)) {
+            return null;
+        }
+
+        String regex = pattern.pattern();
+        int len = GenericUtils.length(regex);
+        if (len <= 0) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(len);
+        for (int index = 0; index < len; index++) {
+            char ch = regex.charAt(index);
+            if (ch == '\\') {
+                index++;
+                if ((index >= len) || (regex.charAt(index) != '.')) {
+                    return null;
+                }
+                sb.append('.');
+            } else if (((ch >= 'a') && (ch <= 'z')) || ((ch >= 'A') && (ch <= 'Z')) || ((ch >= '0') && (ch <= '9'))
+                    || ("-_:%".indexOf(ch) >= 0)) {
+                sb.append(ch);
+            } else {
+                return null;    // a wildcard or some custom regular expression
+            }
+        }
+
+        return sb.toString();
+    }
+
+    protected static String toPlainHostKey(String host, int port) {
+        return KnownHostHashValue.createHostPattern(host.toLowerCase(Locale.ROOT), port);
+    }
+
+    protected static class SaltedDigests {
+        protected final NamedFactory<Mac> digester;
+        protected final byte[] salt;
+        protected final int firstPosition;
+        protected final Map<DigestValue, Integer> digests = new HashMap<>();
+
+        protected SaltedDigests(NamedFactory<Mac> digester, byte[] salt, int firstPosition) {
+            this.digester = Objects.requireNonNull(digester, "No digester");
+            this.salt = salt;
+            this.firstPosition = firstPosition;
+        }
+    }
+
+    protected static class DigestValue {
+        private final byte[] value;
+        private final int hash;
+
+        protected DigestValue(byte[] value) {
+            this.value = value;
+            this.hash = Arrays.hashCode(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if ((obj == null) || (getClass() != obj.getClass())) {
+                return false;
+            }
+            return Arrays.equals(value, ((DigestValue) obj).value);
+        }
+    }
+}
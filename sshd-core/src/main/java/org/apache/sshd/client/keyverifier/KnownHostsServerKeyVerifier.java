@@ -122,6 +122,7 @@ public class KnownHostsServerKeyVerifier
     private final ServerKeyVerifier delegate;
     private final AtomicReference<Supplier<? extends Collection<HostEntryPair>>> keysSupplier
             = new AtomicReference<>(getKnownHostSupplier(null, getPath()));
+    private final AtomicReference<KnownHostsIndex> knownHostsIndex = new AtomicReference<>();
     private ModifiedServerKeyAcceptor modKeyAcceptor;
 
     public KnownHostsServerKeyVerifier(ServerKeyVerifier delegate, Path file) {
@@ -508,6 +509,31 @@ public class KnownHostsServerKeyVerifier
             return null;
         }
 
+        KnownHostsIndex index = resolveKnownHostsIndex(clientSession, knownHosts);
+        if (index != null) {
+            try {
+                HostEntryPair match = index.findMatch(candidates);
+                if (debugEnabled) {
+                    log.debug("findKnownHostEntry({})[{}] matched entry={} for candidates={}",
+                            clientSession, remoteAddress, match, candidates);
+                }
+                return match;
+            } catch (RuntimeException | Error e) {
+                // let the full scan report (and skip) the offending entry
+                if (debugEnabled) {
+                    log.debug("findKnownHostEntry({})[{}] failed ({}) to use index: {}",
+                            clientSession, remoteAddress, e.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+        }
+
+        return scanKnownHostEntries(clientSession, remoteAddress, candidates, knownHosts);
+    }
+
+    protected HostEntryPair scanKnownHostEntries(
+            ClientSession clientSession, SocketAddress remoteAddress,
+            Collection<SshdSocketAddress> candidates, Collection<HostEntryPair> knownHosts) {
+        boolean debugEnabled = log.isDebugEnabled();
         for (HostEntryPair match : knownHosts) {
             KnownHostEntry entry = match.getHostEntry();
             for (SshdSocketAddress host : candidates) {
@@ -530,6 +556,48 @@ public class KnownHostsServerKeyVerifier
         return null; // no match found
     }
 
+    /**
+     * @param  clientSession The {@link ClientSession} that triggered the lookup
+     * @param  knownHosts    The currently loaded entries
+     * @return               The {@link KnownHostsIndex} built for these entries - re-built only if the entries have been
+     *                       reloaded since last call. If {@code null} then entries are scanned linearly
+     * @see                  #createKnownHostsIndex(ClientSession, Collection)
+     */
+    protected KnownHostsIndex resolveKnownHostsIndex(ClientSession clientSession, Collection<HostEntryPair> knownHosts) {
+        KnownHostsIndex index = knownHostsIndex.get();
+        if ((index != null) && index.isIndexOf(knownHosts)) {
+            return index;
+        }
+
+        // avoid several sessions indexing the same (potentially large) reloaded entries
+        synchronized (knownHostsIndex) {
+            index = knownHostsIndex.get();
+            if ((index != null) && index.isIndexOf(knownHosts)) {
+                return index;
+            }
+
+            index = createKnownHostsIndex(clientSession, knownHosts);
+            knownHostsIndex.set(index);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("resolveKnownHostsIndex({}) indexed {} entries - hashed groups={}, unindexed={}",
+                    clientSession, (index == null) ? 0 : index.size(),
+                    (index == null) ? 0 : index.getHashedGroupsCount(),
+                    (index == null) ? 0 : index.getUnindexedCount());
+        }
+        return index;
+    }
+
+    /**
+     * @param  clientSession The {@link ClientSession} that triggered the indexing
+     * @param  knownHosts    The entries to index
+     * @return               The {@link KnownHostsIndex} to use - if {@code null} then entries are scanned linearly
+     */
+    protected KnownHostsIndex createKnownHostsIndex(ClientSession clientSession, Collection<HostEntryPair> knownHosts) {
+        return new KnownHostsIndex(knownHosts);
+    }
+
     /**
      * Called if failed to reload known hosts - by default invokes
      * {@link #acceptUnknownHostKey(ClientSession, SocketAddress, PublicKey)}
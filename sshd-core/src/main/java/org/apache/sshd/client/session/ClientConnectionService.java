@@ -20,9 +20,6 @@ package org.apache.sshd.client.session;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.sshd.agent.common.AgentForwardSupport;
 import org.apache.sshd.common.FactoryManager;
@@ -33,6 +30,7 @@ import org.apache.sshd.common.session.Session;
 import org.apache.sshd.common.session.helpers.AbstractConnectionService;
 import org.apache.sshd.common.util.GenericUtils;
 import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.threads.TimerWheel;
 import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.server.x11.X11ForwardSupport;
 
@@ -48,7 +46,7 @@ public class ClientConnectionService
     protected final Duration heartbeatInterval;
     protected final Duration heartbeatReplyMaxWait;
     /** Non-null only if using the &quot;keep-alive&quot; request mechanism */
-    protected ScheduledFuture<?> clientHeartbeat;
+    protected TimerWheel.Timeout clientHeartbeat;
 
     public ClientConnectionService(AbstractClientSession s) throws SshException {
         super(s);
@@ -78,15 +76,14 @@ public class ClientConnectionService
     }
 
     @Override
-    protected synchronized ScheduledFuture<?> startHeartBeat() {
-        if (!GenericUtils.isNegativeOrNull(heartbeatInterval) && GenericUtils.isNotEmpty(heartbeatRequest)) {
+    protected synchronized TimerWheel.Timeout startHeartBeat() {
+        ClientSession session = getClientSession();
+        FactoryManager manager = session.getFactoryManager();
+        TimerWheel wheel = manager.getTimerWheel();
+        if ((wheel != null) && !GenericUtils.isNegativeOrNull(heartbeatInterval) && GenericUtils.isNotEmpty(heartbeatRequest)) {
             stopHeartBeat();
 
-            ClientSession session = getClientSession();
-            FactoryManager manager = session.getFactoryManager();
-            ScheduledExecutorService service = manager.getScheduledExecutorService();
-            clientHeartbeat = service.scheduleAtFixedRate(
-                    this::sendHeartBeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+            clientHeartbeat = wheel.scheduleAtFixedRate(timeouts -> sendHeartBeat(), session, heartbeatInterval, heartbeatInterval);
             if (log.isDebugEnabled()) {
                 log.debug("startHeartbeat({}) - started at interval={} with request={}",
                         session, heartbeatInterval, heartbeatRequest);
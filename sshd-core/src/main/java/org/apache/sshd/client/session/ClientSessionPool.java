@@ -0,0 +1,469 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.client.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.config.hosts.HostConfigEntry;
+import org.apache.sshd.client.future.ConnectFuture;
+import org.apache.sshd.common.SshException;
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.ValidateUtils;
+import org.apache.sshd.common.util.logging.AbstractLoggingBean;
+import org.apache.sshd.common.util.threads.TimerWheel;
+import org.apache.sshd.core.CoreModuleProperties;
+
+/**
+ * Leases authenticated {@link ClientSession}s so that consecutive (or concurrent) usages targeting the same host and
+ * user share a session instead of each one paying for the connection, key exchange and authentication (a.k.a.
+ * OpenSSH's &quot;ControlMaster&quot;). Each {@link Lease} accounts for one channel on the leased session - a session
+ * is leased until it reaches its channels limit, after which a new session is established - up to the per-host limit.
+ * Sessions that were not leased for a while are closed.
+ *
+ * <pre>
+ * try (ClientSessionPool.Lease lease = pool.lease(username, host, port);
+ *      ChannelExec channel = lease.getClientSession().createExecChannel(command)) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ * @see    CoreModuleProperties#SESSION_POOL_MAX_CHANNELS
+ * @see    CoreModuleProperties#SESSION_POOL_MAX_SESSIONS
+ * @see    CoreModuleProperties#SESSION_POOL_IDLE_TIMEOUT
+ * @see    CoreModuleProperties#SESSION_POOL_LEASE_TIMEOUT
+ */
+public class ClientSessionPool extends AbstractLoggingBean implements Closeable {
+    private final SshClient client;
+    private final int maxChannels;
+    private final int maxSessions;
+    private final Duration idleTimeout;
+    private final Duration leaseTimeout;
+    private final Map<SessionKey, HostSessions> hosts = new HashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private TimerWheel.Timeout evictionTimeout;
+
+    public ClientSessionPool(SshClient client) {
+        this.client = Objects.requireNonNull(client, "No client");
+        this.maxChannels = Math.min(CoreModuleProperties.SESSION_POOL_MAX_CHANNELS.getRequired(client),
+                CoreModuleProperties.MAX_CONCURRENT_CHANNELS.getRequired(client));
+        ValidateUtils.checkTrue(maxChannels > 0, "Invalid max. channels per session: %d", maxChannels);
+        this.maxSessions = CoreModuleProperties.SESSION_POOL_MAX_SESSIONS.getRequired(client);
+        ValidateUtils.checkTrue(maxSessions > 0, "Invalid max. sessions per host: %d", maxSessions);
+        this.idleTimeout = CoreModuleProperties.SESSION_POOL_IDLE_TIMEOUT.getRequired(client);
+        this.leaseTimeout = CoreModuleProperties.SESSION_POOL_LEASE_TIMEOUT.getRequired(client);
+    }
+
+    public SshClient getClient() {
+        return client;
+    }
+
+    public int getMaxChannels() {
+        return maxChannels;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public Duration getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * @return Number of currently pooled sessions - including leased ones
+     */
+    public int getSessionsCount() {
+        synchronized (hosts) {
+            int count = 0;
+            for (HostSessions hs : hosts.values()) {
+                count += hs.sessions.size();
+            }
+            return count;
+        }
+    }
+
+    public Lease lease(String username, String host, int port) throws IOException {
+        SessionKey key = new SessionKey(username, host, port, null, Collections.emptyList(), false);
+        return lease(key, () -> client.connect(username, host, port));
+    }
+
+    public Lease lease(HostConfigEntry hostConfig) throws IOException {
+        Objects.requireNonNull(hostConfig, "No host configuration");
+        SessionKey key = new SessionKey(
+                hostConfig.getUsername(), hostConfig.getHostName(), hostConfig.getPort(),
+                hostConfig.getProxyJump(), hostConfig.getIdentities(), hostConfig.isIdentitiesOnly());
+        return lease(key, () -> client.connect(hostConfig));
+    }
+
+    protected Lease lease(SessionKey key, SessionConnector connector) throws IOException {
+        long deadline = System.nanoTime() + leaseTimeout.toNanos();
+        HostSessions hs;
+        List<PooledSession> unhealthy = new ArrayList<>();
+        try {
+            synchronized (hosts) {
+                while (true) {
+                    if (!isOpen()) {
+                        throw new SshException("Session pool is closed");
+                    }
+
+                    hs = hosts.computeIfAbsent(key, k -> new HostSessions());
+                    PooledSession leased = hs.lease(this, unhealthy);
+                    if (leased != null) {
+                        return new Lease(this, key, leased);
+                    }
+
+                    if ((hs.sessions.size() + hs.pendingConnects) < maxSessions) {
+                        hs.pendingConnects++;
+                        break;
+                    }
+
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0L) {
+                        throw new SshException("No session available for " + key + " within " + leaseTimeout);
+                    }
+
+                    try {
+                        hosts.wait(remaining);
+                    } catch (InterruptedException e) {
+                        throw (IOException) new InterruptedIOException(
+                                "Interrupted while waiting for a session to " + key).initCause(e);
+                    }
+                }
+            }
+        } finally {
+            for (PooledSession ps : unhealthy) {
+                ps.session.close(true);
+            }
+        }
+
+        // connect outside the lock so other hosts (and leases of existing sessions) are not blocked
+        ClientSession session = null;
+        try {
+            Duration remaining = Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0L));
+            session = connector.connect().verify(remaining).getClientSession();
+            session.auth().verify(Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0L)));
+        } catch (IOException | RuntimeException e) {
+            synchronized (hosts) {
+                hs.pendingConnects--;
+                hosts.notifyAll();
+            }
+            if (session != null) {
+                session.close(true);
+            }
+            throw e;
+        }
+
+        PooledSession created = new PooledSession(session);
+        synchronized (hosts) {
+            hs.pendingConnects--;
+            if (isOpen()) {
+                hs.sessions.add(created);
+                created.leases = 1;
+            }
+        }
+
+        if (!isOpen()) {
+            session.close(true);
+            throw new SshException("Session pool closed while connecting to " + key);
+        }
+
+        session.addCloseFutureListener(f -> removeSession(key, created));
+        scheduleIdleEviction();
+        if (log.isDebugEnabled()) {
+            log.debug("lease({}) created {}", key, session);
+        }
+        return new Lease(this, key, created);
+    }
+
+    /**
+     * Checks if a pooled session can still be leased - by default checks that it is open and authenticated
+     *
+     * @param  session The {@link ClientSession} to check
+     * @return         {@code true} if OK to lease
+     */
+    protected boolean isHealthy(ClientSession session) {
+        return session.isOpen() && session.isAuthenticated();
+    }
+
+    protected void release(SessionKey key, PooledSession ps) {
+        synchronized (hosts) {
+            ps.leases--;
+            if (ps.leases <= 0) {
+                ps.leases = 0;
+                ps.idleSince = System.nanoTime();
+            }
+            hosts.notifyAll();
+        }
+    }
+
+    protected void removeSession(SessionKey key, PooledSession ps) {
+        synchronized (hosts) {
+            HostSessions hs = hosts.get(key);
+            if ((hs != null) && hs.sessions.remove(ps)) {
+                if (hs.sessions.isEmpty() && (hs.pendingConnects <= 0)) {
+                    hosts.remove(key);
+                }
+                hosts.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Closes the sessions that have not been leased for more than the {@link #getIdleTimeout() idle timeout}
+     *
+     * @return Number of closed sessions
+     */
+    public int evictIdleSessions() {
+        long now = System.nanoTime();
+        long maxIdle = idleTimeout.toNanos();
+        List<ClientSession> evicted = new ArrayList<>();
+        synchronized (hosts) {
+            for (Iterator<HostSessions> hsIter = hosts.values().iterator(); hsIter.hasNext();) {
+                HostSessions hs = hsIter.next();
+                for (Iterator<PooledSession> psIter = hs.sessions.iterator(); psIter.hasNext();) {
+                    PooledSession ps = psIter.next();
+                    if ((ps.leases <= 0) && ((now - ps.idleSince) >= maxIdle)) {
+                        psIter.remove();
+                        evicted.add(ps.session);
+                    }
+                }
+
+                if (hs.sessions.isEmpty() && (hs.pendingConnects <= 0)) {
+                    hsIter.remove();
+                }
+            }
+        }
+
+        for (ClientSession session : evicted) {
+            if (log.isDebugEnabled()) {
+                log.debug("evictIdleSessions({}) closing idle session", session);
+            }
+            session.close(false);
+        }
+        return evicted.size();
+    }
+
+    protected void scheduleIdleEviction() {
+        if (!GenericUtils.isPositive(idleTimeout)) {
+            return;
+        }
+
+        TimerWheel wheel = client.getTimerWheel();
+        if (wheel == null) {
+            return;
+        }
+
+        synchronized (hosts) {
+            if ((evictionTimeout != null) || (!isOpen())) {
+                return;
+            }
+            evictionTimeout = wheel.scheduleAtFixedRate(t -> evictIdleSessions(), this, idleTimeout, idleTimeout);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        List<ClientSession> sessions = new ArrayList<>();
+        synchronized (hosts) {
+            if (evictionTimeout != null) {
+                evictionTimeout.cancel();
+                evictionTimeout = null;
+            }
+
+            for (HostSessions hs : hosts.values()) {
+                for (PooledSession ps : hs.sessions) {
+                    sessions.add(ps.session);
+                }
+            }
+            hosts.clear();
+            hosts.notifyAll();
+        }
+
+        for (ClientSession session : sessions) {
+            session.close(true);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + client + "]";
+    }
+
+    @FunctionalInterface
+    protected interface SessionConnector {
+        ConnectFuture connect() throws IOException;
+    }
+
+    /**
+     * A leased session - must be {@link #close() closed} once no longer used by the lessee in order to return it to the
+     * pool. <B>Note:</B> closing the lease does not close the session (nor any channels opened on it).
+     */
+    public static class Lease implements ClientSessionHolder, Closeable {
+        private final ClientSessionPool pool;
+        private final SessionKey key;
+        private final PooledSession pooled;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        protected Lease(ClientSessionPool pool, SessionKey key, PooledSession pooled) {
+            this.pool = pool;
+            this.key = key;
+            this.pooled = pooled;
+        }
+
+        @Override
+        public ClientSession getClientSession() {
+            return pooled.session;
+        }
+
+        public boolean isReleased() {
+            return released.get();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released.compareAndSet(false, true)) {
+                pool.release(key, pooled);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[" + key + "]: " + getClientSession();
+        }
+    }
+
+    protected static class SessionKey {
+        private final String username;
+        private final String host;
+        private final int port;
+        private final String proxyJump;
+        private final List<String> identities;
+        private final boolean identitiesOnly;
+
+        protected SessionKey(String username, String host, int port, String proxyJump,
+                             Collection<String> identities, boolean identitiesOnly) {
+            this.username = username;
+            this.host = ValidateUtils.checkNotNullAndNotEmpty(host, "No target host");
+            this.port = port;
+            this.proxyJump = proxyJump;
+            this.identities = GenericUtils.isEmpty(identities) ? Collections.emptyList() : new ArrayList<>(identities);
+            this.identitiesOnly = identitiesOnly;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, host, port, proxyJump, identities, identitiesOnly);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if ((obj == null) || (getClass() != obj.getClass())) {
+                return false;
+            }
+
+            SessionKey other = (SessionKey) obj;
+            return (port == other.port)
+                    && (identitiesOnly == other.identitiesOnly)
+                    && Objects.equals(username, other.username)
+                    && Objects.equals(host, other.host)
+                    && Objects.equals(proxyJump, other.proxyJump)
+                    && Objects.equals(identities, other.identities);
+        }
+
+        @Override
+        public String toString() {
+            return username + "@" + host + ":" + port
+                   + (GenericUtils.isEmpty(proxyJump) ? "" : " via " + proxyJump);
+        }
+    }
+
+    protected static class PooledSession {
+        protected final ClientSession session;
+        protected int leases;
+        protected long idleSince = System.nanoTime();
+
+        protected PooledSession(ClientSession session) {
+            this.session = Objects.requireNonNull(session, "No session");
+        }
+    }
+
+    protected static class HostSessions {
+        protected final List<PooledSession> sessions = new ArrayList<>();
+        protected int pendingConnects;
+
+        /**
+         * Picks the busiest healthy session that still has room for another channel - thus leaving the others to
+         * become idle and be evicted when the load decreases
+         *
+         * @param  pool      The owning {@link ClientSessionPool}
+         * @param  unhealthy A {@link List} to which the removed unhealthy sessions are added
+         * @return           The leased {@link PooledSession} - {@code null} if none available
+         */
+        protected PooledSession lease(ClientSessionPool pool, List<PooledSession> unhealthy) {
+            PooledSession best = null;
+            for (Iterator<PooledSession> iter = sessions.iterator(); iter.hasNext();) {
+                PooledSession ps = iter.next();
+                if (!pool.isHealthy(ps.session)) {
+                    iter.remove();
+                    unhealthy.add(ps);
+                    continue;
+                }
+
+                if ((ps.leases < pool.getMaxChannels()) && ((best == null) || (ps.leases > best.leases))) {
+                    best = ps;
+                }
+            }
+
+            if (best != null) {
+                best.leases++;
+            }
+            return best;
+        }
+    }
+}
@@ -40,6 +40,8 @@ import org.apache.sshd.common.session.SessionDisconnectHandlerManager;
 import org.apache.sshd.common.session.SessionHeartbeatController;
 import org.apache.sshd.common.session.SessionListenerManager;
 import org.apache.sshd.common.session.UnknownChannelReferenceHandlerManager;
+import org.apache.sshd.common.util.buffer.BufferAllocatorManager;
+import org.apache.sshd.common.util.threads.TimerWheel;
 import org.apache.sshd.server.forward.AgentForwardingFilter;
 import org.apache.sshd.server.forward.ForwardingFilter;
 import org.apache.sshd.server.forward.TcpForwardingFilter;
@@ -61,7 +63,8 @@ public interface FactoryManager
         PortForwardingEventListenerManager,
         IoServiceEventListenerManager,
         AttributeStore,
-        SessionHeartbeatController {
+        SessionHeartbeatController,
+        BufferAllocatorManager {
 
     /**
      * The default {@code REPORTED_VERSION} of {@link FactoryManager#getVersion()} if the built-in version information
@@ -107,6 +110,17 @@ public interface FactoryManager
      */
     ScheduledExecutorService getScheduledExecutorService();
 
+    /**
+     * Retrieve the {@link TimerWheel} used to track the sessions authentication/idle timeouts and heartbeats. It is
+     * driven by the {@link #getScheduledExecutorService() scheduled executor} and available only while the manager is
+     * started.
+     *
+     * @return The {@link TimerWheel} - {@code null} if not started or not supported (default)
+     */
+    default TimerWheel getTimerWheel() {
+        return null;
+    }
+
     /**
      * Retrieve the <code>ForwardingFilter</code> to be used by the SSH server. If no filter has been configured (i.e.
      * this method returns {@code null}), then all forwarding requests will be rejected.
@@ -100,10 +100,20 @@ public class BufferedIoOutputStream extends AbstractInnerCloseable implements Io
     protected Closeable getInnerCloseable() {
         return builder()
                 .when(getId(), writes)
+                .run(getId(), this::abortPendingWrites)
                 .close(out)
                 .build();
     }
 
+    /**
+     * Fails the writes that are still pending when closed immediately - nothing is pending if closed gracefully
+     */
+    protected void abortPendingWrites() {
+        for (IoWriteFutureImpl future = writes.poll(); future != null; future = writes.poll()) {
+            future.setValue(new EOFException("Closed before written - state=" + state));
+        }
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "[" + out + "]";
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.sshd.common.FactoryManager;
 import org.apache.sshd.common.SshConstants;
 import org.apache.sshd.common.channel.throttle.ChannelStreamWriter;
 import org.apache.sshd.common.future.CloseFuture;
@@ -31,15 +32,30 @@ import org.apache.sshd.common.io.IoWriteFuture;
 import org.apache.sshd.common.io.WritePendingException;
 import org.apache.sshd.common.session.Session;
 import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.BufferAllocator;
 import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
 import org.apache.sshd.common.util.closeable.AbstractCloseable;
 
 public class ChannelAsyncOutputStream extends AbstractCloseable implements IoOutputStream, ChannelHolder {
+    /**
+     * Number of bytes that must precede the data of a written buffer in order to {@link #setSendInPlace(boolean) send
+     * it in place} - SSH packet header, command, recipient, extended data type and data length
+     */
+    public static final int SEND_IN_PLACE_HEADER_ROOM
+            = SshConstants.SSH_PACKET_HEADER_LEN + Byte.BYTES + 3 * Integer.BYTES;
+
+    /**
+     * Recommended number of bytes following the data of a written buffer in order to {@link #setSendInPlace(boolean)
+     * send it in place} - padding and MAC. If not available the buffer is grown (i.e., copied) when encoded.
+     */
+    public static final int SEND_IN_PLACE_TRAILER_ROOM = Byte.MAX_VALUE + 1;
+
     private final Channel channelInstance;
     private final ChannelStreamWriter packetWriter;
     private final byte cmd;
     private final AtomicReference<IoWriteFutureImpl> pendingWrite = new AtomicReference<>();
     private final Object packetWriteId;
+    private volatile boolean sendInPlace;
 
     public ChannelAsyncOutputStream(Channel channel, byte cmd) {
         this.channelInstance = Objects.requireNonNull(channel, "No channel");
@@ -53,6 +69,20 @@ public class ChannelAsyncOutputStream extends AbstractCloseable implements IoOut
         return channelInstance;
     }
 
+    public boolean isSendInPlace() {
+        return sendInPlace;
+    }
+
+    /**
+     * @param sendInPlace Whether a written buffer whose data can be sent in a single packet and that has at least
+     *                    {@link #SEND_IN_PLACE_HEADER_ROOM} bytes before its data should be used as the packet itself
+     *                    instead of copying the data into a new one. <B>Note:</B> if enabled the contents of such a
+     *                    buffer are overwritten (e.g., encrypted) - i.e., the caller must not access it once written.
+     */
+    public void setSendInPlace(boolean sendInPlace) {
+        this.sendInPlace = sendInPlace;
+    }
+
     public void onWindowExpanded() throws IOException {
         doWriteIfPossible(true);
     }
@@ -160,13 +190,28 @@ public class ChannelAsyncOutputStream extends AbstractCloseable implements IoOut
                                                        + ") exceeds int boundaries");
                 }
 
-                Buffer buf = createSendBuffer(buffer, channel, length);
+                Buffer buf = (isSendInPlace() && (length == total))
+                        ? createInPlaceSendBuffer(buffer, channel, length)
+                        : null;
+                // keep the backing array until the packet is actually written even if the write is reported done
+                BufferAllocator allocator = (buf == null) ? null : resolveBufferAllocator(channel);
+                if (buf == null) {
+                    buf = createSendBuffer(buffer, channel, length);
+                } else {
+                    allocator.retain(buffer);
+                }
                 remoteWindow.consume(length);
 
                 try {
                     IoWriteFuture writeFuture = packetWriter.writeData(buf);
                     writeFuture.addListener(f -> onWritten(future, total, length, f));
+                    if (allocator != null) {
+                        writeFuture.addListener(f -> allocator.release(buffer));
+                    }
                 } catch (IOException e) {
+                    if (allocator != null) {
+                        allocator.release(buffer);
+                    }
                     future.setValue(e);
                 }
             } else if (!resume) {
@@ -225,6 +270,46 @@ public class ChannelAsyncOutputStream extends AbstractCloseable implements IoOut
         return buf;
     }
 
+    /**
+     * Wraps the data of the written buffer as the packet itself by writing the packet headers in the room preceding it.
+     *
+     * @param  buffer  The written {@link Buffer} - its data is marked as consumed if used
+     * @param  channel The {@link Channel} being written to
+     * @param  length  The data length - same as the available data in the buffer
+     * @return         The packet {@link Buffer} sharing the written buffer's array - {@code null} if not enough room
+     *                 available before the data
+     */
+    protected Buffer createInPlaceSendBuffer(Buffer buffer, Channel channel, long length) {
+        int headerLen = Byte.BYTES + Integer.BYTES + Integer.BYTES;
+        if (cmd == SshConstants.SSH_MSG_CHANNEL_EXTENDED_DATA) {
+            headerLen += Integer.BYTES;
+        }
+
+        int rpos = buffer.rpos();
+        int start = rpos - headerLen;
+        if (start < SshConstants.SSH_PACKET_HEADER_LEN) {
+            return null;
+        }
+
+        Buffer buf = new ByteArrayBuffer(buffer.array(), start, 0, false);
+        buf.putByte(cmd);
+        buf.putInt(channel.getRecipient());
+        if (cmd == SshConstants.SSH_MSG_CHANNEL_EXTENDED_DATA) {
+            buf.putInt(SshConstants.SSH_EXTENDED_DATA_STDERR);
+        }
+        buf.putInt(length);
+        buf.wpos(rpos + (int) length);
+        buffer.rpos(rpos + (int) length);
+        return buf;
+    }
+
+    protected BufferAllocator resolveBufferAllocator(Channel channel) {
+        Session s = channel.getSession();
+        FactoryManager manager = s.getFactoryManager();
+        BufferAllocator allocator = (manager == null) ? null : manager.resolveBufferAllocator();
+        return (allocator == null) ? BufferAllocator.DEFAULT : allocator;
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "[" + getChannel() + "] cmd=" + SshConstants.getCommandMessageName(cmd & 0xFF);
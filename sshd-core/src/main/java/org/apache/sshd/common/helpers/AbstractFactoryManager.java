@@ -62,7 +62,9 @@ import org.apache.sshd.common.session.helpers.AbstractSessionFactory;
 import org.apache.sshd.common.session.helpers.SessionTimeoutListener;
 import org.apache.sshd.common.util.EventListenerUtils;
 import org.apache.sshd.common.util.ValidateUtils;
+import org.apache.sshd.common.util.buffer.BufferAllocator;
 import org.apache.sshd.common.util.threads.ThreadUtils;
+import org.apache.sshd.common.util.threads.TimerWheel;
 import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.server.forward.ForwardingFilter;
 
@@ -83,7 +85,8 @@ public abstract class AbstractFactoryManager extends AbstractKexFactoryManager i
     protected List<? extends ServiceFactory> serviceFactories;
     protected List<RequestHandler<ConnectionService>> globalRequestHandlers;
     protected SessionTimeoutListener sessionTimeoutListener;
-    protected ScheduledFuture<?> timeoutListenerFuture;
+    protected TimerWheel timerWheel;
+    protected ScheduledFuture<?> timerWheelFuture;
     protected final Collection<SessionListener> sessionListeners = new CopyOnWriteArraySet<>();
     protected final SessionListener sessionListenerProxy;
     protected final Collection<ChannelListener> channelListeners = new CopyOnWriteArraySet<>();
@@ -99,6 +102,7 @@ public abstract class AbstractFactoryManager extends AbstractKexFactoryManager i
     private ChannelStreamWriterResolver channelStreamWriterResolver;
     private UnknownChannelReferenceHandler unknownChannelReferenceHandler;
     private IoServiceEventListener eventListener;
+    private BufferAllocator bufferAllocator;
 
     protected AbstractFactoryManager() {
         sessionListenerProxy = EventListenerUtils.proxyWrapper(SessionListener.class, sessionListeners);
@@ -239,6 +243,11 @@ public abstract class AbstractFactoryManager extends AbstractKexFactoryManager i
         return executor;
     }
 
+    @Override
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
     public void setScheduledExecutorService(ScheduledExecutorService executor) {
         setScheduledExecutorService(executor, false);
     }
@@ -333,6 +342,16 @@ public abstract class AbstractFactoryManager extends AbstractKexFactoryManager i
         this.unknownChannelReferenceHandler = unknownChannelReferenceHandler;
     }
 
+    @Override
+    public BufferAllocator getBufferAllocator() {
+        return bufferAllocator;
+    }
+
+    @Override
+    public void setBufferAllocator(BufferAllocator allocator) {
+        this.bufferAllocator = allocator;
+    }
+
     @Override
     public UnknownChannelReferenceHandler resolveUnknownChannelReferenceHandler() {
         return getUnknownChannelReferenceHandler();
@@ -472,29 +491,46 @@ public abstract class AbstractFactoryManager extends AbstractKexFactoryManager i
     }
 
     protected void setupSessionTimeout(AbstractSessionFactory<?, ?> sessionFactory) {
-        // set up the the session timeout listener and schedule it
+        // set up the timer wheel shared by all the sessions timeouts and heartbeats and drive it
+        timerWheel = createTimerWheel();
+        long tickMillis = Math.max(1L, timerWheel.getTickDuration().toMillis());
+        timerWheelFuture = getScheduledExecutorService()
+                .scheduleAtFixedRate(timerWheel, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
         sessionTimeoutListener = createSessionTimeoutListener();
         addSessionListener(sessionTimeoutListener);
-
-        timeoutListenerFuture = getScheduledExecutorService()
-                .scheduleAtFixedRate(sessionTimeoutListener, 1, 1, TimeUnit.SECONDS);
     }
 
     protected void removeSessionTimeout(AbstractSessionFactory<?, ?> sessionFactory) {
         stopSessionTimeoutListener(sessionFactory);
     }
 
+    protected TimerWheel createTimerWheel() {
+        return new TimerWheel(
+                CoreModuleProperties.TIMER_WHEEL_TICK.getRequired(this),
+                CoreModuleProperties.TIMER_WHEEL_SIZE.getRequired(this));
+    }
+
     protected SessionTimeoutListener createSessionTimeoutListener() {
-        return new SessionTimeoutListener();
+        return new SessionTimeoutListener(
+                getTimerWheel(), CoreModuleProperties.SESSION_TIMEOUT_MAX_CHECK_INTERVAL.getRequired(this));
     }
 
     protected void stopSessionTimeoutListener(AbstractSessionFactory<?, ?> sessionFactory) {
-        // cancel the timeout monitoring task
-        if (timeoutListenerFuture != null) {
+        // stop driving the timer wheel and cancel whatever is still pending on it
+        if (timerWheelFuture != null) {
+            try {
+                timerWheelFuture.cancel(true);
+            } finally {
+                timerWheelFuture = null;
+            }
+        }
+
+        if (timerWheel != null) {
             try {
-                timeoutListenerFuture.cancel(true);
+                timerWheel.clear();
             } finally {
-                timeoutListenerFuture = null;
+                timerWheel = null;
             }
         }
 
@@ -25,7 +25,9 @@ import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.ClosedChannelException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
@@ -53,6 +55,11 @@ public class Nio2Session extends AbstractCloseable implements IoSession {
 
     public static final int DEFAULT_READBUF_SIZE = 32 * 1024;
 
+    /**
+     * Maximum number of queued packets gathered into a single socket write
+     */
+    public static final int MAX_GATHERED_WRITES = 64;
+
     private static final AtomicLong SESSION_ID_GENERATOR = new AtomicLong(100L);
 
     private final long id = SESSION_ID_GENERATOR.incrementAndGet();
@@ -71,6 +78,8 @@ public class Nio2Session extends AbstractCloseable implements IoSession {
     private final AtomicLong writeCyclesCounter = new AtomicLong();
     private final AtomicLong lastWriteCycleStart = new AtomicLong();
     private final Object suspendLock = new Object();
+    private final boolean gatheringWrites;
+    private final int maxGatheringWriteSize;
     private volatile boolean suspend;
     private volatile Runnable readRunnable;
 
@@ -85,6 +94,8 @@ public class Nio2Session extends AbstractCloseable implements IoSession {
         this.localAddress = socket.getLocalAddress();
         this.remoteAddress = socket.getRemoteAddress();
         this.acceptanceAddress = acceptanceAddress;
+        this.gatheringWrites = CoreModuleProperties.NIO2_GATHERING_WRITE.getRequired(manager);
+        this.maxGatheringWriteSize = CoreModuleProperties.NIO2_MAX_GATHERING_WRITE_SIZE.getRequired(manager);
         if (log.isDebugEnabled()) {
             log.debug("Creating IoSession on {} from {} via {}", localAddress, remoteAddress, acceptanceAddress);
         }
@@ -439,6 +450,12 @@ public class Nio2Session extends AbstractCloseable implements IoSession {
             return;
         }
 
+        Nio2DefaultIoWriteFuture[] batch = gatheringWrites ? resolveGatheringWriteBatch(future) : null;
+        if ((batch != null) && (batch.length > 1)) {
+            startGatheringWrite(batch);
+            return;
+        }
+
         try {
             AsynchronousSocketChannel socket = getSocket();
             ByteBuffer buffer = future.getBuffer();
@@ -457,6 +474,158 @@ public class Nio2Session extends AbstractCloseable implements IoSession {
         }
     }
 
+    /**
+     * Collects the queued write requests that can be gathered into a single socket write - starting with the current
+     * one and limited by {@link #MAX_GATHERED_WRITES} and the configured
+     * {@link CoreModuleProperties#NIO2_MAX_GATHERING_WRITE_SIZE maximum size}.
+     *
+     * @param  head The current write request - always included
+     * @return      The gathered requests in queue order
+     */
+    protected Nio2DefaultIoWriteFuture[] resolveGatheringWriteBatch(Nio2DefaultIoWriteFuture head) {
+        List<Nio2DefaultIoWriteFuture> batch = new ArrayList<>(Math.min(writes.size(), MAX_GATHERED_WRITES));
+        long totalSize = 0L;
+        for (Nio2DefaultIoWriteFuture future : writes) {
+            if (batch.isEmpty() && (future != head)) {
+                break; // should not happen since we are the only ones removing entries
+            }
+
+            int size = future.getBuffer().remaining();
+            if ((!batch.isEmpty()) && ((totalSize + size) > maxGatheringWriteSize)) {
+                break;
+            }
+
+            batch.add(future);
+            totalSize += size;
+            if (batch.size() >= MAX_GATHERED_WRITES) {
+                break;
+            }
+        }
+
+        return batch.toArray(new Nio2DefaultIoWriteFuture[batch.size()]);
+    }
+
+    protected void startGatheringWrite(Nio2DefaultIoWriteFuture[] batch) {
+        try {
+            AsynchronousSocketChannel socket = getSocket();
+            ByteBuffer[] buffers = new ByteBuffer[batch.length];
+            for (int index = 0; index < batch.length; index++) {
+                buffers[index] = batch[index].getBuffer();
+            }
+
+            Nio2CompletionHandler<Long, Object> handler = Objects.requireNonNull(
+                    createGatheringWriteCycleCompletionHandler(batch, socket, buffers),
+                    "No gathering write cycle completion handler created");
+            doGatheringWriteCycle(buffers, 0, handler);
+        } catch (Throwable e) {
+            for (Nio2DefaultIoWriteFuture future : batch) {
+                future.setWritten();
+            }
+
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else {
+                throw new RuntimeSshException(e);
+            }
+        }
+    }
+
+    protected void doGatheringWriteCycle(
+            ByteBuffer[] buffers, int offset, Nio2CompletionHandler<Long, Object> completion) {
+        AsynchronousSocketChannel socket = getSocket();
+        Duration writeTimeout = CoreModuleProperties.NIO2_MIN_WRITE_TIMEOUT.getRequired(manager);
+        writeCyclesCounter.incrementAndGet();
+        lastWriteCycleStart.set(System.nanoTime());
+        socket.write(buffers, offset, buffers.length - offset,
+                writeTimeout.toMillis(), TimeUnit.MILLISECONDS, null, completion);
+    }
+
+    protected Nio2CompletionHandler<Long, Object> createGatheringWriteCycleCompletionHandler(
+            Nio2DefaultIoWriteFuture[] batch, AsynchronousSocketChannel socket, ByteBuffer[] buffers) {
+        return new Nio2CompletionHandler<Long, Object>() {
+            @Override
+            protected void onCompleted(Long result, Object attachment) {
+                handleCompletedGatheringWriteCycle(batch, socket, buffers, this, result, attachment);
+            }
+
+            @Override
+            protected void onFailed(Throwable exc, Object attachment) {
+                handleGatheringWriteCycleFailure(batch, socket, buffers, exc, attachment);
+            }
+        };
+    }
+
+    protected void handleCompletedGatheringWriteCycle(
+            Nio2DefaultIoWriteFuture[] batch, AsynchronousSocketChannel socket, ByteBuffer[] buffers,
+            Nio2CompletionHandler<Long, Object> completionHandler, Long result, Object attachment) {
+        // Signal the requests that have been fully written even if the whole batch has not
+        int offset = 0;
+        for (; offset < buffers.length; offset++) {
+            if (buffers[offset].hasRemaining()) {
+                break;
+            }
+
+            Nio2DefaultIoWriteFuture future = batch[offset];
+            if (future.isDone()) {
+                continue; // signalled by a previous partial write
+            }
+
+            // This should be called before future.setWritten() to avoid WriteAbortedException
+            // to be thrown by doCloseImmediately when called in the listener of doCloseGracefully
+            writes.remove(future);
+            future.setWritten();
+        }
+
+        if (offset < buffers.length) {
+            try {
+                doGatheringWriteCycle(buffers, offset, completionHandler);
+            } catch (Throwable t) {
+                debug("handleCompletedGatheringWriteCycle({}) {} while writing to socket {} packets: {}",
+                        this, t.getClass().getSimpleName(), buffers.length - offset, t.getMessage(), t);
+                for (; offset < batch.length; offset++) {
+                    Nio2DefaultIoWriteFuture future = batch[offset];
+                    writes.remove(future);
+                    future.setWritten();
+                }
+                finishWrite(batch[0]);
+            }
+        } else {
+            if (log.isTraceEnabled()) {
+                log.trace("handleCompletedGatheringWriteCycle({}) finished writing {} packets at cycle={} after {} nanos",
+                        this, batch.length, writeCyclesCounter, System.nanoTime() - lastWriteCycleStart.get());
+            }
+
+            finishWrite(batch[0]);
+        }
+    }
+
+    protected void handleGatheringWriteCycleFailure(
+            Nio2DefaultIoWriteFuture[] batch, AsynchronousSocketChannel socket,
+            ByteBuffer[] buffers, Throwable exc, Object attachment) {
+        if (log.isDebugEnabled()) {
+            debug("handleGatheringWriteCycleFailure({}) failed ({}) to write {} packets at write cycle={} after {} nanos: {}",
+                    this, exc.getClass().getSimpleName(), batch.length, writeCyclesCounter,
+                    System.nanoTime() - lastWriteCycleStart.get(), exc.getMessage(), exc);
+        }
+
+        for (Nio2DefaultIoWriteFuture future : batch) {
+            if (!future.isDone()) {
+                writes.remove(future);
+                future.setException(exc);
+            }
+        }
+        exceptionCaught(exc);
+
+        try {
+            finishWrite(batch[0]);
+        } catch (RuntimeException e) {
+            if (log.isTraceEnabled()) {
+                log.trace("handleGatheringWriteCycleFailure({}) failed ({}) to finish writing: {}",
+                        this, e.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
     protected void doWriteCycle(ByteBuffer buffer, Nio2CompletionHandler<Integer, Object> completion) {
         AsynchronousSocketChannel socket = getSocket();
         Duration writeTimeout = CoreModuleProperties.NIO2_MIN_WRITE_TIMEOUT.getRequired(manager);
@@ -27,9 +27,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -66,6 +63,7 @@ import org.apache.sshd.common.util.Int2IntFunction;
 import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.buffer.Buffer;
 import org.apache.sshd.common.util.closeable.AbstractInnerCloseable;
+import org.apache.sshd.common.util.threads.TimerWheel;
 import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.server.x11.DefaultX11ForwardSupport;
 import org.apache.sshd.server.x11.X11ForwardSupport;
@@ -96,7 +94,7 @@ public abstract class AbstractConnectionService
      */
     protected final AtomicInteger nextChannelId = new AtomicInteger(0);
     protected final AtomicLong heartbeatCount = new AtomicLong(0L);
-    private ScheduledFuture<?> heartBeat;
+    private TimerWheel.Timeout heartBeat;
 
     private final AtomicReference<AgentForwardSupport> agentForwardHolder = new AtomicReference<>();
     private final AtomicReference<X11ForwardSupport> x11ForwardHolder = new AtomicReference<>();
@@ -181,7 +179,7 @@ public abstract class AbstractConnectionService
         heartBeat = startHeartBeat();
     }
 
-    protected synchronized ScheduledFuture<?> startHeartBeat() {
+    protected synchronized TimerWheel.Timeout startHeartBeat() {
         stopHeartBeat(); // make sure any existing heartbeat is stopped
 
         HeartbeatType heartbeatType = getSessionHeartbeatType();
@@ -197,9 +195,15 @@ public abstract class AbstractConnectionService
         }
 
         FactoryManager manager = session.getFactoryManager();
-        ScheduledExecutorService service = manager.getScheduledExecutorService();
-        return service.scheduleAtFixedRate(
-                this::sendHeartBeat, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        TimerWheel wheel = manager.getTimerWheel();
+        if (wheel == null) {
+            if (debugEnabled) {
+                log.debug("startHeartbeat({}) manager not started", session);
+            }
+            return null;
+        }
+
+        return wheel.scheduleAtFixedRate(timeouts -> sendHeartBeat(), session, interval, interval);
     }
 
     /**
@@ -286,7 +290,7 @@ public abstract class AbstractConnectionService
         }
 
         try {
-            heartBeat.cancel(true);
+            heartBeat.cancel();
         } finally {
             heartBeat = null;
         }
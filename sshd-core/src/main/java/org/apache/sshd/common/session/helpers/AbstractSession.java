@@ -36,8 +36,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
@@ -84,6 +86,7 @@ import org.apache.sshd.common.util.NumberUtils;
 import org.apache.sshd.common.util.Readable;
 import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.BufferAllocator;
 import org.apache.sshd.common.util.buffer.BufferUtils;
 import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
 import org.apache.sshd.core.CoreModuleProperties;
@@ -112,6 +115,11 @@ public abstract class AbstractSession extends SessionHelper {
      * The pseudo random generator
      */
     protected final Random random;
+    /**
+     * The pseudo random generator used to fill the outgoing packets padding - accessed only while holding the
+     * {@code encodeLock} so it does not contend with other usages of {@link #random}
+     */
+    protected final Random paddingRandom;
 
     /**
      * Session listeners container
@@ -171,6 +179,11 @@ public abstract class AbstractSession extends SessionHelper {
     protected int decoderState;
     protected int decoderLength;
     protected final Object encodeLock = new Object();
+    /**
+     * Outgoing packets waiting to be encoded - see {@link #doWritePacket(Buffer)}
+     */
+    protected final Queue<EncodeQueueFuture> encodeQueue = new ConcurrentLinkedQueue<>();
+    protected final AtomicBoolean encodeDraining = new AtomicBoolean();
     protected final Object decodeLock = new Object();
     protected final Object requestLock = new Object();
 
@@ -232,6 +245,8 @@ public abstract class AbstractSession extends SessionHelper {
                 factoryManager.getRandomFactory(), "No random factory for %s", ioSession);
         random = ValidateUtils.checkNotNull(
                 factory.create(), "No randomizer instance for %s", ioSession);
+        paddingRandom = ValidateUtils.checkNotNull(
+                factory.create(), "No padding randomizer instance for %s", ioSession);
 
         refreshConfiguration();
 
@@ -577,7 +592,13 @@ public abstract class AbstractSession extends SessionHelper {
         }
 
         Buffer buffer = createBuffer(SshConstants.SSH_MSG_NEWKEYS, Byte.SIZE);
-        IoWriteFuture future = writePacket(buffer);
+        IoWriteFuture future;
+        synchronized (encodeLock) {
+            // make sure any previously enqueued packet is encoded with the current keys and sent before the NEWKEYS one
+            encodeQueuedPackets();
+            // encode it right away - otherwise it might still be queued when the peer's NEWKEYS replaces the keys
+            future = encodeAndWritePacket(buffer);
+        }
         /*
          * According to https://tools.ietf.org/html/rfc8308#section-2.4:
          *
@@ -806,10 +827,33 @@ public abstract class AbstractSession extends SessionHelper {
                 .parallel(toString(), getServices())
                 .close(getIoSession())
                 .build();
-        closer.addCloseFutureListener(future -> clearAttributes());
+        closer.addCloseFutureListener(future -> {
+            clearAttributes();
+            releaseCompressions(inCompression, outCompression);
+        });
         return closer;
     }
 
+    /**
+     * Releases compression resources (e.g., native zlib contexts) that are no longer used by this session
+     *
+     * @param in  The incoming {@link Compression} - ignored if {@code null}
+     * @param out The outgoing {@link Compression} - ignored if {@code null}
+     */
+    protected void releaseCompressions(Compression in, Compression out) {
+        // make sure no packet is being (de-)compressed while the context is released
+        if (in != null) {
+            synchronized (decodeLock) {
+                in.release();
+            }
+        }
+        if (out != null) {
+            synchronized (encodeLock) {
+                out.release();
+            }
+        }
+    }
+
     @Override
     protected void preClose() {
         DefaultKeyExchangeFuture kexFuture = kexFutureHolder.get();
@@ -957,9 +1001,7 @@ public abstract class AbstractSession extends SessionHelper {
             ignoreBuf.putInt(ignoreDataLen);
 
             int wpos = ignoreBuf.wpos();
-            synchronized (random) {
-                random.fill(ignoreBuf.array(), wpos, ignoreDataLen);
-            }
+            paddingRandom.fill(ignoreBuf.array(), wpos, ignoreDataLen);
             ignoreBuf.wpos(wpos + ignoreDataLen);
 
             if (log.isDebugEnabled()) {
@@ -976,24 +1018,111 @@ public abstract class AbstractSession extends SessionHelper {
             ignoreBuf = encode(ignoreBuf);
 
             IoSession networkSession = getIoSession();
-            networkSession.writeBuffer(ignoreBuf);
+            Buffer written = ignoreBuf;
+            BufferAllocator allocator = resolveBufferAllocator();
+            networkSession.writeBuffer(ignoreBuf).addListener(f -> allocator.release(written));
         }
 
         return encode(buffer);
     }
 
+    /**
+     * Enqueues the packet for encoding and writing. The packets are encoded (and their sequence numbers assigned) in
+     * the order they were enqueued by a single thread at a time - the one that managed to become the drainer of the
+     * queue. Other writers do not block waiting for it - they return immediately with a future that is completed once
+     * the encoded packet has been written by the underlying {@link IoSession} - or failed to be encoded or written.
+     * <B>Note:</B> if the packet failed to be encoded (or handed to the {@link IoSession}) before this method returns
+     * then the failure is thrown - as when it is encoded by the calling thread. Otherwise, it is reported only via the
+     * returned future.
+     *
+     * @param  buffer      The {@link Buffer} containing the packet to be sent
+     * @return             An {@link IoWriteFuture} that can be used to check when the packet has actually been sent
+     * @throws IOException If failed to encode the packet
+     */
     protected IoWriteFuture doWritePacket(Buffer buffer) throws IOException {
-        // Synchronize all write requests as needed by the encoding algorithm
-        // and also queue the write request in this synchronized block to ensure
-        // packets are sent in the correct order
-        synchronized (encodeLock) {
-            Buffer packet = resolveOutputPacket(buffer);
-            IoSession networkSession = getIoSession();
-            IoWriteFuture future = networkSession.writeBuffer(packet);
-            return future;
+        byte[] bufData = buffer.array();
+        int cmd = bufData[buffer.rpos()] & 0xFF;
+        EncodeQueueFuture future = new EncodeQueueFuture(SshConstants.getCommandMessageName(cmd), buffer);
+        encodeQueue.add(future);
+        drainEncodeQueue();
+
+        Throwable failure = future.getEncodeFailure();
+        if (failure != null) {
+            GenericUtils.rethrowAsIoException(failure);
+        }
+        return future;
+    }
+
+    /**
+     * Encodes and writes the queued packets unless another thread is already doing so - in which case it will also
+     * handle the packets enqueued by this one.
+     */
+    protected void drainEncodeQueue() {
+        // if already holding the lock then no one else can be encoding
+        if (Thread.holdsLock(encodeLock)) {
+            encodeQueuedPackets();
+            return;
+        }
+
+        // re-check after releasing the draining flag in case a packet was enqueued while releasing it
+        while ((!encodeQueue.isEmpty()) && encodeDraining.compareAndSet(false, true)) {
+            try {
+                synchronized (encodeLock) {
+                    encodeQueuedPackets();
+                }
+            } finally {
+                encodeDraining.set(false);
+            }
         }
     }
 
+    // NOTE: must acquire encodeLock when calling this method
+    protected void encodeQueuedPackets() {
+        for (EncodeQueueFuture future = encodeQueue.poll(); future != null; future = encodeQueue.poll()) {
+            Buffer buffer = future.getBuffer();
+            try {
+                encodeAndWritePacket(buffer).addListener(future);
+            } catch (Throwable t) {
+                warn("encodeQueuedPackets({}) failed ({}) to write {}: {}",
+                        this, t.getClass().getSimpleName(), future.getId(), t.getMessage(), t);
+                future.setEncodeFailure(t);
+                resolveBufferAllocator().release(buffer);
+            }
+        }
+    }
+
+    /**
+     * Encodes the packet and hands it to the {@link IoSession} - the buffers are released once written
+     *
+     * @param  buffer      The {@link Buffer} containing the packet to be sent
+     * @return             The {@link IoWriteFuture} of the encoded packet
+     * @throws IOException If failed to encode or write the packet
+     */
+    // NOTE: must acquire encodeLock when calling this method
+    protected IoWriteFuture encodeAndWritePacket(Buffer buffer) throws IOException {
+        Buffer packet = resolveOutputPacket(buffer);
+        IoWriteFuture written = getIoSession().writeBuffer(packet);
+        releaseWhenWritten(written, buffer, packet);
+        return written;
+    }
+
+    /**
+     * Hands the buffers of a packet back to the {@link BufferAllocator} once written (or failed to)
+     *
+     * @param written The {@link IoWriteFuture} of the packet
+     * @param buffer  The original packet {@link Buffer}
+     * @param packet  The encoded packet {@link Buffer} - ignored if same as the original one
+     */
+    protected void releaseWhenWritten(IoWriteFuture written, Buffer buffer, Buffer packet) {
+        BufferAllocator allocator = resolveBufferAllocator();
+        written.addListener(f -> {
+            allocator.release(buffer);
+            if (packet != buffer) {
+                allocator.release(packet);
+            }
+        });
+    }
+
     protected int resolveIgnoreBufferDataLength() {
         if ((ignorePacketDataLength <= 0)
                 || (ignorePacketsFrequency <= 0L)
@@ -1135,8 +1264,9 @@ public abstract class AbstractSession extends SessionHelper {
 
     @Override
     public Buffer createBuffer(byte cmd, int len) {
+        BufferAllocator allocator = resolveBufferAllocator();
         if (len <= 0) {
-            return prepareBuffer(cmd, new ByteArrayBuffer());
+            return prepareBuffer(cmd, allocator.allocate(ByteArrayBuffer.DEFAULT_SIZE));
         }
 
         // Since the caller claims to know how many bytes they will need
@@ -1151,7 +1281,17 @@ public abstract class AbstractSession extends SessionHelper {
             len += outMacSize;
         }
 
-        return prepareBuffer(cmd, new ByteArrayBuffer(new byte[len + Byte.SIZE], false));
+        return prepareBuffer(cmd, allocator.allocate(len + Byte.SIZE));
+    }
+
+    /**
+     * @return The {@link BufferAllocator} used for outgoing packets - the {@link FactoryManager}'s one by default. The
+     *         buffers are released once the packet they contain has been written (or failed to)
+     */
+    protected BufferAllocator resolveBufferAllocator() {
+        FactoryManager manager = getFactoryManager();
+        BufferAllocator allocator = (manager == null) ? null : manager.resolveBufferAllocator();
+        return (allocator == null) ? BufferAllocator.DEFAULT : allocator;
     }
 
     @Override
@@ -1260,9 +1400,7 @@ public abstract class AbstractSession extends SessionHelper {
             buffer.putByte((byte) pad);
             // Make sure enough room for padding and then fill it
             buffer.wpos(off + oldLen + SshConstants.SSH_PACKET_HEADER_LEN + pad);
-            synchronized (random) {
-                random.fill(buffer.array(), buffer.wpos() - pad, pad);
-            }
+            paddingRandom.fill(buffer.array(), buffer.wpos() - pad, pad);
 
             if (authMode) {
                 int wpos = buffer.wpos();
@@ -1331,7 +1469,9 @@ public abstract class AbstractSession extends SessionHelper {
     }
 
     /**
-     * Decode the incoming buffer and handle packets as needed.
+     * Decode the incoming buffer and handle packets as needed. All the complete packets available in the buffer are
+     * decoded in place and the buffer is compacted only once - after the last one has been handled - so that reads
+     * containing many small packets do not incur a copy of the remaining data per packet.
      *
      * @throws Exception If failed to decode
      */
@@ -1345,8 +1485,8 @@ public abstract class AbstractSession extends SessionHelper {
             boolean etmMode = inMac != null && inMac.isEncryptThenMac();
             // Wait for beginning of packet
             if (decoderState == 0) {
-                // The read position should always be 0 at this point because we have compacted this buffer
-                assert decoderBuffer.rpos() == 0;
+                // The read position is always at the beginning of the next packet at this point
+                int packetOffset = decoderBuffer.rpos();
                 /*
                  * Note: according to RFC-4253 section 6:
                  *
@@ -1361,10 +1501,10 @@ public abstract class AbstractSession extends SessionHelper {
                 if (decoderBuffer.available() > minBufLen) {
                     if (authMode) {
                         // RFC 5647: packet length encoded in additional data
-                        inCipher.updateAAD(decoderBuffer.array(), 0, Integer.BYTES);
+                        inCipher.updateAAD(decoderBuffer.array(), packetOffset, Integer.BYTES);
                     } else if ((inCipher != null) && (!etmMode)) {
                         // Decrypt the first bytes so we can extract the packet length
-                        inCipher.update(decoderBuffer.array(), 0, inCipherSize);
+                        inCipher.update(decoderBuffer.array(), packetOffset, inCipherSize);
 
                         int blocksCount = inCipherSize / inCipher.getCipherBlockSize();
                         inBlocksCount.addAndGet(Math.max(1, blocksCount));
@@ -1393,20 +1533,22 @@ public abstract class AbstractSession extends SessionHelper {
                 // We have received the beginning of the packet
             } else if (decoderState == 1) {
                 // The read position should always be after reading the packet length at this point
-                assert decoderBuffer.rpos() == Integer.BYTES;
+                int packetOffset = decoderBuffer.rpos() - Integer.BYTES;
                 // Check if the packet has been fully received
                 if (decoderBuffer.available() >= (decoderLength + macSize + authSize)) {
                     byte[] data = decoderBuffer.array();
                     if (authMode) {
-                        inCipher.update(data, Integer.BYTES /* packet length is handled by AAD */, decoderLength);
+                        inCipher.update(data, packetOffset + Integer.BYTES /* packet length is handled by AAD */,
+                                decoderLength);
 
                         int blocksCount = decoderLength / inCipherSize;
                         inBlocksCount.addAndGet(Math.max(1, blocksCount));
                     } else if (etmMode) {
-                        validateIncomingMac(data, 0, decoderLength + Integer.BYTES);
+                        validateIncomingMac(data, packetOffset, decoderLength + Integer.BYTES);
 
                         if (inCipher != null) {
-                            inCipher.update(data, Integer.BYTES /* packet length is unencrypted */, decoderLength);
+                            inCipher.update(data, packetOffset + Integer.BYTES /* packet length is unencrypted */,
+                                    decoderLength);
 
                             int blocksCount = decoderLength / inCipherSize;
                             inBlocksCount.addAndGet(Math.max(1, blocksCount));
@@ -1418,13 +1560,13 @@ public abstract class AbstractSession extends SessionHelper {
                          */
                         if (inCipher != null) {
                             int updateLen = decoderLength + Integer.BYTES - inCipherSize;
-                            inCipher.update(data, inCipherSize, updateLen);
+                            inCipher.update(data, packetOffset + inCipherSize, updateLen);
 
                             int blocksCount = updateLen / inCipherSize;
                             inBlocksCount.addAndGet(Math.max(1, blocksCount));
                         }
 
-                        validateIncomingMac(data, 0, decoderLength + Integer.BYTES);
+                        validateIncomingMac(data, packetOffset, decoderLength + Integer.BYTES);
                     }
 
                     // Increment incoming packet sequence number
@@ -1448,7 +1590,7 @@ public abstract class AbstractSession extends SessionHelper {
                         inCompression.uncompress(decoderBuffer, uncompressBuffer);
                         packet = uncompressBuffer;
                     } else {
-                        decoderBuffer.wpos(decoderLength + Integer.BYTES - pad);
+                        decoderBuffer.wpos(packetOffset + decoderLength + Integer.BYTES - pad);
                         packet = decoderBuffer;
                     }
 
@@ -1464,10 +1606,9 @@ public abstract class AbstractSession extends SessionHelper {
                     // Process decoded packet
                     handleMessage(packet);
 
-                    // Set ready to handle next packet
-                    decoderBuffer.rpos(decoderLength + Integer.BYTES + macSize + authSize);
+                    // Set ready to handle next packet - no compaction until all available packets are handled
+                    decoderBuffer.rpos(packetOffset + decoderLength + Integer.BYTES + macSize + authSize);
                     decoderBuffer.wpos(wpos);
-                    decoderBuffer.compact();
                     decoderState = 0;
                 } else {
                     // need more data
@@ -1475,6 +1616,28 @@ public abstract class AbstractSession extends SessionHelper {
                 }
             }
         }
+
+        compactDecoderBuffer();
+    }
+
+    /**
+     * Moves any partially received packet data to the beginning of the decoder buffer. If the packet length has already
+     * been decoded then the read position is restored to just after it.
+     */
+    protected void compactDecoderBuffer() {
+        int packetOffset = decoderBuffer.rpos();
+        if (decoderState == 1) {
+            packetOffset -= Integer.BYTES;
+        }
+        if (packetOffset <= 0) {
+            return;
+        }
+
+        decoderBuffer.rpos(packetOffset);
+        decoderBuffer.compact();
+        if (decoderState == 1) {
+            decoderBuffer.rpos(Integer.BYTES);
+        }
     }
 
     protected void validateIncomingMac(byte[] data, int offset, int len) throws Exception {
@@ -1732,32 +1895,43 @@ public abstract class AbstractSession extends SessionHelper {
             throw new SshException(SshConstants.SSH2_DISCONNECT_COMPRESSION_ERROR, "Unknown c2s compression: " + value);
         }
 
+        Compression prevOutCompression;
+        // make sure no packet is being encoded while the outgoing keys are replaced
+        synchronized (encodeLock) {
+            prevOutCompression = outCompression;
+            if (serverSession) {
+                outCipher = s2ccipher;
+                outMac = s2cmac;
+                outCompression = s2ccomp;
+            } else {
+                outCipher = c2scipher;
+                outMac = c2smac;
+                outCompression = c2scomp;
+            }
+
+            outCipherSize = outCipher.getCipherBlockSize();
+            outMacSize = outMac != null ? outMac.getBlockSize() : 0;
+            outCompression.init(Compression.Type.Deflater,
+                    CoreModuleProperties.COMPRESSION_LEVEL.getRequired(this),
+                    CoreModuleProperties.COMPRESSION_STRATEGY.getRequired(this));
+        }
+
+        Compression prevInCompression = inCompression;
         if (serverSession) {
-            outCipher = s2ccipher;
-            outMac = s2cmac;
-            outCompression = s2ccomp;
             inCipher = c2scipher;
             inMac = c2smac;
             inCompression = c2scomp;
         } else {
-            outCipher = c2scipher;
-            outMac = c2smac;
-            outCompression = c2scomp;
             inCipher = s2ccipher;
             inMac = s2cmac;
             inCompression = s2ccomp;
         }
 
-        outCipherSize = outCipher.getCipherBlockSize();
-        outMacSize = outMac != null ? outMac.getBlockSize() : 0;
-        // TODO add support for configurable compression level
-        outCompression.init(Compression.Type.Deflater, -1);
-
         inCipherSize = inCipher.getCipherBlockSize();
         inMacSize = inMac != null ? inMac.getBlockSize() : 0;
         inMacResult = new byte[inMacSize];
-        // TODO add support for configurable compression level
         inCompression.init(Compression.Type.Inflater, -1);
+        releaseCompressions(prevInCompression, prevOutCompression);
 
         // see https://tools.ietf.org/html/rfc4344#section-3.2
         // select the lowest cipher size
@@ -2444,4 +2618,25 @@ public abstract class AbstractSession extends SessionHelper {
 
         return session;
     }
+
+    /**
+     * A packet waiting in the {@link #encodeQueue} - remembers whether it failed to be encoded (or handed to the
+     * {@link IoSession}) so that the failure can also be reported to the writer that enqueued it
+     */
+    protected static class EncodeQueueFuture extends PendingWriteFuture {
+        private volatile Throwable encodeFailure;
+
+        public EncodeQueueFuture(Object id, Buffer buffer) {
+            super(id, buffer);
+        }
+
+        public Throwable getEncodeFailure() {
+            return encodeFailure;
+        }
+
+        public void setEncodeFailure(Throwable cause) {
+            encodeFailure = cause;
+            setException(cause);
+        }
+    }
 }
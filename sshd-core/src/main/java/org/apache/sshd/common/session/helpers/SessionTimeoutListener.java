@@ -18,41 +18,103 @@
  */
 package org.apache.sshd.common.session.helpers;
 
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.sshd.common.session.Session;
 import org.apache.sshd.common.session.SessionListener;
+import org.apache.sshd.common.session.helpers.TimeoutIndicator.TimeoutStatus;
 import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.logging.AbstractLoggingBean;
+import org.apache.sshd.common.util.threads.TimerWheel;
+import org.apache.sshd.common.util.threads.TimerWheel.Timeout;
 
 /**
- * Task that iterates over all currently open {@link Session}s and checks each of them for timeouts. If the
+ * Tracks the authentication/idle timeouts of all currently open {@link Session}s via a {@link TimerWheel}. Each session
+ * has a single {@link Timeout} set to the earliest time it could possibly time out - but no later than the maximum
+ * check interval so that configuration changes are noticed. Session activity does not touch the wheel - instead, when
+ * the timeout expires the session is checked and its timeout moved to the new earliest deadline. The timeout is also
+ * moved once the session is authenticated since its idle timeout applies only from then on. If the
  * {@link AbstractSession} has timed out (either authentication or idle timeout), the session will be disconnected.
  *
  * @see SessionHelper#checkForTimeouts()
  */
 public class SessionTimeoutListener
         extends AbstractLoggingBean
-        implements SessionListener, Runnable {
-    protected final Set<SessionHelper> sessions = new CopyOnWriteArraySet<>();
+        implements SessionListener, TimerWheel.TimerTask {
+    public static final Duration DEFAULT_MAX_CHECK_INTERVAL = Duration.ofSeconds(5L);
 
-    public SessionTimeoutListener() {
-        super();
+    // the timeout is set once scheduled - the session is tracked before that so an early expiration finds it
+    protected final Map<SessionHelper, AtomicReference<Timeout>> sessions = new ConcurrentHashMap<>();
+    protected final TimerWheel timerWheel;
+    protected final Duration maxCheckInterval;
+
+    public SessionTimeoutListener(TimerWheel timerWheel) {
+        this(timerWheel, DEFAULT_MAX_CHECK_INTERVAL);
+    }
+
+    /**
+     * @param timerWheel       The {@link TimerWheel} to use
+     * @param maxCheckInterval Maximum time between two checks of a session's timeouts - must be positive
+     */
+    public SessionTimeoutListener(TimerWheel timerWheel, Duration maxCheckInterval) {
+        this.timerWheel = Objects.requireNonNull(timerWheel, "No timer wheel");
+        this.maxCheckInterval = ValidateUtils.checkNotNull(maxCheckInterval, "No max. check interval");
+        ValidateUtils.checkTrue(GenericUtils.isPositive(maxCheckInterval), "Non-positive max. check interval: %s",
+                maxCheckInterval);
+    }
+
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    public Duration getMaxCheckInterval() {
+        return maxCheckInterval;
     }
 
     @Override
     public void sessionCreated(Session session) {
-        if ((session instanceof SessionHelper)
-                && (GenericUtils.isPositive(session.getAuthTimeout()) || GenericUtils.isPositive(session.getIdleTimeout()))) {
-            sessions.add((SessionHelper) session);
-            if (log.isDebugEnabled()) {
-                log.debug("sessionCreated({}) tracking", session);
-            }
-        } else {
+        if (!(session instanceof SessionHelper)) {
             if (log.isTraceEnabled()) {
                 log.trace("sessionCreated({}) not tracked", session);
             }
+            return;
+        }
+
+        SessionHelper helper = (SessionHelper) session;
+        AtomicReference<Timeout> ref = new AtomicReference<>();
+        sessions.put(helper, ref);
+
+        Duration delay = getNextCheckDelay(helper, Instant.now());
+        ref.set(timerWheel.schedule(this, session, delay));
+        if (log.isDebugEnabled()) {
+            log.debug("sessionCreated({}) tracking - next check in {}", session, delay);
+        }
+    }
+
+    @Override
+    public void sessionEvent(Session session, Event event) {
+        if (event != Event.Authenticated) {
+            return;
+        }
+
+        // the idle timeout applies from now on - make sure it is checked in time
+        AtomicReference<Timeout> ref = sessions.get(session);
+        Timeout timeout = (ref == null) ? null : ref.get();
+        if (timeout == null) {
+            return;
+        }
+
+        Duration delay = getNextCheckDelay((SessionHelper) session, Instant.now());
+        // if already expired then the session is being checked and the delay re-calculated anyway
+        if (timeout.reschedule(delay) && log.isDebugEnabled()) {
+            log.debug("sessionEvent({})[{}] next check in {}", session, event, delay);
         }
     }
 
@@ -66,7 +128,12 @@ public class SessionTimeoutListener
     @SuppressWarnings("SuspiciousMethodCalls")
     @Override
     public void sessionClosed(Session s) {
-        if (sessions.remove(s)) {
+        AtomicReference<Timeout> ref = sessions.remove(s);
+        if (ref != null) {
+            Timeout timeout = ref.get();
+            if (timeout != null) {
+                timeout.cancel();
+            }
             if (log.isDebugEnabled()) {
                 log.debug("sessionClosed({}) un-tracked", s);
             }
@@ -78,14 +145,68 @@ public class SessionTimeoutListener
     }
 
     @Override
-    public void run() {
-        for (SessionHelper session : sessions) {
+    public void expired(List<Timeout> timeouts) {
+        if (log.isTraceEnabled()) {
+            log.trace("expired({}) checking {} sessions", timerWheel, timeouts.size());
+        }
+
+        for (Timeout timeout : timeouts) {
+            SessionHelper session = (SessionHelper) timeout.getAttachment();
+            AtomicReference<Timeout> ref = sessions.get(session);
+            if (ref == null) {
+                continue;   // closed while the timeout was being reported
+            }
+
+            Duration delay = null;
             try {
-                session.checkForTimeouts();
+                TimeoutIndicator result = session.checkForTimeouts();
+                TimeoutStatus status = (result == null) ? TimeoutStatus.NoTimeout : result.getStatus();
+                if (session.isOpen() && ((status == null) || (status == TimeoutStatus.NoTimeout))) {
+                    delay = getNextCheckDelay(session, Instant.now());
+                }
             } catch (Exception e) {
-                warn("run({}) {} while checking timeouts: {}", session, e.getClass().getSimpleName(), e.getMessage(),
+                warn("expired({}) {} while checking timeouts: {}", session, e.getClass().getSimpleName(), e.getMessage(),
                         e);
+                // keep checking - same as if the timeout was not detected
+                delay = getNextCheckDelay(session, Instant.now());
+            }
+
+            if ((delay == null) || (!timeout.reschedule(delay))) {
+                if (sessions.remove(session, ref) && log.isDebugEnabled()) {
+                    log.debug("expired({}) un-tracked", session);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param  session The {@link SessionHelper} to check
+     * @param  now     The current time
+     * @return         The delay until the earliest time the session could time out - but no more than the
+     *                 {@link #getMaxCheckInterval() maximum check interval}
+     */
+    protected Duration getNextCheckDelay(SessionHelper session, Instant now) {
+        Instant deadline = now.plus(getMaxCheckInterval());
+        boolean authenticated = session.isAuthenticated();
+        Duration authTimeout = session.getAuthTimeout();
+        if ((!authenticated) && GenericUtils.isPositive(authTimeout)) {
+            Instant authDeadline = session.getAuthTimeoutStart().plus(authTimeout);
+            if (authDeadline.isBefore(deadline)) {
+                deadline = authDeadline;
             }
         }
+
+        // the idle timeout is checked only for authenticated sessions - see SessionHelper#checkIdleTimeout
+        Duration idleTimeout = session.getIdleTimeout();
+        if (authenticated && GenericUtils.isPositive(idleTimeout)) {
+            Instant idleDeadline = session.getIdleTimeoutStart().plus(idleTimeout);
+            if (idleDeadline.isBefore(deadline)) {
+                deadline = idleDeadline;
+            }
+        }
+
+        // the check itself is "greater than" the timeout, so make sure it is done past the deadline
+        Duration delay = Duration.between(now, deadline).plusMillis(1L);
+        return delay.isNegative() ? Duration.ZERO : delay;
     }
 }
@@ -21,6 +21,7 @@ package org.apache.sshd.core;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.time.Duration;
+import java.util.zip.Deflater;
 
 import org.apache.sshd.client.config.keys.ClientIdentityLoader;
 import org.apache.sshd.common.Property;
@@ -30,6 +31,7 @@ import org.apache.sshd.common.util.OsUtils;
 import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.io.IoUtils;
 import org.apache.sshd.common.util.net.SshdSocketAddress;
+import org.apache.sshd.common.util.threads.TimerWheel;
 import org.apache.sshd.server.auth.WelcomeBannerPhase;
 import org.apache.sshd.server.channel.ChannelDataReceiver;
 
@@ -148,6 +150,34 @@ public final class CoreModuleProperties {
     public static final Property<Duration> HEARTBEAT_REPLY_WAIT
             = Property.durationSec("heartbeat-reply-wait", Duration.ofMinutes(5));
 
+    /**
+     * Maximum number of concurrent leases (i.e., channels) of a single session pooled by a
+     * {@link org.apache.sshd.client.session.ClientSessionPool} - the default is the same as OpenSSH's
+     * {@code MaxSessions}. <B>Note:</B> the effective value never exceeds {@link #MAX_CONCURRENT_CHANNELS}.
+     */
+    public static final Property<Integer> SESSION_POOL_MAX_CHANNELS
+            = Property.integer("session-pool-max-channels", 10);
+
+    /**
+     * Maximum number of sessions a {@link org.apache.sshd.client.session.ClientSessionPool} establishes to the same
+     * target (host, port, user and configuration)
+     */
+    public static final Property<Integer> SESSION_POOL_MAX_SESSIONS
+            = Property.integer("session-pool-max-sessions", 4);
+
+    /**
+     * Time a pooled session may remain without any lease before it is closed - non-positive means never
+     */
+    public static final Property<Duration> SESSION_POOL_IDLE_TIMEOUT
+            = Property.duration("session-pool-idle-timeout", Duration.ofMinutes(5));
+
+    /**
+     * Maximum time to wait for a pooled session lease - including connecting and authenticating a new session if
+     * required
+     */
+    public static final Property<Duration> SESSION_POOL_LEASE_TIMEOUT
+            = Property.duration("session-pool-lease-timeout", Duration.ofSeconds(30));
+
     /**
      * Whether to ignore invalid identities files when pre-initializing the client session
      *
@@ -275,6 +305,26 @@ public final class CoreModuleProperties {
     public static final Property<Duration> IDLE_TIMEOUT
             = Property.duration("idle-timeout", Duration.ofMinutes(10));
 
+    /**
+     * Resolution of the {@link TimerWheel} used to track the sessions authentication/idle timeouts and heartbeats
+     */
+    public static final Property<Duration> TIMER_WHEEL_TICK
+            = Property.duration("timer-wheel-tick", TimerWheel.DEFAULT_TICK_DURATION);
+
+    /**
+     * Number of buckets of the {@link TimerWheel} used to track the sessions authentication/idle timeouts and
+     * heartbeats
+     */
+    public static final Property<Integer> TIMER_WHEEL_SIZE
+            = Property.integer("timer-wheel-size", TimerWheel.DEFAULT_WHEEL_SIZE);
+
+    /**
+     * Maximum time between two checks of a session's authentication/idle timeouts - even if none of them can expire
+     * sooner - so that changes of the timeouts configuration are noticed
+     */
+    public static final Property<Duration> SESSION_TIMEOUT_MAX_CHECK_INTERVAL
+            = Property.duration("session-timeout-max-check-interval", Duration.ofSeconds(5L));
+
     /**
      * Key used to retrieve the value of the socket read timeout for NIO2 session implementation - in milliseconds.
      */
@@ -355,6 +405,20 @@ public final class CoreModuleProperties {
     public static final Property<Integer> NIO2_READ_BUFFER_SIZE
             = Property.integer("nio2-read-buf-size", 32 * 1024);
 
+    /**
+     * Whether NIO2 sessions should gather several queued outgoing packets into a single socket write instead of issuing
+     * one write per packet. See {@link org.apache.sshd.common.io.nio2.Nio2Session}
+     */
+    public static final Property<Boolean> NIO2_GATHERING_WRITE
+            = Property.bool("nio2-gathering-write", false);
+
+    /**
+     * Maximum number of bytes gathered into a single NIO2 socket write - a packet larger than this value is still
+     * written on its own. See {@link #NIO2_GATHERING_WRITE}
+     */
+    public static final Property<Integer> NIO2_MAX_GATHERING_WRITE_SIZE
+            = Property.integer("nio2-max-gathering-write-size", 256 * 1024);
+
     /**
      * Maximum allowed size of the initial identification text sent during the handshake
      */
@@ -394,6 +458,21 @@ public final class CoreModuleProperties {
     public static final Property<Long> REKEY_BLOCKS_LIMIT
             = Property.long_("rekey-blocks-limit", 0L);
 
+    /**
+     * Compression level (0-9) used for outgoing packets if compression negotiated - the default ({@code -1}) is zlib's
+     * default level (6). Lower levels (e.g., 1-3) trade some compression ratio for much lower CPU usage on bulk
+     * transfers.
+     */
+    public static final Property<Integer> COMPRESSION_LEVEL
+            = Property.integer("compression-level", Deflater.DEFAULT_COMPRESSION);
+
+    /**
+     * Compression strategy used for outgoing packets if compression negotiated - one of the {@link Deflater}
+     * {@code DEFAULT_STRATEGY}, {@code FILTERED} or {@code HUFFMAN_ONLY} values
+     */
+    public static final Property<Integer> COMPRESSION_STRATEGY
+            = Property.integer("compression-strategy", Deflater.DEFAULT_STRATEGY);
+
     /**
      * Average number of packets to be skipped before an {@code SSH_MSG_IGNORE} message is inserted in the stream. If
      * non-positive, then feature is disabled
@@ -630,6 +709,31 @@ public final class CoreModuleProperties {
      */
     public static final Property<Integer> PROP_DHGEX_SERVER_MAX_KEY
             = Property.integer("dhgex-server-max");
+
+    /**
+     * Maximum number of initialized host key signers kept per host key for re-use by subsequent key exchanges - zero
+     * disables the pooling. See {@link org.apache.sshd.server.kex.HostKeySignaturePool}.
+     */
+    public static final Property<Integer> HOST_KEY_SIGNERS_POOL_SIZE
+            = Property.integer("host-key-signers-pool-size", 8);
+
+    /**
+     * Whether the server orders the host key algorithms it proposes according to the (measured once) cost of signing
+     * with the matching host key - cheapest first. <B>Note:</B> the negotiation follows the client's preferences, so
+     * this only affects clients that do not express any - use {@link #HOST_KEY_MAX_SIGNING_COST_RATIO} to actually
+     * restrict the more expensive ones.
+     */
+    public static final Property<Boolean> PREFER_FAST_HOST_KEY_ALGORITHMS
+            = Property.bool("prefer-fast-host-key-algorithms", false);
+
+    /**
+     * If positive and {@link #PREFER_FAST_HOST_KEY_ALGORITHMS} is enabled, then host key algorithms whose signing cost
+     * exceeds the cheapest one by more than this ratio are not proposed. <B>Note:</B> clients that do not support any of
+     * the remaining algorithms will not be able to connect.
+     */
+    public static final Property<Integer> HOST_KEY_MAX_SIGNING_COST_RATIO
+            = Property.integer("host-key-max-signing-cost-ratio", 0);
+
     /**
      * Value used by the {@link org.apache.sshd.server.shell.InvertedShellWrapper} to control the &quot;busy-wait&quot;
      * sleep time (millis) on the pumping loop if nothing was pumped - must be <U>positive</U>.
@@ -637,6 +741,23 @@ public final class CoreModuleProperties {
     public static final Property<Duration> PUMP_SLEEP_TIME
             = Property.duration("inverted-shell-wrapper-pump-sleep", Duration.ofMillis(1));
 
+    /**
+     * Whether the {@link org.apache.sshd.server.shell.InvertedShellWrapper} uses blocking reads on dedicated pump
+     * tasks (instead of polling the streams) - if not set then the wrapper's own setting is used. <B>Note:</B> blocking
+     * mode requires 4 threads per shell and is therefore worthwhile only with
+     * {@link org.apache.sshd.common.util.threads.ThreadUtils#isVirtualThreadsEnabled() virtual threads}.
+     */
+    public static final Property<Boolean> PUMP_BLOCKING_READS
+            = Property.bool("inverted-shell-wrapper-blocking-pump");
+
+    /**
+     * Value used by the {@link org.apache.sshd.server.shell.InvertedShellWrapper} in blocking mode to decide that the
+     * output of an exited shell is kept open (e.g., by a background process) once it was idle for this long. Also used
+     * to poll shells that cannot be waited upon for their exit - must be <U>positive</U>.
+     */
+    public static final Property<Duration> PUMP_EXIT_CHECK_INTERVAL
+            = Property.duration("inverted-shell-wrapper-exit-check-interval", Duration.ofMillis(100L));
+
     /**
      * Value used by the {@link org.apache.sshd.server.shell.InvertedShellWrapper} to control copy buffer size.
      */
@@ -695,6 +816,39 @@ public final class CoreModuleProperties {
     public static final Property<Long> TCPIP_SERVER_CHANNEL_BUFFER_SIZE_THRESHOLD_LOW
             = Property.long_("tcpip-server-channel-buffer-size-threshold-low");
 
+    /**
+     * Whether the {@link org.apache.sshd.server.forward.TcpipServerChannel}-s connect through a single
+     * {@link org.apache.sshd.server.forward.SharedTcpipConnector} of their {@link org.apache.sshd.common.FactoryManager}
+     * instead of creating and closing a connector for each channel.
+     */
+    public static final Property<Boolean> TCPIP_SERVER_CHANNEL_SHARED_CONNECTOR
+            = Property.bool("tcpip-server-channel-shared-connector", true);
+
+    /**
+     * How many pre-connected sockets the {@link org.apache.sshd.server.forward.SharedTcpipConnector} keeps for each
+     * recently used destination - resolved from the {@link org.apache.sshd.common.FactoryManager}. Zero (default)
+     * disables the cache.
+     */
+    public static final Property<Integer> TCPIP_SERVER_CHANNEL_PRECONNECT_COUNT
+            = Property.integer("tcpip-server-channel-preconnect-count", 0);
+
+    /**
+     * Max. number of destinations for which pre-connected sockets are kept
+     *
+     * @see #TCPIP_SERVER_CHANNEL_PRECONNECT_COUNT
+     */
+    public static final Property<Integer> TCPIP_SERVER_CHANNEL_PRECONNECT_MAX_TARGETS
+            = Property.integer("tcpip-server-channel-preconnect-max-targets", 16);
+
+    /**
+     * How long a pre-connected socket may stay unused before it is discarded instead of being handed to a channel - also
+     * how long a destination may go unused before its pre-connected sockets are evicted
+     *
+     * @see #TCPIP_SERVER_CHANNEL_PRECONNECT_COUNT
+     */
+    public static final Property<Duration> TCPIP_SERVER_CHANNEL_PRECONNECT_IDLE_TIMEOUT
+            = Property.duration("tcpip-server-channel-preconnect-idle-timeout", Duration.ofSeconds(30L));
+
     private CoreModuleProperties() {
         throw new UnsupportedOperationException("No instance");
     }
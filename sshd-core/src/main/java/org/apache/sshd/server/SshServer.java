@@ -53,6 +53,7 @@ import org.apache.sshd.server.auth.keyboard.KeyboardInteractiveAuthenticator;
 import org.apache.sshd.server.auth.password.PasswordAuthenticator;
 import org.apache.sshd.server.auth.pubkey.PublickeyAuthenticator;
 import org.apache.sshd.server.command.CommandFactory;
+import org.apache.sshd.server.forward.SharedTcpipConnector;
 import org.apache.sshd.server.session.ServerConnectionServiceFactory;
 import org.apache.sshd.server.session.ServerProxyAcceptor;
 import org.apache.sshd.server.session.ServerUserAuthServiceFactory;
@@ -384,7 +385,7 @@ public class SshServer extends AbstractFactoryManager implements ServerFactoryMa
         Object closeId = toString();
         return builder()
                 .run(closeId, () -> removeSessionTimeout(sessionFactory))
-                .sequential(acceptor, ioServiceFactory)
+                .sequential(removeAttribute(SharedTcpipConnector.SHARED_CONNECTOR), acceptor, ioServiceFactory)
                 .run(closeId, () -> {
                     acceptor = null;
                     ioServiceFactory = null;
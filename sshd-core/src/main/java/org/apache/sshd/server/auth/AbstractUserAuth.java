@@ -19,6 +19,10 @@
 package org.apache.sshd.server.auth;
 
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.buffer.Buffer;
@@ -82,8 +86,63 @@ public abstract class AbstractUserAuth extends AbstractLoggingBean implements Us
 
     protected abstract Boolean doAuth(Buffer buffer, boolean init) throws Exception;
 
+    /**
+     * Handles the result of an asynchronous authenticator. If the result is already available then the handler is
+     * invoked directly. Otherwise, an {@link AsyncAuthException} is thrown so that the authentication service does not
+     * wait for it, and the handler is invoked once the result becomes available - on the thread that provides it.
+     * <B>Note:</B> in the latter case the handler must not rely on the contents of the received buffer since it may
+     * have been re-used by then.
+     *
+     * @param  stage              The authenticator's result
+     * @param  handler            The {@link AsyncResultHandler} that completes the authentication
+     * @return                    The handler's result if the authenticator's one was already available
+     * @throws AsyncAuthException If the authenticator's result is not available yet
+     * @throws Exception          If the handler failed
+     */
+    protected Boolean handleAsyncResult(CompletionStage<Boolean> stage, AsyncResultHandler handler) throws Exception {
+        CompletableFuture<Boolean> future = stage.toCompletableFuture();
+        if (future.isDone()) {
+            Boolean authed = null;
+            Throwable error = null;
+            try {
+                authed = future.join();
+            } catch (CompletionException | CancellationException e) {
+                error = (e.getCause() == null) ? e : e.getCause();
+            }
+            return handler.handle(authed, error);
+        }
+
+        AsyncAuthException async = new AsyncAuthException();
+        future.whenComplete((authed, error) -> {
+            Boolean result;
+            try {
+                result = handler.handle(authed, (error instanceof CompletionException) ? error.getCause() : error);
+            } catch (Throwable e) {
+                warn("handleAsyncResult({}@{}) failed ({}) to complete {} authentication: {}",
+                        getUsername(), getServerSession(), e.getClass().getSimpleName(), getName(), e.getMessage(), e);
+                result = Boolean.FALSE;
+            }
+            async.setAuthResult(result);
+        });
+        throw async;
+    }
+
     @Override
     public String toString() {
         return getName() + ": " + getSession() + "[" + getService() + "]";
     }
+
+    /**
+     * Completes an authentication once the (asynchronous) authenticator's result is available
+     */
+    @FunctionalInterface
+    public interface AsyncResultHandler {
+        /**
+         * @param  authed    The authenticator's result - ignored if {@code error} is not {@code null}
+         * @param  error     The failure reported by the authenticator - {@code null} if none
+         * @return           The authentication result - {@code null} if still in progress
+         * @throws Exception If failed to complete the authentication
+         */
+        Boolean handle(Boolean authed, Throwable error) throws Exception;
+    }
 }
@@ -20,11 +20,18 @@
 package org.apache.sshd.server.auth;
 
 import java.lang.reflect.Array;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 
 import org.apache.sshd.common.RuntimeSshException;
 
 /**
+ * Thrown by an authenticator in order to indicate that the result will be available later - the authentication
+ * service registers a listener and resumes once {@link #setAuthResult(Boolean)} is invoked.
+ *
  * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
  */
 public class AsyncAuthException extends RuntimeSshException {
@@ -33,17 +40,29 @@ public class AsyncAuthException extends RuntimeSshException {
 
     protected Object listener;
     protected Boolean authed;
+    protected boolean done;
 
     public AsyncAuthException() {
         super();
     }
 
     public void setAuthed(boolean authed) {
+        setAuthResult(authed);
+    }
+
+    /**
+     * Signals the authentication result - only the first invocation has any effect
+     *
+     * @param authed The result - {@code null} if the authentication is still in progress (e.g., some further
+     *               information has been requested from the client)
+     */
+    public void setAuthResult(Boolean authed) {
         Object listener;
         synchronized (this) {
-            if (this.authed != null) {
+            if (this.done) {
                 return;
             }
+            this.done = true;
             this.authed = authed;
             listener = this.listener;
         }
@@ -72,6 +91,7 @@ public class AsyncAuthException extends RuntimeSshException {
 
     public void addListener(Consumer<? super Boolean> listener) {
         Boolean result;
+        boolean completed;
         synchronized (this) {
             if (this.listener == null) {
                 this.listener = listener;
@@ -86,9 +106,50 @@ public class AsyncAuthException extends RuntimeSshException {
                 this.listener = nl;
             }
             result = this.authed;
+            completed = this.done;
         }
-        if (result != null) {
+        if (completed) {
             listener.accept(result);
         }
     }
+
+    /**
+     * @return A {@link CompletionStage} that completes with the authentication result
+     */
+    public CompletionStage<Boolean> toCompletionStage() {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        addListener(result::complete);
+        return result;
+    }
+
+    /**
+     * Bridges an asynchronous authentication result to the synchronous authenticators API
+     *
+     * @param  stage              The {@link CompletionStage} of the authentication result
+     * @return                    The result if already available
+     * @throws AsyncAuthException If the result is not available yet - completed once the stage completes. A failed
+     *                            stage is considered as rejected authentication
+     * @throws RuntimeException   If the stage has already failed - the original exception if a runtime one
+     */
+    public static boolean resolve(CompletionStage<Boolean> stage) throws AsyncAuthException {
+        CompletableFuture<Boolean> future = stage.toCompletableFuture();
+        if (future.isDone()) {
+            try {
+                return Boolean.TRUE.equals(future.join());
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = (e.getCause() == null) ? e : e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new RuntimeSshException(cause);
+                }
+            }
+        }
+
+        AsyncAuthException async = new AsyncAuthException();
+        future.whenComplete((authed, error) -> async.setAuthed((error == null) && Boolean.TRUE.equals(authed)));
+        throw async;
+    }
 }
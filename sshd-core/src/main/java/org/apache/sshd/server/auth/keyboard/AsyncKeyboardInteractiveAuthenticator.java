@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.auth.keyboard;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.sshd.server.auth.AsyncAuthException;
+import org.apache.sshd.server.session.ServerSession;
+
+/**
+ * A {@link KeyboardInteractiveAuthenticator} that validates the responses asynchronously - e.g., when they are checked
+ * by some remote service. The server does not wait for the result, so other sessions handled by the same I/O thread are
+ * not delayed by it.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public interface AsyncKeyboardInteractiveAuthenticator extends KeyboardInteractiveAuthenticator {
+    /**
+     * Called to authenticate the response to the challenge(s) sent previously
+     *
+     * @param  session   The {@link ServerSession} through which the response was received
+     * @param  username  The username
+     * @param  responses The received responses - in the same order as the prompts sent to the client
+     * @return           A {@link CompletionStage} of the authentication result - a failure is considered as rejected
+     *                   authentication
+     */
+    CompletionStage<Boolean> authenticateAsync(ServerSession session, String username, List<String> responses);
+
+    @Override
+    default boolean authenticate(ServerSession session, String username, List<String> responses) throws Exception {
+        return AsyncAuthException.resolve(authenticateAsync(session, username, responses));
+    }
+}
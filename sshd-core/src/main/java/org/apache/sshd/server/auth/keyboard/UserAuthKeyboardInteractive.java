@@ -21,6 +21,7 @@ package org.apache.sshd.server.auth.keyboard;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.sshd.common.RuntimeSshException;
 import org.apache.sshd.common.SshConstants;
@@ -134,6 +135,24 @@ public class UserAuthKeyboardInteractive extends AbstractUserAuth {
             return false;
         }
 
+        if (auth instanceof AsyncKeyboardInteractiveAuthenticator) {
+            CompletionStage<Boolean> result
+                    = ((AsyncKeyboardInteractiveAuthenticator) auth).authenticateAsync(session, username, responses);
+            return handleAsyncResult(result, (authed, error) -> {
+                if (error != null) {
+                    warn("doAuth({}@{}) failed ({}) to consult authenticator: {}",
+                            username, session, error.getClass().getSimpleName(), error.getMessage(), error);
+                    return Boolean.FALSE;
+                }
+
+                if (log.isDebugEnabled()) {
+                    log.debug("doAuth({}@{}) authenticate {} responses asynchronous result: {}",
+                            username, session, num, authed);
+                }
+                return Boolean.TRUE.equals(authed);
+            });
+        }
+
         boolean authed;
         try {
             authed = auth.authenticate(session, username, responses);
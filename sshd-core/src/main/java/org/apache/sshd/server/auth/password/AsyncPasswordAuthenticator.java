@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.auth.password;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import org.apache.sshd.server.auth.AsyncAuthException;
+import org.apache.sshd.server.session.ServerSession;
+
+/**
+ * A {@link PasswordAuthenticator} whose result is provided asynchronously - e.g., when the password is checked by some
+ * remote service. The server does not wait for the result, so other sessions handled by the same I/O thread are not
+ * delayed by it.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FunctionalInterface
+public interface AsyncPasswordAuthenticator extends PasswordAuthenticator {
+    /**
+     * Check the validity of a password.
+     *
+     * @param  username The username credential
+     * @param  password The provided password
+     * @param  session  The {@link ServerSession} attempting the authentication
+     * @return          A {@link CompletionStage} of the authentication result - may fail with a
+     *                  {@link PasswordChangeRequiredException} if the password is expired or not strong enough to suit
+     *                  the server's policy. Any other failure is considered as rejected authentication.
+     */
+    CompletionStage<Boolean> authenticateAsync(String username, String password, ServerSession session);
+
+    @Override
+    default boolean authenticate(String username, String password, ServerSession session)
+            throws PasswordChangeRequiredException, AsyncAuthException {
+        return AsyncAuthException.resolve(authenticateAsync(username, password, session));
+    }
+
+    /**
+     * @param  delegate The (blocking) {@link PasswordAuthenticator} to invoke
+     * @param  executor The {@link Executor} on which to invoke it
+     * @return          An {@link AsyncPasswordAuthenticator} that invokes the delegate on the executor instead of the
+     *                  thread handling the session's messages
+     */
+    static AsyncPasswordAuthenticator executeOn(PasswordAuthenticator delegate, Executor executor) {
+        Objects.requireNonNull(delegate, "No delegate authenticator");
+        Objects.requireNonNull(executor, "No executor");
+        return new AsyncPasswordAuthenticator() {
+            @Override
+            public CompletionStage<Boolean> authenticateAsync(String username, String password, ServerSession session) {
+                CompletableFuture<Boolean> result = new CompletableFuture<>();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            result.complete(delegate.authenticate(username, password, session));
+                        } catch (AsyncAuthException e) {
+                            e.addListener(result::complete);
+                        } catch (Throwable e) {
+                            result.completeExceptionally(e);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+                return result;
+            }
+
+            @Override
+            public boolean handleClientPasswordChangeRequest(
+                    ServerSession session, String username, String oldPassword, String newPassword) {
+                return delegate.handleClientPasswordChangeRequest(session, username, oldPassword, newPassword);
+            }
+
+            @Override
+            public String toString() {
+                return AsyncPasswordAuthenticator.class.getSimpleName() + "[" + delegate + "]";
+            }
+        };
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.sshd.server.auth.password;
 
+import java.util.concurrent.CompletionStage;
+
 import org.apache.sshd.common.RuntimeSshException;
 import org.apache.sshd.common.SshConstants;
 import org.apache.sshd.common.auth.UserAuthMethodFactory;
@@ -91,6 +93,30 @@ public class UserAuthPassword extends AbstractUserAuth {
             return false;
         }
 
+        if (auth instanceof AsyncPasswordAuthenticator) {
+            CompletionStage<Boolean> result = ((AsyncPasswordAuthenticator) auth).authenticateAsync(username, password, session);
+            return handleAsyncResult(result, (authed, error) -> {
+                if (error instanceof PasswordChangeRequiredException) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("checkPassword({}) password change required: {}", session, error.getMessage());
+                    }
+                    return handleServerPasswordChangeRequest(
+                            buffer, session, username, password, (PasswordChangeRequiredException) error);
+                }
+
+                if (error != null) {
+                    warn("checkPassword({}) failed ({}) to consult authenticator: {}",
+                            session, error.getClass().getSimpleName(), error.getMessage(), error);
+                    return false;
+                }
+
+                if (log.isDebugEnabled()) {
+                    log.debug("checkPassword({}) asynchronous authentication result: {}", session, authed);
+                }
+                return Boolean.TRUE.equals(authed);
+            });
+        }
+
         try {
             boolean authed;
             try {
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.auth.pubkey;
+
+import java.security.PublicKey;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import org.apache.sshd.server.auth.AsyncAuthException;
+import org.apache.sshd.server.session.ServerSession;
+
+/**
+ * A {@link PublickeyAuthenticator} whose result is provided asynchronously - e.g., when the key is looked up in some
+ * remote service. The server does not wait for the result, so other sessions handled by the same I/O thread are not
+ * delayed by it. <B>Note:</B> the key's signature is verified by the server only if the key is accepted.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FunctionalInterface
+public interface AsyncPublickeyAuthenticator extends PublickeyAuthenticator {
+    /**
+     * Check the validity of a public key.
+     *
+     * @param  username The username
+     * @param  key      The key
+     * @param  session  The server session
+     * @return          A {@link CompletionStage} of the authentication result - a failure is considered as rejected
+     *                  authentication
+     */
+    CompletionStage<Boolean> authenticateAsync(String username, PublicKey key, ServerSession session);
+
+    @Override
+    default boolean authenticate(String username, PublicKey key, ServerSession session) throws AsyncAuthException {
+        return AsyncAuthException.resolve(authenticateAsync(username, key, session));
+    }
+
+    /**
+     * @param  delegate The (blocking) {@link PublickeyAuthenticator} to invoke
+     * @param  executor The {@link Executor} on which to invoke it
+     * @return          An {@link AsyncPublickeyAuthenticator} that invokes the delegate on the executor instead of the
+     *                  thread handling the session's messages
+     */
+    static AsyncPublickeyAuthenticator executeOn(PublickeyAuthenticator delegate, Executor executor) {
+        Objects.requireNonNull(delegate, "No delegate authenticator");
+        Objects.requireNonNull(executor, "No executor");
+        return new AsyncPublickeyAuthenticator() {
+            @Override
+            public CompletionStage<Boolean> authenticateAsync(String username, PublicKey key, ServerSession session) {
+                CompletableFuture<Boolean> result = new CompletableFuture<>();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            result.complete(delegate.authenticate(username, key, session));
+                        } catch (AsyncAuthException e) {
+                            e.addListener(result::complete);
+                        } catch (Throwable e) {
+                            result.completeExceptionally(e);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+                return result;
+            }
+
+            @Override
+            public String toString() {
+                return AsyncPublickeyAuthenticator.class.getSimpleName() + "[" + delegate + "]";
+            }
+        };
+    }
+}
@@ -21,9 +21,13 @@ package org.apache.sshd.server.auth.pubkey;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -32,19 +36,27 @@ import org.apache.sshd.common.config.keys.AuthorizedKeyEntry;
 import org.apache.sshd.common.config.keys.KeyUtils;
 import org.apache.sshd.common.config.keys.PublicKeyEntryResolver;
 import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
 import org.apache.sshd.common.util.logging.AbstractLoggingBean;
 import org.apache.sshd.server.session.ServerSession;
 
 /**
  * Checks against a {@link Collection} of {@link AuthorizedKeyEntry}s
  *
- * Records the matched entry under a session attribute.
+ * Records the matched entry under a session attribute. The resolved keys are indexed by their type and encoded data
+ * so that the lookup cost does not depend on the number of entries. The instance is immutable once constructed and can
+ * therefore be shared by concurrent sessions.
  */
 public class AuthorizedKeyEntriesPublickeyAuthenticator extends AbstractLoggingBean implements PublickeyAuthenticator {
     public static final AttributeRepository.AttributeKey<AuthorizedKeyEntry> AUTHORIZED_KEY
             = new AttributeRepository.AttributeKey<>();
 
     private Map<AuthorizedKeyEntry, PublicKey> resolvedKeys;
+    // entries sharing the same key are kept in their original order so the first one's login options are used
+    private Map<KeyIndex, List<AuthorizedKeyEntry>> keysIndex;
+    // keys that could not be encoded - checked linearly
+    private Map<AuthorizedKeyEntry, PublicKey> unindexedKeys;
     private Object id;
 
     public AuthorizedKeyEntriesPublickeyAuthenticator(
@@ -53,18 +65,58 @@ public class AuthorizedKeyEntriesPublickeyAuthenticator extends AbstractLoggingB
                                                       PublicKeyEntryResolver fallbackResolver)
                                                                                                throws IOException,
                                                                                                GeneralSecurityException {
+        this(id, session, entries, fallbackResolver, null);
+    }
+
+    /**
+     * @param  id                       Some kind of mnemonic identifier for the authenticator - used also in
+     *                                  {@code toString()}
+     * @param  session                  The {@link ServerSession} that triggered this call - may be {@code null}
+     * @param  entries                  The entries to parse - ignored if {@code null}/empty
+     * @param  fallbackResolver         The public key resolver to use if none of the default registered ones works
+     * @param  previous                 A previously built instance (e.g., before the entries were re-loaded) whose
+     *                                  already resolved keys are re-used for unchanged entries - ignored if
+     *                                  {@code null}
+     * @throws IOException              If failed to parse the keys data
+     * @throws GeneralSecurityException If failed to generate the relevant keys from the parsed data
+     */
+    public AuthorizedKeyEntriesPublickeyAuthenticator(
+                                                      Object id, ServerSession session,
+                                                      Collection<? extends AuthorizedKeyEntry> entries,
+                                                      PublicKeyEntryResolver fallbackResolver,
+                                                      AuthorizedKeyEntriesPublickeyAuthenticator previous)
+                                                                                                            throws IOException,
+                                                                                                            GeneralSecurityException {
         this.id = id;
         int numEntries = GenericUtils.size(entries);
         if (numEntries <= 0) {
             resolvedKeys = Collections.emptyMap();
-        } else {
-            resolvedKeys = new HashMap<>(numEntries);
-            for (AuthorizedKeyEntry e : entries) {
+            keysIndex = Collections.emptyMap();
+            unindexedKeys = Collections.emptyMap();
+            return;
+        }
+
+        Map<AuthorizedKeyEntry, PublicKey> knownKeys = (previous == null) ? Collections.emptyMap() : previous.resolvedKeys;
+        resolvedKeys = new HashMap<>(numEntries);
+        keysIndex = new HashMap<>(numEntries);
+        unindexedKeys = new LinkedHashMap<>();
+        for (AuthorizedKeyEntry e : entries) {
+            PublicKey k = knownKeys.get(e);
+            if (k == null) {
                 Map<String, String> headers = e.getLoginOptions();
-                PublicKey k = e.resolvePublicKey(session, headers, fallbackResolver);
-                if (k != null) {
-                    resolvedKeys.put(e, k);
-                }
+                k = e.resolvePublicKey(session, headers, fallbackResolver);
+            }
+            if (k == null) {
+                continue;
+            }
+
+            resolvedKeys.putIfAbsent(e, k);
+
+            KeyIndex index = KeyIndex.of(k);
+            if (index == null) {
+                unindexedKeys.putIfAbsent(e, k);
+            } else {
+                keysIndex.computeIfAbsent(index, i -> new ArrayList<>(1)).add(e);
             }
         }
     }
@@ -76,6 +128,13 @@ public class AuthorizedKeyEntriesPublickeyAuthenticator extends AbstractLoggingB
         return id;
     }
 
+    /**
+     * @return Number of distinct resolved keys
+     */
+    public int size() {
+        return resolvedKeys.size();
+    }
+
     @Override
     public boolean authenticate(String username, PublicKey key, ServerSession session) {
         if (GenericUtils.isEmpty(resolvedKeys)) {
@@ -86,16 +145,15 @@ public class AuthorizedKeyEntriesPublickeyAuthenticator extends AbstractLoggingB
             return false;
         }
 
-        for (Map.Entry<AuthorizedKeyEntry, PublicKey> e : resolvedKeys.entrySet()) {
-            if (KeyUtils.compareKeys(key, e.getValue())) {
-                if (log.isDebugEnabled()) {
-                    log.debug("authenticate(" + username + ")[" + session + "] match found");
-                }
-                if (session != null) {
-                    session.setAttribute(AUTHORIZED_KEY, e.getKey());
-                }
-                return true;
+        AuthorizedKeyEntry entry = findMatchingEntry(key);
+        if (entry != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("authenticate(" + username + ")[" + session + "] match found");
             }
+            if (session != null) {
+                session.setAttribute(AUTHORIZED_KEY, entry);
+            }
+            return true;
         }
 
         if (log.isDebugEnabled()) {
@@ -104,8 +162,80 @@ public class AuthorizedKeyEntriesPublickeyAuthenticator extends AbstractLoggingB
         return false;
     }
 
+    /**
+     * @param  key The {@link PublicKey} to look up
+     * @return     The first (in original order) matching {@link AuthorizedKeyEntry} - {@code null} if none found
+     */
+    protected AuthorizedKeyEntry findMatchingEntry(PublicKey key) {
+        KeyIndex index = KeyIndex.of(key);
+        List<AuthorizedKeyEntry> candidates = (index == null) ? null : keysIndex.get(index);
+        if (candidates != null) {
+            for (AuthorizedKeyEntry e : candidates) {
+                if (KeyUtils.compareKeys(key, resolvedKeys.get(e))) {
+                    return e;
+                }
+            }
+        }
+
+        for (Map.Entry<AuthorizedKeyEntry, PublicKey> e : unindexedKeys.entrySet()) {
+            if (KeyUtils.compareKeys(key, e.getValue())) {
+                return e.getKey();
+            }
+        }
+
+        return null;
+    }
+
     @Override
     public String toString() {
         return Objects.toString(getId());
     }
+
+    /**
+     * Identifies a key by its type and SSH encoded data
+     */
+    private static final class KeyIndex {
+        private final String keyType;
+        private final byte[] data;
+        private final int hash;
+
+        private KeyIndex(String keyType, byte[] data) {
+            this.keyType = keyType;
+            this.data = data;
+            this.hash = keyType.hashCode() * 31 + Arrays.hashCode(data);
+        }
+
+        static KeyIndex of(PublicKey key) {
+            String keyType = (key == null) ? null : KeyUtils.getKeyType(key);
+            if (GenericUtils.isEmpty(keyType)) {
+                return null;
+            }
+
+            try {
+                Buffer buffer = new ByteArrayBuffer();
+                buffer.putRawPublicKeyBytes(key);
+                return new KeyIndex(keyType, buffer.getCompactData());
+            } catch (RuntimeException e) {
+                return null;    // unsupported key type - use linear lookup
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof KeyIndex)) {
+                return false;
+            }
+
+            KeyIndex other = (KeyIndex) obj;
+            return (hash == other.hash) && keyType.equals(other.keyType) && Arrays.equals(data, other.data);
+        }
+    }
 }
@@ -20,8 +20,10 @@ package org.apache.sshd.server.auth.pubkey;
 
 import java.security.PublicKey;
 import java.security.SignatureException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.sshd.common.NamedFactory;
 import org.apache.sshd.common.NamedResource;
@@ -36,6 +38,7 @@ import org.apache.sshd.common.util.buffer.Buffer;
 import org.apache.sshd.common.util.buffer.BufferUtils;
 import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
 import org.apache.sshd.server.auth.AbstractUserAuth;
+import org.apache.sshd.server.auth.AsyncAuthException;
 import org.apache.sshd.server.session.ServerSession;
 
 /**
@@ -116,15 +119,63 @@ public class UserAuthPublicKey extends AbstractUserAuth implements SignatureFact
             return Boolean.FALSE;
         }
 
+        if (authenticator instanceof AsyncPublickeyAuthenticator) {
+            CompletionStage<Boolean> result
+                    = ((AsyncPublickeyAuthenticator) authenticator).authenticateAsync(username, key, session);
+            // the received buffer may be re-used by the time the result is available
+            Buffer keyBlob = new ByteArrayBuffer(Arrays.copyOfRange(buffer.array(), oldPos, oldPos + 4 + len));
+            return handleAsyncResult(result, (authed, error) -> {
+                if (error != null) {
+                    warn("doAuth({}@{}) failed ({}) to consult delegate for {} key={}: {}",
+                            username, session, error.getClass().getSimpleName(), alg, KeyUtils.getFingerPrint(key),
+                            error.getMessage(), error);
+                    return Boolean.FALSE;
+                }
+                return completeAuth(session, username, alg, key, Boolean.TRUE.equals(authed), keyBlob, verifier, sig);
+            });
+        }
+
         boolean authed;
         try {
             authed = authenticator.authenticate(username, key, session);
+        } catch (AsyncAuthException e) {
+            // make sure the signature is verified once the result is available
+            Buffer keyBlob = new ByteArrayBuffer(Arrays.copyOfRange(buffer.array(), oldPos, oldPos + 4 + len));
+            return handleAsyncResult(e.toCompletionStage(),
+                    (result, error) -> completeAuth(
+                            session, username, alg, key, Boolean.TRUE.equals(result), keyBlob, verifier, sig));
         } catch (Error e) {
             warn("doAuth({}@{}) failed ({}) to consult delegate for {} key={}: {}",
                     username, session, e.getClass().getSimpleName(), alg, KeyUtils.getFingerPrint(key), e.getMessage(), e);
             throw new RuntimeSshException(e);
         }
 
+        buffer.rpos(oldPos);
+        buffer.wpos(oldPos + 4 + len);
+        return completeAuth(session, username, alg, key, authed, buffer, verifier, sig);
+    }
+
+    /**
+     * Completes the authentication once the authenticator's result is available
+     *
+     * @param  session   The {@link ServerSession} through which the request was received
+     * @param  username  The username
+     * @param  alg       The signature algorithm
+     * @param  key       The {@link PublicKey} being authenticated
+     * @param  authed    The authenticator's result
+     * @param  keyBlob   A {@link Buffer} whose available data is the encoded key blob
+     * @param  verifier  The {@link Signature} verifier initialized with the key
+     * @param  sig       The signature sent by the client - {@code null} if this is only a query whether the key is
+     *                   acceptable
+     * @return           The authentication result - {@code null} if the client was told the key is acceptable and
+     *                   authentication is still in progress
+     * @throws Exception If failed to respond or verify the signature
+     */
+    protected Boolean completeAuth(
+            ServerSession session, String username, String alg, PublicKey key, boolean authed,
+            Buffer keyBlob, Signature verifier, byte[] sig)
+            throws Exception {
+        boolean debugEnabled = log.isDebugEnabled();
         if (debugEnabled) {
             log.debug("doAuth({}@{}) key type={}, fingerprint={} - authentication result: {}",
                     username, session, alg, KeyUtils.getFingerPrint(key), authed);
@@ -134,14 +185,12 @@ public class UserAuthPublicKey extends AbstractUserAuth implements SignatureFact
             return Boolean.FALSE;
         }
 
-        if (!hasSig) {
-            sendPublicKeyResponse(session, username, alg, key, buffer.array(), oldPos, 4 + len, buffer);
+        if (sig == null) {
+            sendPublicKeyResponse(session, username, alg, key, keyBlob.array(), keyBlob.rpos(), keyBlob.available(), keyBlob);
             return null;
         }
 
-        buffer.rpos(oldPos);
-        buffer.wpos(oldPos + 4 + len);
-        if (!verifySignature(session, username, alg, key, buffer, verifier, sig)) {
+        if (!verifySignature(session, username, alg, key, keyBlob, verifier, sig)) {
             throw new SignatureException("Key verification failed");
         }
 
@@ -38,6 +38,7 @@ import org.apache.sshd.common.config.keys.PublicKeyEntryResolver;
 import org.apache.sshd.common.util.GenericUtils;
 import org.apache.sshd.common.util.io.IoUtils;
 import org.apache.sshd.common.util.io.ModifiableFileWatcher;
+import org.apache.sshd.server.auth.pubkey.AuthorizedKeyEntriesPublickeyAuthenticator;
 import org.apache.sshd.server.auth.pubkey.PublickeyAuthenticator;
 import org.apache.sshd.server.auth.pubkey.RejectAllPublickeyAuthenticator;
 import org.apache.sshd.server.session.ServerSession;
@@ -65,6 +66,8 @@ public class AuthorizedKeysAuthenticator extends ModifiableFileWatcher implement
 
     private final AtomicReference<PublickeyAuthenticator> delegateHolder = // assumes initially reject-all
             new AtomicReference<>(RejectAllPublickeyAuthenticator.INSTANCE);
+    // the replaced delegate while re-loading - used to re-use the keys of the unchanged entries
+    private AuthorizedKeyEntriesPublickeyAuthenticator previousEntriesAuthenticator;
 
     public AuthorizedKeysAuthenticator(Path file) {
         this(file, IoUtils.getLinkOptions(false));
@@ -109,12 +112,28 @@ public class AuthorizedKeysAuthenticator extends ModifiableFileWatcher implement
     protected PublickeyAuthenticator resolvePublickeyAuthenticator(String username, ServerSession session)
             throws IOException, GeneralSecurityException {
         if (checkReloadRequired()) {
-            /*
-             * Start fresh - NOTE: if there is any error then we want to reject all attempts since we don't want to
-             * remain with the previous data - safer that way
-             */
-            delegateHolder.set(RejectAllPublickeyAuthenticator.INSTANCE);
+            // avoid having concurrent sessions re-load (potentially large) files in parallel
+            synchronized (delegateHolder) {
+                if (checkReloadRequired()) {
+                    reloadPublickeyAuthenticator(username, session);
+                }
+            }
+        }
+
+        return delegateHolder.get();
+    }
 
+    protected void reloadPublickeyAuthenticator(String username, ServerSession session)
+            throws IOException, GeneralSecurityException {
+        /*
+         * Start fresh - NOTE: if there is any error then we want to reject all attempts since we don't want to remain
+         * with the previous data - safer that way
+         */
+        PublickeyAuthenticator previous = delegateHolder.getAndSet(RejectAllPublickeyAuthenticator.INSTANCE);
+        previousEntriesAuthenticator = (previous instanceof AuthorizedKeyEntriesPublickeyAuthenticator)
+                ? (AuthorizedKeyEntriesPublickeyAuthenticator) previous
+                : null;
+        try {
             Path path = getPath();
             if (exists()) {
                 Collection<AuthorizedKeyEntry> entries = reloadAuthorizedKeys(path, username, session);
@@ -126,16 +145,33 @@ public class AuthorizedKeysAuthenticator extends ModifiableFileWatcher implement
             } else {
                 log.info("resolvePublickeyAuthenticator({})[{}] no authorized keys file at {}", username, session, path);
             }
+        } finally {
+            previousEntriesAuthenticator = null;    // do not hold on to the previous keys
         }
-
-        return delegateHolder.get();
     }
 
+    /**
+     * Creates the authenticator for the re-loaded entries. By default, the keys already resolved for the previous
+     * contents of the file are re-used for the unchanged entries, so only new or modified entries are decoded.
+     *
+     * @param  username                 The username that triggered the re-load
+     * @param  session                  The {@link ServerSession} that triggered the re-load
+     * @param  path                     The file path
+     * @param  entries                  The re-loaded entries
+     * @param  fallbackResolver         The public key resolver to use if none of the default registered ones works
+     * @return                          The {@link PublickeyAuthenticator} to use until the file is modified again
+     * @throws IOException              If failed to parse the keys data
+     * @throws GeneralSecurityException If failed to generate the relevant keys from the parsed data
+     */
     protected PublickeyAuthenticator createDelegateAuthenticator(
             String username, ServerSession session, Path path,
             Collection<AuthorizedKeyEntry> entries, PublicKeyEntryResolver fallbackResolver)
             throws IOException, GeneralSecurityException {
-        return PublickeyAuthenticator.fromAuthorizedEntries(path, session, entries, fallbackResolver);
+        if (GenericUtils.isEmpty(entries)) {
+            return RejectAllPublickeyAuthenticator.INSTANCE;
+        }
+
+        return new AuthorizedKeyEntriesPublickeyAuthenticator(path, session, entries, fallbackResolver, previousEntriesAuthenticator);
     }
 
     protected PublicKeyEntryResolver getFallbackPublicKeyEntryResolver() {
@@ -0,0 +1,446 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.forward;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sshd.common.AttributeRepository;
+import org.apache.sshd.common.AttributeRepository.AttributeKey;
+import org.apache.sshd.common.Closeable;
+import org.apache.sshd.common.FactoryManager;
+import org.apache.sshd.common.io.IoConnectFuture;
+import org.apache.sshd.common.io.IoConnector;
+import org.apache.sshd.common.io.IoHandler;
+import org.apache.sshd.common.io.IoServiceFactory;
+import org.apache.sshd.common.io.IoSession;
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.Readable;
+import org.apache.sshd.common.util.ValidateUtils;
+import org.apache.sshd.common.util.closeable.AbstractInnerCloseable;
+import org.apache.sshd.common.util.threads.TimerWheel;
+import org.apache.sshd.common.util.threads.TimerWheel.Timeout;
+import org.apache.sshd.core.CoreModuleProperties;
+
+/**
+ * A single long-lived {@link IoConnector} used by all the {@link TcpipServerChannel}-s of a {@link FactoryManager}
+ * instead of creating (and later closing) a connector for each channel. Each connection is routed to the
+ * {@link IoHandler} of its channel, which is carried in the connection's context.
+ *
+ * Optionally keeps a few pre-connected sockets for recently used destinations so that opening a channel to a &quot;hot&quot;
+ * destination does not have to wait for the TCP handshake - see
+ * {@link CoreModuleProperties#TCPIP_SERVER_CHANNEL_PRECONNECT_COUNT}. Reading from such a socket is suspended until it
+ * is handed to a channel, which resumes it once the channel is open. Expired sockets and destinations that have not been
+ * used for a while are evicted periodically using the manager's {@link TimerWheel} (if any).
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class SharedTcpipConnector extends AbstractInnerCloseable implements IoHandler {
+    /**
+     * The {@link FactoryManager} attribute holding its shared connector
+     */
+    public static final AttributeKey<SharedTcpipConnector> SHARED_CONNECTOR = new AttributeKey<>();
+
+    /**
+     * The connection context attribute holding the {@link IoHandler} the connection events are routed to
+     */
+    public static final AttributeKey<IoHandler> CONNECTION_HANDLER = new AttributeKey<>();
+
+    private final IoServiceFactory ioServiceFactory;
+    private final IoConnector connector;
+    private final int preConnectCount;
+    private final int preConnectMaxTargets;
+    private final long preConnectIdleNanos;
+    private final Map<SocketAddress, SpareTarget> spares = new ConcurrentHashMap<>();
+    private final AtomicLong claimedSparesCount = new AtomicLong();
+    private final Timeout evictionTimeout;
+
+    public SharedTcpipConnector(FactoryManager manager) {
+        this.ioServiceFactory = Objects.requireNonNull(manager.getIoServiceFactory(), "No I/O service factory");
+        this.connector = ioServiceFactory.createConnector(this);
+        this.preConnectCount = CoreModuleProperties.TCPIP_SERVER_CHANNEL_PRECONNECT_COUNT.getRequired(manager);
+        this.preConnectMaxTargets = CoreModuleProperties.TCPIP_SERVER_CHANNEL_PRECONNECT_MAX_TARGETS.getRequired(manager);
+        Duration idleTimeout = CoreModuleProperties.TCPIP_SERVER_CHANNEL_PRECONNECT_IDLE_TIMEOUT.getRequired(manager);
+        this.preConnectIdleNanos = idleTimeout.toNanos();
+
+        TimerWheel timerWheel = manager.getTimerWheel();
+        this.evictionTimeout = ((preConnectCount > 0) && (timerWheel != null) && GenericUtils.isPositive(idleTimeout))
+                ? timerWheel.scheduleAtFixedRate(timeouts -> evictIdleSpares(), this, idleTimeout, idleTimeout)
+                : null;
+    }
+
+    /**
+     * @param  manager The {@link FactoryManager}
+     * @return         Its shared connector - a new one is created if none yet or if the manager has been restarted
+     *                 (i.e., its {@link IoServiceFactory} has changed) since the current one was created
+     */
+    public static SharedTcpipConnector resolveSharedConnector(FactoryManager manager) {
+        IoServiceFactory factory = manager.getIoServiceFactory();
+        SharedTcpipConnector shared = manager.getAttribute(SHARED_CONNECTOR);
+        if ((shared != null) && shared.isUsable(factory)) {
+            return shared;
+        }
+
+        synchronized (SHARED_CONNECTOR) {
+            shared = manager.getAttribute(SHARED_CONNECTOR);
+            if ((shared != null) && shared.isUsable(factory)) {
+                return shared;
+            }
+
+            if (shared != null) {
+                shared.close(true);
+            }
+
+            shared = new SharedTcpipConnector(manager);
+            manager.setAttribute(SHARED_CONNECTOR, shared);
+            return shared;
+        }
+    }
+
+    public IoServiceFactory getIoServiceFactory() {
+        return ioServiceFactory;
+    }
+
+    public IoConnector getConnector() {
+        return connector;
+    }
+
+    public int getPreConnectCount() {
+        return preConnectCount;
+    }
+
+    /**
+     * @return Number of connections that were served by a pre-connected socket
+     */
+    public long getClaimedSparesCount() {
+        return claimedSparesCount.get();
+    }
+
+    protected boolean isUsable(IoServiceFactory factory) {
+        return isOpen() && (factory != null) && (factory == getIoServiceFactory());
+    }
+
+    /**
+     * @param  address      The target address
+     * @param  localAddress The local address to bind to - if {@code null} then an ephemeral one is used and a
+     *                      pre-connected socket may be handed out
+     * @param  handler      The {@link IoHandler} to route the connection events to
+     * @return              The connection future - already completed if a pre-connected socket was used
+     */
+    public IoConnectFuture connect(SocketAddress address, SocketAddress localAddress, IoHandler handler) {
+        Objects.requireNonNull(handler, "No connection handler");
+        if ((getPreConnectCount() > 0) && (localAddress == null)) {
+            IoConnectFuture future = claimSpare(address, handler);
+            replenishSpares(address);
+            if (future != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("connect({}) using pre-connected {}", address, future.getSession());
+                }
+                return future;
+            }
+        }
+
+        return connector.connect(address, AttributeRepository.ofKeyValuePair(CONNECTION_HANDLER, handler), localAddress);
+    }
+
+    protected IoConnectFuture claimSpare(SocketAddress address, IoHandler handler) {
+        SpareTarget target = spares.get(address);
+        if (target == null) {
+            return null;
+        }
+
+        for (SpareConnection spare = target.idle.poll(); spare != null; spare = target.idle.poll()) {
+            if (spare.claim(handler)) {
+                claimedSparesCount.incrementAndGet();
+                return spare.getConnectFuture();
+            }
+        }
+        return null;
+    }
+
+    protected void replenishSpares(SocketAddress address) {
+        SpareTarget target = spares.get(address);
+        if (target == null) {
+            if (spares.size() >= preConnectMaxTargets) {
+                return;
+            }
+            target = spares.computeIfAbsent(address, k -> new SpareTarget());
+        }
+        target.lastUsed = System.nanoTime();
+
+        while (isOpen()) {
+            int count = target.count.get();
+            if (count >= getPreConnectCount()) {
+                return;
+            }
+            if (!target.count.compareAndSet(count, count + 1)) {
+                continue;
+            }
+
+            SpareConnection spare = new SpareConnection(address, target);
+            spare.setConnectFuture(connector.connect(address, AttributeRepository.ofKeyValuePair(CONNECTION_HANDLER, spare), null));
+        }
+    }
+
+    protected IoHandler resolveConnectionHandler(IoSession session) {
+        AttributeRepository context = (AttributeRepository) session.getAttribute(AttributeRepository.class);
+        IoHandler handler = (context == null) ? null : context.getAttribute(CONNECTION_HANDLER);
+        return ValidateUtils.checkNotNull(handler, "No connection handler for %s", session);
+    }
+
+    @Override
+    public void sessionCreated(IoSession session) throws Exception {
+        resolveConnectionHandler(session).sessionCreated(session);
+    }
+
+    @Override
+    public void sessionClosed(IoSession session) throws Exception {
+        resolveConnectionHandler(session).sessionClosed(session);
+    }
+
+    @Override
+    public void exceptionCaught(IoSession session, Throwable cause) throws Exception {
+        resolveConnectionHandler(session).exceptionCaught(session, cause);
+    }
+
+    @Override
+    public void messageReceived(IoSession session, Readable message) throws Exception {
+        resolveConnectionHandler(session).messageReceived(session, message);
+    }
+
+    /**
+     * Discards the pre-connected sockets that have been idle for too long, as well as all the sockets of destinations
+     * that have not been used for that long
+     */
+    protected void evictIdleSpares() {
+        long now = System.nanoTime();
+        for (Iterator<SpareTarget> targets = spares.values().iterator(); targets.hasNext();) {
+            SpareTarget target = targets.next();
+            boolean unused = (now - target.lastUsed) >= preConnectIdleNanos;
+            if (unused) {
+                targets.remove();
+            }
+
+            for (SpareConnection spare : target.idle) {
+                if ((unused || spare.isExpired(now)) && target.idle.remove(spare)) {
+                    spare.discard();
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Closeable getInnerCloseable() {
+        return builder()
+                .run(toString(), () -> {
+                    if (evictionTimeout != null) {
+                        evictionTimeout.cancel();
+                    }
+                })
+                .run(toString(), this::discardSpares)
+                .close(connector)
+                .build();
+    }
+
+    protected void discardSpares() {
+        for (SpareTarget target : spares.values()) {
+            for (SpareConnection spare = target.idle.poll(); spare != null; spare = target.idle.poll()) {
+                spare.discard();
+            }
+        }
+        spares.clear();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + getIoServiceFactory() + "]";
+    }
+
+    /**
+     * The pre-connected sockets of a destination
+     */
+    protected static class SpareTarget {
+        /**
+         * Connected sockets ready to be handed out
+         */
+        protected final Queue<SpareConnection> idle = new ConcurrentLinkedQueue<>();
+        /**
+         * Number of sockets that are either still connecting or idle
+         */
+        protected final AtomicInteger count = new AtomicInteger();
+        /**
+         * Last time ({@link System#nanoTime()}) a connection to the destination was requested
+         */
+        protected volatile long lastUsed = System.nanoTime();
+    }
+
+    /**
+     * A pre-connected socket - keeps its reading suspended until claimed, after which it routes all events to the
+     * claiming handler
+     */
+    protected class SpareConnection implements IoHandler {
+        private final SocketAddress address;
+        private final SpareTarget target;
+        private final long createdTime = System.nanoTime();
+        private IoConnectFuture connectFuture;
+        private IoHandler delegate;
+        private boolean idle;
+        private boolean dead;
+
+        protected SpareConnection(SocketAddress address, SpareTarget target) {
+            this.address = address;
+            this.target = target;
+        }
+
+        public IoConnectFuture getConnectFuture() {
+            return connectFuture;
+        }
+
+        protected void setConnectFuture(IoConnectFuture future) {
+            this.connectFuture = future;
+            future.addListener(f -> {
+                IoSession session = f.getSession();
+                synchronized (this) {
+                    // the destination may have been evicted while connecting
+                    if ((session != null) && (!dead) && isOpen() && (spares.get(address) == target)) {
+                        idle = true;
+                        target.idle.offer(this);
+                        return;
+                    }
+                    markDead();
+                }
+
+                if (session != null) {
+                    session.close(true);
+                } else if (log.isDebugEnabled()) {
+                    log.debug("setConnectFuture({}) failed to pre-connect: {}", address, f.getException());
+                }
+            });
+        }
+
+        /**
+         * @param  handler The handler to route the events to from now on
+         * @return         {@code true} if claimed - {@code false} if already dead or idle for too long
+         */
+        protected boolean claim(IoHandler handler) {
+            IoSession session;
+            synchronized (this) {
+                if ((!idle) || dead) {
+                    return false;
+                }
+
+                session = connectFuture.getSession();
+                if ((!isExpired(System.nanoTime())) && session.isOpen()) {
+                    idle = false;
+                    delegate = handler;
+                    target.count.decrementAndGet();
+                    return true;
+                }
+
+                markDead();
+            }
+
+            session.close(true);
+            return false;
+        }
+
+        protected boolean isExpired(long now) {
+            return (now - createdTime) >= preConnectIdleNanos;
+        }
+
+        protected void discard() {
+            IoSession session;
+            synchronized (this) {
+                if (dead || (delegate != null)) {
+                    return;
+                }
+                markDead();
+                session = (connectFuture == null) ? null : connectFuture.getSession();
+            }
+
+            if (session != null) {
+                session.close(true);
+            }
+        }
+
+        // NOTE: must be called while holding the lock
+        protected void markDead() {
+            if (!dead) {
+                dead = true;
+                idle = false;
+                target.count.decrementAndGet();
+            }
+        }
+
+        protected synchronized IoHandler getDelegate() {
+            return delegate;
+        }
+
+        @Override
+        public void sessionCreated(IoSession session) throws Exception {
+            // wait for a channel to claim the connection before reading anything
+            session.suspendRead();
+        }
+
+        @Override
+        public void sessionClosed(IoSession session) throws Exception {
+            IoHandler handler;
+            synchronized (this) {
+                handler = delegate;
+                if (handler == null) {
+                    markDead();
+                }
+            }
+
+            if (handler != null) {
+                handler.sessionClosed(session);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(IoSession session, Throwable cause) throws Exception {
+            IoHandler handler = getDelegate();
+            if (handler != null) {
+                handler.exceptionCaught(session, cause);
+            } else {
+                session.close(true);
+            }
+        }
+
+        @Override
+        public void messageReceived(IoSession session, Readable message) throws Exception {
+            IoHandler handler = getDelegate();
+            ValidateUtils.checkState(handler != null, "Unclaimed pre-connected session received data: %s", session);
+            handler.messageReceived(session, message);
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[" + address + "]";
+        }
+    }
+}
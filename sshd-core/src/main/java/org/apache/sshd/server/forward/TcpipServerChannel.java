@@ -103,6 +103,7 @@ public class TcpipServerChannel extends AbstractServerChannel implements Streami
 
     private final ForwardingFilter.Type type;
     private IoConnector connector;
+    private IoConnectFuture connectFuture;
     private IoSession ioSession;
     private IoOutputStream out;
     private SshdSocketAddress tunnelEntrance;
@@ -288,10 +289,17 @@ public class TcpipServerChannel extends AbstractServerChannel implements Streami
             }
         };
 
-        IoServiceFactory ioServiceFactory = manager.getIoServiceFactory();
-        connector = ioServiceFactory.createConnector(handler);
+        IoConnectFuture future;
+        if (CoreModuleProperties.TCPIP_SERVER_CHANNEL_SHARED_CONNECTOR.getRequired(this)) {
+            SharedTcpipConnector sharedConnector = SharedTcpipConnector.resolveSharedConnector(manager);
+            future = sharedConnector.connect(address.toInetSocketAddress(), getLocalAddress(), handler);
+        } else {
+            IoServiceFactory ioServiceFactory = manager.getIoServiceFactory();
+            connector = ioServiceFactory.createConnector(handler);
+            future = connector.connect(address.toInetSocketAddress(), null, getLocalAddress());
+        }
 
-        IoConnectFuture future = connector.connect(address.toInetSocketAddress(), null, getLocalAddress());
+        connectFuture = future;
         future.addListener(future1 -> handleChannelConnectResult(f, future1));
         return f;
     }
@@ -299,7 +307,14 @@ public class TcpipServerChannel extends AbstractServerChannel implements Streami
     protected void handleChannelConnectResult(OpenFuture f, IoConnectFuture future) {
         try {
             if (future.isConnected()) {
-                handleChannelOpenSuccess(f, future.getSession());
+                IoSession session = future.getSession();
+                if (isClosing()) {
+                    session.close(true);
+                    handleChannelOpenFailure(f, new ConnectException("Channel closed while connecting to " + tunnelExit));
+                    return;
+                }
+
+                handleChannelOpenSuccess(f, session);
                 return;
             }
 
@@ -325,6 +340,8 @@ public class TcpipServerChannel extends AbstractServerChannel implements Streami
         try {
             signalChannelOpenSuccess();
             f.setOpened();
+            // a pre-connected session does not read until its channel is open
+            session.resumeRead();
         } catch (Throwable t) {
             Throwable e = GenericUtils.peelException(t);
             changeEvent = e.getClass().getSimpleName();
@@ -355,25 +372,61 @@ public class TcpipServerChannel extends AbstractServerChannel implements Streami
         return builder()
                 .close(out)
                 .close(super.getInnerCloseable())
-                .close(new AbstractCloseable() {
-                    private final CloseableExecutorService executor
-                            = ThreadUtils.newCachedThreadPool("TcpIpServerChannel-ConnectorCleanup[" + getSession() + "]");
-
-                    @Override
-                    @SuppressWarnings("synthetic-access")
-                    protected CloseFuture doCloseGracefully() {
-                        executor.submit(() -> connector.close(false));
-                        return null;
-                    }
+                .close(getConnectionCloseable())
+                .build();
+    }
+
+    protected Closeable getConnectionCloseable() {
+        if (connector == null) {
+            // the connection is made through the shared connector - close only our own session
+            return new AbstractCloseable() {
+                @Override
+                protected CloseFuture doCloseGracefully() {
+                    IoSession session = resolveConnectedSession();
+                    return (session == null) ? null : session.close(false);
+                }
 
-                    @Override
-                    @SuppressWarnings("synthetic-access")
-                    protected void doCloseImmediately() {
-                        executor.submit(() -> connector.close(true).addListener(f -> executor.close(true)));
-                        super.doCloseImmediately();
+                @Override
+                protected void doCloseImmediately() {
+                    IoSession session = resolveConnectedSession();
+                    if (session != null) {
+                        session.close(true);
                     }
-                })
-                .build();
+                    super.doCloseImmediately();
+                }
+            };
+        }
+
+        return new AbstractCloseable() {
+            private final CloseableExecutorService executor
+                    = ThreadUtils.newCachedThreadPool("TcpIpServerChannel-ConnectorCleanup[" + getSession() + "]");
+
+            @Override
+            @SuppressWarnings("synthetic-access")
+            protected CloseFuture doCloseGracefully() {
+                executor.submit(() -> connector.close(false));
+                return null;
+            }
+
+            @Override
+            @SuppressWarnings("synthetic-access")
+            protected void doCloseImmediately() {
+                executor.submit(() -> connector.close(true).addListener(f -> executor.close(true)));
+                super.doCloseImmediately();
+            }
+        };
+    }
+
+    protected IoSession resolveConnectedSession() {
+        IoSession session = getIoSession();
+        IoConnectFuture future = connectFuture;
+        if ((session != null) || (future == null)) {
+            return session;
+        }
+
+        // the channel may be closed before the connection attempt completes
+        future.cancel();
+        return future.getSession();
     }
 
     @Override
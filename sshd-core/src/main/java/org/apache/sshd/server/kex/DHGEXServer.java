@@ -43,7 +43,6 @@ import org.apache.sshd.common.random.Random;
 import org.apache.sshd.common.session.Session;
 import org.apache.sshd.common.signature.Signature;
 import org.apache.sshd.common.util.GenericUtils;
-import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.buffer.Buffer;
 import org.apache.sshd.common.util.buffer.BufferUtils;
 import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
@@ -203,10 +202,8 @@ public class DHGEXServer extends AbstractDHServerKeyExchange {
 
             KeyPair kp = Objects.requireNonNull(session.getHostKey(), "No server key pair available");
             String algo = session.getNegotiatedKexParameter(KexProposalOption.SERVERKEYS);
-            Signature sig = ValidateUtils.checkNotNull(
-                    NamedFactory.create(session.getSignatureFactories(), algo),
-                    "Unknown negotiated server keys: %s", algo);
-            sig.initSigner(session, kp.getPrivate());
+            HostKeySignaturePool signers = HostKeySignaturePool.resolveSignaturePool(session.getFactoryManager());
+            Signature sig = signers.acquire(session, algo, kp.getPrivate());
 
             buffer = new ByteArrayBuffer();
             buffer.putRawPublicKey(kp.getPublic());
@@ -242,6 +239,7 @@ public class DHGEXServer extends AbstractDHServerKeyExchange {
             buffer.clear();
             buffer.putString(algo);
             byte[] sigBytes = sig.sign(session);
+            signers.release(algo, kp.getPrivate(), sig);
             buffer.putBytes(sigBytes);
 
             byte[] sigH = buffer.getCompactData();
@@ -302,9 +300,18 @@ public class DHGEXServer extends AbstractDHServerKeyExchange {
         prf = Math.min(prf, maxDHGroupExchangeKeySize);
         max = Math.min(max, maxDHGroupExchangeKeySize);
 
+        boolean traceEnabled = log.isTraceEnabled();
+        if (groups instanceof ModuliGroups) {
+            List<Moduli.DhGroup> selected = ((ModuliGroups) groups).select(min, prf, max);
+            if (traceEnabled) {
+                log.trace("selectModuliGroups({})[{}][prf={}, min={}, max={}] selected {}",
+                        this, session, prf, min, max, selected);
+            }
+            return selected;
+        }
+
         List<Moduli.DhGroup> selected = new ArrayList<>();
         int bestSize = 0;
-        boolean traceEnabled = log.isTraceEnabled();
         for (Moduli.DhGroup group : groups) {
             int size = group.getSize();
             if ((size < min) || (size > max)) {
@@ -342,7 +349,7 @@ public class DHGEXServer extends AbstractDHServerKeyExchange {
         if (!GenericUtils.isEmpty(moduliStr)) {
             try {
                 URL moduli = new URL(moduliStr);
-                groups = Moduli.parseModuli(moduli);
+                groups = Moduli.loadModuli(moduli);
             } catch (IOException e) { // OK - use internal moduli
                 log.warn("loadModuliGroups({})[{}] Error ({}) loading external moduli from {}: {}",
                         this, session, e.getClass().getSimpleName(), moduliStr, e.getMessage());
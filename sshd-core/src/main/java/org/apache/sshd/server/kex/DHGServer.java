@@ -31,7 +31,6 @@ import org.apache.sshd.common.kex.KeyExchange;
 import org.apache.sshd.common.kex.KeyExchangeFactory;
 import org.apache.sshd.common.session.Session;
 import org.apache.sshd.common.signature.Signature;
-import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.buffer.Buffer;
 import org.apache.sshd.common.util.buffer.BufferUtils;
 import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
@@ -106,10 +105,8 @@ public class DHGServer extends AbstractDHServerKeyExchange {
         KeyPair kp = Objects.requireNonNull(session.getHostKey(), "No server key pair available");
         String algo = session.getNegotiatedKexParameter(KexProposalOption.SERVERKEYS);
 
-        Signature sig = ValidateUtils.checkNotNull(
-                NamedFactory.create(session.getSignatureFactories(), algo),
-                "Unknown negotiated server keys: %s", algo);
-        sig.initSigner(session, kp.getPrivate());
+        HostKeySignaturePool signers = HostKeySignaturePool.resolveSignaturePool(session.getFactoryManager());
+        Signature sig = signers.acquire(session, algo, kp.getPrivate());
 
         buffer = new ByteArrayBuffer();
         buffer.putRawPublicKey(kp.getPublic());
@@ -133,6 +130,7 @@ public class DHGServer extends AbstractDHServerKeyExchange {
         buffer.clear();
         buffer.putString(sig.getSshAlgorithmName(algo));
         byte[] sigBytes = sig.sign(session);
+        signers.release(algo, kp.getPrivate(), sig);
         buffer.putBytes(sigBytes);
 
         byte[] sigH = buffer.getCompactData();
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.kex;
+
+import java.security.PrivateKey;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.sshd.common.AttributeRepository.AttributeKey;
+import org.apache.sshd.common.FactoryManager;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.common.signature.Signature;
+import org.apache.sshd.common.util.ValidateUtils;
+import org.apache.sshd.common.util.logging.AbstractLoggingBean;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.session.ServerSession;
+
+/**
+ * Keeps the {@link Signature}s used to sign the key exchange hash with the server's host keys so that they can be
+ * re-used by subsequent key exchanges instead of creating and initializing new ones - the signer is reset to its
+ * initialized state once a signature has been generated. Also measures the cost of signing with each host key so that
+ * the server can prefer the cheaper ones.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ * @see    CoreModuleProperties#HOST_KEY_SIGNERS_POOL_SIZE
+ * @see    CoreModuleProperties#PREFER_FAST_HOST_KEY_ALGORITHMS
+ */
+public class HostKeySignaturePool extends AbstractLoggingBean {
+    /**
+     * The {@link FactoryManager} attribute holding its shared pool
+     */
+    public static final AttributeKey<HostKeySignaturePool> SIGNATURE_POOL = new AttributeKey<>();
+
+    /**
+     * Maximum number of distinct algorithm + key combinations tracked by the pool - protects against key providers
+     * that return a new key instance every time
+     */
+    public static final int MAX_TRACKED_KEYS = 64;
+
+    /**
+     * Number of signatures generated in order to measure the signing cost - the first one is not counted
+     */
+    public static final int SIGNING_COST_SAMPLES = 4;
+
+    private final int maxIdleSigners;
+    private final Map<SignerKey, Signers> signers = new ConcurrentHashMap<>();
+
+    public HostKeySignaturePool(int maxIdleSigners) {
+        this.maxIdleSigners = Math.max(0, maxIdleSigners);
+    }
+
+    /**
+     * @param  manager The {@link FactoryManager}
+     * @return         Its shared pool - created if none yet
+     */
+    public static HostKeySignaturePool resolveSignaturePool(FactoryManager manager) {
+        return manager.computeAttributeIfAbsent(SIGNATURE_POOL,
+                k -> new HostKeySignaturePool(CoreModuleProperties.HOST_KEY_SIGNERS_POOL_SIZE.getRequired(manager)));
+    }
+
+    /**
+     * @return Maximum number of idle signers kept per algorithm and key - zero if pooling is disabled
+     */
+    public int getMaxIdleSigners() {
+        return maxIdleSigners;
+    }
+
+    /**
+     * @param  session   The {@link ServerSession} requesting the signer
+     * @param  algo      The negotiated host key algorithm
+     * @param  key       The host's {@link PrivateKey}
+     * @return           A {@link Signature} initialized for signing with the key - should be handed back via
+     *                   {@link #release(String, PrivateKey, Signature)} once a signature has been generated
+     * @throws Exception If failed to create or initialize the signer
+     */
+    public Signature acquire(ServerSession session, String algo, PrivateKey key) throws Exception {
+        Signers entry = (maxIdleSigners > 0) ? signers.get(new SignerKey(algo, key)) : null;
+        Signature signer = (entry == null) ? null : entry.poll();
+        if (signer != null) {
+            return signer;
+        }
+
+        signer = ValidateUtils.checkNotNull(
+                NamedFactory.create(session.getSignatureFactories(), algo),
+                "Unknown negotiated server keys: %s", algo);
+        signer.initSigner(session, key);
+        return signer;
+    }
+
+    /**
+     * @param algo   The host key algorithm the signer was acquired for
+     * @param key    The host's {@link PrivateKey} the signer was acquired for
+     * @param signer The {@link Signature} - <U>must</U> not be released if signing failed since its state is unknown
+     */
+    public void release(String algo, PrivateKey key, Signature signer) {
+        if ((maxIdleSigners <= 0) || (signer == null)) {
+            return;
+        }
+
+        resolveSigners(algo, key).offer(signer, maxIdleSigners);
+    }
+
+    /**
+     * @param  session   The {@link ServerSession} requesting the cost
+     * @param  algo      The host key algorithm
+     * @param  key       The host's {@link PrivateKey}
+     * @return           The (nanoseconds) cost of generating a signature with the key - measured on first call only
+     * @throws Exception If failed to sign
+     */
+    public long getSigningCost(ServerSession session, String algo, PrivateKey key) throws Exception {
+        Signers entry = resolveSigners(algo, key);
+        long cost = entry.getSigningCost();
+        if (cost >= 0L) {
+            return cost;
+        }
+
+        byte[] data = new byte[64]; // large enough for any exchange hash
+        cost = Long.MAX_VALUE;
+        for (int index = 0; index < SIGNING_COST_SAMPLES; index++) {
+            long start = System.nanoTime();
+            Signature signer = acquire(session, algo, key);
+            signer.update(session, data);
+            signer.sign(session);
+            long duration = System.nanoTime() - start;
+            release(algo, key, signer);
+
+            if (index > 0) {
+                cost = Math.min(cost, duration);
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("getSigningCost({})[{}] {} nanos", session, algo, cost);
+        }
+        entry.setSigningCost(cost);
+        return cost;
+    }
+
+    protected Signers resolveSigners(String algo, PrivateKey key) {
+        SignerKey signerKey = new SignerKey(algo, key);
+        Signers entry = signers.get(signerKey);
+        if (entry != null) {
+            return entry;
+        }
+
+        if (signers.size() >= MAX_TRACKED_KEYS) {
+            signers.clear();
+        }
+        return signers.computeIfAbsent(signerKey, k -> new Signers());
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[maxIdle=" + getMaxIdleSigners() + ", keys=" + signers.size() + "]";
+    }
+
+    protected static class SignerKey {
+        private final String algorithm;
+        private final PrivateKey key;
+        private final int hash;
+
+        SignerKey(String algorithm, PrivateKey key) {
+            this.algorithm = ValidateUtils.checkNotNullAndNotEmpty(algorithm, "No algorithm");
+            this.key = Objects.requireNonNull(key, "No private key");
+            this.hash = Objects.hash(algorithm, key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if ((obj == null) || (getClass() != obj.getClass())) {
+                return false;
+            }
+
+            SignerKey other = (SignerKey) obj;
+            return (hash == other.hash) && algorithm.equals(other.algorithm) && key.equals(other.key);
+        }
+
+        @Override
+        public String toString() {
+            return algorithm;
+        }
+    }
+
+    protected static class Signers {
+        private final Deque<Signature> idle = new ArrayDeque<>();
+        private volatile long signingCost = -1L;
+
+        Signers() {
+            super();
+        }
+
+        synchronized Signature poll() {
+            return idle.pollFirst();
+        }
+
+        synchronized void offer(Signature signer, int maxIdle) {
+            if (idle.size() < maxIdle) {
+                idle.addFirst(signer);
+            }
+        }
+
+        long getSigningCost() {
+            return signingCost;
+        }
+
+        void setSigningCost(long cost) {
+            signingCost = cost;
+        }
+    }
+}
@@ -25,14 +25,20 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.math.BigInteger;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.sshd.common.util.GenericUtils;
@@ -81,6 +87,7 @@ public final class Moduli {
     }
 
     private static final AtomicReference<Map.Entry<String, List<DhGroup>>> INTERNAL_MODULI_HOLDER = new AtomicReference<>();
+    private static final Map<String, CachedModuli> MODULI_CACHE = new ConcurrentHashMap<>();
 
     // Private constructor
     private Moduli() {
@@ -91,6 +98,52 @@ public final class Moduli {
         return INTERNAL_MODULI_HOLDER.getAndSet(null);
     }
 
+    /**
+     * Clears the cache used by {@link #loadModuli(URL)}
+     */
+    public static void clearModuliCache() {
+        MODULI_CACHE.clear();
+    }
+
+    /**
+     * Loads the moduli from the specified location - re-using the previously parsed groups as long as the source has
+     * not changed. <B>Note:</B> only {@code file:} locations are checked for changes (by their size and last modified
+     * time). Any other location is assumed to be immutable - use {@link #clearModuliCache()} to force re-loading it.
+     *
+     * @param  url         The moduli location
+     * @return             The parsed {@link ModuliGroups}
+     * @throws IOException If failed to read or parse the moduli
+     */
+    public static ModuliGroups loadModuli(URL url) throws IOException {
+        if (url == null) {
+            throw new FileNotFoundException("No moduli location specified");
+        }
+
+        String moduliStr = url.toExternalForm();
+        Path file = toModuliFile(url);
+        BasicFileAttributes attrs = (file == null) ? null : Files.readAttributes(file, BasicFileAttributes.class);
+        CachedModuli cached = MODULI_CACHE.get(moduliStr);
+        if ((cached != null) && cached.isUpToDate(attrs)) {
+            return cached.groups;
+        }
+
+        ModuliGroups groups = new ModuliGroups(parseModuli(url));
+        MODULI_CACHE.put(moduliStr, new CachedModuli(groups, attrs));
+        return groups;
+    }
+
+    private static Path toModuliFile(URL url) {
+        if (!"file".equalsIgnoreCase(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException | RuntimeException e) {
+            return null;    // treat as immutable
+        }
+    }
+
     public static List<DhGroup> loadInternalModuli(URL url) throws IOException {
         if (url == null) {
             throw new FileNotFoundException("No internal moduli resource specified");
@@ -103,13 +156,8 @@ public final class Moduli {
             return lastModuli.getValue();
         }
 
-        List<DhGroup> groups = parseModuli(url);
-        if (GenericUtils.isEmpty(groups)) {
-            groups = Collections.emptyList();
-        } else {
-            groups = Collections.unmodifiableList(groups);
-        }
-
+        List<DhGroup> parsed = parseModuli(url);
+        List<DhGroup> groups = GenericUtils.isEmpty(parsed) ? ModuliGroups.EMPTY : new ModuliGroups(parsed);
         INTERNAL_MODULI_HOLDER.set(new SimpleImmutableEntry<>(moduliStr, groups));
         return groups;
     }
@@ -181,4 +229,23 @@ public final class Moduli {
 
         return groups;
     }
+
+    private static final class CachedModuli {
+        private final ModuliGroups groups;
+        private final FileTime lastModified;
+        private final long size;
+
+        CachedModuli(ModuliGroups groups, BasicFileAttributes attrs) {
+            this.groups = groups;
+            this.lastModified = (attrs == null) ? null : attrs.lastModifiedTime();
+            this.size = (attrs == null) ? -1L : attrs.size();
+        }
+
+        boolean isUpToDate(BasicFileAttributes attrs) {
+            if (attrs == null) {
+                return lastModified == null;
+            }
+            return (size == attrs.size()) && Objects.equals(lastModified, attrs.lastModifiedTime());
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.kex;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.server.kex.Moduli.DhGroup;
+
+/**
+ * An immutable list of {@link DhGroup}s sorted by their size (the original order is preserved among groups of the same
+ * size) that can be shared by all the key exchanges using the same moduli source and selects the groups matching a
+ * requested range without scanning all of them.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class ModuliGroups extends AbstractList<DhGroup> implements RandomAccess {
+    public static final ModuliGroups EMPTY = new ModuliGroups(Collections.emptyList());
+
+    private final DhGroup[] groups;
+    // the distinct sizes in ascending order and the index of the first group of each size (plus a sentinel)
+    private final int[] sizes;
+    private final int[] offsets;
+
+    public ModuliGroups(Collection<? extends DhGroup> groups) {
+        List<DhGroup> sorted = GenericUtils.isEmpty(groups) ? new ArrayList<>() : new ArrayList<>(groups);
+        sorted.sort(Comparator.comparingInt(DhGroup::getSize)); // stable
+        this.groups = sorted.toArray(new DhGroup[0]);
+
+        int[] distinct = new int[this.groups.length];
+        int[] starts = new int[this.groups.length + 1];
+        int numSizes = 0;
+        for (int index = 0; index < this.groups.length; index++) {
+            int size = this.groups[index].getSize();
+            if ((numSizes == 0) || (distinct[numSizes - 1] != size)) {
+                distinct[numSizes] = size;
+                starts[numSizes] = index;
+                numSizes++;
+            }
+        }
+        starts[numSizes] = this.groups.length;
+
+        this.sizes = Arrays.copyOf(distinct, numSizes);
+        this.offsets = Arrays.copyOf(starts, numSizes + 1);
+    }
+
+    @Override
+    public DhGroup get(int index) {
+        return groups[index];
+    }
+
+    @Override
+    public int size() {
+        return groups.length;
+    }
+
+    /**
+     * @return The distinct group sizes - in ascending order
+     */
+    public int[] getGroupSizes() {
+        return sizes.clone();
+    }
+
+    /**
+     * Selects the groups whose size is the smallest one within the range that is greater or equal to the preferred
+     * size, or if no such size the largest one within the range.
+     *
+     * @param  min The minimum group size (inclusive)
+     * @param  prf The preferred group size
+     * @param  max The maximum group size (inclusive)
+     * @return     An immutable list of all the groups having the selected size - empty if no group within the range
+     */
+    public List<DhGroup> select(int min, int prf, int max) {
+        if ((sizes.length <= 0) || (min > max)) {
+            return Collections.emptyList();
+        }
+
+        int pos = lowerBound(Math.max(min, prf));
+        if ((pos >= sizes.length) || (sizes[pos] > max)) {
+            // no size above the preferred one within range - take the largest one below it
+            pos = lowerBound((prf <= max) ? prf : (max + 1)) - 1;
+            if ((pos < 0) || (sizes[pos] < min)) {
+                return Collections.emptyList();
+            }
+        }
+
+        return Collections.unmodifiableList(subList(offsets[pos], offsets[pos + 1]));
+    }
+
+    /**
+     * @param  size The searched size
+     * @return      Index of the first distinct size that is greater or equal to the searched one
+     */
+    protected int lowerBound(int size) {
+        int pos = Arrays.binarySearch(sizes, size);
+        return (pos >= 0) ? pos : (-pos - 1);
+    }
+}
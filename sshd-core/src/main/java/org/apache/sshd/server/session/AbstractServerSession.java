@@ -24,7 +24,10 @@ import java.net.SocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -69,6 +72,7 @@ import org.apache.sshd.server.auth.hostbased.HostBasedAuthenticator;
 import org.apache.sshd.server.auth.keyboard.KeyboardInteractiveAuthenticator;
 import org.apache.sshd.server.auth.password.PasswordAuthenticator;
 import org.apache.sshd.server.auth.pubkey.PublickeyAuthenticator;
+import org.apache.sshd.server.kex.HostKeySignaturePool;
 
 /**
  * Provides default implementations for {@link ServerSession} related methods
@@ -313,6 +317,9 @@ public abstract class AbstractServerSession extends AbstractSession implements S
         IoWriteFuture future;
         IoSession networkSession = getIoSession();
         synchronized (encodeLock) {
+            // make sure any previously enqueued packet is sent before the USERAUTH-SUCCESS one
+            encodeQueuedPackets();
+
             Buffer packet = resolveOutputPacket(response);
 
             setUsername(username);
@@ -322,6 +329,7 @@ public abstract class AbstractServerSession extends AbstractSession implements S
 
             // Now we can inform the peer that authentication is successful
             future = networkSession.writeBuffer(packet);
+            releaseWhenWritten(future, response, packet);
         }
 
         resetIdleTimeout();
@@ -410,9 +418,56 @@ public abstract class AbstractServerSession extends AbstractSession implements S
         Collection<String> supported = SignatureFactory.resolveSignatureFactoryNamesProposal(provided, available);
         if (GenericUtils.isEmpty(supported)) {
             return resolveEmptySignaturesProposal(available, provided);
-        } else {
-            return GenericUtils.join(supported, ',');
         }
+
+        if (CoreModuleProperties.PREFER_FAST_HOST_KEY_ALGORITHMS.getRequired(this)) {
+            supported = resolveFastSignaturesProposal(supported);
+        }
+        return GenericUtils.join(supported, ',');
+    }
+
+    /**
+     * Called by {@link #resolveAvailableSignaturesProposal(FactoryManager)} if
+     * {@link CoreModuleProperties#PREFER_FAST_HOST_KEY_ALGORITHMS} is enabled in order to order the supported host key
+     * algorithms according to the cost of signing with the matching host key. Algorithms whose cost could not be
+     * measured are placed last.
+     *
+     * @param  supported The supported host key algorithms - in order of preference
+     * @return           The re-ordered (and possibly filtered) algorithms - cheapest first
+     * @see              CoreModuleProperties#HOST_KEY_MAX_SIGNING_COST_RATIO
+     */
+    protected List<String> resolveFastSignaturesProposal(Collection<String> supported) {
+        HostKeySignaturePool pool = HostKeySignaturePool.resolveSignaturePool(getFactoryManager());
+        Map<String, Long> costs = new HashMap<>(supported.size());
+        long minCost = Long.MAX_VALUE;
+        for (String algo : supported) {
+            long cost = Long.MAX_VALUE;
+            try {
+                KeyPair kp = resolveHostKey(algo);
+                if (kp != null) {
+                    cost = pool.getSigningCost(this, algo, kp.getPrivate());
+                }
+            } catch (Exception e) {
+                warn("resolveFastSignaturesProposal({}) failed ({}) to measure signing cost of {}: {}",
+                        this, e.getClass().getSimpleName(), algo, e.getMessage(), e);
+            }
+            costs.put(algo, cost);
+            minCost = Math.min(minCost, cost);
+        }
+
+        List<String> ordered = new ArrayList<>(supported);
+        ordered.sort(Comparator.comparing(costs::get)); // stable - retains the original order for same cost
+
+        int maxRatio = CoreModuleProperties.HOST_KEY_MAX_SIGNING_COST_RATIO.getRequired(this);
+        if ((maxRatio > 0) && (minCost < Long.MAX_VALUE)) {
+            long maxCost = (minCost > (Long.MAX_VALUE / maxRatio)) ? Long.MAX_VALUE : (minCost * maxRatio);
+            ordered.removeIf(algo -> costs.get(algo) > maxCost);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("resolveFastSignaturesProposal({}) {} => {}", this, supported, ordered);
+        }
+        return ordered;
     }
 
     /**
@@ -509,7 +564,15 @@ public abstract class AbstractServerSession extends AbstractSession implements S
 
     @Override
     public KeyPair getHostKey() {
-        String proposedKey = getNegotiatedKexParameter(KexProposalOption.SERVERKEYS);
+        return resolveHostKey(getNegotiatedKexParameter(KexProposalOption.SERVERKEYS));
+    }
+
+    /**
+     * @param  proposedKey The host key algorithm
+     * @return             The matching {@link KeyPair} - with the certificate as its public key if certified - or
+     *                     {@code null} if no algorithm specified
+     */
+    protected KeyPair resolveHostKey(String proposedKey) {
         String keyType = KeyUtils.getCanonicalKeyType(proposedKey);
         if (GenericUtils.isEmpty(keyType)) {
             return null;    // OK if not negotiated yet
@@ -524,7 +587,7 @@ public abstract class AbstractServerSession extends AbstractSession implements S
                     String rawKeyType = publicKey.getRawKeyType();
 
                     if (log.isDebugEnabled()) {
-                        log.debug("getHostKey({}) using certified key {}/{} with ID={}",
+                        log.debug("resolveHostKey({}) using certified key {}/{} with ID={}",
                                 this, keyType, rawKeyType, publicKey.getId());
                     }
 
@@ -536,7 +599,7 @@ public abstract class AbstractServerSession extends AbstractSession implements S
 
             return provider.loadKey(this, keyType);
         } catch (IOException | GeneralSecurityException | Error e) {
-            warn("getHostKey({}) failed ({}) to load key of type={}[{}]: {}",
+            warn("resolveHostKey({}) failed ({}) to load key of type={}[{}]: {}",
                     this, e.getClass().getSimpleName(), proposedKey, keyType, e.getMessage(), e);
 
             throw new RuntimeSshException(e);
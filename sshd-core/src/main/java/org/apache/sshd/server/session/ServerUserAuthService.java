@@ -182,10 +182,11 @@ public class ServerUserAuthService extends AbstractCloseable implements Service,
             }
 
             buffer.rpos(buffer.rpos() - 1);
+            UserAuth auth = currentAuth;
             try {
-                authed = currentAuth.next(buffer);
+                authed = auth.next(buffer);
             } catch (AsyncAuthException async) {
-                async.addListener(authenticated -> asyncAuth(cmd, buffer, authenticated));
+                async.addListener(authenticated -> asyncAuth(cmd, buffer, auth, authenticated));
                 return;
             } catch (Exception e) {
                 // Continue
@@ -325,13 +326,14 @@ public class ServerUserAuthService extends AbstractCloseable implements Service,
             return true;
         }
 
-        currentAuth = ValidateUtils.checkNotNull(
+        UserAuth auth = ValidateUtils.checkNotNull(
                 factory.createUserAuth(session), "No authenticator created for method=%s", method);
+        currentAuth = auth;
         try {
-            Boolean authed = currentAuth.auth(session, username, service, buffer);
+            Boolean authed = auth.auth(session, username, service, buffer);
             authHolder.set(authed);
         } catch (AsyncAuthException async) {
-            async.addListener(authenticated -> asyncAuth(SshConstants.SSH_MSG_USERAUTH_REQUEST, buffer, authenticated));
+            async.addListener(authenticated -> asyncAuth(SshConstants.SSH_MSG_USERAUTH_REQUEST, buffer, auth, authenticated));
             return false;
         } catch (Exception e) {
             warn("handleUserAuthRequestMessage({}) Failed ({}) to authenticate using factory method={}: {}",
@@ -341,6 +343,37 @@ public class ServerUserAuthService extends AbstractCloseable implements Service,
         return true;
     }
 
+    /**
+     * Invoked when the result of an asynchronous authentication is available
+     *
+     * @param cmd    The command that started the authentication
+     * @param buffer The {@link Buffer} of the command - <B>Note:</B> its contents may have been re-used by now
+     * @param auth   The {@link UserAuth} that performed the authentication
+     * @param authed The result - {@code null} if authentication is still in progress
+     */
+    protected synchronized void asyncAuth(int cmd, Buffer buffer, UserAuth auth, Boolean authed) {
+        ServerSession session = getServerSession();
+        if (auth != currentAuth) {
+            // e.g., the client sent another request or the session has been closed meanwhile
+            if (log.isDebugEnabled()) {
+                log.debug("asyncAuth({}) ignore stale result={} of method={} for cmd={}",
+                        session, authed, auth.getName(), SshConstants.getCommandMessageName(cmd));
+            }
+            return;
+        }
+
+        if (authed == null) {
+            try {
+                handleAuthenticationInProgress(cmd, buffer);
+            } catch (Exception e) {
+                warn("asyncAuth({}) Error ({}) handling in-progress async authentication via cmd={}: {}",
+                        session, e.getClass().getSimpleName(), cmd, e.getMessage(), e);
+            }
+        } else {
+            asyncAuth(cmd, buffer, authed.booleanValue());
+        }
+    }
+
     protected synchronized void asyncAuth(int cmd, Buffer buffer, boolean authed) {
         try {
             if (authed) {
@@ -20,6 +20,7 @@ package org.apache.sshd.server.shell;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Duration;
 
 import org.apache.sshd.common.session.SessionHolder;
 import org.apache.sshd.server.SessionAware;
@@ -82,4 +83,18 @@ public interface InvertedShell
      * @return the exit value of the shell
      */
     int exitValue();
+
+    /**
+     * Waits for the shell to exit. <B>Note:</B> the default implementation polls {@link #isAlive()} - implementations
+     * that can be waited upon (e.g., a {@link Process}) should override it.
+     *
+     * @param  pollInterval         The interval between {@link #isAlive()} checks if the shell cannot be waited upon
+     * @throws InterruptedException If interrupted while waiting
+     */
+    default void waitForExit(Duration pollInterval) throws InterruptedException {
+        long sleepMillis = pollInterval.toMillis();
+        while (isAlive()) {
+            Thread.sleep(sleepMillis);
+        }
+    }
 }
@@ -24,12 +24,18 @@ import java.io.OutputStream;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.sshd.common.RuntimeSshException;
 import org.apache.sshd.common.util.GenericUtils;
 import org.apache.sshd.common.util.ValidateUtils;
+import org.apache.sshd.common.util.io.IoUtils;
 import org.apache.sshd.common.util.logging.AbstractLoggingBean;
+import org.apache.sshd.common.util.threads.SshdThreadFactory;
 import org.apache.sshd.common.util.threads.ThreadUtils;
 import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.server.Environment;
@@ -43,6 +49,15 @@ import org.apache.sshd.server.session.ServerSession;
  * A shell implementation that wraps an instance of {@link InvertedShell} as a {@link Command}. This is useful when
  * using external processes. When starting the shell, this wrapper will also create a thread used to pump the streams
  * and also to check if the shell is alive.
+ * <P>
+ * By default the streams are polled using a single thread that sleeps between rounds (see
+ * {@link CoreModuleProperties#PUMP_SLEEP_TIME}). In {@link #isBlockingPump() blocking} mode each stream is pumped by
+ * its own dedicated thread using blocking reads, so that data is forwarded as soon as it arrives, while the
+ * {@link Executor} task only waits for the shell's exit (see {@link InvertedShell#waitForExit(Duration)}).
+ * <B>Note:</B> blocking mode uses 4 threads per shell, so it pays off only if these are cheap - i.e., if
+ * {@link ThreadUtils#isVirtualThreadsEnabled() virtual threads} are used. With platform threads an idle shell costs
+ * less when polled.
+ * </P>
  *
  * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
  */
@@ -52,6 +67,7 @@ public class InvertedShellWrapper extends AbstractLoggingBean implements Command
     private final Executor executor;
     private int bufferSize;
     private Duration pumpSleepTime;
+    private Duration exitCheckInterval;
     private InputStream in;
     private OutputStream out;
     private OutputStream err;
@@ -60,6 +76,16 @@ public class InvertedShellWrapper extends AbstractLoggingBean implements Command
     private InputStream shellErr;
     private ExitCallback callback;
     private boolean shutdownExecutor;
+    private boolean blockingPump;
+    private final Object inputPumpLock = new Object();
+    private Thread inputPumpThread;
+    private boolean inputPumpStopped;
+    private final Object outputPumpLock = new Object();
+    private Thread exitWatcherThread;
+    private boolean outputAbandoned;
+    private Throwable outputPumpFailure;
+    private final AtomicInteger activeOutputWrites = new AtomicInteger();
+    private volatile long lastOutputNanos;
 
     /**
      * Auto-allocates an {@link Executor} in order to create the streams pump thread and uses the default
@@ -85,8 +111,8 @@ public class InvertedShellWrapper extends AbstractLoggingBean implements Command
 
     /**
      * @param shell            The {@link InvertedShell}
-     * @param executor         The {@link Executor} to use in order to create the streams pump thread. If {@code null}
-     *                         one is auto-allocated and shutdown when wrapper is {@code destroy()}-ed.
+     * @param executor         The {@link Executor} to use in order to create the streams pump thread(s). If
+     *                         {@code null} one is auto-allocated and shutdown when wrapper is {@code destroy()}-ed.
      * @param shutdownExecutor If {@code true} the executor is shut down when shell wrapper is {@code destroy()}-ed.
      *                         Ignored if executor service auto-allocated
      * @param bufferSize       Buffer size to use - must be above min. size ({@link Byte#SIZE})
@@ -98,9 +124,25 @@ public class InvertedShellWrapper extends AbstractLoggingBean implements Command
         ValidateUtils.checkTrue(bufferSize > Byte.SIZE, "Copy buffer size too small: %d", bufferSize);
         this.bufferSize = bufferSize;
         this.pumpSleepTime = CoreModuleProperties.PUMP_SLEEP_TIME.getRequiredDefault();
+        this.exitCheckInterval = CoreModuleProperties.PUMP_EXIT_CHECK_INTERVAL.getRequiredDefault();
         this.shutdownExecutor = (executor == null) || shutdownExecutor;
     }
 
+    /**
+     * @return {@code true} if the streams are pumped using blocking reads on dedicated threads instead of being polled
+     */
+    public boolean isBlockingPump() {
+        return blockingPump;
+    }
+
+    /**
+     * @param blockingPump {@code true} if the streams should be pumped using blocking reads on dedicated threads. May be
+     *                     overridden by the {@link CoreModuleProperties#PUMP_BLOCKING_READS} session property.
+     */
+    public void setBlockingPump(boolean blockingPump) {
+        this.blockingPump = blockingPump;
+    }
+
     @Override
     public void setInputStream(InputStream in) {
         this.in = in;
@@ -127,6 +169,10 @@ public class InvertedShellWrapper extends AbstractLoggingBean implements Command
         pumpSleepTime = CoreModuleProperties.PUMP_SLEEP_TIME.getRequired(session);
         ValidateUtils.checkTrue(GenericUtils.isPositive(pumpSleepTime),
                 "Invalid " + CoreModuleProperties.PUMP_SLEEP_TIME + ": %d", pumpSleepTime);
+        exitCheckInterval = CoreModuleProperties.PUMP_EXIT_CHECK_INTERVAL.getRequired(session);
+        ValidateUtils.checkTrue(GenericUtils.isPositive(exitCheckInterval),
+                "Invalid " + CoreModuleProperties.PUMP_EXIT_CHECK_INTERVAL + ": %d", exitCheckInterval);
+        blockingPump = CoreModuleProperties.PUMP_BLOCKING_READS.getOrCustomDefault(session, blockingPump);
         shell.setSession(session);
     }
 
@@ -171,6 +217,14 @@ public class InvertedShellWrapper extends AbstractLoggingBean implements Command
     }
 
     protected void pumpStreams() {
+        if (isBlockingPump()) {
+            pumpStreamsBlocking();
+        } else {
+            pollStreams();
+        }
+    }
+
+    protected void pollStreams() {
         try {
             // Use a single thread to correctly sequence the output and error streams.
             // If any bytes are available from the output stream, send them first, then
@@ -201,24 +255,198 @@ public class InvertedShellWrapper extends AbstractLoggingBean implements Command
                 Thread.sleep(pumpSleepTime.toMillis());
             }
         } catch (Throwable e) {
-            boolean debugEnabled = log.isDebugEnabled();
+            handlePumpFailure(e);
+        }
+    }
+
+    /**
+     * Pumps each of the shell's streams on its own dedicated thread using blocking reads, while the current thread
+     * waits for the shell's exit. The exit is reported once STDOUT and STDERR reach EOF - or once the shell is no longer
+     * alive and no more output was read for one {@link CoreModuleProperties#PUMP_EXIT_CHECK_INTERVAL interval} (e.g., a
+     * background process inherited the streams and keeps them open).
+     */
+    protected void pumpStreamsBlocking() {
+        ThreadFactory factory = newPumpThreadFactory("shell[0x" + Integer.toHexString(shell.hashCode()) + "]-pump");
+        CountDownLatch outputPumped = new CountDownLatch(2);
+        synchronized (outputPumpLock) {
+            exitWatcherThread = Thread.currentThread();
+        }
+        lastOutputNanos = System.nanoTime();
+        try {
             try {
-                shell.destroy(shell.getChannelSession());
-            } catch (Throwable err) {
-                warn("pumpStreams({}) failed ({}) to destroy shell: {}",
-                        this, e.getClass().getSimpleName(), e.getMessage(), e);
+                factory.newThread(this::pumpInput).start();
+                factory.newThread(() -> pumpOutput(shellOut, out, outputPumped)).start();
+                factory.newThread(() -> pumpOutput(shellErr, err, outputPumped)).start();
+                awaitOutputPumps(outputPumped);
+            } catch (InterruptedException e) {
+                // a failed output pump interrupts the wait - the failure is reported below
+                if (getOutputPumpFailure() == null) {
+                    throw e;
+                }
+            } finally {
+                synchronized (outputPumpLock) {
+                    exitWatcherThread = null;
+                    // clear the interrupt in case a pump failed after the wait completed
+                    Thread.interrupted();
+                }
+                stopInputPump();
+            }
+
+            Throwable e = getOutputPumpFailure();
+            if (e != null) {
+                throw e;
+            }
+            callback.onExit(shell.exitValue());
+        } catch (Throwable e) {
+            handlePumpFailure(e);
+        }
+    }
+
+    /**
+     * Waits for the shell's exit and then for its output to be pumped. The output pumps are abandoned only if none of
+     * them is writing and no output was read for one {@link CoreModuleProperties#PUMP_EXIT_CHECK_INTERVAL interval} -
+     * i.e., a pump blocked while writing to a slow peer is always waited for.
+     *
+     * @param  outputPumped         Counted down by each output pump when done
+     * @throws InterruptedException If interrupted while waiting - e.g., by a failed output pump
+     */
+    protected void awaitOutputPumps(CountDownLatch outputPumped) throws InterruptedException {
+        shell.waitForExit(exitCheckInterval);
+
+        long intervalMillis = exitCheckInterval.toMillis();
+        long idleNanos = exitCheckInterval.toNanos();
+        while (!outputPumped.await(intervalMillis, TimeUnit.MILLISECONDS)) {
+            if ((activeOutputWrites.get() <= 0) && ((System.nanoTime() - lastOutputNanos) >= idleNanos)) {
+                abandonOutputPumps();
+                return;
+            }
+        }
+    }
+
+    protected ThreadFactory newPumpThreadFactory(String name) {
+        return ThreadUtils.isVirtualThreadsEnabled() ? ThreadUtils.newVirtualThreadFactory(name) : new SshdThreadFactory(name);
+    }
+
+    protected void pumpOutput(InputStream in, OutputStream out, CountDownLatch pumped) {
+        try {
+            byte[] buffer = new byte[bufferSize];
+            for (int len = in.read(buffer); len >= 0; len = in.read(buffer)) {
+                if (len <= 0) {
+                    continue;
+                }
+
+                activeOutputWrites.incrementAndGet();
+                try {
+                    out.write(buffer, 0, len);
+                    out.flush();
+                } finally {
+                    lastOutputNanos = System.nanoTime();
+                    activeOutputWrites.decrementAndGet();
+                }
+            }
+        } catch (Throwable e) {
+            synchronized (outputPumpLock) {
+                // failures are expected once the output was abandoned
+                if (outputAbandoned) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("pumpOutput({}) {} while pumping abandoned output: {}", this, e.getClass().getSimpleName(),
+                                e.getMessage());
+                    }
+                } else {
+                    if (outputPumpFailure == null) {
+                        outputPumpFailure = e;
+                    }
+                    if (exitWatcherThread != null) {
+                        exitWatcherThread.interrupt();
+                    }
+                }
+            }
+        } finally {
+            pumped.countDown();
+        }
+    }
+
+    protected Throwable getOutputPumpFailure() {
+        synchronized (outputPumpLock) {
+            return outputPumpFailure;
+        }
+    }
+
+    /**
+     * Invoked if the shell exited but its output streams are still open and idle - the pumps are not waited for any
+     * longer and the streams are closed in order to unblock them (if possible)
+     */
+    protected void abandonOutputPumps() {
+        if (log.isDebugEnabled()) {
+            log.debug("abandonOutputPumps({}) shell exited but its output streams are still open", this);
+        }
+        synchronized (outputPumpLock) {
+            outputAbandoned = true;
+        }
+        IoUtils.closeQuietly(shellOut, shellErr);
+    }
+
+    protected void pumpBlocking(InputStream in, OutputStream out, byte[] buffer) throws IOException {
+        for (int len = in.read(buffer); len >= 0; len = in.read(buffer)) {
+            if (len > 0) {
+                out.write(buffer, 0, len);
+                out.flush();
+            }
+        }
+    }
+
+    protected void pumpInput() {
+        synchronized (inputPumpLock) {
+            if (inputPumpStopped) {
+                return;
+            }
+            inputPumpThread = Thread.currentThread();
+        }
+
+        try {
+            pumpBlocking(in, shellIn, new byte[bufferSize]);
+            shellIn.close();
+        } catch (IOException e) {
+            // expected if the shell exited or the channel was closed while blocked on a read
+            if (log.isDebugEnabled()) {
+                log.debug("pumpInput({}) {} while pumping STDIN: {}", this, e.getClass().getSimpleName(), e.getMessage());
             }
+        } finally {
+            synchronized (inputPumpLock) {
+                inputPumpThread = null;
+                // clear the interrupt in case it was issued after the read completed
+                Thread.interrupted();
+            }
+        }
+    }
 
-            int exitValue = shell.exitValue();
-            if (debugEnabled) {
-                log.debug(
-                        e.getClass().getSimpleName() + " while pumping the streams (exit=" + exitValue + "): " + e.getMessage(),
-                        e);
+    protected void stopInputPump() {
+        synchronized (inputPumpLock) {
+            inputPumpStopped = true;
+            if (inputPumpThread != null) {
+                inputPumpThread.interrupt();
             }
-            callback.onExit(exitValue, e.getClass().getSimpleName());
         }
     }
 
+    protected void handlePumpFailure(Throwable e) {
+        boolean debugEnabled = log.isDebugEnabled();
+        try {
+            shell.destroy(shell.getChannelSession());
+        } catch (Throwable err) {
+            warn("pumpStreams({}) failed ({}) to destroy shell: {}",
+                    this, e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+
+        int exitValue = shell.exitValue();
+        if (debugEnabled) {
+            log.debug(
+                    e.getClass().getSimpleName() + " while pumping the streams (exit=" + exitValue + "): " + e.getMessage(),
+                    e);
+        }
+        callback.onExit(exitValue, e.getClass().getSimpleName());
+    }
+
     protected boolean pumpStream(InputStream in, OutputStream out, byte[] buffer) throws IOException {
         int available = in.available();
         if (available > 0) {
@@ -21,6 +21,7 @@ package org.apache.sshd.server.shell;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -169,6 +170,11 @@ public class ProcessShell extends AbstractLoggingBean implements InvertedShell {
         }
     }
 
+    @Override
+    public void waitForExit(Duration pollInterval) throws InterruptedException {
+        process.waitFor();
+    }
+
     @Override
     public void destroy(ChannelSession channel) {
         // NOTE !!! DO NOT NULL-IFY THE PROCESS SINCE "exitValue" is called subsequently
@@ -27,11 +27,15 @@ import org.apache.sshd.common.util.GenericUtils;
 import org.apache.sshd.common.util.OsUtils;
 import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.logging.AbstractLoggingBean;
+import org.apache.sshd.common.util.threads.ThreadUtils;
 import org.apache.sshd.server.channel.ChannelSession;
 import org.apache.sshd.server.command.Command;
 
 /**
- * A {@link Factory} of {@link Command} that will create a new process and bridge the streams.
+ * A {@link Factory} of {@link Command} that will create a new process and bridge the streams. The streams are pumped
+ * using {@link InvertedShellWrapper#setBlockingPump(boolean) blocking} reads if
+ * {@link ThreadUtils#isVirtualThreadsEnabled() virtual threads} are enabled - otherwise they are polled, since with
+ * platform threads the per-shell cost of blocking mode outweighs the polling overhead.
  *
  * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
  */
@@ -79,7 +83,9 @@ public class ProcessShellFactory extends AbstractLoggingBean implements ShellFac
     @Override
     public Command createShell(ChannelSession channel) {
         InvertedShell shell = createInvertedShell(channel);
-        return new InvertedShellWrapper(shell);
+        InvertedShellWrapper wrapper = new InvertedShellWrapper(shell);
+        wrapper.setBlockingPump(ThreadUtils.isVirtualThreadsEnabled());
+        return wrapper;
     }
 
     protected InvertedShell createInvertedShell(ChannelSession channel) {
@@ -31,13 +31,16 @@ import java.security.KeyPair;
 import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.sshd.client.channel.DirectTcpipIoSession;
 import org.apache.sshd.client.config.hosts.HostConfigEntry;
 import org.apache.sshd.client.config.hosts.KnownHostHashValue;
 import org.apache.sshd.client.keyverifier.KnownHostsServerKeyVerifier;
 import org.apache.sshd.client.keyverifier.RejectAllServerKeyVerifier;
 import org.apache.sshd.client.session.ClientSession;
 import org.apache.sshd.common.config.keys.PublicKeyEntry;
+import org.apache.sshd.common.io.IoSession;
 import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.net.SshdSocketAddress;
 import org.apache.sshd.server.SshServer;
 import org.apache.sshd.server.forward.AcceptAllForwardingFilter;
 import org.apache.sshd.util.test.BaseTestSupport;
@@ -106,6 +109,47 @@ public class ProxyTest extends BaseTestSupport {
         }
     }
 
+    @Test
+    public void testProxyChainOverInMemoryChannels() throws Exception {
+        try (SshServer server = setupTestServer();
+             SshServer proxy1 = setupTestServer();
+             SshServer proxy2 = setupTestServer();
+             SshClient client = setupTestClient()) {
+
+            server.setCommandFactory((session, command) -> new CommandExecutionHelper(command) {
+                @Override
+                protected boolean handleCommandLine(String command) throws Exception {
+                    OutputStream stdout = getOutputStream();
+                    stdout.write(command.getBytes(StandardCharsets.US_ASCII));
+                    stdout.flush();
+                    return false;
+                }
+            });
+            server.start();
+            for (SshServer proxy : new SshServer[] { proxy1, proxy2 }) {
+                proxy.setForwardingFilter(AcceptAllForwardingFilter.INSTANCE);
+                proxy.start();
+            }
+            client.start();
+
+            client.addPasswordIdentity("user2");
+            try (ClientSession session = createSession(
+                    client,
+                    "localhost", server.getPort(), "user1", "user1",
+                    "user2@localhost:" + proxy1.getPort() + ",user2@localhost:" + proxy2.getPort())) {
+                assertTrue(session.isOpen());
+                // no local port forwarding involved - the session runs directly over the proxy channel
+                IoSession ioSession = session.getIoSession();
+                assertObjectInstanceOf("Not a channel based session", DirectTcpipIoSession.class, ioSession);
+                assertEquals("Mismatched connect address",
+                        new SshdSocketAddress("localhost", server.getPort()), session.getConnectAddress());
+                for (int index = 0; index < Byte.SIZE; index++) {
+                    doTestCommand(session, getCurrentTestName() + "-" + index);
+                }
+            }
+        }
+    }
+
     @Test
     public void testDirectWithHostKeyVerification() throws Exception {
         // This test exists only to show that the knownhosts setup is correct
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.client.keyverifier;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sshd.client.config.hosts.KnownHostDigest;
+import org.apache.sshd.client.config.hosts.KnownHostEntry;
+import org.apache.sshd.client.config.hosts.KnownHostHashValue;
+import org.apache.sshd.client.keyverifier.KnownHostsServerKeyVerifier.HostEntryPair;
+import org.apache.sshd.common.util.net.SshdSocketAddress;
+import org.apache.sshd.util.test.JUnitTestSupport;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Compares the {@link KnownHostsIndex} lookup against the linear scan of all the known hosts entries that was used
+ * before it.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@Ignore("Special class used for development only - not really a test just useful to run as such")
+public class KnownHostsIndexPerformanceTest extends JUnitTestSupport {
+    public static final int NUM_ENTRIES = 100_000;
+    public static final int NUM_LOOKUPS = 200;
+    public static final int NUM_HOSTS = 50;
+    public static final int NUM_WILDCARDS = 100;
+
+    private static final String KEY_DATA = " ssh-ed25519 AAAAC3NzaC1lZDI1NTE5AAAAIPnEN/Ff/4qvI/VfjkFbXn5IMYNuBhaRhyQSeRg7Ce3s";
+
+    public KnownHostsIndexPerformanceTest() {
+        super();
+    }
+
+    @Test
+    public void testPlainHosts() throws Exception {
+        compareLookups(createEntries(false));
+    }
+
+    @Test
+    public void testHashedHosts() throws Exception {
+        compareLookups(createEntries(true));
+    }
+
+    private void compareLookups(List<HostEntryPair> entries) {
+        long start = System.nanoTime();
+        KnownHostsIndex index = new KnownHostsIndex(entries);
+        long buildTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // look up hosts from the end of the file - worst case for the linear scan
+        Random rnd = new Random(NUM_ENTRIES);
+        List<Collection<SshdSocketAddress>> lookups = new ArrayList<>(NUM_LOOKUPS);
+        for (int i = 0; i < NUM_LOOKUPS; i++) {
+            int hostIndex = NUM_ENTRIES - 1 - rnd.nextInt(NUM_HOSTS);
+            lookups.add(Collections.singletonList(new SshdSocketAddress(toHostName(hostIndex), 22)));
+        }
+
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (Collection<SshdSocketAddress> candidates : lookups) {
+                assertNotNull("No indexed match for " + candidates, index.findMatch(candidates));
+            }
+            long newTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (Collection<SshdSocketAddress> candidates : lookups) {
+                assertNotNull("No linear match for " + candidates, findLinear(entries, candidates));
+            }
+            long orgTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.append(getCurrentTestName())
+                    .append(String.format(": entries=%d, lookups=%d, build=%d ms: %6d down to %6d ms, gain = %d%%",
+                            entries.size(), lookups.size(), buildTime, orgTime, newTime,
+                            (int) (100 * (orgTime - newTime) / Math.max(orgTime, 1L))))
+                    .println();
+        }
+    }
+
+    private static HostEntryPair findLinear(Collection<HostEntryPair> entries, Collection<SshdSocketAddress> candidates) {
+        for (HostEntryPair pair : entries) {
+            KnownHostEntry entry = pair.getHostEntry();
+            for (SshdSocketAddress host : candidates) {
+                if (entry.isHostMatch(host.getHostName(), host.getPort())) {
+                    return pair;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<HostEntryPair> createEntries(boolean hashed) throws Exception {
+        PublicKey key = Mockito.mock(PublicKey.class);
+        Random rnd = new Random(NUM_ENTRIES);
+        List<HostEntryPair> entries = new ArrayList<>(NUM_ENTRIES + NUM_WILDCARDS);
+        for (int i = 0; i < NUM_WILDCARDS; i++) {
+            entries.add(new HostEntryPair(KnownHostEntry.parseKnownHostEntry("*.domain" + i + ".org" + KEY_DATA), key));
+        }
+
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            String host = toHostName(i);
+            if (hashed) {
+                // same as OpenSSH - a random salt per entry
+                byte[] salt = new byte[20];
+                rnd.nextBytes(salt);
+                byte[] digest = KnownHostHashValue.calculateHashValue(host, 22, KnownHostDigest.SHA1, salt);
+                host = KnownHostHashValue.append(new StringBuilder(), KnownHostDigest.SHA1, salt, digest).toString();
+            }
+            entries.add(new HostEntryPair(KnownHostEntry.parseKnownHostEntry(host + KEY_DATA), key));
+        }
+        return entries;
+    }
+
+    private static String toHostName(int index) {
+        return "host-" + index + ".example.com";
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.client.keyverifier;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.sshd.client.config.hosts.HostPatternsHolder;
+import org.apache.sshd.client.config.hosts.KnownHostDigest;
+import org.apache.sshd.client.config.hosts.KnownHostEntry;
+import org.apache.sshd.client.config.hosts.KnownHostHashValue;
+import org.apache.sshd.client.keyverifier.KnownHostsServerKeyVerifier.HostEntryPair;
+import org.apache.sshd.common.util.net.SshdSocketAddress;
+import org.apache.sshd.util.test.JUnitTestSupport;
+import org.apache.sshd.util.test.NoIoTestCase;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runners.MethodSorters;
+import org.mockito.Mockito;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@Category({ NoIoTestCase.class })
+public class KnownHostsIndexTest extends JUnitTestSupport {
+    private static final String KEY_DATA = " ssh-ed25519 AAAAC3NzaC1lZDI1NTE5AAAAIPnEN/Ff/4qvI/VfjkFbXn5IMYNuBhaRhyQSeRg7Ce3s";
+    private static final byte[] SHARED_SALT = new byte[20];
+
+    public KnownHostsIndexTest() {
+        super();
+    }
+
+    @Test
+    public void testSpecificHostNameExtraction() {
+        for (String host : new String[] { "localhost", "Host-01.example.com", "fe80::1%eth0", "my_host" }) {
+            assertEquals("Mismatched name for " + host, host,
+                    KnownHostsIndex.toSpecificHostName(HostPatternsHolder.toPattern(host).getPattern()));
+        }
+
+        for (String pattern : new String[] { "*", "*.example.com", "host?", "10.0.0.*" }) {
+            assertNull("Unexpected name for " + pattern,
+                    KnownHostsIndex.toSpecificHostName(HostPatternsHolder.toPattern(pattern).getPattern()));
+        }
+    }
+
+    @Test
+    public void testSameMatchAsLinearScan() throws Exception {
+        List<HostEntryPair> entries = Arrays.asList(
+                newEntry("!bad.example.com,*.example.com"),
+                newEntry("plain.example.com,10.0.0.1"),
+                newEntry(hash("hashed.example.com", 22, SHARED_SALT)),
+                newEntry("[other.example.com]:2222"),
+                newEntry("host?.example.org"),
+                newEntry(hash("host1.example.org", 22, SHARED_SALT)),
+                newEntry("PLAIN.example.org"),
+                newEntry(hash("10.0.0.2", 2222, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20 })),
+                newEntry("plain.example.org"),
+                newEntry("*"));
+        KnownHostsIndex index = new KnownHostsIndex(entries);
+        assertEquals("Mismatched hashed groups", 2, index.getHashedGroupsCount());
+        assertEquals("Mismatched unindexed entries", 3, index.getUnindexedCount());
+
+        String[] hosts = {
+                "bad.example.com", "good.example.com", "plain.example.com", "10.0.0.1", "hashed.example.com",
+                "other.example.com", "host1.example.org", "plain.example.org", "10.0.0.2", "unknown.host" };
+        for (String host : hosts) {
+            for (int port : new int[] { 0, 22, 2222 }) {
+                Collection<SshdSocketAddress> candidates = Collections.singletonList(new SshdSocketAddress(host, port));
+                HostEntryPair expected = findLinear(entries, candidates);
+                // twice in order to check the cached hashed lookups
+                for (int round = 0; round < 2; round++) {
+                    assertSame("Mismatched match for " + host + ":" + port + " at round #" + round,
+                            expected, index.findMatch(candidates));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEarliestEntryAmongCandidates() throws Exception {
+        List<HostEntryPair> entries = Arrays.asList(
+                newEntry("first.example.com"),
+                newEntry(hash("second.example.com", 22, SHARED_SALT)),
+                newEntry("second.example.com,first.example.com"));
+        KnownHostsIndex index = new KnownHostsIndex(entries);
+        Collection<SshdSocketAddress> candidates = Arrays.asList(
+                new SshdSocketAddress("second.example.com", 22), new SshdSocketAddress("FIRST.example.com", 22));
+        assertSame("Mismatched match", entries.get(0), index.findMatch(candidates));
+
+        candidates = Collections.singletonList(new SshdSocketAddress("second.example.com", 22));
+        assertSame("Mismatched hashed match", entries.get(1), index.findMatch(candidates));
+    }
+
+    @Test
+    public void testIsIndexOf() throws Exception {
+        List<HostEntryPair> entries = new ArrayList<>();
+        entries.add(newEntry("localhost"));
+        KnownHostsIndex index = new KnownHostsIndex(entries);
+        assertTrue("Not index of original entries", index.isIndexOf(entries));
+        assertFalse("Index of a copy", index.isIndexOf(new ArrayList<>(entries)));
+
+        entries.add(newEntry("127.0.0.1"));
+        assertFalse("Index of modified entries", index.isIndexOf(entries));
+    }
+
+    private static HostEntryPair findLinear(Collection<HostEntryPair> entries, Collection<SshdSocketAddress> candidates) {
+        for (HostEntryPair pair : entries) {
+            for (SshdSocketAddress host : candidates) {
+                if (pair.getHostEntry().isHostMatch(host.getHostName(), host.getPort())) {
+                    return pair;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String hash(String host, int port, byte[] salt) throws Exception {
+        byte[] digest = KnownHostHashValue.calculateHashValue(host, port, KnownHostDigest.SHA1, salt);
+        return KnownHostHashValue.append(new StringBuilder(), KnownHostDigest.SHA1, salt, digest).toString();
+    }
+
+    private static HostEntryPair newEntry(String hosts) {
+        KnownHostEntry entry = KnownHostEntry.parseKnownHostEntry(hosts + KEY_DATA);
+        return new HostEntryPair(entry, Mockito.mock(PublicKey.class));
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.client.session;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.common.SshException;
+import org.apache.sshd.common.session.Session;
+import org.apache.sshd.common.session.SessionListener;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.apache.sshd.util.test.CoreTestSupportUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ClientSessionPoolTest extends BaseTestSupport {
+    private static SshServer sshd;
+    private static int port;
+
+    private SshClient client;
+    private final Set<Session> createdSessions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public ClientSessionPoolTest() {
+        super();
+    }
+
+    @BeforeClass
+    public static void setupServer() throws Exception {
+        sshd = CoreTestSupportUtils.setupTestServer(ClientSessionPoolTest.class);
+        sshd.start();
+        port = sshd.getPort();
+    }
+
+    @AfterClass
+    public static void tearDownServer() throws Exception {
+        if (sshd != null) {
+            try {
+                sshd.stop(true);
+            } finally {
+                sshd = null;
+            }
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        createdSessions.clear();
+        client = CoreTestSupportUtils.setupTestClient(getClass());
+        // the test server accepts any password that equals the username
+        client.addPasswordIdentity(getCurrentTestName());
+        client.addSessionListener(new SessionListener() {
+            @Override
+            public void sessionCreated(Session session) {
+                createdSessions.add(session);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+    }
+
+    @Test
+    public void testSessionReusedByConsecutiveLeases() throws Exception {
+        client.start();
+        try (ClientSessionPool pool = new ClientSessionPool(client)) {
+            ClientSession first;
+            try (ClientSessionPool.Lease lease = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+                first = lease.getClientSession();
+                assertTrue("Leased session not authenticated", first.isAuthenticated());
+            }
+
+            for (int index = 0; index < Byte.SIZE; index++) {
+                try (ClientSessionPool.Lease lease = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+                    assertSame("Session not reused at lease #" + index, first, lease.getClientSession());
+                }
+            }
+
+            assertEquals("Mismatched created sessions", 1, createdSessions.size());
+            assertEquals("Mismatched pooled sessions", 1, pool.getSessionsCount());
+        }
+    }
+
+    @Test
+    public void testNewSessionWhenChannelsExhausted() throws Exception {
+        CoreModuleProperties.SESSION_POOL_MAX_CHANNELS.set(client, 2);
+        client.start();
+        try (ClientSessionPool pool = new ClientSessionPool(client);
+             ClientSessionPool.Lease lease1 = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port);
+             ClientSessionPool.Lease lease2 = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port);
+             ClientSessionPool.Lease lease3 = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+            assertSame("Mismatched shared session", lease1.getClientSession(), lease2.getClientSession());
+            assertNotSame("Exhausted session re-used", lease1.getClientSession(), lease3.getClientSession());
+            assertEquals("Mismatched pooled sessions", 2, pool.getSessionsCount());
+
+            // once a lease is released its session should be preferred over a new one
+            lease2.close();
+            try (ClientSessionPool.Lease lease4 = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+                assertEquals("Mismatched pooled sessions after release", 2, pool.getSessionsCount());
+                assertEquals("Mismatched created sessions", 2, createdSessions.size());
+            }
+        }
+    }
+
+    @Test
+    public void testLeaseWaitsForPerHostLimit() throws Exception {
+        CoreModuleProperties.SESSION_POOL_MAX_CHANNELS.set(client, 1);
+        CoreModuleProperties.SESSION_POOL_MAX_SESSIONS.set(client, 1);
+        CoreModuleProperties.SESSION_POOL_LEASE_TIMEOUT.set(client, Duration.ofSeconds(5));
+        client.start();
+        try (ClientSessionPool pool = new ClientSessionPool(client)) {
+            ClientSessionPool.Lease lease = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port);
+            CountDownLatch waiting = new CountDownLatch(1);
+            Thread releaser = new Thread(() -> {
+                try {
+                    waiting.await(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                    Thread.sleep(250L);
+                    lease.close();
+                } catch (Exception e) {
+                    // ignored
+                }
+            });
+            releaser.start();
+
+            waiting.countDown();
+            try (ClientSessionPool.Lease other = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+                assertTrue("Previous lease not released", lease.isReleased());
+                assertSame("Mismatched session", lease.getClientSession(), other.getClientSession());
+            }
+            releaser.join(CONNECT_TIMEOUT.toMillis());
+            assertEquals("Mismatched created sessions", 1, createdSessions.size());
+        }
+    }
+
+    @Test(expected = SshException.class)
+    public void testLeaseTimeout() throws Exception {
+        CoreModuleProperties.SESSION_POOL_MAX_CHANNELS.set(client, 1);
+        CoreModuleProperties.SESSION_POOL_MAX_SESSIONS.set(client, 1);
+        CoreModuleProperties.SESSION_POOL_LEASE_TIMEOUT.set(client, Duration.ofMillis(500L));
+        client.start();
+        try (ClientSessionPool pool = new ClientSessionPool(client);
+             ClientSessionPool.Lease lease = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+            pool.lease(getCurrentTestName(), TEST_LOCALHOST, port);
+            fail("Unexpected lease beyond limit");
+        }
+    }
+
+    @Test
+    public void testIdleSessionEviction() throws Exception {
+        CoreModuleProperties.SESSION_POOL_IDLE_TIMEOUT.set(client, Duration.ofMillis(300L));
+        client.start();
+        try (ClientSessionPool pool = new ClientSessionPool(client)) {
+            ClientSession session;
+            try (ClientSessionPool.Lease lease = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+                session = lease.getClientSession();
+            }
+
+            long maxWait = TimeUnit.SECONDS.toMillis(10L);
+            for (long waited = 0L; (pool.getSessionsCount() > 0) && (waited < maxWait); waited += 100L) {
+                Thread.sleep(100L);
+            }
+            assertEquals("Idle session not evicted", 0, pool.getSessionsCount());
+            assertTrue("Evicted session not closed", session.close(false).await(CLOSE_TIMEOUT));
+
+            try (ClientSessionPool.Lease lease = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+                assertNotSame("Evicted session leased", session, lease.getClientSession());
+            }
+        }
+    }
+
+    @Test
+    public void testClosedSessionNotLeased() throws Exception {
+        client.start();
+        try (ClientSessionPool pool = new ClientSessionPool(client)) {
+            ClientSession session;
+            try (ClientSessionPool.Lease lease = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+                session = lease.getClientSession();
+            }
+
+            session.close(false).await(CLOSE_TIMEOUT);
+            try (ClientSessionPool.Lease lease = pool.lease(getCurrentTestName(), TEST_LOCALHOST, port)) {
+                assertNotSame("Closed session leased", session, lease.getClientSession());
+                assertTrue("Leased session not open", lease.getClientSession().isOpen());
+            }
+        }
+    }
+}
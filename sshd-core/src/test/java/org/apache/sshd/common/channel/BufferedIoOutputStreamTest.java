@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.common.channel;
+
+import org.apache.sshd.common.future.DefaultCloseFuture;
+import org.apache.sshd.common.io.IoOutputStream;
+import org.apache.sshd.common.io.IoWriteFuture;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.apache.sshd.util.test.NoIoTestCase;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@Category({ NoIoTestCase.class })
+public class BufferedIoOutputStreamTest extends BaseTestSupport {
+    public BufferedIoOutputStreamTest() {
+        super();
+    }
+
+    @Test
+    public void testPendingWritesFailedWhenClosedImmediately() throws Exception {
+        IoOutputStream out = Mockito.mock(IoOutputStream.class);
+        // the underlying writes never complete
+        Mockito.when(out.writeBuffer(ArgumentMatchers.any(Buffer.class)))
+                .thenAnswer(invocation -> new IoWriteFutureImpl(getCurrentTestName(), invocation.getArgument(0)));
+        DefaultCloseFuture closed = new DefaultCloseFuture(getCurrentTestName(), null);
+        closed.setClosed();
+        Mockito.when(out.close(ArgumentMatchers.anyBoolean())).thenReturn(closed);
+
+        BufferedIoOutputStream stream = new BufferedIoOutputStream(getCurrentTestName(), out);
+        IoWriteFuture current = stream.writeBuffer(new ByteArrayBuffer(new byte[] { 1 }));
+        IoWriteFuture queued = stream.writeBuffer(new ByteArrayBuffer(new byte[] { 2 }));
+        assertFalse("Current write completed", current.isDone());
+        assertFalse("Queued write completed", queued.isDone());
+
+        assertTrue("Stream not closed", stream.close(true).await(CLOSE_TIMEOUT));
+        for (IoWriteFuture future : new IoWriteFuture[] { current, queued }) {
+            assertTrue("Write not completed", future.isDone());
+            assertFalse("Write reported as written", future.isWritten());
+            assertNotNull("No failure reported", future.getException());
+        }
+    }
+}
@@ -73,6 +73,7 @@ import org.apache.sshd.common.util.net.SshdSocketAddress;
 import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.server.SshServer;
 import org.apache.sshd.server.forward.AcceptAllForwardingFilter;
+import org.apache.sshd.server.forward.SharedTcpipConnector;
 import org.apache.sshd.server.global.CancelTcpipForwardHandler;
 import org.apache.sshd.server.global.TcpipForwardHandler;
 import org.apache.sshd.util.test.BaseTestSupport;
@@ -741,6 +742,52 @@ public class PortForwardingTest extends BaseTestSupport {
         }
     }
 
+    @Test
+    public void testForwardingChannelWithPreConnectedSockets() throws Exception {
+        CoreModuleProperties.TCPIP_SERVER_CHANNEL_PRECONNECT_COUNT.set(sshd, 2);
+        // make sure the shared connector picks up the configuration
+        closeSharedConnector();
+        try (ClientSession session = createNativeSession(null)) {
+            SshdSocketAddress local = new SshdSocketAddress("", 0);
+            SshdSocketAddress remote = new SshdSocketAddress(TEST_LOCALHOST, echoPort);
+            for (int index = 0; index < 4; index++) {
+                try (ChannelDirectTcpip channel = session.createDirectTcpipChannel(local, remote)) {
+                    channel.open().verify(OPEN_TIMEOUT);
+
+                    String expected = getCurrentTestName() + "#" + index;
+                    byte[] bytes = expected.getBytes(StandardCharsets.UTF_8);
+                    try (OutputStream output = channel.getInvertedIn();
+                         InputStream input = channel.getInvertedOut()) {
+                        output.write(bytes);
+                        output.flush();
+
+                        byte[] buf = new byte[bytes.length + Long.SIZE];
+                        int n = input.read(buf);
+                        String res = new String(buf, 0, n, StandardCharsets.UTF_8);
+                        assertEquals("Mismatched data at iteration #" + index, expected, res);
+                    }
+                    channel.close(false);
+                }
+            }
+
+            SharedTcpipConnector sharedConnector = sshd.getAttribute(SharedTcpipConnector.SHARED_CONNECTOR);
+            assertNotNull("No shared connector used", sharedConnector);
+            assertEquals("Mismatched pre-connect count", 2, sharedConnector.getPreConnectCount());
+            // the first channel connects on its own, the following ones should find the spares ready
+            assertTrue("No pre-connected socket used", sharedConnector.getClaimedSparesCount() > 0L);
+        } finally {
+            CoreModuleProperties.TCPIP_SERVER_CHANNEL_PRECONNECT_COUNT.remove(sshd);
+            closeSharedConnector();
+        }
+    }
+
+    private static void closeSharedConnector() {
+        SharedTcpipConnector sharedConnector = sshd.removeAttribute(SharedTcpipConnector.SHARED_CONNECTOR);
+        if (sharedConnector != null) {
+            sharedConnector.close(true);
+        }
+    }
+
     @Test(timeout = 45000)
     public void testRemoteForwardingWithDisconnect() throws Exception {
         Session session = createSession();
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sshd.common.io.nio2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the throughput of writing many small packets using one socket write per packet against gathering several of
+ * them into a single write.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@Ignore("Special class used for development only - not really a test just useful to run as such")
+public class Nio2GatheringWritePerformanceTest extends BaseTestSupport {
+    public static final int NUM_PACKETS = 20_000;
+    public static final int NUM_ROUNDS = 3;
+
+    public Nio2GatheringWritePerformanceTest() {
+        super();
+    }
+
+    @Test
+    public void testSmallPacketsThroughput() throws Exception {
+        for (int maxSize : new int[] { 64, 256, 1024 }) {
+            long orgTime = measure(false, maxSize);
+            long newTime = measure(true, maxSize);
+            System.out.append(getCurrentTestName())
+                    .append(String.format(": max. packet size=%4d bytes: %6d down to %6d ms, gain = %d%%",
+                            maxSize, orgTime, newTime, (int) (100 * (orgTime - newTime) / orgTime)))
+                    .println();
+        }
+    }
+
+    private long measure(boolean gathering, int maxSize) throws Exception {
+        long totalNanos = 0L;
+        try (SshServer sshd = setupTestServer()) {
+            CoreModuleProperties.NIO2_GATHERING_WRITE.set(sshd, gathering);
+            // warm up
+            Nio2ServiceTest.transferPackets(sshd, NUM_PACKETS / 10, maxSize);
+            for (int round = 0; round < NUM_ROUNDS; round++) {
+                totalNanos += Nio2ServiceTest.transferPackets(sshd, NUM_PACKETS, maxSize);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+    }
+}
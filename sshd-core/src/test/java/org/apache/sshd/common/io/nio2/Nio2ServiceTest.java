@@ -19,23 +19,37 @@
 
 package org.apache.sshd.common.io.nio2;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Flushable;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketAddress;
 import java.net.SocketOption;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.sshd.common.FactoryManager;
 import org.apache.sshd.common.Property;
 import org.apache.sshd.common.PropertyResolverUtils;
+import org.apache.sshd.common.io.IoAcceptor;
+import org.apache.sshd.common.io.IoConnectFuture;
+import org.apache.sshd.common.io.IoConnector;
+import org.apache.sshd.common.io.IoHandler;
 import org.apache.sshd.common.io.IoSession;
+import org.apache.sshd.common.io.IoWriteFuture;
 import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.Readable;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
 import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.server.SshServer;
 import org.apache.sshd.server.session.ServerSessionImpl;
@@ -133,4 +147,107 @@ public class Nio2ServiceTest extends BaseTestSupport {
             }
         }
     }
+
+    @Test
+    public void testGatheringWrites() throws Exception {
+        try (SshServer sshd = setupTestServer()) {
+            CoreModuleProperties.NIO2_GATHERING_WRITE.set(sshd, true);
+            // small enough to force several batches
+            CoreModuleProperties.NIO2_MAX_GATHERING_WRITE_SIZE.set(sshd, 8 * 1024);
+
+            long nanos = transferPackets(sshd, Short.MAX_VALUE, Byte.MAX_VALUE);
+            outputDebugMessage("%s: transferred in %d nanos", getCurrentTestName(), nanos);
+        }
+    }
+
+    /**
+     * Writes the specified number of packets without waiting for each one to complete and validates that they were all
+     * signalled as written and received in order by the peer.
+     *
+     * @param  manager    The {@link FactoryManager} whose configuration is used for the I/O services
+     * @param  numPackets Number of packets to write
+     * @param  maxSize    Maximum size of each packet - the actual size varies between 1 and this value
+     * @return            The elapsed time (nanoseconds) until all the data was received by the peer
+     * @throws Exception  If failed to transfer the data
+     */
+    public static long transferPackets(FactoryManager manager, int numPackets, int maxSize) throws Exception {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream(numPackets * maxSize);
+        ByteArrayOutputStream received = new ByteArrayOutputStream(numPackets * maxSize);
+        Semaphore receivedSignal = new Semaphore(0);
+        IoHandler serverHandler = new IoHandlerAdapter() {
+            @Override
+            public void messageReceived(IoSession session, Readable message) throws Exception {
+                byte[] data = new byte[message.available()];
+                message.getRawBytes(data, 0, data.length);
+                synchronized (received) {
+                    received.write(data);
+                }
+                receivedSignal.release(data.length);
+            }
+        };
+
+        try (Nio2ServiceFactory factory = new Nio2ServiceFactory(manager, null);
+             IoAcceptor acceptor = factory.createAcceptor(serverHandler);
+             IoConnector connector = factory.createConnector(new IoHandlerAdapter())) {
+            acceptor.bind(new InetSocketAddress(TEST_LOCALHOST, 0));
+            SocketAddress boundAddress = GenericUtils.head(acceptor.getBoundAddresses());
+            IoConnectFuture connectFuture = connector.connect(boundAddress, null, null);
+            assertTrue("Connection not established on time", connectFuture.await(CONNECT_TIMEOUT));
+
+            IoSession session = connectFuture.getSession();
+            assertNotNull("No connected session", session);
+
+            List<IoWriteFuture> futures = new ArrayList<>(numPackets);
+            long startTime = System.nanoTime();
+            for (int index = 0; index < numPackets; index++) {
+                byte[] data = new byte[1 + (index % maxSize)];
+                Arrays.fill(data, (byte) index);
+                expected.write(data);
+                futures.add(session.writeBuffer(new ByteArrayBuffer(data)));
+            }
+
+            int totalSize = expected.size();
+            assertTrue("Not all data received on time",
+                    receivedSignal.tryAcquire(totalSize, 30L, TimeUnit.SECONDS));
+            long duration = System.nanoTime() - startTime;
+
+            for (int index = 0; index < futures.size(); index++) {
+                IoWriteFuture future = futures.get(index);
+                assertTrue("Packet #" + index + " not signalled as written", future.await(5L, TimeUnit.SECONDS));
+                assertTrue("Packet #" + index + " write failed: " + future.getException(), future.isWritten());
+            }
+
+            synchronized (received) {
+                assertArrayEquals("Mismatched received data", expected.toByteArray(), received.toByteArray());
+            }
+            session.close(true);
+            return duration;
+        }
+    }
+
+    private static class IoHandlerAdapter implements IoHandler {
+        IoHandlerAdapter() {
+            super();
+        }
+
+        @Override
+        public void sessionCreated(IoSession session) throws Exception {
+            // ignored
+        }
+
+        @Override
+        public void sessionClosed(IoSession session) throws Exception {
+            // ignored
+        }
+
+        @Override
+        public void exceptionCaught(IoSession session, Throwable cause) throws Exception {
+            // ignored
+        }
+
+        @Override
+        public void messageReceived(IoSession session, Readable message) throws Exception {
+            // ignored
+        }
+    }
 }
@@ -25,12 +25,16 @@ import java.io.WriteAbortedException;
 import java.net.SocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.sshd.common.FactoryManager;
 import org.apache.sshd.common.SshConstants;
@@ -300,6 +304,102 @@ public class AbstractSessionTest extends BaseTestSupport {
         }
     }
 
+    @Test
+    public void testDecodeMultiplePacketsInSingleRead() throws Exception {
+        List<byte[]> expected = new ArrayList<>();
+        Buffer input = new ByteArrayBuffer();
+        for (int index = 0; index < Byte.SIZE; index++) {
+            byte[] payload = new byte[1 + index * 3];
+            payload[0] = SshConstants.SSH_MSG_IGNORE;
+            for (int pos = 1; pos < payload.length; pos++) {
+                payload[pos] = (byte) (index + pos);
+            }
+            expected.add(payload);
+            appendPlainPacket(input, payload);
+        }
+
+        List<byte[]> handled = session.getHandledMessages();
+        byte[] data = input.getCompactData();
+        // split the data so that the last packet's length has been read but not its contents
+        int split = data.length - 3;
+        session.decoderBuffer.putRawBytes(data, 0, split);
+        session.decode();
+        assertEquals("Mismatched number of decoded packets on first read", expected.size() - 1, handled.size());
+        assertEquals("Mismatched decoder state on first read", 1, session.decoderState);
+        assertEquals("Mismatched partial packet read position", Integer.BYTES, session.decoderBuffer.rpos());
+
+        session.decoderBuffer.putRawBytes(data, split, data.length - split);
+        session.decode();
+        assertEquals("Mismatched total number of decoded packets", expected.size(), handled.size());
+        for (int index = 0; index < expected.size(); index++) {
+            assertArrayEquals("Mismatched payload #" + index, expected.get(index), handled.get(index));
+        }
+        assertEquals("Mismatched decoder state", 0, session.decoderState);
+        assertEquals("Unexpected remaining decoder data", 0, session.decoderBuffer.available());
+        assertEquals("Decoder buffer not compacted", 0, session.decoderBuffer.rpos());
+    }
+
+    @Test
+    public void testConcurrentWritesPreserveOrder() throws Exception {
+        // disable SSH_MSG_IGNORE stream padding so only the written packets are sent
+        CoreModuleProperties.IGNORE_MESSAGE_FREQUENCY.set(session, 0L);
+        session.refreshConfiguration();
+
+        int numThreads = Byte.SIZE;
+        int numPackets = Short.MAX_VALUE / numThreads;
+        List<IoWriteFuture> futures = Collections.synchronizedList(new ArrayList<>(numThreads * numPackets));
+        Thread[] writers = new Thread[numThreads];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int index = 0; index < numThreads; index++) {
+            int writerIndex = index;
+            writers[index] = new Thread(() -> {
+                try {
+                    for (int seqNo = 0; seqNo < numPackets; seqNo++) {
+                        Buffer msg = session.createBuffer(SshConstants.SSH_MSG_IGNORE, Long.SIZE);
+                        msg.putInt(writerIndex);
+                        msg.putInt(seqNo);
+                        futures.add(session.doWritePacket(msg));
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }, getCurrentTestName() + "-" + index);
+        }
+
+        for (Thread t : writers) {
+            t.start();
+        }
+        for (Thread t : writers) {
+            t.join(TimeUnit.SECONDS.toMillis(30L));
+        }
+        assertNull("Unexpected writer failure", failure.get());
+
+        for (IoWriteFuture f : futures) {
+            assertTrue("Packet not written: " + f, f.verify(5L, TimeUnit.SECONDS).isWritten());
+        }
+
+        MyIoSession ioSession = (MyIoSession) session.getIoSession();
+        Queue<Buffer> queue = ioSession.getOutgoingMessages();
+        assertEquals("Mismatched written packets count", numThreads * numPackets, queue.size());
+
+        int[] expectedSeqNo = new int[numThreads];
+        for (Buffer data = queue.poll(); data != null; data = queue.poll()) {
+            assertEquals("Mismatched command", SshConstants.SSH_MSG_IGNORE, data.getUByte());
+            int writerIndex = data.getInt();
+            int seqNo = data.getInt();
+            assertEquals("Out of order packet for writer=" + writerIndex, expectedSeqNo[writerIndex], seqNo);
+            expectedSeqNo[writerIndex]++;
+        }
+    }
+
+    private static void appendPlainPacket(Buffer buffer, byte[] payload) {
+        int pad = SshConstants.SSH_PACKET_HEADER_LEN;
+        buffer.putInt(1 + payload.length + pad);
+        buffer.putByte((byte) pad);
+        buffer.putRawBytes(payload);
+        buffer.putRawBytes(new byte[pad]);
+    }
+
     private static String readIdentification(MySession session, Buffer buf) throws Exception {
         List<String> lines = session.doReadIdentification(buf);
         return GenericUtils.isEmpty(lines) ? null : lines.get(lines.size() - 1);
@@ -424,14 +524,20 @@ public class AbstractSessionTest extends BaseTestSupport {
     }
 
     public static class MySession extends AbstractSession {
+        private final List<byte[]> handledMessages = new ArrayList<>();
+
         public MySession() {
             super(true, org.apache.sshd.util.test.CoreTestSupportUtils.setupTestServer(AbstractSessionTest.class),
                   new MyIoSession());
         }
 
+        public List<byte[]> getHandledMessages() {
+            return handledMessages;
+        }
+
         @Override
         protected void handleMessage(Buffer buffer) throws Exception {
-            // ignored
+            handledMessages.add(buffer.getCompactData());
         }
 
         @Override
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sshd.common.session.helpers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sshd.common.SshConstants;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the cost of decoding 32KB reads full of small packets when the decoder buffer is compacted once per read
+ * against the previous behavior of compacting it after each and every packet (simulated by copying the remaining data
+ * to the beginning of a scratch buffer whenever a packet has been handled).
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@Ignore("Special class used for development only - not really a test just useful to run as such")
+public class SessionDecodePerformanceTest extends BaseTestSupport {
+    public static final int READ_SIZE = 32 * 1024;
+    public static final int WARMUP_ROUNDS = 10_000;
+    public static final int MEASURED_ROUNDS = 50_000;
+
+    public SessionDecodePerformanceTest() {
+        super();
+    }
+
+    @Test
+    public void testDecodeSmallPackets() throws Exception {
+        for (int payloadSize : new int[] { 16, 64, 256, 1024 }) {
+            byte[] read = createReadData(payloadSize);
+            try (DecodingSession compactOnce = new DecodingSession(false);
+                 DecodingSession compactPerPacket = new DecodingSession(true)) {
+                measure(compactOnce, read, WARMUP_ROUNDS);
+                measure(compactPerPacket, read, WARMUP_ROUNDS);
+
+                long newTime = measure(compactOnce, read, MEASURED_ROUNDS);
+                long orgTime = measure(compactPerPacket, read, MEASURED_ROUNDS);
+                System.out.append(getCurrentTestName())
+                        .append(String.format(": payload=%4d bytes, packets/read=%4d: %6d down to %6d ms, gain = %d%%",
+                                payloadSize, compactOnce.getHandledCount() / (WARMUP_ROUNDS + MEASURED_ROUNDS),
+                                orgTime, newTime, (int) (100 * (orgTime - newTime) / orgTime)))
+                        .println();
+            }
+        }
+    }
+
+    private static long measure(DecodingSession session, byte[] read, int rounds) throws Exception {
+        long start = System.nanoTime();
+        for (int index = 0; index < rounds; index++) {
+            session.decoderBuffer.putRawBytes(read);
+            session.decode(session.decoderBuffer.wpos());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static byte[] createReadData(int payloadSize) {
+        int pad = SshConstants.SSH_PACKET_HEADER_LEN;
+        int packetSize = Integer.BYTES + 1 + payloadSize + pad;
+        Buffer buffer = new ByteArrayBuffer(READ_SIZE, false);
+        byte[] payload = new byte[payloadSize];
+        payload[0] = SshConstants.SSH_MSG_CHANNEL_DATA;
+        while ((buffer.wpos() + packetSize) <= READ_SIZE) {
+            buffer.putInt(1 + payloadSize + pad);
+            buffer.putByte((byte) pad);
+            buffer.putRawBytes(payload);
+            buffer.putRawBytes(new byte[pad]);
+        }
+        return buffer.getCompactData();
+    }
+
+    private static class DecodingSession extends AbstractSessionTest.MySession {
+        private final boolean compactPerPacket;
+        private final byte[] scratch = new byte[READ_SIZE];
+        private long handledCount;
+        private int dataEnd;
+
+        DecodingSession(boolean compactPerPacket) {
+            this.compactPerPacket = compactPerPacket;
+        }
+
+        long getHandledCount() {
+            return handledCount;
+        }
+
+        void decode(int readEnd) throws Exception {
+            dataEnd = readEnd;
+            decode();
+        }
+
+        @Override
+        protected void handleMessage(Buffer buffer) throws Exception {
+            handledCount++;
+            if (compactPerPacket) {
+                // the write position is set to the end of the handled packet payload (i.e., just before its padding)
+                int remaining = dataEnd - buffer.wpos();
+                System.arraycopy(decoderBuffer.array(), buffer.wpos(), scratch, 0, remaining);
+            }
+        }
+    }
+}
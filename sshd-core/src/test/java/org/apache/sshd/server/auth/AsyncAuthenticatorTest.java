@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.auth;
+
+import java.security.KeyPair;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.future.AuthFuture;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.config.keys.KeyUtils;
+import org.apache.sshd.common.keyprovider.KeyPairProvider;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.auth.keyboard.KeyboardInteractiveAuthenticator;
+import org.apache.sshd.server.auth.password.AsyncPasswordAuthenticator;
+import org.apache.sshd.server.auth.pubkey.AsyncPublickeyAuthenticator;
+import org.apache.sshd.server.auth.pubkey.RejectAllPublickeyAuthenticator;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.apache.sshd.util.test.CoreTestSupportUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class AsyncAuthenticatorTest extends BaseTestSupport {
+    private final Map<String, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+    private SshServer sshd;
+    private SshClient client;
+    private int port;
+
+    public AsyncAuthenticatorTest() {
+        super();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        pending.clear();
+        sshd = CoreTestSupportUtils.setupTestServer(getClass());
+        // a single I/O worker so that a blocked authentication would stall all the sessions
+        CoreModuleProperties.NIO_WORKERS.set(sshd, 1);
+        sshd.setKeyboardInteractiveAuthenticator(KeyboardInteractiveAuthenticator.NONE);
+        sshd.setPublickeyAuthenticator(RejectAllPublickeyAuthenticator.INSTANCE);
+        sshd.setPasswordAuthenticator((AsyncPasswordAuthenticator) (username, password, session) -> resultOf(username));
+        sshd.start();
+        port = sshd.getPort();
+
+        client = CoreTestSupportUtils.setupTestClient(getClass());
+        client.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+        if (sshd != null) {
+            sshd.stop(true);
+        }
+    }
+
+    @Test
+    public void testPendingPasswordDoesNotBlockOtherSessions() throws Exception {
+        CompletableFuture<Boolean> slow = new CompletableFuture<>();
+        pending.put("slow", slow);
+        pending.put("fast", CompletableFuture.completedFuture(Boolean.TRUE));
+
+        try (ClientSession slowSession = connect("slow")) {
+            slowSession.addPasswordIdentity("slow");
+            AuthFuture slowAuth = slowSession.auth();
+
+            try (ClientSession fastSession = connect("fast")) {
+                fastSession.addPasswordIdentity("fast");
+                fastSession.auth().verify(AUTH_TIMEOUT);
+            }
+            assertFalse("Pending authentication completed", slowAuth.isDone());
+
+            slow.complete(Boolean.TRUE);
+            slowAuth.verify(AUTH_TIMEOUT);
+        }
+    }
+
+    @Test
+    public void testRejectedAsyncPassword() throws Exception {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        pending.put(getCurrentTestName(), result);
+        try (ClientSession session = connect(getCurrentTestName())) {
+            session.addPasswordIdentity(getCurrentTestName());
+            AuthFuture auth = session.auth();
+            result.complete(Boolean.FALSE);
+            assertAuthenticationResult(getCurrentTestName(), auth, false);
+        }
+    }
+
+    @Test
+    public void testFailedAsyncPassword() throws Exception {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        pending.put(getCurrentTestName(), result);
+        try (ClientSession session = connect(getCurrentTestName())) {
+            session.addPasswordIdentity(getCurrentTestName());
+            AuthFuture auth = session.auth();
+            result.completeExceptionally(new IllegalStateException(getCurrentTestName()));
+            assertAuthenticationResult(getCurrentTestName(), auth, false);
+        }
+    }
+
+    @Test
+    public void testAsyncPublicKey() throws Exception {
+        KeyPair accepted = KeyUtils.generateKeyPair(KeyPairProvider.ECDSA_SHA2_NISTP256, 256);
+        KeyPair rejected = KeyUtils.generateKeyPair(KeyPairProvider.ECDSA_SHA2_NISTP256, 256);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            sshd.setPublickeyAuthenticator(AsyncPublickeyAuthenticator.executeOn(
+                    (username, key, session) -> KeyUtils.compareKeys(accepted.getPublic(), key), executor));
+
+            try (ClientSession session = connect(getCurrentTestName())) {
+                session.addPublicKeyIdentity(rejected);
+                assertAuthenticationResult("rejected", session.auth(), false);
+            }
+
+            try (ClientSession session = connect(getCurrentTestName())) {
+                session.addPublicKeyIdentity(accepted);
+                assertAuthenticationResult("accepted", session.auth(), true);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<Boolean> resultOf(String username) {
+        CompletableFuture<Boolean> result = pending.get(username);
+        return (result == null) ? CompletableFuture.completedFuture(Boolean.FALSE) : result;
+    }
+
+    private ClientSession connect(String username) throws Exception {
+        return client.connect(username, TEST_LOCALHOST, port)
+                .verify(CONNECT_TIMEOUT)
+                .getSession();
+    }
+
+    private static void assertAuthenticationResult(String message, AuthFuture future, boolean expected) throws Exception {
+        assertTrue(message + ": authentication not completed in time", future.await(AUTH_TIMEOUT));
+        assertEquals(message + ": mismatched authentication result", expected, future.isSuccess());
+    }
+}
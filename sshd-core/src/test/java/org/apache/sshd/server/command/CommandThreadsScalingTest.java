@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.command;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.channel.ChannelShell;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.util.threads.ThreadUtils;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.apache.sshd.util.test.CoreTestSupportUtils;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures the memory and threads used per session running a (blocking) shell command - with and without
+ * {@link ThreadUtils#isVirtualThreadsEnabled() virtual threads}. <B>Note:</B> both the client and server run in the
+ * same JVM so the figures include the client side.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@Ignore("Special class used for development only - not really a test just useful to run as such")
+public class CommandThreadsScalingTest extends BaseTestSupport {
+    public static final int NUM_SESSIONS = Integer.getInteger("sshd.scaling.sessions", 1000);
+
+    public CommandThreadsScalingTest() {
+        super();
+    }
+
+    @Test
+    public void testMemoryPerSession() throws Exception {
+        measure(false);
+        if (ThreadUtils.isVirtualThreadsSupported()) {
+            measure(true);
+        } else {
+            System.out.append(getCurrentTestName()).append(": virtual threads not supported by this JVM").println();
+        }
+    }
+
+    private void measure(boolean virtualThreads) throws Exception {
+        ThreadUtils.setVirtualThreadsEnabled(virtualThreads);
+        SshServer sshd = CoreTestSupportUtils.setupTestServer(getClass());
+        SshClient client = CoreTestSupportUtils.setupTestClient(getClass());
+        List<AutoCloseable> resources = new ArrayList<>(2 * NUM_SESSIONS);
+        try {
+            sshd.start();
+            client.start();
+
+            long heapBefore = usedHeap();
+            long rssBefore = residentSetSize();
+            int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+            for (int index = 0; index < NUM_SESSIONS; index++) {
+                ClientSession session = createAuthenticatedClientSession(client, sshd.getPort());
+                resources.add(session);
+
+                ChannelShell channel = session.createShellChannel();
+                resources.add(0, channel);
+                channel.open().verify(OPEN_TIMEOUT);
+
+                // make sure the command is running before moving on
+                BufferedWriter writer = new BufferedWriter(
+                        new OutputStreamWriter(channel.getInvertedIn(), StandardCharsets.UTF_8));
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(channel.getInvertedOut(), StandardCharsets.UTF_8));
+                writer.write("ping\n");
+                writer.flush();
+                assertEquals("Mismatched echo #" + index, "ping", reader.readLine());
+            }
+
+            long heapAfter = usedHeap();
+            long rssAfter = residentSetSize();
+            int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+            System.out.append(getCurrentTestName())
+                    .append(String.format(": virtual=%-5s sessions=%d platform-threads=+%d heap/session=%d bytes",
+                            virtualThreads, NUM_SESSIONS, threadsAfter - threadsBefore,
+                            (heapAfter - heapBefore) / NUM_SESSIONS))
+                    .append((rssBefore < 0L) || (rssAfter < 0L)
+                            ? ""
+                            : String.format(" rss/session=%d bytes", (rssAfter - rssBefore) / NUM_SESSIONS))
+                    .println();
+        } finally {
+            for (AutoCloseable r : resources) {
+                r.close();
+            }
+            client.stop();
+            sshd.stop(true);
+            ThreadUtils.setVirtualThreadsEnabled(null);
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int index = 0; index < 3; index++) {
+            System.gc();
+            Thread.sleep(100L);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // includes the native thread stacks - available only on Linux
+    private static long residentSetSize() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1L;
+        }
+
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    String[] parts = line.trim().split("\\s+");
+                    return Long.parseLong(parts[1]) * 1024L;
+                }
+            }
+        } catch (Exception e) {
+            // ignored
+        }
+        return -1L;
+    }
+}
@@ -26,7 +26,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.GeneralSecurityException;
 import java.security.PublicKey;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -35,11 +38,13 @@ import org.apache.sshd.common.config.keys.AuthorizedKeysTestSupport;
 import org.apache.sshd.common.config.keys.PublicKeyEntry;
 import org.apache.sshd.common.config.keys.PublicKeyEntryResolver;
 import org.apache.sshd.common.util.io.IoUtils;
+import org.apache.sshd.server.auth.pubkey.AuthorizedKeyEntriesPublickeyAuthenticator;
 import org.apache.sshd.server.auth.pubkey.PublickeyAuthenticator;
 import org.apache.sshd.server.session.ServerSession;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 /**
@@ -114,4 +119,61 @@ public class AuthorizedKeysAuthenticatorTest extends AuthorizedKeysTestSupport {
         assertFalse("Unexpected authentication success for empty file " + file,
                 auth.authenticate(getCurrentTestName(), Mockito.mock(PublicKey.class), null));
     }
+
+    @Test
+    public void testLookupUsesFirstMatchingEntryOptions() throws Exception {
+        List<String> keyLines = loadDefaultSupportedKeys();
+        List<AuthorizedKeyEntry> entries = new ArrayList<>(keyLines.size() + 1);
+        for (String l : keyLines) {
+            entries.add(AuthorizedKeyEntry.parseAuthorizedKeyEntry(l));
+        }
+        // same key as the last one but with different options
+        String lastLine = keyLines.get(keyLines.size() - 1);
+        entries.add(AuthorizedKeyEntry.parseAuthorizedKeyEntry("no-pty " + lastLine));
+
+        AuthorizedKeyEntriesPublickeyAuthenticator auth = new AuthorizedKeyEntriesPublickeyAuthenticator(
+                getCurrentTestName(), null, entries, PublicKeyEntryResolver.FAILING);
+        assertEquals("Mismatched number of resolved keys", new HashSet<>(entries).size(), auth.size());
+
+        for (int index = 0; index < keyLines.size(); index++) {
+            // entries are equal if they have the same key regardless of their options
+            AuthorizedKeyEntry expected = entries.get(entries.indexOf(entries.get(index)));
+            PublicKey key = expected.resolvePublicKey(null, PublicKeyEntryResolver.FAILING);
+            ServerSession session = Mockito.mock(ServerSession.class);
+            assertTrue("Failed to authenticate with key #" + (index + 1), auth.authenticate(getCurrentTestName(), key, session));
+
+            ArgumentCaptor<AuthorizedKeyEntry> matched = ArgumentCaptor.forClass(AuthorizedKeyEntry.class);
+            Mockito.verify(session).setAttribute(
+                    Mockito.eq(AuthorizedKeyEntriesPublickeyAuthenticator.AUTHORIZED_KEY), matched.capture());
+            assertSame("Mismatched matched entry for key #" + (index + 1), expected, matched.getValue());
+        }
+
+        assertFalse("Unexpected authentication success for unknown key",
+                auth.authenticate(getCurrentTestName(), Mockito.mock(PublicKey.class), null));
+    }
+
+    @Test
+    public void testRebuildReusesUnchangedEntriesKeys() throws Exception {
+        PublicKey key = AuthorizedKeyEntry.parseAuthorizedKeyEntry(loadDefaultSupportedKeys().get(0))
+                .resolvePublicKey(null, PublicKeyEntryResolver.FAILING);
+        AtomicInteger resolveCount = new AtomicInteger(0);
+        PublicKeyEntryResolver resolver = (session, keyType, keyData, headers) -> {
+            resolveCount.incrementAndGet();
+            return key;
+        };
+
+        // an unknown key type that only our resolver can handle
+        AuthorizedKeyEntry entry = new AuthorizedKeyEntry();
+        entry.setKeyType(getCurrentTestName());
+        entry.setKeyData(getCurrentTestName().getBytes(StandardCharsets.UTF_8));
+        List<AuthorizedKeyEntry> entries = Collections.singletonList(entry);
+        AuthorizedKeyEntriesPublickeyAuthenticator previous
+                = new AuthorizedKeyEntriesPublickeyAuthenticator(getCurrentTestName(), null, entries, resolver);
+        assertEquals("Mismatched initial resolution count", 1, resolveCount.get());
+
+        AuthorizedKeyEntriesPublickeyAuthenticator auth
+                = new AuthorizedKeyEntriesPublickeyAuthenticator(getCurrentTestName(), null, entries, resolver, previous);
+        assertEquals("Unchanged entry re-resolved", 1, resolveCount.get());
+        assertTrue("Re-used key not authenticated", auth.authenticate(getCurrentTestName(), key, null));
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.kex;
+
+import java.security.KeyPair;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.client.session.ClientSession.ClientSessionEvent;
+import org.apache.sshd.common.config.keys.KeyUtils;
+import org.apache.sshd.common.keyprovider.KeyPairProvider;
+import org.apache.sshd.common.signature.BuiltinSignatures;
+import org.apache.sshd.common.util.security.SecurityUtils;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.apache.sshd.util.test.CoreTestSupportUtils;
+import org.junit.Assume;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures the number of key exchanges per second the server completes for each host key type - with and without
+ * pooling of the host key signers. <B>Note:</B> the client runs in the same process, so the numbers include its own
+ * (verification) costs as well.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@Ignore("Special class used for development only - not really a test just useful to run as such")
+public class HostKeyHandshakePerformanceTest extends BaseTestSupport {
+    public static final int NUM_HANDSHAKES = 500;
+    public static final int NUM_WARMUP_HANDSHAKES = 50;
+
+    private static final Set<ClientSessionEvent> KEX_DONE_EVENTS
+            = EnumSet.of(ClientSessionEvent.WAIT_AUTH, ClientSessionEvent.CLOSED);
+
+    public HostKeyHandshakePerformanceTest() {
+        super();
+    }
+
+    @Test
+    public void testRSA2048() throws Exception {
+        measureHandshakes(BuiltinSignatures.rsaSHA512, KeyUtils.generateKeyPair(KeyPairProvider.SSH_RSA, 2048));
+    }
+
+    @Test
+    public void testRSA4096() throws Exception {
+        measureHandshakes(BuiltinSignatures.rsaSHA512, KeyUtils.generateKeyPair(KeyPairProvider.SSH_RSA, 4096));
+    }
+
+    @Test
+    public void testECDSA256() throws Exception {
+        measureHandshakes(BuiltinSignatures.nistp256, KeyUtils.generateKeyPair(KeyPairProvider.ECDSA_SHA2_NISTP256, 256));
+    }
+
+    @Test
+    public void testECDSA384() throws Exception {
+        measureHandshakes(BuiltinSignatures.nistp384, KeyUtils.generateKeyPair(KeyPairProvider.ECDSA_SHA2_NISTP384, 384));
+    }
+
+    @Test
+    public void testECDSA521() throws Exception {
+        measureHandshakes(BuiltinSignatures.nistp521, KeyUtils.generateKeyPair(KeyPairProvider.ECDSA_SHA2_NISTP521, 521));
+    }
+
+    @Test
+    public void testEd25519() throws Exception {
+        Assume.assumeTrue("EDDSA not supported", SecurityUtils.isEDDSACurveSupported());
+        measureHandshakes(BuiltinSignatures.ed25519, KeyUtils.generateKeyPair(KeyPairProvider.SSH_ED25519, 256));
+    }
+
+    private void measureHandshakes(BuiltinSignatures signature, KeyPair hostKey) throws Exception {
+        for (int poolSize : new int[] { 0, CoreModuleProperties.HOST_KEY_SIGNERS_POOL_SIZE.getRequiredDefault() }) {
+            SshServer sshd = CoreTestSupportUtils.setupTestServer(getClass());
+            sshd.setKeyPairProvider(KeyPairProvider.wrap(hostKey));
+            sshd.setSignatureFactories(Collections.singletonList(signature));
+            CoreModuleProperties.HOST_KEY_SIGNERS_POOL_SIZE.set(sshd, poolSize);
+            sshd.start();
+
+            SshClient client = CoreTestSupportUtils.setupTestClient(getClass());
+            client.setSignatureFactories(Collections.singletonList(signature));
+            client.start();
+            try {
+                runHandshakes(client, sshd.getPort(), NUM_WARMUP_HANDSHAKES);
+
+                long start = System.nanoTime();
+                runHandshakes(client, sshd.getPort(), NUM_HANDSHAKES);
+                long duration = Math.max(1L, System.nanoTime() - start);
+
+                System.out.append(getCurrentTestName())
+                        .append(String.format(": %s pool=%d: %d handshakes in %d ms - %.1f per second",
+                                signature.getName(), poolSize, NUM_HANDSHAKES, TimeUnit.NANOSECONDS.toMillis(duration),
+                                NUM_HANDSHAKES * 1e9 / duration))
+                        .println();
+            } finally {
+                client.stop();
+                sshd.stop(true);
+            }
+        }
+    }
+
+    private void runHandshakes(SshClient client, int port, int count) throws Exception {
+        for (int index = 0; index < count; index++) {
+            try (ClientSession session = client.connect(getCurrentTestName(), TEST_LOCALHOST, port)
+                    .verify(CONNECT_TIMEOUT)
+                    .getSession()) {
+                Set<ClientSessionEvent> result = session.waitFor(KEX_DONE_EVENTS, CONNECT_TIMEOUT);
+                assertTrue("Key exchange not completed: " + result, result.contains(ClientSessionEvent.WAIT_AUTH));
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.server.kex;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.config.keys.KeyUtils;
+import org.apache.sshd.common.kex.KexProposalOption;
+import org.apache.sshd.common.keyprovider.KeyPairProvider;
+import org.apache.sshd.common.signature.BuiltinSignatures;
+import org.apache.sshd.common.signature.Signature;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.apache.sshd.util.test.CoreTestSupportUtils;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.mockito.Mockito;
+
+/**
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class HostKeySignaturePoolTest extends BaseTestSupport {
+    private static final String ALGORITHM = KeyPairProvider.ECDSA_SHA2_NISTP256;
+
+    public HostKeySignaturePoolTest() {
+        super();
+    }
+
+    @Test
+    public void testSignersReused() throws Exception {
+        KeyPair kp = KeyUtils.generateKeyPair(ALGORITHM, 256);
+        ServerSession session = mockSession();
+        HostKeySignaturePool pool = new HostKeySignaturePool(2);
+
+        Signature signer = pool.acquire(session, ALGORITHM, kp.getPrivate());
+        assertSignature(session, kp, signer);
+        pool.release(ALGORITHM, kp.getPrivate(), signer);
+
+        Signature reused = pool.acquire(session, ALGORITHM, kp.getPrivate());
+        assertSame("Signer not re-used", signer, reused);
+        assertSignature(session, kp, reused);
+        assertNotSame("Signer re-used while acquired", reused, pool.acquire(session, ALGORITHM, kp.getPrivate()));
+
+        KeyPair other = KeyUtils.generateKeyPair(ALGORITHM, 256);
+        assertNotSame("Signer re-used for another key", reused, pool.acquire(session, ALGORITHM, other.getPrivate()));
+    }
+
+    @Test
+    public void testDisabledPoolDoesNotKeepSigners() throws Exception {
+        KeyPair kp = KeyUtils.generateKeyPair(ALGORITHM, 256);
+        ServerSession session = mockSession();
+        HostKeySignaturePool pool = new HostKeySignaturePool(0);
+
+        Signature signer = pool.acquire(session, ALGORITHM, kp.getPrivate());
+        pool.release(ALGORITHM, kp.getPrivate(), signer);
+        assertNotSame("Signer re-used", signer, pool.acquire(session, ALGORITHM, kp.getPrivate()));
+    }
+
+    @Test
+    public void testSigningCostMeasuredOnce() throws Exception {
+        KeyPair kp = KeyUtils.generateKeyPair(ALGORITHM, 256);
+        ServerSession session = mockSession();
+        HostKeySignaturePool pool = new HostKeySignaturePool(1);
+
+        long cost = pool.getSigningCost(session, ALGORITHM, kp.getPrivate());
+        assertTrue("Non-positive cost: " + cost, cost > 0L);
+        assertEquals("Cost re-measured", cost, pool.getSigningCost(session, ALGORITHM, kp.getPrivate()));
+    }
+
+    @Test
+    public void testPreferFastHostKeyAlgorithms() throws Exception {
+        KeyPair rsa = KeyUtils.generateKeyPair(KeyPairProvider.SSH_RSA, 3072);
+        KeyPair ecdsa = KeyUtils.generateKeyPair(ALGORITHM, 256);
+        SshServer sshd = CoreTestSupportUtils.setupTestServer(getClass());
+        sshd.setKeyPairProvider(KeyPairProvider.wrap(rsa, ecdsa));
+        sshd.start();
+
+        SshClient client = CoreTestSupportUtils.setupTestClient(getClass());
+        // the client prefers the (more expensive) RSA key
+        client.setSignatureFactories(Arrays.asList(BuiltinSignatures.rsaSHA512, BuiltinSignatures.nistp256));
+        client.start();
+        try {
+            assertEquals("Mismatched default host key algorithm",
+                    KeyUtils.RSA_SHA512_KEY_TYPE_ALIAS, negotiateHostKeyAlgorithm(client, sshd.getPort()));
+
+            CoreModuleProperties.PREFER_FAST_HOST_KEY_ALGORITHMS.set(sshd, true);
+            CoreModuleProperties.HOST_KEY_MAX_SIGNING_COST_RATIO.set(sshd, 2);
+            assertEquals("Mismatched preferred host key algorithm",
+                    ALGORITHM, negotiateHostKeyAlgorithm(client, sshd.getPort()));
+        } finally {
+            client.stop();
+            sshd.stop(true);
+        }
+    }
+
+    private String negotiateHostKeyAlgorithm(SshClient client, int port) throws Exception {
+        try (ClientSession session = client.connect(getCurrentTestName(), TEST_LOCALHOST, port)
+                .verify(CONNECT_TIMEOUT)
+                .getSession()) {
+            session.addPasswordIdentity(getCurrentTestName());
+            session.auth().verify(AUTH_TIMEOUT);
+            return session.getNegotiatedKexParameter(KexProposalOption.SERVERKEYS);
+        }
+    }
+
+    private static ServerSession mockSession() {
+        ServerSession session = Mockito.mock(ServerSession.class);
+        Mockito.when(session.getSignatureFactories())
+                .thenReturn(Collections.singletonList(BuiltinSignatures.fromFactoryName(ALGORITHM)));
+        return session;
+    }
+
+    private void assertSignature(ServerSession session, KeyPair kp, Signature signer) throws Exception {
+        byte[] data = getCurrentTestName().getBytes(StandardCharsets.UTF_8);
+        signer.update(session, data);
+        byte[] sig = signer.sign(session);
+
+        Signature verifier = BuiltinSignatures.fromFactoryName(ALGORITHM).create();
+        verifier.initVerifier(session, kp.getPublic());
+        verifier.update(session, data);
+        assertTrue("Signature not verified", verifier.verify(session, sig));
+    }
+}
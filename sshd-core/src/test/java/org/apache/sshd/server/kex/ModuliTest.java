@@ -19,7 +19,14 @@
 package org.apache.sshd.server.kex;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -55,6 +62,7 @@ public class ModuliTest extends JUnitTestSupport {
     @AfterClass
     public static void clearInternalModuliCache() {
         Moduli.clearInternalModuliCache();
+        Moduli.clearModuliCache();
     }
 
     @Before
@@ -93,4 +101,89 @@ public class ModuliTest extends JUnitTestSupport {
         assertListEquals("Mismatched groups size", Arrays.asList(1024, 1536, 2048, 3072, 4096, 6144, 7670, 8192),
                 new ArrayList<>(actualSizes));
     }
+
+    @Test
+    public void testSelectSameAsLinearScan() {
+        List<DhGroup> groups = new ArrayList<>();
+        for (int size : new int[] { 4096, 2048, 3072, 2048, 8192, 1536, 4096, 2048 }) {
+            groups.add(new DhGroup(size, BigInteger.valueOf(2L), BigInteger.valueOf(groups.size() + 1)));
+        }
+
+        ModuliGroups index = new ModuliGroups(groups);
+        for (int i = 1; i < index.size(); i++) {
+            assertTrue("Groups not sorted at index=" + i, index.get(i - 1).getSize() <= index.get(i).getSize());
+        }
+
+        // NOTE: the linear scan result depends on the order of the groups - same as OpenSSH it expects them sorted by size
+        int[] values = { 0, 1024, 1536, 2000, 2048, 3000, 3072, 4096, 5000, 8192, 9000 };
+        for (int min : values) {
+            for (int prf : values) {
+                if (prf <= 0) {
+                    continue;   // never happens since the preferred size is adjusted to the minimum allowed one
+                }
+
+                for (int max : values) {
+                    List<DhGroup> expected = selectLinear(index, min, prf, max);
+                    List<DhGroup> actual = index.select(min, prf, max);
+                    assertListEquals("[min=" + min + ", prf=" + prf + ", max=" + max + "]", expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExternalModuliReloadedOnlyWhenModified() throws IOException {
+        URL internal = getClass().getResource(Moduli.INTERNAL_MODULI_RESPATH);
+        List<DhGroup> internalGroups = Moduli.parseModuli(internal);
+        Path file = assertHierarchyTargetFolderExists(getTempTargetRelativeFile(getClass().getSimpleName()))
+                .resolve(getCurrentTestName());
+        try (InputStream input = internal.openStream()) {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        URL moduli = file.toUri().toURL();
+        ModuliGroups expected = Moduli.loadModuli(moduli);
+        assertEquals("Mismatched groups count", internalGroups.size(), expected.size());
+        for (int index = 1; index <= Byte.SIZE; index++) {
+            assertSame("Mismatched cached instance at retry #" + index, expected, Moduli.loadModuli(moduli));
+        }
+
+        // keep only the 1st valid line
+        String firstGroup = null;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if ((!line.isEmpty()) && (line.charAt(0) != '#')) {
+                firstGroup = line;
+                break;
+            }
+        }
+        assertNotNull("No moduli line found", firstGroup);
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        Files.write(file, firstGroup.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 5000L));
+
+        ModuliGroups actual = Moduli.loadModuli(moduli);
+        assertNotSame("Modified moduli not re-loaded", expected, actual);
+        assertEquals("Mismatched re-loaded groups count", 1, actual.size());
+    }
+
+    private static List<DhGroup> selectLinear(List<DhGroup> groups, int min, int prf, int max) {
+        List<DhGroup> selected = new ArrayList<>();
+        int bestSize = 0;
+        for (DhGroup group : groups) {
+            int size = group.getSize();
+            if ((size < min) || (size > max)) {
+                continue;
+            }
+
+            if (((size > prf) && (size < bestSize)) || ((size > bestSize) && (bestSize < prf))) {
+                bestSize = size;
+                selected.clear();
+            }
+
+            if (size == bestSize) {
+                selected.add(group);
+            }
+        }
+        return selected;
+    }
 }
@@ -24,8 +24,16 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.server.Environment;
 import org.apache.sshd.server.channel.ChannelSession;
 import org.apache.sshd.server.session.ServerSession;
@@ -77,6 +85,141 @@ public class InvertedShellWrapperTest extends BaseTestSupport {
         }
     }
 
+    @Test
+    public void testBlockingPumpDoesNotWaitForInput() throws Exception {
+        BogusInvertedShell shell = newShell("out", "err");
+        shell.setAlive(false);
+
+        // STDIN never reaches EOF - the exit must not wait for it
+        try (PipedOutputStream stdin = new PipedOutputStream();
+             PipedInputStream in = new PipedInputStream(stdin);
+             ByteArrayOutputStream out = new ByteArrayOutputStream();
+             ByteArrayOutputStream err = new ByteArrayOutputStream()) {
+            CountDownLatch exited = new CountDownLatch(1);
+            BogusExitCallback exitCallback = new BogusExitCallback() {
+                @Override
+                public void onExit(int exitValue, String exitMessage) {
+                    super.onExit(exitValue, exitMessage);
+                    exited.countDown();
+                }
+            };
+
+            InvertedShellWrapper wrapper = new InvertedShellWrapper(shell);
+            wrapper.setBlockingPump(true);
+            ChannelSession channel = Mockito.mock(ChannelSession.class);
+            try {
+                wrapper.setInputStream(in);
+                wrapper.setOutputStream(out);
+                wrapper.setErrorStream(err);
+                wrapper.setExitCallback(exitCallback);
+                wrapper.start(channel, new BogusEnvironment());
+
+                assertTrue("Shell exit not signalled", exited.await(DEFAULT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+                assertEquals("stdout", "out", out.toString());
+                assertEquals("stderr", "err", err.toString());
+                assertEquals("Mismatched exit value", shell.exitValue(), exitCallback.getExitValue());
+            } finally {
+                wrapper.destroy(channel);
+            }
+        }
+    }
+
+    @Test
+    public void testBlockingPumpReportsExitWhileOutputOpen() throws Exception {
+        // STDOUT is kept open - e.g., by a background process spawned by the shell
+        try (PipedOutputStream stdout = new PipedOutputStream();
+             PipedInputStream shellOut = new PipedInputStream(stdout);
+             ByteArrayInputStream in = new ByteArrayInputStream(GenericUtils.EMPTY_BYTE_ARRAY);
+             ByteArrayOutputStream out = new ByteArrayOutputStream();
+             ByteArrayOutputStream err = new ByteArrayOutputStream()) {
+            stdout.write("out".getBytes(StandardCharsets.UTF_8));
+            BogusInvertedShell shell = new BogusInvertedShell(
+                    new ByteArrayOutputStream(), shellOut, new ByteArrayInputStream("err".getBytes(StandardCharsets.UTF_8)));
+            shell.setAlive(false);
+
+            CountDownLatch exited = new CountDownLatch(1);
+            BogusExitCallback exitCallback = new BogusExitCallback() {
+                @Override
+                public void onExit(int exitValue, String exitMessage) {
+                    super.onExit(exitValue, exitMessage);
+                    exited.countDown();
+                }
+            };
+
+            InvertedShellWrapper wrapper = new InvertedShellWrapper(shell);
+            wrapper.setBlockingPump(true);
+            ChannelSession channel = Mockito.mock(ChannelSession.class);
+            try {
+                wrapper.setInputStream(in);
+                wrapper.setOutputStream(out);
+                wrapper.setErrorStream(err);
+                wrapper.setExitCallback(exitCallback);
+                wrapper.start(channel, new BogusEnvironment());
+
+                assertTrue("Shell exit not signalled", exited.await(DEFAULT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+                assertEquals("stdout", "out", out.toString());
+                assertEquals("stderr", "err", err.toString());
+                assertEquals("Mismatched exit value", shell.exitValue(), exitCallback.getExitValue());
+                assertEquals("Mismatched exit message", String.valueOf(shell.exitValue()), exitCallback.getExitMessage());
+            } finally {
+                wrapper.destroy(channel);
+            }
+        }
+    }
+
+    @Test
+    public void testBlockingPumpWaitsForSlowConsumer() throws Exception {
+        byte[] data = new byte[4 * CoreModuleProperties.BUFFER_SIZE.getRequiredDefault()];
+        Arrays.fill(data, (byte) 'x');
+        BogusInvertedShell shell = new BogusInvertedShell(
+                new ByteArrayOutputStream(), new ByteArrayInputStream(data), new ByteArrayInputStream(GenericUtils.EMPTY_BYTE_ARRAY));
+        shell.setAlive(false);
+
+        // each write blocks for longer than the exit check interval - e.g., waiting for channel window space
+        long writeDelay = 2L * CoreModuleProperties.PUMP_EXIT_CHECK_INTERVAL.getRequiredDefault().toMillis();
+        try (ByteArrayInputStream in = new ByteArrayInputStream(GenericUtils.EMPTY_BYTE_ARRAY);
+             ByteArrayOutputStream out = new ByteArrayOutputStream() {
+                 @Override
+                 public synchronized void write(byte[] b, int off, int len) {
+                     try {
+                         Thread.sleep(writeDelay);
+                     } catch (InterruptedException e) {
+                         throw new IllegalStateException("Interrupted while writing", e);
+                     }
+                     super.write(b, off, len);
+                 }
+             };
+             ByteArrayOutputStream err = new ByteArrayOutputStream()) {
+            CountDownLatch exited = new CountDownLatch(1);
+            AtomicInteger pumpedOnExit = new AtomicInteger(-1);
+            BogusExitCallback exitCallback = new BogusExitCallback() {
+                @Override
+                public void onExit(int exitValue, String exitMessage) {
+                    pumpedOnExit.set(out.size());
+                    super.onExit(exitValue, exitMessage);
+                    exited.countDown();
+                }
+            };
+
+            InvertedShellWrapper wrapper = new InvertedShellWrapper(shell);
+            wrapper.setBlockingPump(true);
+            ChannelSession channel = Mockito.mock(ChannelSession.class);
+            try {
+                wrapper.setInputStream(in);
+                wrapper.setOutputStream(out);
+                wrapper.setErrorStream(err);
+                wrapper.setExitCallback(exitCallback);
+                wrapper.start(channel, new BogusEnvironment());
+
+                assertTrue("Shell exit not signalled", exited.await(DEFAULT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+                assertEquals("Output not fully pumped on exit", data.length, pumpedOnExit.get());
+                assertEquals("Mismatched exit message", String.valueOf(shell.exitValue()), exitCallback.getExitMessage());
+            } finally {
+                wrapper.destroy(channel);
+            }
+        }
+    }
+
     @Test // see SSHD-570
     public void testExceptionWhilePumpStreams() throws Exception {
         BogusInvertedShell bogusShell = newShell("out", "err");
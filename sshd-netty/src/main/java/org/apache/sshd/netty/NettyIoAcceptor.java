@@ -39,7 +39,6 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.util.concurrent.GlobalEventExecutor;
@@ -64,7 +63,7 @@ public class NettyIoAcceptor extends NettyIoService implements IoAcceptor {
 
         channelGroup = new DefaultChannelGroup("sshd-acceptor-channels", GlobalEventExecutor.INSTANCE);
         bootstrap.group(factory.eventLoopGroup)
-                .channel(NioServerSocketChannel.class)
+                .channel(factory.getTransport().getServerSocketChannelClass())
                 .option(ChannelOption.SO_BACKLOG, 100) // TODO make this configurable
                 .handler(new LoggingHandler(LogLevel.INFO)) // TODO make this configurable
                 .childHandler(new ChannelInitializer<SocketChannel>() {
@@ -106,6 +105,8 @@ public class NettyIoAcceptor extends NettyIoService implements IoAcceptor {
                         }
                     }
                 });
+        applyTransportOptions(true, bootstrap::option);
+        applyTransportOptions(false, bootstrap::childOption);
     }
 
     @Override
@@ -29,7 +29,6 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.util.concurrent.GlobalEventExecutor;
@@ -54,7 +53,7 @@ public class NettyIoConnector extends NettyIoService implements IoConnector {
 
         channelGroup = new DefaultChannelGroup("sshd-connector-channels", GlobalEventExecutor.INSTANCE);
         bootstrap.group(factory.eventLoopGroup)
-                .channel(NioSocketChannel.class)
+                .channel(factory.getTransport().getSocketChannelClass())
                 .option(ChannelOption.SO_BACKLOG, 100) // TODO make this configurable
                 .handler(new ChannelInitializer<SocketChannel>() {
                     @Override
@@ -102,6 +101,7 @@ public class NettyIoConnector extends NettyIoService implements IoConnector {
                         }
                     }
                 });
+        applyTransportOptions(false, bootstrap::option);
     }
 
     @Override
@@ -23,10 +23,13 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
+import io.netty.channel.ChannelOption;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.util.AttributeKey;
 import org.apache.sshd.common.AttributeRepository;
+import org.apache.sshd.common.PropertyResolver;
 import org.apache.sshd.common.io.IoConnectFuture;
 import org.apache.sshd.common.io.IoHandler;
 import org.apache.sshd.common.io.IoService;
@@ -73,4 +76,53 @@ public abstract class NettyIoService extends AbstractCloseable implements IoServ
     public Map<Long, IoSession> getManagedSessions() {
         return sessions;
     }
+
+    /**
+     * Applies the configured transport-specific options - those that are not supported by the factory's
+     * {@link NettyTransport} are ignored.
+     *
+     * @param serverChannel Whether the options are for a listening channel - in which case only the options that
+     *                      are relevant for it are applied
+     * @param setter        Invoked with each option and its value
+     * @see                 NettyModuleProperties
+     */
+    protected void applyTransportOptions(boolean serverChannel, BiConsumer<ChannelOption<Object>, Object> setter) {
+        NettyTransport transport = factory.getTransport();
+        PropertyResolver resolver = factory.getPropertyResolver();
+        Boolean edgeTriggered = NettyModuleProperties.EPOLL_EDGE_TRIGGERED.get(resolver).orElse(null);
+        if (edgeTriggered != null) {
+            Object mode = transport.resolveEnumValue("EpollMode", edgeTriggered ? "EDGE_TRIGGERED" : "LEVEL_TRIGGERED");
+            applyTransportOption(transport, "EPOLL_MODE", mode, setter);
+        }
+
+        if (serverChannel) {
+            return;
+        }
+
+        applyTransportOption(transport, "TCP_CORK", NettyModuleProperties.TCP_CORK.get(resolver).orElse(null), setter);
+        applyTransportOption(
+                transport, "TCP_QUICKACK", NettyModuleProperties.TCP_QUICKACK.get(resolver).orElse(null), setter);
+        applyTransportOption(
+                transport, "SO_BUSY_POLL", NettyModuleProperties.SO_BUSY_POLL.get(resolver).orElse(null), setter);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void applyTransportOption(
+            NettyTransport transport, String optionName, Object value, BiConsumer<ChannelOption<Object>, Object> setter) {
+        if (value == null) {
+            return;
+        }
+
+        ChannelOption<?> option = transport.resolveChannelOption(optionName);
+        if (option == null) {
+            log.warn("applyTransportOption({}) {}={} not supported by the {} transport",
+                    this, optionName, value, transport.getName());
+            return;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("applyTransportOption({}) {}={}", this, option, value);
+        }
+        setter.accept((ChannelOption<Object>) option, value);
+    }
 }
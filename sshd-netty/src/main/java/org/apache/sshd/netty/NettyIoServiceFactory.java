@@ -20,8 +20,8 @@
 package org.apache.sshd.netty;
 
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.concurrent.Future;
+import org.apache.sshd.common.PropertyResolver;
 import org.apache.sshd.common.future.CloseFuture;
 import org.apache.sshd.common.io.IoAcceptor;
 import org.apache.sshd.common.io.IoConnector;
@@ -38,6 +38,8 @@ public class NettyIoServiceFactory extends AbstractCloseable implements IoServic
 
     protected final EventLoopGroup eventLoopGroup;
     protected final boolean closeEventLoopGroup;
+    protected final NettyTransport transport;
+    protected final PropertyResolver propertyResolver;
 
     private IoServiceEventListener eventListener;
 
@@ -46,10 +48,36 @@ public class NettyIoServiceFactory extends AbstractCloseable implements IoServic
     }
 
     public NettyIoServiceFactory(EventLoopGroup group) {
-        this.eventLoopGroup = (group != null) ? group : new NioEventLoopGroup();
+        this(null, group);
+    }
+
+    /**
+     * @param resolver The {@link PropertyResolver} used to resolve the {@link NettyModuleProperties} - may be
+     *                 {@code null}, in which case the defaults are used
+     * @param group    The {@link EventLoopGroup} to use - if {@code null} then one of the
+     *                 {@link NettyModuleProperties#TRANSPORT configured transport} is created (and closed when this
+     *                 factory is closed)
+     */
+    public NettyIoServiceFactory(PropertyResolver resolver, EventLoopGroup group) {
+        this.propertyResolver = (resolver == null) ? PropertyResolver.EMPTY : resolver;
+        if (group != null) {
+            this.transport = NettyTransport.fromEventLoopGroup(group);
+            this.eventLoopGroup = group;
+        } else {
+            this.transport = NettyTransport.resolveTransport(NettyModuleProperties.TRANSPORT.getRequired(propertyResolver));
+            this.eventLoopGroup = transport.createEventLoopGroup();
+        }
         this.closeEventLoopGroup = group == null;
     }
 
+    public NettyTransport getTransport() {
+        return transport;
+    }
+
+    public PropertyResolver getPropertyResolver() {
+        return propertyResolver;
+    }
+
     @Override
     public IoServiceEventListener getIoServiceEventListener() {
         return eventListener;
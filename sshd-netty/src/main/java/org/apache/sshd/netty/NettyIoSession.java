@@ -23,11 +23,15 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SocketChannel;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import io.netty.buffer.ByteBuf;
@@ -37,8 +41,8 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-import io.netty.channel.ChannelPromise;
 import io.netty.channel.nio.AbstractNioChannel;
+import io.netty.channel.socket.DuplexChannel;
 import io.netty.util.Attribute;
 import org.apache.sshd.common.future.CloseFuture;
 import org.apache.sshd.common.io.AbstractIoWriteFuture;
@@ -72,7 +76,8 @@ public class NettyIoSession extends AbstractCloseable implements IoSession {
     protected final long id;
     protected ChannelHandlerContext context;
     protected SocketAddress remoteAddr;
-    protected ChannelFuture prev;
+    protected final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    protected final AtomicBoolean drainScheduled = new AtomicBoolean();
     protected final ChannelInboundHandlerAdapter adapter = new Adapter();
 
     private final SocketAddress acceptanceAddress;
@@ -137,25 +142,69 @@ public class NettyIoSession extends AbstractCloseable implements IoSession {
 
     @Override
     public IoWriteFuture writeBuffer(Buffer buffer) {
+        ChannelHandlerContext ctx = context;
         int bufLen = buffer.available();
-        ByteBuf buf = Unpooled.buffer(bufLen);
+        ByteBuf buf = (ctx == null) ? Unpooled.buffer(bufLen) : ctx.alloc().ioBuffer(bufLen);
         buf.writeBytes(buffer.array(), buffer.rpos(), bufLen);
-        DefaultIoWriteFuture msg = new DefaultIoWriteFuture(getRemoteAddress(), null);
-        ChannelPromise next = context.newPromise();
-        prev.addListener(whatever -> {
-            if (context != null) {
-                context.writeAndFlush(buf, next);
-            }
-        });
-        prev = next;
-        next.addListener(fut -> {
-            if (fut.isSuccess()) {
-                msg.setValue(Boolean.TRUE);
+        return enqueueWrite(buf);
+    }
+
+    /**
+     * Queues the data for writing - the queue is drained on the channel's event loop, so the writes are issued in the
+     * order of the calls regardless of the calling thread, and the channel is flushed once per drained batch instead
+     * of once per packet.
+     *
+     * @param  buf The data to write - released once written
+     * @return     The write future
+     */
+    protected DefaultIoWriteFuture enqueueWrite(ByteBuf buf) {
+        DefaultIoWriteFuture future = new DefaultIoWriteFuture(getRemoteAddress(), null);
+        pendingWrites.add(new PendingWrite(buf, future));
+        if (drainScheduled.compareAndSet(false, true)) {
+            ChannelHandlerContext ctx = context;
+            if ((ctx == null) || ctx.executor().inEventLoop()) {
+                drainPendingWrites();
             } else {
-                msg.setValue(fut.cause());
+                try {
+                    ctx.executor().execute(this::drainPendingWrites);
+                } catch (RuntimeException e) {
+                    // e.g. the event loop is shutting down - the queued writes would never be drained
+                    drainScheduled.set(false);
+                    failPendingWrites(e);
+                }
             }
-        });
-        return msg;
+        }
+        return future;
+    }
+
+    protected void failPendingWrites(Throwable cause) {
+        for (PendingWrite pending = pendingWrites.poll(); pending != null; pending = pendingWrites.poll()) {
+            pending.buf.release();
+            pending.future.setValue(cause);
+        }
+    }
+
+    protected void drainPendingWrites() {
+        do {
+            ChannelHandlerContext ctx = context;
+            boolean written = false;
+            for (PendingWrite pending = pendingWrites.poll(); pending != null; pending = pendingWrites.poll()) {
+                if (ctx == null) {
+                    pending.buf.release();
+                    pending.future.setValue(new ClosedChannelException());
+                } else {
+                    ctx.write(pending.buf, ctx.newPromise().addListener(pending.future));
+                    written = true;
+                }
+            }
+
+            if (written) {
+                ctx.flush();
+            }
+
+            drainScheduled.set(false);
+            // re-check in case data was queued after the last poll but before the flag was reset
+        } while ((!pendingWrites.isEmpty()) && drainScheduled.compareAndSet(false, true));
     }
 
     @Override
@@ -167,6 +216,18 @@ public class NettyIoSession extends AbstractCloseable implements IoSession {
     public void shutdownOutputStream() throws IOException {
         Channel ch = context.channel();
         boolean debugEnabled = log.isDebugEnabled();
+        if ((ch instanceof DuplexChannel) && (!(ch instanceof AbstractNioChannel))) {
+            // native transports (epoll, io_uring)
+            DuplexChannel duplex = (DuplexChannel) ch;
+            if (duplex.isActive() && (!duplex.isOutputShutdown())) {
+                if (debugEnabled) {
+                    log.debug("shudownOutputStream({})", this);
+                }
+                duplex.shutdownOutput();
+            }
+            return;
+        }
+
         if (!(ch instanceof AbstractNioChannel)) {
             if (debugEnabled) {
                 log.debug("shudownOutputStream({}) channel is not AbstractNioChannel: {}",
@@ -211,9 +272,14 @@ public class NettyIoSession extends AbstractCloseable implements IoSession {
 
     @Override
     protected CloseFuture doCloseGracefully() {
-        context.writeAndFlush(Unpooled.EMPTY_BUFFER)
-                .addListener(ChannelFutureListener.CLOSE)
-                .addListener(fut -> closeFuture.setClosed());
+        // queued behind any pending writes so that they are flushed before closing
+        enqueueWrite(Unpooled.EMPTY_BUFFER).addListener(f -> {
+            ChannelHandlerContext ctx = context;
+            if (ctx != null) {
+                ctx.close();
+            }
+            closeFuture.setClosed();
+        });
         return closeFuture;
     }
 
@@ -228,7 +294,6 @@ public class NettyIoSession extends AbstractCloseable implements IoSession {
         Channel channel = ctx.channel();
         service.channelGroup.add(channel);
         service.sessions.put(id, NettyIoSession.this);
-        prev = context.newPromise().setSuccess();
         remoteAddr = channel.remoteAddress();
         handler.sessionCreated(NettyIoSession.this);
 
@@ -266,10 +331,25 @@ public class NettyIoSession extends AbstractCloseable implements IoSession {
                + "]";
     }
 
-    protected static class DefaultIoWriteFuture extends AbstractIoWriteFuture {
+    protected static class DefaultIoWriteFuture extends AbstractIoWriteFuture implements ChannelFutureListener {
         public DefaultIoWriteFuture(Object id, Object lock) {
             super(id, lock);
         }
+
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            setValue(future.isSuccess() ? Boolean.TRUE : future.cause());
+        }
+    }
+
+    protected static class PendingWrite {
+        protected final ByteBuf buf;
+        protected final DefaultIoWriteFuture future;
+
+        public PendingWrite(ByteBuf buf, DefaultIoWriteFuture future) {
+            this.buf = buf;
+            this.future = future;
+        }
     }
 
     /**
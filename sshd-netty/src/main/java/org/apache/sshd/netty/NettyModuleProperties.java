@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.netty;
+
+import org.apache.sshd.common.Property;
+
+/**
+ * Configurable properties for sshd-netty.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public final class NettyModuleProperties {
+
+    /**
+     * The {@link NettyTransport} used when no event loop group is provided - {@code nio}, {@code epoll},
+     * {@code io_uring} or {@code auto}, which selects {@code epoll} if available and {@code nio} otherwise. A native
+     * transport that is requested but not available falls back to {@code auto}.
+     */
+    public static final Property<String> TRANSPORT
+            = Property.string("netty-transport", NettyTransport.AUTO);
+
+    /**
+     * Whether to set {@code TCP_CORK} on the connections - native transports only
+     */
+    public static final Property<Boolean> TCP_CORK
+            = Property.bool("netty-tcp-cork");
+
+    /**
+     * Whether to set {@code TCP_QUICKACK} on the connections - native transports only
+     */
+    public static final Property<Boolean> TCP_QUICKACK
+            = Property.bool("netty-tcp-quickack");
+
+    /**
+     * {@code SO_BUSY_POLL} value (microseconds) of the connections - {@code epoll} transport only
+     */
+    public static final Property<Integer> SO_BUSY_POLL
+            = Property.integer("netty-so-busy-poll");
+
+    /**
+     * Whether to use edge-triggered (instead of level-triggered) mode - {@code epoll} transport only
+     */
+    public static final Property<Boolean> EPOLL_EDGE_TRIGGERED
+            = Property.bool("netty-epoll-edge-triggered");
+
+    private NettyModuleProperties() {
+        throw new UnsupportedOperationException("No instance");
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.netty;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.apache.sshd.common.NamedResource;
+import org.apache.sshd.common.util.GenericUtils;
+
+/**
+ * The Netty transports that can be used - the native ones are accessed via reflection so that they are used only if
+ * their (optional) artifacts are on the classpath and supported by the running platform.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public enum NettyTransport implements NamedResource {
+    NIO("nio", null, NioEventLoopGroup.class.getName(),
+        NioSocketChannel.class.getName(), NioServerSocketChannel.class.getName(), null),
+    EPOLL("epoll", "io.netty.channel.epoll.Epoll", "io.netty.channel.epoll.EpollEventLoopGroup",
+          "io.netty.channel.epoll.EpollSocketChannel", "io.netty.channel.epoll.EpollServerSocketChannel",
+          "io.netty.channel.epoll.EpollChannelOption"),
+    IO_URING("io_uring", "io.netty.incubator.channel.uring.IOUring",
+             "io.netty.incubator.channel.uring.IOUringEventLoopGroup",
+             "io.netty.incubator.channel.uring.IOUringSocketChannel",
+             "io.netty.incubator.channel.uring.IOUringServerSocketChannel",
+             "io.netty.incubator.channel.uring.IOUringChannelOption");
+
+    /**
+     * Pseudo-name that selects the best available transport
+     *
+     * @see #resolveTransport(String)
+     */
+    public static final String AUTO = "auto";
+
+    public static final Set<NettyTransport> VALUES = Collections.unmodifiableSet(EnumSet.allOf(NettyTransport.class));
+
+    private final String name;
+    private final String availabilityClassName;
+    private final String eventLoopGroupClassName;
+    private final String socketChannelClassName;
+    private final String serverSocketChannelClassName;
+    private final String channelOptionClassName;
+    private volatile Boolean available;
+
+    NettyTransport(String name, String availabilityClassName, String eventLoopGroupClassName,
+                   String socketChannelClassName, String serverSocketChannelClassName, String channelOptionClassName) {
+        this.name = name;
+        this.availabilityClassName = availabilityClassName;
+        this.eventLoopGroupClassName = eventLoopGroupClassName;
+        this.socketChannelClassName = socketChannelClassName;
+        this.serverSocketChannelClassName = serverSocketChannelClassName;
+        this.channelOptionClassName = channelOptionClassName;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public boolean isNative() {
+        return availabilityClassName != null;
+    }
+
+    /**
+     * @return {@code true} if the transport classes are on the classpath and the transport is supported by the running
+     *         platform
+     */
+    public boolean isAvailable() {
+        Boolean result = available;
+        if (result == null) {
+            result = checkAvailable();
+            available = result;
+        }
+        return result;
+    }
+
+    protected boolean checkAvailable() {
+        if (!isNative()) {
+            return true;
+        }
+
+        try {
+            Object result = loadClass(availabilityClassName).getMethod("isAvailable").invoke(null);
+            return Boolean.TRUE.equals(result);
+        } catch (Throwable t) { // NOPMD - including LinkageError(s) of missing native libraries
+            return false;
+        }
+    }
+
+    /**
+     * @return A new {@link EventLoopGroup} with the default number of threads
+     */
+    public EventLoopGroup createEventLoopGroup() {
+        if (!isNative()) {
+            return new NioEventLoopGroup();
+        }
+
+        try {
+            return loadClass(eventLoopGroupClassName).asSubclass(EventLoopGroup.class).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create " + getName() + " event loop group: " + e.getMessage(), e);
+        }
+    }
+
+    public Class<? extends SocketChannel> getSocketChannelClass() {
+        return resolveClass(socketChannelClassName, SocketChannel.class);
+    }
+
+    public Class<? extends ServerChannel> getServerSocketChannelClass() {
+        return resolveClass(serverSocketChannelClassName, ServerChannel.class);
+    }
+
+    /**
+     * @param  group The {@link EventLoopGroup}
+     * @return       {@code true} if this transport's channels can be registered with the group
+     */
+    public boolean isCompatible(EventLoopGroup group) {
+        if (!isAvailable()) {
+            return false;
+        }
+
+        try {
+            return loadClass(eventLoopGroupClassName).isInstance(group);
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param  optionName The transport-specific option name - e.g., {@code TCP_CORK}
+     * @return            The matching {@link ChannelOption} - {@code null} if not supported by this transport
+     */
+    public ChannelOption<?> resolveChannelOption(String optionName) {
+        if (channelOptionClassName == null) {
+            return null;
+        }
+
+        try {
+            Field field = loadClass(channelOptionClassName).getField(optionName);
+            Object value = field.get(null);
+            return (value instanceof ChannelOption) ? (ChannelOption<?>) value : null;
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param  enumClassName The simple name of a transport-specific {@code enum} - e.g., {@code EpollMode}
+     * @param  valueName     The value name - e.g., {@code EDGE_TRIGGERED}
+     * @return               The value - {@code null} if not supported by this transport
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Object resolveEnumValue(String enumClassName, String valueName) {
+        if (channelOptionClassName == null) {
+            return null;
+        }
+
+        String packageName = channelOptionClassName.substring(0, channelOptionClassName.lastIndexOf('.') + 1);
+        try {
+            Class<?> enumClass = loadClass(packageName + enumClassName);
+            return enumClass.isEnum() ? Enum.valueOf((Class<? extends Enum>) enumClass, valueName) : null;
+        } catch (ClassNotFoundException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    protected <T> Class<? extends T> resolveClass(String className, Class<T> type) {
+        try {
+            return loadClass(className).asSubclass(type);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Missing " + getName() + " transport class: " + className, e);
+        }
+    }
+
+    protected static Class<?> loadClass(String className) throws ClassNotFoundException {
+        return Class.forName(className, true, NettyTransport.class.getClassLoader());
+    }
+
+    /**
+     * @param  name The transport name - case insensitive
+     * @return      The matching transport - {@code null} if no match
+     */
+    public static NettyTransport fromName(String name) {
+        return NamedResource.findByName(name, String.CASE_INSENSITIVE_ORDER, VALUES);
+    }
+
+    /**
+     * @param  name The requested transport name - {@link #AUTO} (or empty) selects {@link #EPOLL} if available and
+     *              {@link #NIO} otherwise. An unknown or unavailable transport is treated as {@link #AUTO}.
+     * @return      The transport to use
+     */
+    public static NettyTransport resolveTransport(String name) {
+        NettyTransport transport = GenericUtils.isEmpty(name) ? null : fromName(name);
+        if ((transport != null) && transport.isAvailable()) {
+            return transport;
+        }
+        return EPOLL.isAvailable() ? EPOLL : NIO;
+    }
+
+    /**
+     * @param  group The {@link EventLoopGroup}
+     * @return       The transport whose channels can be registered with the group - {@link #NIO} if no match found
+     */
+    public static NettyTransport fromEventLoopGroup(EventLoopGroup group) {
+        for (NettyTransport transport : VALUES) {
+            if (transport.isNative() && transport.isCompatible(group)) {
+                return transport;
+            }
+        }
+        return NIO;
+    }
+}
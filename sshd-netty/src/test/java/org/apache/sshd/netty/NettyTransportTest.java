@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sshd.netty;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.channel.ChannelShell;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.FactoryManager;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.util.test.BaseTestSupport;
+import org.apache.sshd.util.test.CoreTestSupportUtils;
+import org.apache.sshd.util.test.JUnit4ClassRunnerWithParametersFactory;
+import org.junit.Assume;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.junit.runners.Parameterized.UseParametersRunnerFactory;
+
+/**
+ * Runs a client/server exchange over each of the {@link NettyTransport}s available on the running platform
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@RunWith(Parameterized.class) // see https://github.com/junit-team/junit/wiki/Parameterized-tests
+@UseParametersRunnerFactory(JUnit4ClassRunnerWithParametersFactory.class)
+public class NettyTransportTest extends BaseTestSupport {
+    private final NettyTransport transport;
+
+    public NettyTransportTest(NettyTransport transport) {
+        this.transport = transport;
+    }
+
+    @Parameters(name = "{0}")
+    public static List<Object[]> parameters() {
+        return parameterize(NettyTransport.VALUES);
+    }
+
+    @Test
+    public void testResolveTransport() {
+        Assume.assumeTrue(transport + " not available", transport.isAvailable());
+        assertSame("Mismatched resolved transport", transport, NettyTransport.resolveTransport(transport.getName()));
+        assertSame("Mismatched case insensitive name", transport,
+                NettyTransport.resolveTransport(transport.getName().toUpperCase()));
+    }
+
+    @Test
+    public void testUnavailableTransportFallback() {
+        Assume.assumeFalse(transport + " available", transport.isAvailable());
+        NettyTransport resolved = NettyTransport.resolveTransport(transport.getName());
+        assertNotSame("Unavailable transport resolved", transport, resolved);
+        assertTrue("Fallback transport not available: " + resolved, resolved.isAvailable());
+    }
+
+    @Test
+    public void testClientServerExchange() throws Exception {
+        Assume.assumeTrue(transport + " not available", transport.isAvailable());
+
+        SshServer sshd = CoreTestSupportUtils.setupTestServer(getClass());
+        sshd.setIoServiceFactoryFactory(new NettyIoServiceFactoryFactory());
+        configureTransport(sshd);
+        sshd.start();
+
+        SshClient client = CoreTestSupportUtils.setupTestClient(getClass());
+        client.setIoServiceFactoryFactory(new NettyIoServiceFactoryFactory());
+        configureTransport(client);
+        client.start();
+
+        try {
+            assertSame("Mismatched server transport", transport,
+                    ((NettyIoServiceFactory) sshd.getIoServiceFactory()).getTransport());
+            assertSame("Mismatched client transport", transport,
+                    ((NettyIoServiceFactory) client.getIoServiceFactory()).getTransport());
+
+            try (ClientSession session = createAuthenticatedClientSession(client, sshd.getPort());
+                 ChannelShell channel = session.createShellChannel()) {
+                channel.open().verify(OPEN_TIMEOUT);
+
+                try (BufferedWriter writer = new BufferedWriter(
+                        new OutputStreamWriter(channel.getInvertedIn(), StandardCharsets.UTF_8));
+                     BufferedReader reader = new BufferedReader(
+                             new InputStreamReader(channel.getInvertedOut(), StandardCharsets.UTF_8))) {
+                    for (int i = 0; i < Byte.SIZE; i++) {
+                        String message = getCurrentTestName() + "-" + i;
+                        writer.write(message);
+                        writer.write("\n");
+                        writer.flush();
+                        assertEquals("Mismatched message #" + i, message, reader.readLine());
+                    }
+                }
+            }
+        } finally {
+            client.stop();
+            sshd.stop(true);
+        }
+    }
+
+    private void configureTransport(FactoryManager manager) {
+        NettyModuleProperties.TRANSPORT.set(manager, transport.getName());
+        if (transport.isNative()) {
+            NettyModuleProperties.TCP_QUICKACK.set(manager, true);
+        }
+    }
+}
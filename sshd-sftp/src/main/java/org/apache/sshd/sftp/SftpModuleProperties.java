@@ -110,6 +110,34 @@ public final class SftpModuleProperties {
     public static final Property<Integer> COPY_BUF_SIZE
             = Property.integer("sftp-channel-copy-buf-size", IoUtils.DEFAULT_COPY_SIZE);
 
+    /**
+     * Initial (and smallest) size of the file range claimed by each worker of a
+     * {@link org.apache.sshd.sftp.client.SftpParallelTransfer}
+     */
+    public static final Property<Integer> PARALLEL_TRANSFER_MIN_CHUNK_SIZE
+            = Property.integer("sftp-parallel-transfer-min-chunk-size", 256 * 1024);
+
+    /**
+     * Largest size the file range claimed by each worker of a {@link org.apache.sshd.sftp.client.SftpParallelTransfer}
+     * may grow to
+     */
+    public static final Property<Integer> PARALLEL_TRANSFER_MAX_CHUNK_SIZE
+            = Property.integer("sftp-parallel-transfer-max-chunk-size", 8 * 1024 * 1024);
+
+    /**
+     * Size of the individual {@code SSH_FXP_READ} requests a {@link org.apache.sshd.sftp.client.SftpParallelTransfer}
+     * splits a file range into - should not exceed the server's max. read length
+     */
+    public static final Property<Integer> PARALLEL_TRANSFER_REQUEST_SIZE
+            = Property.integer("sftp-parallel-transfer-request-size", 32 * 1024);
+
+    /**
+     * Max. amount of downloaded data (in bytes) a {@link org.apache.sshd.sftp.client.SftpParallelTransfer} holds
+     * while waiting for an earlier file range in order to write the local file sequentially
+     */
+    public static final Property<Long> PARALLEL_TRANSFER_MAX_BUFFERED_SIZE
+            = Property.long_("sftp-parallel-transfer-max-buffered-size", 64L * 1024L * 1024L);
+
     /**
      * Used to control whether to append the end-of-list indicator for SSH_FXP_NAME responses via
      * {@link SftpHelper#indicateEndOfNamesList(Buffer, int, PropertyResolver, boolean)} call, as indicated by
@@ -163,6 +191,52 @@ public final class SftpModuleProperties {
     public static final Property<Integer> MAX_READDATA_PACKET_LENGTH
             = Property.integer("sftp-max-readdata-packet-length", 63 * 1024);
 
+    /**
+     * Whether {@code SSH_FXP_DATA} replies should be built so that the channel can send them as-is instead of copying
+     * them into a new {@code SSH_MSG_CHANNEL_DATA} packet. <B>Note:</B> in order to fit in a single channel packet the
+     * amount of data returned per read may be smaller than requested - which the protocol allows.
+     */
+    public static final Property<Boolean> ZERO_COPY_READ
+            = Property.bool("sftp-zero-copy-read", false);
+
+    /**
+     * Amount of data (in bytes) read ahead asynchronously for a file handle once the client is detected to read it
+     * sequentially - split into 2 chunks so one is being filled while the other is consumed. Zero or negative disables
+     * read-ahead.
+     *
+     * @see #SESSION_CACHE_MEMORY_LIMIT
+     * @see #GLOBAL_CACHE_MEMORY_LIMIT
+     */
+    public static final Property<Integer> FILE_HANDLE_READ_AHEAD_SIZE
+            = Property.integer("sftp-file-handle-read-ahead-size", 0);
+
+    /**
+     * Max. amount of data (in bytes) of adjacent {@code SSH_FXP_WRITE} requests for a file handle that is coalesced
+     * before being written to the file. The data is written when it is no longer adjacent, when the handle is closed or
+     * synchronized, and before any other request that may observe the file contents. Zero or negative disables
+     * write-behind. <B>Note:</B> a failure to write coalesced data is reported to the next request for the handle,
+     * since the writes themselves have already been acknowledged.
+     *
+     * @see #SESSION_CACHE_MEMORY_LIMIT
+     * @see #GLOBAL_CACHE_MEMORY_LIMIT
+     */
+    public static final Property<Integer> FILE_HANDLE_WRITE_BEHIND_SIZE
+            = Property.integer("sftp-file-handle-write-behind-size", 0);
+
+    /**
+     * Max. memory (in bytes) used by the read-ahead and write-behind data of all the file handles of a session. Once
+     * exhausted, handles simply access the file directly.
+     */
+    public static final Property<Long> SESSION_CACHE_MEMORY_LIMIT
+            = Property.long_("sftp-session-cache-memory-limit", 16L * 1024L * 1024L);
+
+    /**
+     * Max. memory (in bytes) used by the read-ahead and write-behind data of all the file handles of all the sessions -
+     * resolved from the server (not the session) configuration.
+     */
+    public static final Property<Long> GLOBAL_CACHE_MEMORY_LIMIT
+            = Property.long_("sftp-global-cache-memory-limit", 256L * 1024L * 1024L);
+
     /**
      * Properties key for the maximum of available open handles per session.
      */
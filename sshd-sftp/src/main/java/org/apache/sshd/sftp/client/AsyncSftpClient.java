@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.sftp.client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.sftp.client.SftpClient.Attributes;
+import org.apache.sshd.sftp.client.SftpClient.CloseableHandle;
+import org.apache.sshd.sftp.client.SftpClient.CopyMode;
+import org.apache.sshd.sftp.client.SftpClient.DirEntry;
+import org.apache.sshd.sftp.client.SftpClient.Handle;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+
+/**
+ * Non-blocking counterpart of the {@link SftpClient} file operations. Each operation sends its request(s) and returns
+ * a future that is completed when the response arrives - thus no thread is waiting for it. Any failure - including a
+ * failure to send the request - is reported through the returned future. <B>Note:</B> the futures may be completed by
+ * the thread that processes the incoming data - so any actions attached to them should not block.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ * @see    SftpClient
+ */
+public interface AsyncSftpClient {
+    /**
+     * @param  path    The remote path
+     * @param  options The desired mode - if none specified then {@link OpenMode#Read} is assumed
+     * @return         The file's {@link CloseableHandle}
+     * @see            SftpClient#open(String, Collection)
+     */
+    CompletableFuture<CloseableHandle> openAsync(String path, Collection<OpenMode> options);
+
+    default CompletableFuture<CloseableHandle> openAsync(String path, OpenMode... options) {
+        return openAsync(path, GenericUtils.of(options));
+    }
+
+    CompletableFuture<Void> closeAsync(Handle handle);
+
+    CompletableFuture<Void> removeAsync(String path);
+
+    CompletableFuture<Void> renameAsync(String oldPath, String newPath, Collection<CopyMode> options);
+
+    default CompletableFuture<Void> renameAsync(String oldPath, String newPath, CopyMode... options) {
+        return renameAsync(oldPath, newPath, GenericUtils.of(options));
+    }
+
+    /**
+     * @param  handle     The file {@link Handle}
+     * @param  fileOffset Offset in the remote file to read from
+     * @param  dst        Target buffer - must not be modified until the returned future is completed
+     * @param  dstOffset  Offset in the buffer where to place the data
+     * @param  len        Max. number of bytes to read - <B>Note:</B> the server may return less
+     * @return            The number of read bytes - negative if end of file reached
+     * @see               SftpClient#read(Handle, long, byte[], int, int)
+     */
+    CompletableFuture<Integer> readAsync(Handle handle, long fileOffset, byte[] dst, int dstOffset, int len);
+
+    /**
+     * Writes the data - split into several requests if necessary, all of which are sent without waiting for the
+     * responses to the previous ones.
+     *
+     * @param  handle     The file {@link Handle}
+     * @param  fileOffset Offset in the remote file to write to
+     * @param  src        Source buffer - may be modified once this method returns
+     * @param  srcOffset  Offset of the data in the buffer
+     * @param  len        Number of bytes to write
+     * @return            A future completed when all the data has been acknowledged
+     * @see               SftpClient#write(Handle, long, byte[], int, int)
+     */
+    CompletableFuture<Void> writeAsync(Handle handle, long fileOffset, byte[] src, int srcOffset, int len);
+
+    CompletableFuture<Void> mkdirAsync(String path);
+
+    CompletableFuture<Void> rmdirAsync(String path);
+
+    CompletableFuture<CloseableHandle> openDirAsync(String path);
+
+    /**
+     * @param  handle The directory {@link Handle}
+     * @return        The next batch of entries - {@code null} when there are no more entries
+     * @see           SftpClient#readDir(Handle)
+     */
+    CompletableFuture<List<DirEntry>> readDirAsync(Handle handle);
+
+    CompletableFuture<String> canonicalPathAsync(String path);
+
+    CompletableFuture<Attributes> statAsync(String path);
+
+    CompletableFuture<Attributes> lstatAsync(String path);
+
+    CompletableFuture<Attributes> statAsync(Handle handle);
+
+    CompletableFuture<Void> setStatAsync(String path, Attributes attributes);
+
+    CompletableFuture<Void> setStatAsync(Handle handle, Attributes attributes);
+
+    CompletableFuture<String> readLinkAsync(String path);
+
+    CompletableFuture<Void> linkAsync(String linkPath, String targetPath, boolean symbolic);
+
+    CompletableFuture<Void> lockAsync(Handle handle, long offset, long length, int mask);
+
+    CompletableFuture<Void> unlockAsync(Handle handle, long offset, long length);
+}
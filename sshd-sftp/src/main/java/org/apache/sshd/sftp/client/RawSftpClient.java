@@ -21,6 +21,7 @@ package org.apache.sshd.sftp.client;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.sshd.common.util.buffer.Buffer;
 
@@ -58,4 +59,19 @@ public interface RawSftpClient {
      * @throws IOException If connection closed or interrupted
      */
     Buffer receive(int id, Duration timeout) throws IOException;
+
+    /**
+     * Obtains the response without blocking. <B>Note:</B> the future may be completed by the thread that processes the
+     * incoming data - so any actions attached to it should not block. The default implementation is provided for
+     * backward compatibility only - it blocks until the response is {@link #receive(int) received} and returns an
+     * already completed future.
+     *
+     * @param  id          The expected request id
+     * @return             A future completed with the received response {@link Buffer} containing the request id - or
+     *                     exceptionally if the connection is closed before the response is received
+     * @throws IOException If failed to register for the response
+     */
+    default CompletableFuture<Buffer> receiveAsync(int id) throws IOException {
+        return CompletableFuture.completedFuture(receive(id));
+    }
 }
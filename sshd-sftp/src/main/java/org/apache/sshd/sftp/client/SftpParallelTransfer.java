@@ -0,0 +1,544 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.sftp.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.util.GenericUtils;
+import org.apache.sshd.common.util.ValidateUtils;
+import org.apache.sshd.common.util.logging.AbstractLoggingBean;
+import org.apache.sshd.common.util.threads.CloseableExecutorService;
+import org.apache.sshd.common.util.threads.ThreadUtils;
+import org.apache.sshd.sftp.SftpModuleProperties;
+import org.apache.sshd.sftp.client.SftpClient.CloseableHandle;
+import org.apache.sshd.sftp.client.SftpClient.Handle;
+import org.apache.sshd.sftp.client.SftpClient.OpenMode;
+
+/**
+ * Transfers a single file by splitting it into ranges that are spread across several {@link SftpClient}-s - i.e.,
+ * several SFTP channels, on the same session or on different ones - so that the throughput is not capped by the
+ * window of a single channel. Each client is served by its own worker thread, which repeatedly claims the next range
+ * of the file. The size of the claimed range adapts to how fast the worker completes its ranges, and shrinks towards
+ * the end of the file so that all the workers finish at about the same time. Downloaded ranges are written to the
+ * local file in order, so at any time it contains a contiguous prefix of the remote file.
+ *
+ * <B>Note:</B> an instance runs one transfer at a time and does not close the clients it uses.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class SftpParallelTransfer extends AbstractLoggingBean {
+    /**
+     * Ranges that take less than half of this duration double the worker's range size, and ranges that take more than
+     * twice this duration halve it
+     */
+    public static final Duration TARGET_CHUNK_DURATION = Duration.ofSeconds(1L);
+
+    /**
+     * Receives progress notifications - <B>Note:</B> invoked by the worker threads
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param transfer    The transfer instance
+         * @param remotePath  The remote file being transferred
+         * @param transferred Total number of bytes transferred so far
+         * @param total       Total number of bytes to be transferred
+         */
+        void progress(SftpParallelTransfer transfer, String remotePath, long transferred, long total);
+    }
+
+    private final List<SftpClient> clients;
+    private int minChunkSize;
+    private int maxChunkSize;
+    private int requestSize;
+    private long maxBufferedSize;
+    private ProgressListener progressListener;
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+    private final AtomicLong chunksCount = new AtomicLong();
+    private volatile long totalBytes;
+    private volatile long startTime;
+    private volatile long endTime;
+
+    /**
+     * @param clients The clients to spread the transfer over - the initial settings are resolved from the session of
+     *                the first one
+     */
+    public SftpParallelTransfer(Collection<? extends SftpClient> clients) {
+        this.clients = new ArrayList<>(ValidateUtils.checkNotNullAndNotEmpty(clients, "No clients"));
+
+        ClientSession session = this.clients.get(0).getClientSession();
+        minChunkSize = SftpModuleProperties.PARALLEL_TRANSFER_MIN_CHUNK_SIZE.getRequired(session);
+        maxChunkSize = SftpModuleProperties.PARALLEL_TRANSFER_MAX_CHUNK_SIZE.getRequired(session);
+        requestSize = SftpModuleProperties.PARALLEL_TRANSFER_REQUEST_SIZE.getRequired(session);
+        maxBufferedSize = SftpModuleProperties.PARALLEL_TRANSFER_MAX_BUFFERED_SIZE.getRequired(session);
+    }
+
+    public List<SftpClient> getClients() {
+        return clients;
+    }
+
+    public int getMinChunkSize() {
+        return minChunkSize;
+    }
+
+    public void setMinChunkSize(int minChunkSize) {
+        ValidateUtils.checkTrue(minChunkSize > 0, "Invalid min. chunk size: %d", minChunkSize);
+        this.minChunkSize = minChunkSize;
+    }
+
+    public int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public void setMaxChunkSize(int maxChunkSize) {
+        ValidateUtils.checkTrue(maxChunkSize > 0, "Invalid max. chunk size: %d", maxChunkSize);
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public int getRequestSize() {
+        return requestSize;
+    }
+
+    public void setRequestSize(int requestSize) {
+        ValidateUtils.checkTrue(requestSize > 0, "Invalid request size: %d", requestSize);
+        this.requestSize = requestSize;
+    }
+
+    public long getMaxBufferedSize() {
+        return maxBufferedSize;
+    }
+
+    public void setMaxBufferedSize(long maxBufferedSize) {
+        ValidateUtils.checkTrue(maxBufferedSize > 0L, "Invalid max. buffered size: %d", maxBufferedSize);
+        this.maxBufferedSize = maxBufferedSize;
+    }
+
+    public ProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * @return Number of bytes transferred so far by the current (or last) transfer
+     */
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    /**
+     * @return Number of bytes to be transferred by the current (or last) transfer
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return Number of file ranges transferred so far by the current (or last) transfer
+     */
+    public long getChunksCount() {
+        return chunksCount.get();
+    }
+
+    /**
+     * @return Time spent so far by the current transfer - or the duration of the last one
+     */
+    public Duration getElapsedTime() {
+        long start = startTime;
+        if (start == 0L) {
+            return Duration.ZERO;
+        }
+
+        long end = endTime;
+        return Duration.ofNanos(((end == 0L) ? System.nanoTime() : end) - start);
+    }
+
+    /**
+     * @return Average throughput (bytes/second) of the current (or last) transfer
+     */
+    public long getThroughput() {
+        long nanos = getElapsedTime().toNanos();
+        if (nanos <= 0L) {
+            return 0L;
+        }
+        return (long) (getTransferredBytes() * (double) TimeUnit.SECONDS.toNanos(1L) / nanos);
+    }
+
+    /**
+     * Downloads a remote file
+     *
+     * @param  remotePath  The remote file path
+     * @param  target      The local file to write to - starting at its position zero. Truncated to the remote file
+     *                     size once the transfer is successfully completed.
+     * @return             Number of transferred bytes
+     * @throws IOException If failed to transfer any of the ranges - in which case the other workers are stopped as
+     *                     well
+     */
+    public long download(String remotePath, FileChannel target) throws IOException {
+        long size = clients.get(0).stat(remotePath).getSize();
+        OrderedWriter writer = new OrderedWriter(target, getMaxBufferedSize());
+        long transferred = transfer(remotePath, size, EnumSet.of(OpenMode.Read), writer, (client, handle, offset, length) -> {
+            writer.awaitCapacity(offset);
+            byte[] data = new byte[length];
+            readChunk(client, handle, offset, data, length);
+            writer.write(offset, data);
+        });
+        // discard any stale data of a previously larger file
+        target.truncate(size);
+        return transferred;
+    }
+
+    /**
+     * Uploads a local file - the remote file is created or truncated first
+     *
+     * @param  source      The local file to read from - starting at its position zero
+     * @param  remotePath  The remote file path
+     * @return             Number of transferred bytes
+     * @throws IOException If failed to transfer any of the ranges - in which case the other workers are stopped as
+     *                     well
+     */
+    public long upload(FileChannel source, String remotePath) throws IOException {
+        long size = source.size();
+        try (CloseableHandle handle = clients.get(0).open(remotePath, OpenMode.Write, OpenMode.Create, OpenMode.Truncate)) {
+            if (log.isDebugEnabled()) {
+                log.debug("upload({}) truncated via {} before writing {} bytes", remotePath, handle, size);
+            }
+        }
+
+        return transfer(remotePath, size, EnumSet.of(OpenMode.Write), null, (client, handle, offset, length) -> {
+            byte[] data = new byte[length];
+            ByteBuffer bb = ByteBuffer.wrap(data);
+            while (bb.hasRemaining()) {
+                int count = source.read(bb, offset + bb.position());
+                if (count < 0) {
+                    throw new EOFException("Premature EOF at offset=" + (offset + bb.position()) + " of " + source);
+                }
+            }
+            writeChunk(client, handle, offset, data, length);
+        });
+    }
+
+    protected long transfer(
+            String remotePath, long size, Collection<OpenMode> modes, OrderedWriter writer, ChunkTransfer chunkTransfer)
+            throws IOException {
+        transferredBytes.set(0L);
+        chunksCount.set(0L);
+        totalBytes = size;
+        endTime = 0L;
+        startTime = System.nanoTime();
+
+        int numWorkers = clients.size();
+        RangeScheduler scheduler = new RangeScheduler(size, numWorkers);
+        CloseableExecutorService executor = ThreadUtils.newFixedThreadPool(getClass().getSimpleName(), numWorkers);
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        IOException err = null;
+        try {
+            List<Future<?>> workers = new ArrayList<>(numWorkers);
+            for (SftpClient client : clients) {
+                workers.add(executor.submit(() -> {
+                    try {
+                        runWorker(client, remotePath, modes, scheduler, chunkTransfer);
+                    } catch (Throwable t) {
+                        // stop the other workers right away - some may be waiting for the failed range to be written
+                        firstFailure.compareAndSet(null, t);
+                        abort(scheduler, writer);
+                        throw t;
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (InterruptedException e) {
+                    err = GenericUtils.accumulateException(err,
+                            (IOException) new InterruptedIOException("Interrupted while transferring " + remotePath)
+                                    .initCause(e));
+                    abort(scheduler, writer);
+                    break;
+                } catch (ExecutionException e) {
+                    // the other workers fail only because the transfer was aborted
+                    if (e.getCause() != firstFailure.get()) {
+                        continue;
+                    }
+
+                    Throwable t = GenericUtils.peelException(e);
+                    err = GenericUtils.accumulateException(err,
+                            (t instanceof IOException) ? (IOException) t : new IOException(t.getMessage(), t));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            endTime = System.nanoTime();
+        }
+
+        if (err != null) {
+            throw err;
+        }
+
+        long transferred = getTransferredBytes();
+        if (log.isDebugEnabled()) {
+            log.debug("transfer({}) transferred {} bytes in {} chunks over {} channels - elapsed={}, throughput={} B/s",
+                    remotePath, transferred, getChunksCount(), numWorkers, getElapsedTime(), getThroughput());
+        }
+        return transferred;
+    }
+
+    protected void abort(RangeScheduler scheduler, OrderedWriter writer) {
+        scheduler.abort();
+        if (writer != null) {
+            writer.abort();
+        }
+    }
+
+    protected void runWorker(
+            SftpClient client, String remotePath, Collection<OpenMode> modes,
+            RangeScheduler scheduler, ChunkTransfer chunkTransfer)
+            throws IOException {
+        long targetNanos = TARGET_CHUNK_DURATION.toNanos();
+        int chunkSize = getMinChunkSize();
+        try (CloseableHandle handle = client.open(remotePath, modes)) {
+            for (long[] range = scheduler.next(chunkSize); range != null; range = scheduler.next(chunkSize)) {
+                long offset = range[0];
+                int length = (int) range[1];
+                long start = System.nanoTime();
+                chunkTransfer.transfer(client, handle, offset, length);
+                long elapsed = System.nanoTime() - start;
+
+                if (elapsed < (targetNanos / 2L)) {
+                    chunkSize = (int) Math.min(2L * chunkSize, getMaxChunkSize());
+                } else if (elapsed > (2L * targetNanos)) {
+                    chunkSize = Math.max(chunkSize / 2, getMinChunkSize());
+                }
+
+                chunksCount.incrementAndGet();
+                long transferred = transferredBytes.addAndGet(length);
+                ProgressListener listener = getProgressListener();
+                if (listener != null) {
+                    listener.progress(this, remotePath, transferred, getTotalBytes());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a range of the remote file - pipelined as several {@code SSH_FXP_READ} requests if the client is an
+     * {@link AsyncSftpClient}
+     *
+     * @param  client      The client to use
+     * @param  handle      The remote file handle
+     * @param  offset      The remote file offset
+     * @param  data        The buffer to read into
+     * @param  length      Number of bytes to read
+     * @throws IOException If failed to read the data or reached the end of the file prematurely
+     */
+    protected void readChunk(SftpClient client, Handle handle, long offset, byte[] data, int length) throws IOException {
+        if (!(client instanceof AsyncSftpClient)) {
+            readFully(client, handle, offset, data, 0, length);
+            return;
+        }
+
+        AsyncSftpClient asyncClient = (AsyncSftpClient) client;
+        int reqSize = getRequestSize();
+        List<CompletableFuture<Integer>> reads = new ArrayList<>(1 + (length / reqSize));
+        for (int pos = 0; pos < length; pos += reqSize) {
+            reads.add(asyncClient.readAsync(handle, offset + pos, data, pos, Math.min(reqSize, length - pos)));
+        }
+
+        int pos = 0;
+        for (CompletableFuture<Integer> read : reads) {
+            int reqLen = Math.min(reqSize, length - pos);
+            int count = Math.max(0, await(read));
+            // the server may return less data than requested
+            if (count < reqLen) {
+                readFully(client, handle, offset + pos + count, data, pos + count, reqLen - count);
+            }
+            pos += reqLen;
+        }
+    }
+
+    protected void readFully(SftpClient client, Handle handle, long offset, byte[] data, int pos, int length)
+            throws IOException {
+        while (length > 0) {
+            int count = client.read(handle, offset, data, pos, length);
+            if (count < 0) {
+                throw new EOFException("Premature EOF at offset=" + offset + " of " + handle);
+            }
+            offset += count;
+            pos += count;
+            length -= count;
+        }
+    }
+
+    protected void writeChunk(SftpClient client, Handle handle, long offset, byte[] data, int length) throws IOException {
+        if (client instanceof AsyncSftpClient) {
+            await(((AsyncSftpClient) client).writeAsync(handle, offset, data, 0, length));
+        } else {
+            client.write(handle, offset, data, 0, length);
+        }
+    }
+
+    protected <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw (IOException) new InterruptedIOException("Interrupted while waiting for reply").initCause(e);
+        } catch (ExecutionException e) {
+            Throwable t = GenericUtils.peelException(e);
+            GenericUtils.rethrowAsIoException(t);
+            return null; // not reached
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName()
+               + "[channels=" + getClients().size()
+               + ", transferred=" + getTransferredBytes()
+               + "/" + getTotalBytes()
+               + ", throughput=" + getThroughput()
+               + "]";
+    }
+
+    @FunctionalInterface
+    protected interface ChunkTransfer {
+        void transfer(SftpClient client, Handle handle, long offset, int length) throws IOException;
+    }
+
+    /**
+     * Hands out consecutive ranges of the file to the workers
+     */
+    protected static class RangeScheduler {
+        private final long size;
+        private final int numWorkers;
+        private long nextOffset;
+        private boolean aborted;
+
+        public RangeScheduler(long size, int numWorkers) {
+            this.size = size;
+            this.numWorkers = numWorkers;
+        }
+
+        /**
+         * @param  chunkSize The range size requested by the worker - reduced towards the end of the file so that the
+         *                   remaining data is spread among all the workers
+         * @return           The claimed range offset and length - {@code null} if no more data or transfer aborted
+         */
+        public synchronized long[] next(int chunkSize) {
+            long remaining = size - nextOffset;
+            if (aborted || (remaining <= 0L)) {
+                return null;
+            }
+
+            long length = Math.min(chunkSize, Math.max(remaining / (2L * numWorkers), 1L));
+            long[] range = { nextOffset, length };
+            nextOffset += length;
+            return range;
+        }
+
+        public synchronized void abort() {
+            aborted = true;
+        }
+    }
+
+    /**
+     * Writes the downloaded ranges to the local file in order of their offsets
+     */
+    protected static class OrderedWriter {
+        private final FileChannel target;
+        private final long maxBufferedSize;
+        private final NavigableMap<Long, byte[]> pending = new TreeMap<>();
+        private long committedOffset;
+        private boolean aborted;
+
+        public OrderedWriter(FileChannel target, long maxBufferedSize) {
+            this.target = target;
+            this.maxBufferedSize = maxBufferedSize;
+        }
+
+        /**
+         * Blocks until the range starting at the given offset can be downloaded without exceeding the buffering limit -
+         * the range that is written next is always admitted, so this never waits for itself
+         *
+         * @param  offset      The range offset
+         * @throws IOException If the transfer has been aborted or the wait interrupted
+         */
+        public synchronized void awaitCapacity(long offset) throws IOException {
+            while ((!aborted) && ((offset - committedOffset) >= maxBufferedSize)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw (IOException) new InterruptedIOException("Interrupted while waiting for capacity").initCause(e);
+                }
+            }
+
+            if (aborted) {
+                throw new IOException("Transfer aborted");
+            }
+        }
+
+        public synchronized void write(long offset, byte[] data) throws IOException {
+            if (aborted) {
+                throw new IOException("Transfer aborted");
+            }
+
+            pending.put(offset, data);
+            for (Map.Entry<Long, byte[]> head = pending.firstEntry();
+                 (head != null) && (head.getKey() == committedOffset);
+                 head = pending.firstEntry()) {
+                pending.pollFirstEntry();
+                ByteBuffer bb = ByteBuffer.wrap(head.getValue());
+                while (bb.hasRemaining()) {
+                    target.write(bb, committedOffset + bb.position());
+                }
+                committedOffset += bb.capacity();
+            }
+            notifyAll();
+        }
+
+        public synchronized void abort() {
+            aborted = true;
+            pending.clear();
+            notifyAll();
+        }
+    }
+}
@@ -38,6 +38,7 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -585,6 +586,20 @@ public class SftpFileSystem
                                                    + RawSftpClient.class.getSimpleName());
             }
         }
+
+        @Override
+        public CompletableFuture<Buffer> receiveAsync(int id) throws IOException {
+            if (!isOpen()) {
+                throw new IOException("receiveAsync(id=" + id + ") client is closed");
+            }
+
+            if (delegate instanceof RawSftpClient) {
+                return ((RawSftpClient) delegate).receiveAsync(id);
+            } else {
+                throw new StreamCorruptedException(
+                        "receiveAsync(id=" + id + ") delegate is not a " + RawSftpClient.class.getSimpleName());
+            }
+        }
     }
 
     public static class DefaultUserPrincipalLookupService extends UserPrincipalLookupService {
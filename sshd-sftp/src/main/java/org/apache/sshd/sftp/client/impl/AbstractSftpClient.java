@@ -31,6 +31,8 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -43,7 +45,9 @@ import org.apache.sshd.common.util.GenericUtils;
 import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.buffer.Buffer;
 import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.common.util.io.functors.IOFunction;
 import org.apache.sshd.sftp.SftpModuleProperties;
+import org.apache.sshd.sftp.client.AsyncSftpClient;
 import org.apache.sshd.sftp.client.FullAccessSftpClient;
 import org.apache.sshd.sftp.client.extensions.BuiltinSftpClientExtensions;
 import org.apache.sshd.sftp.client.extensions.SftpClientExtension;
@@ -56,7 +60,9 @@ import org.apache.sshd.sftp.common.extensions.ParserUtils;
 /**
  * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
  */
-public abstract class AbstractSftpClient extends AbstractSubsystemClient implements FullAccessSftpClient {
+public abstract class AbstractSftpClient
+        extends AbstractSubsystemClient
+        implements FullAccessSftpClient, AsyncSftpClient {
     public static final int INIT_COMMAND_SIZE = Byte.BYTES /* command */ + Integer.BYTES /* version */;
 
     private final Attributes fileOpenAttributes = new Attributes();
@@ -158,6 +164,92 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
         checkResponseStatus(cmd, response);
     }
 
+    /**
+     * Sends a command without waiting for it to be written - a failure to write it is reported to whoever waits for
+     * the response. By default, same as {@link #send(int, Buffer)}.
+     *
+     * @param  cmd         Command to send - <B>Note:</B> only lower 8-bits are used
+     * @param  buffer      The {@link Buffer} containing the command data
+     * @return             The assigned request id
+     * @throws IOException If failed to initiate sending the command
+     */
+    protected int sendAsync(int cmd, Buffer buffer) throws IOException {
+        return send(cmd, buffer);
+    }
+
+    /**
+     * @param  <T>     Type of result
+     * @param  cmd     Command to be sent
+     * @param  request The {@link Buffer} containing the request
+     * @param  parser  Extracts the result from the response - invoked by the thread that completes the response
+     * @return         A future completed with the parsed response - or exceptionally if failed to send the request,
+     *                 receive the response or parse it
+     * @see            #sendAsync(int, Buffer)
+     * @see            #receiveAsync(int)
+     */
+    protected <T> CompletableFuture<T> requestAsync(
+            int cmd, Buffer request, IOFunction<? super Buffer, ? extends T> parser) {
+        CompletableFuture<Buffer> reply;
+        try {
+            int reqId = sendAsync(cmd, request);
+            reply = receiveAsync(reqId);
+        } catch (IOException | RuntimeException e) {
+            return failedFuture(e);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        reply.whenComplete((response, t) -> {
+            if (t != null) {
+                result.completeExceptionally(t);
+                return;
+            }
+
+            try {
+                result.complete(parser.apply(response));
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @param  <T>      Type of result
+     * @param  cmd      Command to be sent
+     * @param  preparer Builds the request - invoked only if the client is still open
+     * @param  parser   Extracts the result from the response
+     * @return          A future completed with the parsed response - or exceptionally if failed to build or send the
+     *                  request, receive the response or parse it
+     */
+    protected <T> CompletableFuture<T> requestAsync(
+            int cmd, Callable<? extends Buffer> preparer, IOFunction<? super Buffer, ? extends T> parser) {
+        if (!isOpen()) {
+            return failedFuture(new IOException(SftpConstants.getCommandMessageName(cmd) + " client is closed"));
+        }
+
+        Buffer request;
+        try {
+            request = preparer.call();
+        } catch (Exception e) {
+            return failedFuture(e);
+        }
+
+        return requestAsync(cmd, request, parser);
+    }
+
+    protected CompletableFuture<Void> checkCommandStatusAsync(int cmd, Callable<? extends Buffer> preparer) {
+        return requestAsync(cmd, preparer, response -> {
+            checkResponseStatus(cmd, response);
+            return null;
+        });
+    }
+
+    protected <T> CompletableFuture<T> failedFuture(Throwable t) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(t);
+        return result;
+    }
+
     /**
      * Checks if the incoming response is an {@code SSH_FXP_STATUS} one, and if so whether the substatus is
      * {@code SSH_FX_OK}.
@@ -627,6 +719,15 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("open(" + path + ")[" + options + "] client is closed");
         }
 
+        Buffer buffer = prepareOpenRequest(path, options);
+        CloseableHandle handle = new DefaultCloseableHandle(this, path, checkHandle(SftpConstants.SSH_FXP_OPEN, buffer));
+        if (log.isTraceEnabled()) {
+            log.trace("open({})[{}] options={}: {}", getClientChannel(), path, options, handle);
+        }
+        return handle;
+    }
+
+    protected Buffer prepareOpenRequest(String path, Collection<OpenMode> options) throws IOException {
         /*
          * Be consistent with FileChannel#open - if no mode specified then READ is assumed
          */
@@ -689,13 +790,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             }
         }
         buffer.putInt(mode);
-        buffer = writeAttributes(SftpConstants.SSH_FXP_OPEN, buffer, fileOpenAttributes);
-
-        CloseableHandle handle = new DefaultCloseableHandle(this, path, checkHandle(SftpConstants.SSH_FXP_OPEN, buffer));
-        if (log.isTraceEnabled()) {
-            log.trace("open({})[{}] options={}: {}", getClientChannel(), path, options, handle);
-        }
-        return handle;
+        return writeAttributes(SftpConstants.SSH_FXP_OPEN, buffer, fileOpenAttributes);
     }
 
     @Override
@@ -708,10 +803,20 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             log.trace("close({}) {}", getClientChannel(), handle);
         }
 
+        Buffer buffer = prepareHandleRequest(handle);
+        checkCommandStatus(SftpConstants.SSH_FXP_CLOSE, buffer);
+    }
+
+    protected Buffer prepareHandleRequest(Handle handle) {
         byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
         Buffer buffer = new ByteArrayBuffer(id.length + Long.SIZE /* some extra fields */, false);
         buffer.putBytes(id);
-        checkCommandStatus(SftpConstants.SSH_FXP_CLOSE, buffer);
+        return buffer;
+    }
+
+    protected Buffer preparePathRequest(int cmd, String path) {
+        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE /* some extra fields */, false);
+        return putReferencedName(cmd, buffer, path, 0);
     }
 
     @Override
@@ -724,8 +829,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             log.debug("remove({}) {}", getClientChannel(), path);
         }
 
-        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE /* some extra fields */, false);
-        buffer = putReferencedName(SftpConstants.SSH_FXP_REMOVE, buffer, path, 0);
+        Buffer buffer = preparePathRequest(SftpConstants.SSH_FXP_REMOVE, path);
         checkCommandStatus(SftpConstants.SSH_FXP_REMOVE, buffer);
     }
 
@@ -739,6 +843,11 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             log.debug("rename({}) {} => {}", getClientChannel(), oldPath, newPath);
         }
 
+        Buffer buffer = prepareRenameRequest(oldPath, newPath, options);
+        checkCommandStatus(SftpConstants.SSH_FXP_RENAME, buffer);
+    }
+
+    protected Buffer prepareRenameRequest(String oldPath, String newPath, Collection<CopyMode> options) {
         Buffer buffer = new ByteArrayBuffer(oldPath.length() + newPath.length() + Long.SIZE /* some extra fields */, false);
         buffer = putReferencedName(SftpConstants.SSH_FXP_RENAME, buffer, oldPath, 0);
         buffer = putReferencedName(SftpConstants.SSH_FXP_RENAME, buffer, newPath, 1);
@@ -766,7 +875,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
                     "rename(" + oldPath + " => " + newPath + ")"
                                                     + " - copy options can not be used with this SFTP version: " + options);
         }
-        checkCommandStatus(SftpConstants.SSH_FXP_RENAME, buffer);
+        return buffer;
     }
 
     @Override
@@ -779,12 +888,15 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("read(" + handle + "/" + fileOffset + ")[" + dstOffset + "/" + len + "] client is closed");
         }
 
-        byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
-        Buffer buffer = new ByteArrayBuffer(id.length + Long.SIZE /* some extra fields */, false);
-        buffer.putBytes(id);
+        Buffer buffer = prepareReadRequest(handle, fileOffset, len);
+        return checkData(SftpConstants.SSH_FXP_READ, buffer, dstOffset, dst, eofSignalled);
+    }
+
+    protected Buffer prepareReadRequest(Handle handle, long fileOffset, int len) {
+        Buffer buffer = prepareHandleRequest(handle);
         buffer.putLong(fileOffset);
         buffer.putInt(len);
-        return checkData(SftpConstants.SSH_FXP_READ, buffer, dstOffset, dst, eofSignalled);
+        return buffer;
     }
 
     protected int checkData(
@@ -857,6 +969,32 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
 
     @Override
     public void write(Handle handle, long fileOffset, byte[] src, int srcOffset, int len) throws IOException {
+        validateWriteRequest(handle, fileOffset, src, srcOffset, len);
+
+        boolean traceEnabled = log.isTraceEnabled();
+        Channel clientChannel = getClientChannel();
+        int chunkSize = resolveWriteChunkSize();
+        byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
+        // NOTE: we don't want to filter out zero-length write requests
+        int remLen = len;
+        do {
+            int writeSize = Math.min(remLen, chunkSize);
+            Buffer buffer = prepareWriteRequest(id, fileOffset, src, srcOffset, writeSize);
+            if (traceEnabled) {
+                log.trace("write({}) handle={}, file-offset={}, buf-offset={}, writeSize={}, remLen={}",
+                        clientChannel, handle, fileOffset, srcOffset, writeSize, remLen - writeSize);
+            }
+
+            checkCommandStatus(SftpConstants.SSH_FXP_WRITE, buffer);
+
+            fileOffset += writeSize;
+            srcOffset += writeSize;
+            remLen -= writeSize;
+        } while (remLen > 0);
+    }
+
+    protected void validateWriteRequest(Handle handle, long fileOffset, byte[] src, int srcOffset, int len)
+            throws IOException {
         // do some bounds checking first
         if ((fileOffset < 0L) || (srcOffset < 0) || (len < 0)) {
             throw new IllegalArgumentException(
@@ -873,33 +1011,21 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
         if (!isOpen()) {
             throw new IOException("write(" + handle + "/" + fileOffset + ")[" + srcOffset + "/" + len + "] client is closed");
         }
+    }
 
-        boolean traceEnabled = log.isTraceEnabled();
+    protected int resolveWriteChunkSize() {
         Channel clientChannel = getClientChannel();
         int chunkSize = SftpModuleProperties.WRITE_CHUNK_SIZE.getRequired(clientChannel);
         ValidateUtils.checkState(chunkSize > ByteArrayBuffer.DEFAULT_SIZE, "Write chunk size too small: %d", chunkSize);
+        return chunkSize;
+    }
 
-        byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
-        // NOTE: we don't want to filter out zero-length write requests
-        int remLen = len;
-        do {
-            int writeSize = Math.min(remLen, chunkSize);
-            Buffer buffer = new ByteArrayBuffer(id.length + writeSize + Long.SIZE /* some extra fields */, false);
-            buffer.putBytes(id);
-            buffer.putLong(fileOffset);
-            buffer.putBytes(src, srcOffset, writeSize);
-
-            if (traceEnabled) {
-                log.trace("write({}) handle={}, file-offset={}, buf-offset={}, writeSize={}, remLen={}",
-                        clientChannel, handle, fileOffset, srcOffset, writeSize, remLen - writeSize);
-            }
-
-            checkCommandStatus(SftpConstants.SSH_FXP_WRITE, buffer);
-
-            fileOffset += writeSize;
-            srcOffset += writeSize;
-            remLen -= writeSize;
-        } while (remLen > 0);
+    protected Buffer prepareWriteRequest(byte[] id, long fileOffset, byte[] src, int srcOffset, int writeSize) {
+        Buffer buffer = new ByteArrayBuffer(id.length + writeSize + Long.SIZE /* some extra fields */, false);
+        buffer.putBytes(id);
+        buffer.putLong(fileOffset);
+        buffer.putBytes(src, srcOffset, writeSize);
+        return buffer;
     }
 
     @Override
@@ -912,16 +1038,19 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             log.debug("mkdir({}) {}", getClientChannel(), path);
         }
 
-        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE /* some extra fields */, false);
-        buffer = putReferencedName(SftpConstants.SSH_FXP_MKDIR, buffer, path, 0);
+        Buffer buffer = prepareMkdirRequest(path);
+        checkCommandStatus(SftpConstants.SSH_FXP_MKDIR, buffer);
+    }
+
+    protected Buffer prepareMkdirRequest(String path) {
+        Buffer buffer = preparePathRequest(SftpConstants.SSH_FXP_MKDIR, path);
         buffer.putInt(0);
 
         int version = getVersion();
         if (version != SftpConstants.SFTP_V3) {
             buffer.putByte((byte) 0);
         }
-
-        checkCommandStatus(SftpConstants.SSH_FXP_MKDIR, buffer);
+        return buffer;
     }
 
     @Override
@@ -934,8 +1063,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             log.debug("rmdir({}) {}", getClientChannel(), path);
         }
 
-        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE /* some extra fields */, false);
-        buffer = putReferencedName(SftpConstants.SSH_FXP_RMDIR, buffer, path, 0);
+        Buffer buffer = preparePathRequest(SftpConstants.SSH_FXP_RMDIR, path);
         checkCommandStatus(SftpConstants.SSH_FXP_RMDIR, buffer);
     }
 
@@ -945,8 +1073,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("openDir(" + path + ") client is closed");
         }
 
-        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE /* some extra fields */, false);
-        buffer = putReferencedName(SftpConstants.SSH_FXP_OPENDIR, buffer, path, 0);
+        Buffer buffer = preparePathRequest(SftpConstants.SSH_FXP_OPENDIR, path);
 
         CloseableHandle handle = new DefaultCloseableHandle(this, path, checkHandle(SftpConstants.SSH_FXP_OPENDIR, buffer));
         if (log.isTraceEnabled()) {
@@ -965,10 +1092,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("readDir(" + handle + ") client is closed");
         }
 
-        byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
-        Buffer buffer = new ByteArrayBuffer(id.length + Byte.SIZE /* some extra fields */, false);
-        buffer.putBytes(id);
-
+        Buffer buffer = prepareHandleRequest(handle);
         int cmdId = send(SftpConstants.SSH_FXP_READDIR, buffer);
         Buffer response = receive(cmdId);
         return checkDirResponse(SftpConstants.SSH_FXP_READDIR, response, eolIndicator);
@@ -1098,8 +1222,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("canonicalPath(" + path + ") client is closed");
         }
 
-        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE, false);
-        buffer = putReferencedName(SftpConstants.SSH_FXP_REALPATH, buffer, path, 0);
+        Buffer buffer = preparePathRequest(SftpConstants.SSH_FXP_REALPATH, path);
         return checkOneName(SftpConstants.SSH_FXP_REALPATH, buffer);
     }
 
@@ -1109,14 +1232,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("stat(" + path + ") client is closed");
         }
 
-        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE, false);
-        buffer = putReferencedName(SftpConstants.SSH_FXP_STAT, buffer, path, 0);
-
-        int version = getVersion();
-        if (version >= SftpConstants.SFTP_V4) {
-            buffer.putInt(SftpConstants.SSH_FILEXFER_ATTR_ALL);
-        }
-
+        Buffer buffer = prepareStatRequest(SftpConstants.SSH_FXP_STAT, path);
         return checkAttributes(SftpConstants.SSH_FXP_STAT, buffer);
     }
 
@@ -1126,14 +1242,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("lstat(" + path + ") client is closed");
         }
 
-        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE, false);
-        buffer = putReferencedName(SftpConstants.SSH_FXP_LSTAT, buffer, path, 0);
-
-        int version = getVersion();
-        if (version >= SftpConstants.SFTP_V4) {
-            buffer.putInt(SftpConstants.SSH_FILEXFER_ATTR_ALL);
-        }
-
+        Buffer buffer = prepareStatRequest(SftpConstants.SSH_FXP_LSTAT, path);
         return checkAttributes(SftpConstants.SSH_FXP_LSTAT, buffer);
     }
 
@@ -1143,16 +1252,24 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("stat(" + handle + ") client is closed");
         }
 
-        byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
-        Buffer buffer = new ByteArrayBuffer(id.length + Byte.SIZE /* a bit extra */, false);
-        buffer.putBytes(id);
+        Buffer buffer = prepareStatRequest(handle);
+        return checkAttributes(SftpConstants.SSH_FXP_FSTAT, buffer);
+    }
 
+    protected Buffer prepareStatRequest(int cmd, String path) {
+        return putStatFlags(preparePathRequest(cmd, path));
+    }
+
+    protected Buffer prepareStatRequest(Handle handle) {
+        return putStatFlags(prepareHandleRequest(handle));
+    }
+
+    protected Buffer putStatFlags(Buffer buffer) {
         int version = getVersion();
         if (version >= SftpConstants.SFTP_V4) {
             buffer.putInt(SftpConstants.SSH_FILEXFER_ATTR_ALL);
         }
-
-        return checkAttributes(SftpConstants.SSH_FXP_FSTAT, buffer);
+        return buffer;
     }
 
     @Override
@@ -1165,8 +1282,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             log.debug("setStat({})[{}]: {}", getClientChannel(), path, attributes);
         }
 
-        Buffer buffer = new ByteArrayBuffer();
-        buffer = putReferencedName(SftpConstants.SSH_FXP_SETSTAT, buffer, path, 0);
+        Buffer buffer = preparePathRequest(SftpConstants.SSH_FXP_SETSTAT, path);
         buffer = writeAttributes(SftpConstants.SSH_FXP_SETSTAT, buffer, attributes);
         checkCommandStatus(SftpConstants.SSH_FXP_SETSTAT, buffer);
     }
@@ -1180,9 +1296,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
         if (log.isDebugEnabled()) {
             log.debug("setStat({})[{}]: {}", getClientChannel(), handle, attributes);
         }
-        byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
-        Buffer buffer = new ByteArrayBuffer(id.length + (2 * Long.SIZE) /* some extras */, false);
-        buffer.putBytes(id);
+        Buffer buffer = prepareHandleRequest(handle);
         buffer = writeAttributes(SftpConstants.SSH_FXP_FSETSTAT, buffer, attributes);
         checkCommandStatus(SftpConstants.SSH_FXP_FSETSTAT, buffer);
     }
@@ -1193,8 +1307,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             throw new IOException("readLink(" + path + ") client is closed");
         }
 
-        Buffer buffer = new ByteArrayBuffer(path.length() + Long.SIZE /* some extra fields */, false);
-        buffer = putReferencedName(SftpConstants.SSH_FXP_READLINK, buffer, path, 0);
+        Buffer buffer = preparePathRequest(SftpConstants.SSH_FXP_READLINK, path);
         return checkOneName(SftpConstants.SSH_FXP_READLINK, buffer);
     }
 
@@ -1208,23 +1321,28 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             log.debug("link({})[symbolic={}] {} => {}", getClientChannel(), symbolic, linkPath, targetPath);
         }
 
+        Buffer buffer = prepareLinkRequest(linkPath, targetPath, symbolic);
+        checkCommandStatus(resolveLinkCommand(), buffer);
+    }
+
+    protected int resolveLinkCommand() {
+        int version = getVersion();
+        return (version < SftpConstants.SFTP_V6) ? SftpConstants.SSH_FXP_SYMLINK : SftpConstants.SSH_FXP_LINK;
+    }
+
+    protected Buffer prepareLinkRequest(String linkPath, String targetPath, boolean symbolic) {
         Buffer buffer = new ByteArrayBuffer(linkPath.length() + targetPath.length() + Long.SIZE /* some extra fields */, false);
         int version = getVersion();
-        if (version < SftpConstants.SFTP_V6) {
-            if (!symbolic) {
-                throw new UnsupportedOperationException("Hard links are not supported in sftp v" + version);
-            }
-            buffer = putReferencedName(SftpConstants.SSH_FXP_SYMLINK, buffer, targetPath, 0);
-            buffer = putReferencedName(SftpConstants.SSH_FXP_SYMLINK, buffer, linkPath, 1);
+        if ((version < SftpConstants.SFTP_V6) && (!symbolic)) {
+            throw new UnsupportedOperationException("Hard links are not supported in sftp v" + version);
+        }
 
-            checkCommandStatus(SftpConstants.SSH_FXP_SYMLINK, buffer);
-        } else {
-            buffer = putReferencedName(SftpConstants.SSH_FXP_SYMLINK, buffer, targetPath, 0);
-            buffer = putReferencedName(SftpConstants.SSH_FXP_SYMLINK, buffer, linkPath, 1);
+        buffer = putReferencedName(SftpConstants.SSH_FXP_SYMLINK, buffer, targetPath, 0);
+        buffer = putReferencedName(SftpConstants.SSH_FXP_SYMLINK, buffer, linkPath, 1);
+        if (version >= SftpConstants.SFTP_V6) {
             buffer.putBoolean(symbolic);
-
-            checkCommandStatus(SftpConstants.SSH_FXP_LINK, buffer);
         }
+        return buffer;
     }
 
     @Override
@@ -1240,15 +1358,18 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
                     getClientChannel(), handle, offset, length, Integer.toHexString(mask));
         }
 
-        byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
-        Buffer buffer = new ByteArrayBuffer(id.length + Long.SIZE /* a bit extra */, false);
-        buffer.putBytes(id);
-        buffer.putLong(offset);
-        buffer.putLong(length);
+        Buffer buffer = prepareLockRequest(handle, offset, length);
         buffer.putInt(mask);
         checkCommandStatus(SftpConstants.SSH_FXP_BLOCK, buffer);
     }
 
+    protected Buffer prepareLockRequest(Handle handle, long offset, long length) {
+        Buffer buffer = prepareHandleRequest(handle);
+        buffer.putLong(offset);
+        buffer.putLong(length);
+        return buffer;
+    }
+
     @Override
     public void unlock(Handle handle, long offset, long length) throws IOException {
         if (!isOpen()) {
@@ -1259,11 +1380,7 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
             log.debug("unlock({})[{}] offset={}, length={}", getClientChannel(), handle, offset, length);
         }
 
-        byte[] id = Objects.requireNonNull(handle, "No handle").getIdentifier();
-        Buffer buffer = new ByteArrayBuffer(id.length + Long.SIZE /* a bit extra */, false);
-        buffer.putBytes(id);
-        buffer.putLong(offset);
-        buffer.putLong(length);
+        Buffer buffer = prepareLockRequest(handle, offset, length);
         checkCommandStatus(SftpConstants.SSH_FXP_UNBLOCK, buffer);
     }
 
@@ -1338,6 +1455,150 @@ public abstract class AbstractSftpClient extends AbstractSubsystemClient impleme
         return write(path, packetSize, mode);
     }
 
+    @Override
+    public CompletableFuture<CloseableHandle> openAsync(String path, Collection<OpenMode> options) {
+        return requestAsync(SftpConstants.SSH_FXP_OPEN, () -> prepareOpenRequest(path, options),
+                response -> new DefaultCloseableHandle(
+                        this, path, checkHandleResponse(SftpConstants.SSH_FXP_OPEN, response)));
+    }
+
+    @Override
+    public CompletableFuture<Void> closeAsync(Handle handle) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_CLOSE, () -> prepareHandleRequest(handle));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAsync(String path) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_REMOVE,
+                () -> preparePathRequest(SftpConstants.SSH_FXP_REMOVE, path));
+    }
+
+    @Override
+    public CompletableFuture<Void> renameAsync(String oldPath, String newPath, Collection<CopyMode> options) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_RENAME, () -> prepareRenameRequest(oldPath, newPath, options));
+    }
+
+    @Override
+    public CompletableFuture<Integer> readAsync(Handle handle, long fileOffset, byte[] dst, int dstOffset, int len) {
+        return requestAsync(SftpConstants.SSH_FXP_READ, () -> prepareReadRequest(handle, fileOffset, len),
+                response -> checkDataResponse(SftpConstants.SSH_FXP_READ, response, dstOffset, dst, null));
+    }
+
+    @Override
+    public CompletableFuture<Void> writeAsync(Handle handle, long fileOffset, byte[] src, int srcOffset, int len) {
+        int chunkSize;
+        byte[] id;
+        try {
+            validateWriteRequest(handle, fileOffset, src, srcOffset, len);
+            chunkSize = resolveWriteChunkSize();
+            id = Objects.requireNonNull(handle, "No handle").getIdentifier();
+        } catch (IOException | RuntimeException e) {
+            return failedFuture(e);
+        }
+
+        List<CompletableFuture<Void>> acks = new ArrayList<>(1 + (len / chunkSize));
+        // NOTE: we don't want to filter out zero-length write requests
+        int remLen = len;
+        do {
+            int writeSize = Math.min(remLen, chunkSize);
+            Buffer buffer = prepareWriteRequest(id, fileOffset, src, srcOffset, writeSize);
+            acks.add(checkCommandStatusAsync(SftpConstants.SSH_FXP_WRITE, () -> buffer));
+
+            fileOffset += writeSize;
+            srcOffset += writeSize;
+            remLen -= writeSize;
+        } while (remLen > 0);
+
+        return (acks.size() == 1)
+                ? acks.get(0)
+                : CompletableFuture.allOf(acks.toArray(new CompletableFuture<?>[acks.size()]));
+    }
+
+    @Override
+    public CompletableFuture<Void> mkdirAsync(String path) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_MKDIR, () -> prepareMkdirRequest(path));
+    }
+
+    @Override
+    public CompletableFuture<Void> rmdirAsync(String path) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_RMDIR,
+                () -> preparePathRequest(SftpConstants.SSH_FXP_RMDIR, path));
+    }
+
+    @Override
+    public CompletableFuture<CloseableHandle> openDirAsync(String path) {
+        return requestAsync(SftpConstants.SSH_FXP_OPENDIR, () -> preparePathRequest(SftpConstants.SSH_FXP_OPENDIR, path),
+                response -> new DefaultCloseableHandle(
+                        this, path, checkHandleResponse(SftpConstants.SSH_FXP_OPENDIR, response)));
+    }
+
+    @Override
+    public CompletableFuture<List<DirEntry>> readDirAsync(Handle handle) {
+        return requestAsync(SftpConstants.SSH_FXP_READDIR, () -> prepareHandleRequest(handle),
+                response -> checkDirResponse(SftpConstants.SSH_FXP_READDIR, response, null));
+    }
+
+    @Override
+    public CompletableFuture<String> canonicalPathAsync(String path) {
+        return requestAsync(SftpConstants.SSH_FXP_REALPATH, () -> preparePathRequest(SftpConstants.SSH_FXP_REALPATH, path),
+                response -> checkOneNameResponse(SftpConstants.SSH_FXP_REALPATH, response));
+    }
+
+    @Override
+    public CompletableFuture<Attributes> statAsync(String path) {
+        return requestAsync(SftpConstants.SSH_FXP_STAT, () -> prepareStatRequest(SftpConstants.SSH_FXP_STAT, path),
+                response -> checkAttributesResponse(SftpConstants.SSH_FXP_STAT, response));
+    }
+
+    @Override
+    public CompletableFuture<Attributes> lstatAsync(String path) {
+        return requestAsync(SftpConstants.SSH_FXP_LSTAT, () -> prepareStatRequest(SftpConstants.SSH_FXP_LSTAT, path),
+                response -> checkAttributesResponse(SftpConstants.SSH_FXP_LSTAT, response));
+    }
+
+    @Override
+    public CompletableFuture<Attributes> statAsync(Handle handle) {
+        return requestAsync(SftpConstants.SSH_FXP_FSTAT, () -> prepareStatRequest(handle),
+                response -> checkAttributesResponse(SftpConstants.SSH_FXP_FSTAT, response));
+    }
+
+    @Override
+    public CompletableFuture<Void> setStatAsync(String path, Attributes attributes) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_SETSTAT, () -> writeAttributes(
+                SftpConstants.SSH_FXP_SETSTAT, preparePathRequest(SftpConstants.SSH_FXP_SETSTAT, path), attributes));
+    }
+
+    @Override
+    public CompletableFuture<Void> setStatAsync(Handle handle, Attributes attributes) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_FSETSTAT, () -> writeAttributes(
+                SftpConstants.SSH_FXP_FSETSTAT, prepareHandleRequest(handle), attributes));
+    }
+
+    @Override
+    public CompletableFuture<String> readLinkAsync(String path) {
+        return requestAsync(SftpConstants.SSH_FXP_READLINK, () -> preparePathRequest(SftpConstants.SSH_FXP_READLINK, path),
+                response -> checkOneNameResponse(SftpConstants.SSH_FXP_READLINK, response));
+    }
+
+    @Override
+    public CompletableFuture<Void> linkAsync(String linkPath, String targetPath, boolean symbolic) {
+        return checkCommandStatusAsync(resolveLinkCommand(), () -> prepareLinkRequest(linkPath, targetPath, symbolic));
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(Handle handle, long offset, long length, int mask) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_BLOCK, () -> {
+            Buffer buffer = prepareLockRequest(handle, offset, length);
+            buffer.putInt(mask);
+            return buffer;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(Handle handle, long offset, long length) {
+        return checkCommandStatusAsync(SftpConstants.SSH_FXP_UNBLOCK, () -> prepareLockRequest(handle, offset, length));
+    }
+
     protected int getReadBufferSize() {
         return (int) getClientChannel().getLocalWindow().getPacketSize() - 13;
     }
@@ -29,13 +29,16 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -44,6 +47,7 @@ import org.apache.sshd.client.channel.ClientChannel;
 import org.apache.sshd.client.session.ClientSession;
 import org.apache.sshd.common.SshConstants;
 import org.apache.sshd.common.SshException;
+import org.apache.sshd.common.channel.BufferedIoOutputStream;
 import org.apache.sshd.common.channel.Channel;
 import org.apache.sshd.common.channel.ChannelAsyncOutputStream;
 import org.apache.sshd.common.future.CloseFuture;
@@ -70,7 +74,11 @@ import org.apache.sshd.sftp.server.SftpSubsystemEnvironment;
 public class DefaultSftpClient extends AbstractSftpClient {
     private final ClientSession clientSession;
     private final ChannelSubsystem channel;
-    private final Map<Integer, Buffer> messages = new HashMap<>();
+    // queues the requests so several can be sent without waiting for the previous ones to be written
+    private final IoOutputStream requestsStream;
+    // replies are matched to requests by id - whichever comes first (reply or receiver) creates the entry
+    private final Map<Integer, CompletableFuture<Buffer>> pendingReplies = new ConcurrentHashMap<>();
+    private final CompletableFuture<Buffer> initResponse = new CompletableFuture<>();
     private final AtomicInteger cmdId = new AtomicInteger(100);
     private final Buffer receiveBuffer = new ByteArrayBuffer();
     private final AtomicInteger versionHolder = new AtomicInteger(0);
@@ -93,11 +101,12 @@ public class DefaultSftpClient extends AbstractSftpClient {
 
         Duration initializationTimeout = SftpModuleProperties.SFTP_CHANNEL_OPEN_TIMEOUT.getRequired(clientSession);
         this.channel.open().verify(initializationTimeout);
+        this.requestsStream = new BufferedIoOutputStream("sftp requests", channel.getAsyncIn());
         this.channel.onClose(() -> {
-            synchronized (messages) {
-                closing.set(true);
-                messages.notifyAll();
-            }
+            closing.set(true);
+            initResponse.completeExceptionally(new EOFException("Channel closed"));
+            pendingReplies.forEach((id, reply) -> reply.completeExceptionally(new SshException("Channel is being closed")));
+            requestsStream.close(true);
 
             if (versionHolder.get() <= 0) {
                 log.warn("onClose({}) closed before version negotiated", channel);
@@ -155,6 +164,8 @@ public class DefaultSftpClient extends AbstractSftpClient {
     @Override
     public void close() throws IOException {
         if (isOpen()) {
+            // flush the pending requests before closing the channel
+            this.requestsStream.close(false);
             this.channel.close(false);
         }
     }
@@ -252,18 +263,51 @@ public class DefaultSftpClient extends AbstractSftpClient {
                     getClientChannel(), id, SftpConstants.getCommandMessageName(type), length);
         }
 
-        synchronized (messages) {
-            messages.put(id, buffer);
-            messages.notifyAll();
+        // the very first packet is the reply to the SSH_FXP_INIT command
+        if (!initResponse.isDone()) {
+            initResponse.complete(buffer);
+            return;
+        }
+
+        CompletableFuture<Buffer> reply = pendingReplies.computeIfAbsent(id, k -> new CompletableFuture<>());
+        if (!reply.complete(buffer)) {
+            log.warn("process({}) ignore unexpected reply for id={}", getClientChannel(), id);
         }
     }
 
     @Override
     public int send(int cmd, Buffer buffer) throws IOException {
         int id = cmdId.incrementAndGet();
+        IoWriteFuture writeFuture = writeRequest(cmd, id, buffer);
+        writeFuture.verify();
+        return id;
+    }
+
+    @Override
+    protected int sendAsync(int cmd, Buffer buffer) throws IOException {
+        int id = cmdId.incrementAndGet();
+        IoWriteFuture writeFuture = writeRequest(cmd, id, buffer);
+        writeFuture.addListener(f -> {
+            Throwable t = f.getException();
+            if (t != null) {
+                // whoever is waiting for the reply will never get it
+                pendingReplies.computeIfAbsent(id, k -> new CompletableFuture<>()).completeExceptionally(t);
+            }
+        });
+        return id;
+    }
+
+    /**
+     * @param  cmd         Command to send - <B>Note:</B> only lower 8-bits are used
+     * @param  id          The assigned request id
+     * @param  buffer      The {@link Buffer} containing the command data
+     * @return             The {@link IoWriteFuture} of writing the request to the channel
+     * @throws IOException If failed to initiate the write
+     */
+    protected IoWriteFuture writeRequest(int cmd, int id, Buffer buffer) throws IOException {
         int len = buffer.available();
         if (log.isTraceEnabled()) {
-            log.trace("send({}) cmd={}, len={}, id={}",
+            log.trace("writeRequest({}) cmd={}, len={}, id={}",
                     getClientChannel(), SftpConstants.getCommandMessageName(cmd), len, id);
         }
 
@@ -287,10 +331,7 @@ public class DefaultSftpClient extends AbstractSftpClient {
             buf.putBuffer(buffer);
         }
 
-        IoOutputStream asyncIn = channel.getAsyncIn();
-        IoWriteFuture writeFuture = asyncIn.writeBuffer(buf);
-        writeFuture.verify();
-        return id;
+        return requestsStream.writeBuffer(buf);
     }
 
     @Override
@@ -331,20 +372,49 @@ public class DefaultSftpClient extends AbstractSftpClient {
 
     @Override
     public Buffer receive(int id, Duration idleTimeout) throws IOException {
-        synchronized (messages) {
-            Buffer buffer = messages.remove(id);
-            if (buffer != null) {
-                return buffer;
-            }
-            if (GenericUtils.isPositive(idleTimeout)) {
-                try {
-                    messages.wait(idleTimeout.toMillis(), idleTimeout.getNano() % 1_000_000);
-                } catch (InterruptedException e) {
-                    throw (IOException) new InterruptedIOException("Interrupted while waiting for messages").initCause(e);
-                }
-            }
+        CompletableFuture<Buffer> reply = resolvePendingReply(id);
+        if ((!reply.isDone()) && (!GenericUtils.isPositive(idleTimeout))) {
+            return null;
+        }
+
+        Buffer buffer;
+        try {
+            buffer = GenericUtils.isPositive(idleTimeout)
+                    ? reply.get(idleTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                    : reply.get();
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            throw (IOException) new InterruptedIOException("Interrupted while waiting for messages").initCause(e);
+        } catch (ExecutionException e) {
+            pendingReplies.remove(id, reply);
+            Throwable cause = e.getCause();
+            throw new SshException("Failed to receive id=" + id + ": " + cause.getMessage(), cause);
+        }
+
+        pendingReplies.remove(id, reply);
+        return buffer;
+    }
+
+    @Override
+    public CompletableFuture<Buffer> receiveAsync(int id) throws IOException {
+        CompletableFuture<Buffer> reply = resolvePendingReply(id);
+        reply.whenComplete((buffer, t) -> pendingReplies.remove(id, reply));
+        return reply;
+    }
+
+    /**
+     * @param  id The expected request id
+     * @return    The (possibly already completed) future for the reply - completed exceptionally if the channel is
+     *            closed before the reply is received
+     */
+    protected CompletableFuture<Buffer> resolvePendingReply(int id) {
+        CompletableFuture<Buffer> reply = pendingReplies.computeIfAbsent(id, k -> new CompletableFuture<>());
+        // the closing indicator is set before failing the pending replies, so either way no one waits forever
+        if (isClosing() || (!isOpen())) {
+            reply.completeExceptionally(new SshException("Channel is being closed"));
         }
-        return null;
+        return reply;
     }
 
     protected void init(ClientSession session, SftpVersionSelector initialVersionSelector, Duration initializationTimeout)
@@ -431,39 +501,22 @@ public class DefaultSftpClient extends AbstractSftpClient {
         ValidateUtils.checkTrue(GenericUtils.isPositive(initializationTimeout), "Invalid initialization timeout: %d",
                 initializationTimeout);
 
-        synchronized (messages) {
-            /*
-             * We need to use a timeout since if the remote server does not support SFTP, we will not know it
-             * immediately. This is due to the fact that the request for the subsystem does not contain a reply as to
-             * its success or failure. Thus, the SFTP channel is created by the client, but there is no one on the other
-             * side to reply - thus the need for the timeout
-             */
-            Instant now = Instant.now();
-            Instant max = now.plus(initializationTimeout);
-            while ((now.compareTo(max) < 0) && messages.isEmpty() && (!isClosing()) && isOpen()) {
-                try {
-                    Duration rem = Duration.between(now, max);
-                    messages.wait(rem.toMillis(), rem.getNano() % 1_000_000);
-                    now = Instant.now();
-                } catch (InterruptedException e) {
-                    throw (IOException) new InterruptedIOException(
-                            "Interrupted init() while " + Duration.between(now, max) + " remaining").initCause(e);
-                }
-            }
-
-            if (isClosing() || (!isOpen())) {
-                throw new EOFException("Closing while await init message");
-            }
-
-            if (messages.isEmpty()) {
-                throw new SocketTimeoutException(
-                        "No incoming initialization response received within " + initializationTimeout + " msec.");
-            }
-
-            Collection<Integer> ids = messages.keySet();
-            Iterator<Integer> iter = ids.iterator();
-            Integer reqId = iter.next();
-            return messages.remove(reqId);
+        /*
+         * We need to use a timeout since if the remote server does not support SFTP, we will not know it immediately.
+         * This is due to the fact that the request for the subsystem does not contain a reply as to its success or
+         * failure. Thus, the SFTP channel is created by the client, but there is no one on the other side to reply -
+         * thus the need for the timeout
+         */
+        try {
+            return initResponse.get(initializationTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException(
+                    "No incoming initialization response received within " + initializationTimeout + " msec.");
+        } catch (InterruptedException e) {
+            throw (IOException) new InterruptedIOException(
+                    "Interrupted init() while waiting up to " + initializationTimeout).initCause(e);
+        } catch (ExecutionException e) {
+            throw new EOFException("Closing while await init message");
         }
     }
 
@@ -296,21 +296,31 @@ public class SftpInputStreamAsync extends InputStreamWithChannel {
 
             AtomicReference<Boolean> eof = new AtomicReference<>();
             SftpClient client = getClient();
-            for (int cur = 0; cur < nb;) {
-                int dlen = client.read(handle, clientOffset, data, cur, nb - cur, eof);
+            int cur = 0;
+            while (cur < nb) {
+                // the server may return less data than requested
+                int dlen = client.read(handle, clientOffset + cur, data, cur, nb - cur, eof);
                 Boolean eofSignal = eof.getAndSet(null);
                 if ((dlen < 0) || ((eofSignal != null) && eofSignal.booleanValue())) {
                     eofIndicator = true;
                 }
+                if (dlen <= 0) {
+                    break;
+                }
                 cur += dlen;
             }
 
             if (traceEnabled) {
-                log.trace("fillData({}) read {} bytes - EOF={}", this, nb, eofIndicator);
+                log.trace("fillData({}) read {}/{} bytes - EOF={}", this, cur, nb, eofIndicator);
             }
 
-            buffer.getRawBytes(data, nb, buffer.available());
-            buffer = new ByteArrayBuffer(data);
+            if (cur < nb) {
+                // the data following the missing part cannot be used
+                buffer = new ByteArrayBuffer(data, 0, cur);
+            } else {
+                buffer.getRawBytes(data, nb, buffer.available());
+                buffer = new ByteArrayBuffer(data);
+            }
         }
     }
 
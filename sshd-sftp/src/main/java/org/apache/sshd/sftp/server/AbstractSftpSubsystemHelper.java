@@ -533,7 +533,7 @@ public abstract class AbstractSftpSubsystemHelper
         int requestedLength = buffer.getInt();
         ServerSession session = getServerSession();
         int maxAllowed = SftpModuleProperties.MAX_READDATA_PACKET_LENGTH.getRequired(session);
-        int readLen = Math.min(requestedLength, maxAllowed);
+        int readLen = resolveReadDataLength(handle, Math.min(requestedLength, maxAllowed));
         if (log.isTraceEnabled()) {
             log.trace("doRead({})[id={}]({})[offset={}] - req={}, max={}, effective={}",
                     session, id, handle, offset, requestedLength, maxAllowed, readLen);
@@ -542,9 +542,7 @@ public abstract class AbstractSftpSubsystemHelper
         try {
             ValidateUtils.checkTrue(readLen >= 0, "Illegal requested read length: %d", readLen);
 
-            buffer = prepareReply(buffer);
-            buffer.ensureCapacity(readLen + Long.SIZE /* the header */, IntUnaryOperator.identity());
-
+            buffer = prepareReadReply(buffer, readLen);
             buffer.putByte((byte) SftpConstants.SSH_FXP_DATA);
             buffer.putInt(id);
             int lenPos = buffer.wpos();
@@ -565,6 +563,27 @@ public abstract class AbstractSftpSubsystemHelper
         send(buffer);
     }
 
+    /**
+     * @param  handle  The requested handle
+     * @param  readLen The requested read length - after applying the {@link SftpModuleProperties#MAX_READDATA_PACKET_LENGTH}
+     *                 limit
+     * @return         The number of bytes to actually read - default same as requested
+     */
+    protected int resolveReadDataLength(String handle, int readLen) {
+        return readLen;
+    }
+
+    /**
+     * @param  buffer  The request {@link Buffer} - re-used for the reply
+     * @param  readLen The number of bytes about to be read
+     * @return         The reply buffer positioned after the reply length placeholder and with enough room for the data
+     */
+    protected Buffer prepareReadReply(Buffer buffer, int readLen) {
+        buffer = prepareReply(buffer);
+        buffer.ensureCapacity(readLen + Long.SIZE /* the header */, IntUnaryOperator.identity());
+        return buffer;
+    }
+
     protected abstract int doRead(
             int id, String handle, long offset, int length, byte[] data, int doff)
             throws IOException;
@@ -19,30 +19,42 @@
 package org.apache.sshd.sftp.server;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileLock;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.sshd.common.util.GenericUtils;
 import org.apache.sshd.common.util.io.IoUtils;
 import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.sftp.SftpModuleProperties;
 import org.apache.sshd.sftp.common.SftpConstants;
 import org.apache.sshd.sftp.common.SftpException;
 
 /**
+ * An open file. Optionally, data read sequentially is read ahead asynchronously and adjacent writes are coalesced before
+ * being written to the file.
+ *
  * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ * @see    SftpModuleProperties#FILE_HANDLE_READ_AHEAD_SIZE
+ * @see    SftpModuleProperties#FILE_HANDLE_WRITE_BEHIND_SIZE
  */
 public class FileHandle extends Handle {
     private final int access;
@@ -50,6 +62,17 @@ public class FileHandle extends Handle {
     private final List<FileLock> locks = new ArrayList<>();
     private final Set<StandardOpenOption> openOptions;
     private final Collection<FileAttribute<?>> fileAttributes;
+    // guards the read-ahead and write-behind state - acquired before the channel lock when both are needed
+    private final Object cacheLock = new Object();
+    // guards the channel position - the read-ahead tasks access the channel concurrently with the requests
+    private final Object channelLock = new Object();
+    private final int readAheadChunkSize;
+    private final int writeBehindSize;
+    private final Deque<ReadAheadChunk> readAheadChunks = new ArrayDeque<>(2);
+    private long nextReadOffset = -1L;
+    private byte[] writeBehindData;
+    private long writeBehindOffset;
+    private int writeBehindLength;
 
     public FileHandle(
                       SftpSubsystem subsystem, Path file, String handle, int flags, int access, Map<String, Object> attrs)
@@ -59,6 +82,14 @@ public class FileHandle extends Handle {
         this.access = access;
         this.openOptions = Collections.unmodifiableSet(getOpenOptions(flags, access));
         this.fileAttributes = Collections.unmodifiableCollection(toFileAttributes(attrs));
+
+        ServerSession session = subsystem.getServerSession();
+        int readAheadSize = SftpModuleProperties.FILE_HANDLE_READ_AHEAD_SIZE.getRequired(session);
+        this.readAheadChunkSize = openOptions.contains(StandardOpenOption.READ) ? Math.max(0, readAheadSize / 2) : 0;
+        int coalesceSize = SftpModuleProperties.FILE_HANDLE_WRITE_BEHIND_SIZE.getRequired(session);
+        this.writeBehindSize = (openOptions.contains(StandardOpenOption.WRITE) && (!isOpenAppend()))
+                ? Math.max(0, coalesceSize)
+                : 0;
         signalHandleOpening();
 
         FileAttribute<?>[] fileAttrs = GenericUtils.isEmpty(fileAttributes)
@@ -66,7 +97,6 @@ public class FileHandle extends Handle {
                 : fileAttributes.toArray(new FileAttribute<?>[fileAttributes.size()]);
 
         SftpFileSystemAccessor accessor = subsystem.getFileSystemAccessor();
-        ServerSession session = subsystem.getServerSession();
         SeekableByteChannel channel;
         try {
             channel = accessor.openFile(
@@ -110,20 +140,31 @@ public class FileHandle extends Handle {
         return read(data, 0, data.length, offset);
     }
 
-    @SuppressWarnings("resource")
     public int read(byte[] data, int doff, int length, long offset) throws IOException {
-        SeekableByteChannel channel = getFileChannel();
-        channel = channel.position(offset);
-        return channel.read(ByteBuffer.wrap(data, doff, length));
+        synchronized (cacheLock) {
+            flushWriteBehind();
+            if (readAheadChunkSize <= 0) {
+                return readFile(data, doff, length, offset);
+            }
+
+            return readThroughCache(data, doff, length, offset);
+        }
     }
 
     public void append(byte[] data) throws IOException {
         append(data, 0, data.length);
     }
 
+    @SuppressWarnings("resource")
     public void append(byte[] data, int doff, int length) throws IOException {
-        SeekableByteChannel channel = getFileChannel();
-        write(data, doff, length, channel.size());
+        synchronized (cacheLock) {
+            invalidateReadAhead();
+            flushWriteBehind();
+            synchronized (channelLock) {
+                SeekableByteChannel channel = getFileChannel();
+                writeFile(data, doff, length, channel.size());
+            }
+        }
     }
 
     public void write(byte[] data, long offset) throws IOException {
@@ -131,19 +172,249 @@ public class FileHandle extends Handle {
     }
 
     public void write(byte[] data, int doff, int length, long offset) throws IOException {
-        SeekableByteChannel channel = getFileChannel();
-        channel = channel.position(offset);
-        channel.write(ByteBuffer.wrap(data, doff, length));
+        synchronized (cacheLock) {
+            invalidateReadAhead();
+            if ((writeBehindSize <= 0) || (length >= writeBehindSize)) {
+                flushWriteBehind();
+                writeFile(data, doff, length, offset);
+                return;
+            }
+
+            if ((writeBehindLength > 0)
+                    && ((offset != (writeBehindOffset + writeBehindLength))
+                            || ((writeBehindLength + length) > writeBehindSize))) {
+                flushWriteBehind();
+            }
+
+            if (writeBehindData == null) {
+                SftpSubsystem subsystem = getSubsystem();
+                if (!subsystem.reserveCacheMemory(writeBehindSize)) {
+                    writeFile(data, doff, length, offset);
+                    return;
+                }
+                writeBehindData = new byte[writeBehindSize];
+            }
+
+            if (writeBehindLength <= 0) {
+                writeBehindOffset = offset;
+            }
+            System.arraycopy(data, doff, writeBehindData, writeBehindLength, length);
+            writeBehindLength += length;
+            if (writeBehindLength >= writeBehindSize) {
+                flushWriteBehind();
+            }
+        }
+    }
+
+    /**
+     * Writes any data coalesced from previous writes to the file. <B>Note:</B> the data is discarded even if writing it
+     * fails - the failure is reported only once.
+     *
+     * @throws IOException If failed to write the data
+     */
+    public void flushWriteBehind() throws IOException {
+        synchronized (cacheLock) {
+            int length = writeBehindLength;
+            if (length <= 0) {
+                return;
+            }
+
+            writeBehindLength = 0;
+            writeFile(writeBehindData, 0, length, writeBehindOffset);
+        }
+    }
+
+    /**
+     * Discards any data read ahead - e.g., since the file contents or size may have changed
+     */
+    public void invalidateReadAhead() {
+        synchronized (cacheLock) {
+            nextReadOffset = -1L;
+            while (!readAheadChunks.isEmpty()) {
+                discardReadAheadChunk(readAheadChunks.removeFirst());
+            }
+        }
+    }
+
+    @SuppressWarnings("resource")
+    protected int readFile(byte[] data, int doff, int length, long offset) throws IOException {
+        synchronized (channelLock) {
+            SeekableByteChannel channel = getFileChannel();
+            channel = channel.position(offset);
+            return channel.read(ByteBuffer.wrap(data, doff, length));
+        }
+    }
+
+    @SuppressWarnings("resource")
+    protected void writeFile(byte[] data, int doff, int length, long offset) throws IOException {
+        synchronized (channelLock) {
+            SeekableByteChannel channel = getFileChannel();
+            channel = channel.position(offset);
+            channel.write(ByteBuffer.wrap(data, doff, length));
+        }
+    }
+
+    /**
+     * Serves the read from the data read ahead - as much as available - and reads the rest directly from the file. If
+     * the read continues the previous one, makes sure the data following it is being read ahead.
+     *
+     * @param  data        The target buffer
+     * @param  doff        Offset in the buffer where to place the data
+     * @param  length      Max. number of bytes to read
+     * @param  offset      File offset to read from
+     * @return             Number of read bytes - negative if at end of file
+     * @throws IOException If failed to read
+     */
+    protected int readThroughCache(byte[] data, int doff, int length, long offset) throws IOException {
+        // discard whatever the client skipped - or everything if the read is outside the read ahead data
+        for (ReadAheadChunk chunk = readAheadChunks.peekFirst();
+             (chunk != null) && (!chunk.contains(offset));
+             chunk = readAheadChunks.peekFirst()) {
+            discardReadAheadChunk(readAheadChunks.removeFirst());
+        }
+
+        int count = 0;
+        for (ReadAheadChunk chunk = readAheadChunks.peekFirst();
+             (chunk != null) && (count < length);
+             chunk = readAheadChunks.peekFirst()) {
+            int filled = chunk.awaitFilled();
+            if (filled < 0) {
+                invalidateReadAhead(); // let the direct read report the failure (if still relevant)
+                break;
+            }
+
+            int pos = (int) (offset + count - chunk.getOffset());
+            if (pos >= filled) {
+                break; // end of file was reached when reading ahead
+            }
+
+            int copied = Math.min(length - count, filled - pos);
+            System.arraycopy(chunk.getData(), pos, data, doff + count, copied);
+            count += copied;
+            if ((pos + copied) < chunk.getSize()) {
+                break; // either the read is satisfied or end of file was reached
+            }
+
+            readAheadChunks.removeFirst();
+            discardReadAheadChunk(chunk);
+        }
+
+        if (count < length) {
+            int n = readFile(data, doff + count, length - count, offset + count);
+            if (n > 0) {
+                count += n;
+            } else if (count <= 0) {
+                nextReadOffset = -1L;
+                return n;
+            }
+        }
+
+        boolean sequential = offset == nextReadOffset;
+        nextReadOffset = offset + count;
+        if (sequential) {
+            scheduleReadAhead(nextReadOffset);
+        }
+
+        return count;
+    }
+
+    protected void scheduleReadAhead(long position) {
+        ReadAheadChunk last = readAheadChunks.peekLast();
+        long chunkOffset = (last == null) ? position : last.getEndOffset();
+        while (readAheadChunks.size() < 2) {
+            if ((last != null) && last.isEndOfFile()) {
+                return;
+            }
+
+            last = startReadAhead(chunkOffset);
+            if (last == null) {
+                return; // no memory available or shutting down
+            }
+
+            readAheadChunks.addLast(last);
+            chunkOffset = last.getEndOffset();
+        }
+    }
+
+    protected ReadAheadChunk startReadAhead(long offset) {
+        SftpSubsystem subsystem = getSubsystem();
+        int size = readAheadChunkSize;
+        if (!subsystem.reserveCacheMemory(size)) {
+            return null;
+        }
+
+        ReadAheadChunk chunk = new ReadAheadChunk(offset, new byte[size]);
+        try {
+            subsystem.getReadAheadExecutor().execute(() -> fillReadAheadChunk(chunk));
+        } catch (RejectedExecutionException e) {
+            subsystem.releaseCacheMemory(size);
+            return null;
+        }
+
+        return chunk;
+    }
+
+    protected void fillReadAheadChunk(ReadAheadChunk chunk) {
+        byte[] buf = chunk.getData();
+        long offset = chunk.getOffset();
+        int filled = 0;
+        try {
+            while (filled < buf.length) {
+                int n = readFile(buf, filled, buf.length - filled, offset + filled);
+                if (n <= 0) {
+                    break;
+                }
+                filled += n;
+            }
+        } catch (Throwable t) {
+            chunk.fail(t);
+            return;
+        }
+
+        chunk.fill(filled);
+    }
+
+    protected void discardReadAheadChunk(ReadAheadChunk chunk) {
+        // NOTE: if still being filled the memory is held a bit longer than accounted for - but not for long
+        SftpSubsystem subsystem = getSubsystem();
+        subsystem.releaseCacheMemory(chunk.getSize());
     }
 
     @Override
     public void close() throws IOException {
+        IOException flushError = null;
+        synchronized (cacheLock) {
+            try {
+                flushWriteBehind();
+            } catch (IOException e) {
+                flushError = e;
+            }
+
+            invalidateReadAhead();
+            if (writeBehindData != null) {
+                SftpSubsystem subsystem = getSubsystem();
+                subsystem.releaseCacheMemory(writeBehindData.length);
+                writeBehindData = null;
+            }
+        }
+
         super.close();
 
         SftpSubsystem subsystem = getSubsystem();
         SftpFileSystemAccessor accessor = subsystem.getFileSystemAccessor();
         ServerSession session = subsystem.getServerSession();
-        accessor.closeFile(session, subsystem, this, getFile(), getFileHandle(), getFileChannel(), getOpenOptions());
+        try {
+            accessor.closeFile(session, subsystem, this, getFile(), getFileHandle(), getFileChannel(), getOpenOptions());
+        } catch (IOException e) {
+            if (flushError != null) {
+                e.addSuppressed(flushError);
+            }
+            throw e;
+        }
+
+        if (flushError != null) {
+            throw flushError;
+        }
     }
 
     public void lock(long offset, long length, int mask) throws IOException {
@@ -186,6 +457,79 @@ public class FileHandle extends Handle {
         lock.release();
     }
 
+    /**
+     * Data being (or already) read ahead from the file
+     */
+    protected static class ReadAheadChunk {
+        private final long offset;
+        private final byte[] data;
+        private final CompletableFuture<Integer> filled = new CompletableFuture<>();
+
+        public ReadAheadChunk(long offset, byte[] data) {
+            this.offset = offset;
+            this.data = data;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public int getSize() {
+            return data.length;
+        }
+
+        public long getEndOffset() {
+            return offset + data.length;
+        }
+
+        public boolean contains(long position) {
+            return (position >= offset) && (position < getEndOffset());
+        }
+
+        /**
+         * @return {@code true} if the data has been read and the end of file was reached before filling the chunk
+         */
+        public boolean isEndOfFile() {
+            if ((!filled.isDone()) || filled.isCompletedExceptionally()) {
+                return false;
+            }
+
+            return filled.join() < data.length;
+        }
+
+        public void fill(int count) {
+            filled.complete(count);
+        }
+
+        public void fail(Throwable t) {
+            filled.completeExceptionally(t);
+        }
+
+        /**
+         * @return                        The number of bytes read into the chunk - negative if failed to read them
+         * @throws InterruptedIOException If interrupted while waiting for the data
+         */
+        public int awaitFilled() throws InterruptedIOException {
+            try {
+                return filled.get();
+            } catch (InterruptedException e) {
+                throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for read-ahead at "
+                                                                          + offset).initCause(e);
+            } catch (ExecutionException e) {
+                return -1;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[offset=" + offset + ", size=" + data.length + "]";
+        }
+    }
+
     public static Collection<FileAttribute<?>> toFileAttributes(Map<String, ?> attrs) {
         if (GenericUtils.isEmpty(attrs)) {
             return Collections.emptyList();
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sshd.sftp.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sshd.common.AttributeRepository.AttributeKey;
+
+/**
+ * Keeps track of the memory used by file handles for caching data - e.g., read-ahead and write-behind. One instance is
+ * shared by all the handles of a session and another by all the sessions of a server.
+ *
+ * @author <a href="mailto:dev@mina.apache.org">Apache MINA SSHD Project</a>
+ */
+public class SftpCacheMemoryBudget {
+    /**
+     * Attribute used to store the budget of all the handles of a session
+     */
+    public static final AttributeKey<SftpCacheMemoryBudget> SESSION_BUDGET = new AttributeKey<>();
+
+    /**
+     * Attribute used to store the budget of all the handles of all the sessions of a server
+     */
+    public static final AttributeKey<SftpCacheMemoryBudget> GLOBAL_BUDGET = new AttributeKey<>();
+
+    private final long limit;
+    private final AtomicLong used = new AtomicLong();
+
+    public SftpCacheMemoryBudget(long limit) {
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    /**
+     * @param  size The amount of memory to reserve
+     * @return      {@code true} if reserved - in which case it must be {@link #release(long) released} when no longer
+     *              used, {@code false} if reserving it would exceed the limit
+     */
+    public boolean reserve(long size) {
+        for (long current = used.get();; current = used.get()) {
+            long updated = current + size;
+            if (updated > limit) {
+                return false;
+            }
+            if (used.compareAndSet(current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long size) {
+        used.addAndGet(-size);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[used=" + getUsed() + "/" + getLimit() + "]";
+    }
+}
@@ -33,21 +33,29 @@ import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntUnaryOperator;
 
 import org.apache.sshd.common.Factory;
 import org.apache.sshd.common.FactoryManager;
 import org.apache.sshd.common.channel.BufferedIoOutputStream;
+import org.apache.sshd.common.channel.ChannelAsyncOutputStream;
 import org.apache.sshd.common.channel.Window;
 import org.apache.sshd.common.digest.BuiltinDigests;
 import org.apache.sshd.common.digest.DigestFactory;
@@ -58,6 +66,7 @@ import org.apache.sshd.common.random.Random;
 import org.apache.sshd.common.session.Session;
 import org.apache.sshd.common.util.ValidateUtils;
 import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.BufferAllocator;
 import org.apache.sshd.common.util.buffer.BufferUtils;
 import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
 import org.apache.sshd.common.util.io.IoUtils;
@@ -98,12 +107,19 @@ public class SftpSubsystem
     protected final Map<String, Handle> handles = new ConcurrentHashMap<>();
     protected final Buffer buffer = new ByteArrayBuffer(1024);
     protected final BlockingQueue<Buffer> requests = new LinkedBlockingQueue<>();
+    /**
+     * Requests waiting to be processed per handle - used only when processing requests concurrently
+     */
+    protected final Map<String, Queue<Buffer>> handleRequests = new HashMap<>();
+    protected final AtomicReference<Throwable> dispatchFailure = new AtomicReference<>();
     protected final ChannelDataReceiver errorDataChannelReceiver;
 
     protected ExitCallback callback;
     protected IoOutputStream out;
     protected Environment env;
     protected Random randomizer;
+    protected BufferAllocator bufferAllocator = BufferAllocator.DEFAULT;
+    protected boolean zeroCopyRead;
     protected int fileHandleSize = SftpModuleProperties.DEFAULT_FILE_HANDLE_SIZE;
     protected int maxFileHandleRounds = SftpModuleProperties.DEFAULT_FILE_HANDLE_ROUNDS;
     protected Future<?> pendingFuture;
@@ -115,6 +131,12 @@ public class SftpSubsystem
     protected ServerSession serverSession;
     protected ChannelSession channelSession;
     protected CloseableExecutorService executorService;
+    protected final int maxConcurrentRequests;
+    protected final Semaphore requestPermits;
+    protected final CloseableExecutorService requestsExecutor;
+    protected SftpCacheMemoryBudget sessionCacheBudget;
+    protected SftpCacheMemoryBudget globalCacheBudget;
+    protected CloseableExecutorService readAheadExecutor;
 
     /**
      * @param configurator The {@link SftpSubsystemConfigurator} to use
@@ -153,6 +175,17 @@ public class SftpSubsystem
         } else {
             this.executorService = executorService;
         }
+
+        // the dispatching thread is taken from the executor service so use separate threads for processing
+        maxConcurrentRequests = configurator.getMaxConcurrentRequests();
+        if (maxConcurrentRequests > 1) {
+            requestPermits = new Semaphore(maxConcurrentRequests);
+            requestsExecutor = ThreadUtils.newFixedThreadPool(
+                    getClass().getSimpleName() + "-requests", maxConcurrentRequests);
+        } else {
+            requestPermits = null;
+            requestsExecutor = null;
+        }
     }
 
     @Override
@@ -177,9 +210,14 @@ public class SftpSubsystem
         FactoryManager manager = session.getFactoryManager();
         Factory<? extends Random> factory = manager.getRandomFactory();
         this.randomizer = factory.create();
+        this.bufferAllocator = manager.resolveBufferAllocator();
 
         this.fileHandleSize = SftpModuleProperties.FILE_HANDLE_SIZE.getRequired(session);
         this.maxFileHandleRounds = SftpModuleProperties.MAX_FILE_HANDLE_RAND_ROUNDS.getRequired(session);
+        this.sessionCacheBudget = session.computeAttributeIfAbsent(SftpCacheMemoryBudget.SESSION_BUDGET,
+                k -> new SftpCacheMemoryBudget(SftpModuleProperties.SESSION_CACHE_MEMORY_LIMIT.getRequired(session)));
+        this.globalCacheBudget = manager.computeAttributeIfAbsent(SftpCacheMemoryBudget.GLOBAL_BUDGET,
+                k -> new SftpCacheMemoryBudget(SftpModuleProperties.GLOBAL_CACHE_MEMORY_LIMIT.getRequired(manager)));
 
         if (workBuf.length < this.fileHandleSize) {
             workBuf = new byte[this.fileHandleSize];
@@ -191,6 +229,47 @@ public class SftpSubsystem
         return serverSession;
     }
 
+    /**
+     * Reserves memory for caching file handle data from both the session and the global budget
+     *
+     * @param  size The amount of memory to reserve
+     * @return      {@code true} if reserved - in which case it must be {@link #releaseCacheMemory(long) released}
+     *              when no longer used
+     */
+    public boolean reserveCacheMemory(long size) {
+        SftpCacheMemoryBudget sessionBudget = sessionCacheBudget;
+        SftpCacheMemoryBudget globalBudget = globalCacheBudget;
+        if ((sessionBudget == null) || (globalBudget == null)) {
+            return false;
+        }
+
+        if (!sessionBudget.reserve(size)) {
+            return false;
+        }
+
+        if (!globalBudget.reserve(size)) {
+            sessionBudget.release(size);
+            return false;
+        }
+
+        return true;
+    }
+
+    public void releaseCacheMemory(long size) {
+        sessionCacheBudget.release(size);
+        globalCacheBudget.release(size);
+    }
+
+    /**
+     * @return The (lazily created) executor used by file handles for reading ahead
+     */
+    public synchronized CloseableExecutorService getReadAheadExecutor() {
+        if (readAheadExecutor == null) {
+            readAheadExecutor = ThreadUtils.newCachedThreadPool(getClass().getSimpleName() + "-read-ahead");
+        }
+        return readAheadExecutor;
+    }
+
     @Override
     public void setChannelSession(ChannelSession session) {
         this.channelSession = session;
@@ -242,6 +321,13 @@ public class SftpSubsystem
 
     @Override
     public void setIoOutputStream(IoOutputStream out) {
+        ServerSession session = getServerSession();
+        zeroCopyRead = (session != null)
+                && (out instanceof ChannelAsyncOutputStream)
+                && SftpModuleProperties.ZERO_COPY_READ.getRequired(session);
+        if (zeroCopyRead) {
+            ((ChannelAsyncOutputStream) out).setSendInPlace(true);
+        }
         this.out = new BufferedIoOutputStream("sftp out buffer", out);
     }
 
@@ -273,7 +359,7 @@ public class SftpSubsystem
             int rpos = buffer.rpos();
             int msglen = buffer.getInt();
             if (buffer.available() >= msglen) {
-                Buffer b = new ByteArrayBuffer(msglen + Integer.BYTES + Long.SIZE /* a bit extra */, false);
+                Buffer b = bufferAllocator.allocate(msglen + Integer.BYTES + Long.SIZE /* a bit extra */);
                 b.putInt(msglen);
                 b.putRawBytes(buffer.array(), buffer.rpos(), msglen);
                 requests.add(b);
@@ -294,10 +380,12 @@ public class SftpSubsystem
                 if (buffer == CLOSE) {
                     break;
                 }
-                int len = buffer.available();
-                process(buffer);
-                Window localWindow = channelSession.getLocalWindow();
-                localWindow.consumeAndCheck(len);
+
+                if (requestsExecutor == null) {
+                    processRequest(buffer);
+                } else {
+                    dispatchRequest(buffer);
+                }
             }
         } catch (Throwable t) {
             if (!closed.get()) { // Ignore
@@ -306,25 +394,231 @@ public class SftpSubsystem
                         session, t.getClass().getSimpleName(), t.getMessage(), t);
             }
         } finally {
+            awaitDispatchedRequests();
             closeAllHandles();
             callback.onExit(0);
         }
     }
 
+    protected void processRequest(Buffer buffer) throws Exception {
+        int len = buffer.available();
+        try {
+            process(buffer);
+        } finally {
+            bufferAllocator.release(buffer);
+        }
+        Window localWindow = channelSession.getLocalWindow();
+        localWindow.consumeAndCheck(len);
+    }
+
+    /**
+     * Hands over a request to the concurrent processing threads. Requests referring to a handle are queued behind any
+     * pending ones for the same handle. Any other request waits until all previously dispatched ones are done and is
+     * processed by the calling thread - thus preserving the order of path based operations relative to all the
+     * others.
+     *
+     * @param  buffer    The request {@link Buffer}
+     * @throws Exception If failed to dispatch or process the request
+     */
+    protected void dispatchRequest(Buffer buffer) throws Exception {
+        String handle = resolveDispatchHandle(buffer);
+        if (handle == null) {
+            requestPermits.acquire(maxConcurrentRequests);
+            try {
+                checkDispatchFailure();
+                processRequest(buffer);
+            } finally {
+                requestPermits.release(maxConcurrentRequests);
+            }
+            return;
+        }
+
+        requestPermits.acquire();
+        boolean startWorker;
+        try {
+            checkDispatchFailure();
+            synchronized (handleRequests) {
+                Queue<Buffer> pending = handleRequests.get(handle);
+                startWorker = pending == null;
+                if (startWorker) {
+                    pending = new LinkedList<>();
+                    handleRequests.put(handle, pending);
+                }
+                pending.add(buffer);
+            }
+        } catch (Exception e) {
+            requestPermits.release();
+            throw e;
+        }
+
+        if (startWorker) {
+            requestsExecutor.execute(() -> processHandleRequests(handle));
+        }
+    }
+
+    protected void processHandleRequests(String handle) {
+        while (true) {
+            Buffer buffer;
+            synchronized (handleRequests) {
+                Queue<Buffer> pending = handleRequests.get(handle);
+                buffer = pending.poll();
+                if (buffer == null) {
+                    handleRequests.remove(handle);
+                    return;
+                }
+            }
+
+            try {
+                if (dispatchFailure.get() == null) {
+                    processRequest(buffer);
+                } else {
+                    bufferAllocator.release(buffer);
+                }
+            } catch (Throwable t) {
+                if (dispatchFailure.compareAndSet(null, t) && (!closed.get())) {
+                    Session session = getServerSession();
+                    error("processHandleRequests({})[{}] {} caught in SFTP subsystem: {}",
+                            session, handle, t.getClass().getSimpleName(), t.getMessage(), t);
+                }
+
+                try {
+                    close(); // wake up the dispatching thread
+                } catch (IOException e) {
+                    // ignored - close does not really throw
+                }
+            } finally {
+                requestPermits.release();
+            }
+        }
+    }
+
+    /**
+     * @param  buffer The request {@link Buffer} - its read position is not modified
+     * @return        The handle the request refers to - {@code null} if not a handle based request
+     */
+    protected String resolveDispatchHandle(Buffer buffer) {
+        int rpos = buffer.rpos();
+        try {
+            buffer.getInt(); // length
+            int type = buffer.getUByte();
+            switch (type) {
+                case SftpConstants.SSH_FXP_CLOSE:
+                case SftpConstants.SSH_FXP_READ:
+                case SftpConstants.SSH_FXP_WRITE:
+                case SftpConstants.SSH_FXP_FSTAT:
+                case SftpConstants.SSH_FXP_FSETSTAT:
+                case SftpConstants.SSH_FXP_READDIR:
+                case SftpConstants.SSH_FXP_BLOCK:
+                case SftpConstants.SSH_FXP_UNBLOCK:
+                    buffer.getInt(); // id
+                    return buffer.getString();
+                default:
+                    return null;
+            }
+        } catch (RuntimeException e) {
+            return null; // let the processing report the malformed request
+        } finally {
+            buffer.rpos(rpos);
+        }
+    }
+
+    protected void checkDispatchFailure() throws IOException {
+        Throwable t = dispatchFailure.get();
+        if (t != null) {
+            throw new StreamCorruptedException("Concurrent request processing failed: " + t.getMessage());
+        }
+    }
+
+    protected void awaitDispatchedRequests() {
+        if (requestPermits == null) {
+            return;
+        }
+
+        try {
+            requestPermits.acquire(maxConcurrentRequests);
+            requestPermits.release(maxConcurrentRequests);
+        } catch (InterruptedException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("awaitDispatchedRequests({}) interrupted while waiting for pending requests",
+                        getServerSession());
+            }
+        }
+    }
+
     @Override
     public void close() throws IOException {
-        requests.clear();
+        Collection<Buffer> pending = new ArrayList<>(requests.size());
+        requests.drainTo(pending);
         requests.add(CLOSE);
+        for (Buffer b : pending) {
+            if (b != CLOSE) {
+                bufferAllocator.release(b);
+            }
+        }
     }
 
     @Override
     protected void doProcess(Buffer buffer, int length, int type, int id) throws IOException {
+        try {
+            syncCachedFileData(buffer, type);
+        } catch (IOException | RuntimeException e) {
+            sendStatus(prepareReply(buffer), id, e, type);
+            requestsCount.incrementAndGet();
+            return;
+        }
+
         super.doProcess(buffer, length, type, id);
         if (type != SftpConstants.SSH_FXP_INIT) {
             requestsCount.incrementAndGet();
         }
     }
 
+    /**
+     * Makes sure that any data cached by the file handles is consistent with the file before a request that may
+     * observe it is executed. Reads and writes of a file handle go through its cache, and closing it writes any pending
+     * data, so only the other requests for the same handle need its pending data written - and the file attributes
+     * setting ones also discard the data read ahead. Any other request may refer to any file (e.g., by path), so the
+     * pending data of all the handles is written.
+     *
+     * @param  buffer      The request {@link Buffer} - positioned after the request id
+     * @param  type        The request type
+     * @throws IOException If failed to write the pending data
+     */
+    protected void syncCachedFileData(Buffer buffer, int type) throws IOException {
+        switch (type) {
+            case SftpConstants.SSH_FXP_INIT:
+            case SftpConstants.SSH_FXP_READ:
+            case SftpConstants.SSH_FXP_WRITE:
+            case SftpConstants.SSH_FXP_CLOSE:
+            case SftpConstants.SSH_FXP_READDIR:
+                return;
+            case SftpConstants.SSH_FXP_FSTAT:
+            case SftpConstants.SSH_FXP_FSETSTAT:
+            case SftpConstants.SSH_FXP_BLOCK:
+            case SftpConstants.SSH_FXP_UNBLOCK: {
+                int rpos = buffer.rpos();
+                String handle = buffer.getString();
+                buffer.rpos(rpos);
+
+                Handle h = handles.get(handle);
+                if (h instanceof FileHandle) {
+                    FileHandle fh = (FileHandle) h;
+                    fh.flushWriteBehind();
+                    if (type == SftpConstants.SSH_FXP_FSETSTAT) {
+                        fh.invalidateReadAhead();
+                    }
+                }
+                return;
+            }
+            default:
+                for (Handle h : handles.values()) {
+                    if (h instanceof FileHandle) {
+                        ((FileHandle) h).flushWriteBehind();
+                    }
+                }
+        }
+    }
+
     @Override
     protected void createLink(
             int id, String existingPath, String linkPath, boolean symLink)
@@ -370,6 +664,7 @@ public class SftpSubsystem
         }
 
         FileHandle fileHandle = validateHandle(handle, h, FileHandle.class);
+        fileHandle.flushWriteBehind();
         SftpFileSystemAccessor accessor = getFileSystemAccessor();
         accessor.syncFileData(
                 session, this, fileHandle, fileHandle.getFile(),
@@ -960,6 +1255,36 @@ public class SftpSubsystem
         send(buffer);
     }
 
+    @Override
+    protected int resolveReadDataLength(String handle, int readLen) {
+        if (!zeroCopyRead) {
+            return readLen;
+        }
+
+        // make sure the reply fits in a single channel packet so it can be sent as-is
+        Window remoteWindow = channelSession.getRemoteWindow();
+        long maxDataLen = remoteWindow.getPacketSize() - (Integer.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES);
+        return (maxDataLen > 0L) ? (int) Math.min(readLen, maxDataLen) : readLen;
+    }
+
+    @Override
+    protected Buffer prepareReadReply(Buffer buffer, int readLen) {
+        if (!zeroCopyRead) {
+            return super.prepareReadReply(buffer, readLen);
+        }
+
+        // leave room for the SSH packet and channel data headers before the reply and the padding + MAC after it
+        int headerRoom = ChannelAsyncOutputStream.SEND_IN_PLACE_HEADER_ROOM;
+        buffer.clear();
+        buffer.ensureCapacity(
+                headerRoom + readLen + Long.SIZE /* the header */ + ChannelAsyncOutputStream.SEND_IN_PLACE_TRAILER_ROOM,
+                IntUnaryOperator.identity());
+        buffer.wpos(headerRoom);
+        buffer.rpos(headerRoom);
+        buffer.putInt(0); // reserve space for actual packet length
+        return buffer;
+    }
+
     @Override
     protected Buffer prepareReply(Buffer buffer) {
         buffer.clear();
@@ -969,8 +1294,16 @@ public class SftpSubsystem
 
     @Override
     protected void send(Buffer buffer) throws IOException {
-        BufferUtils.updateLengthPlaceholder(buffer, 0);
-        out.writeBuffer(buffer);
+        BufferUtils.updateLengthPlaceholder(buffer, buffer.rpos());
+        // replies usually re-use the request buffer, so keep it until actually written
+        BufferAllocator allocator = bufferAllocator;
+        allocator.retain(buffer);
+        try {
+            out.writeBuffer(buffer).addListener(f -> allocator.release(buffer));
+        } catch (IOException | RuntimeException e) {
+            allocator.release(buffer);
+            throw e;
+        }
     }
 
     @Override
@@ -1013,6 +1346,22 @@ public class SftpSubsystem
         }
         this.executorService = null;
 
+        if ((requestsExecutor != null) && (!requestsExecutor.isShutdown())) {
+            Collection<Runnable> runners = requestsExecutor.shutdownNow();
+            if (debugEnabled) {
+                log.debug("destroy(" + session + ") - shutdown requests executor - runners count=" + runners.size());
+            }
+        }
+
+        synchronized (this) {
+            if ((readAheadExecutor != null) && (!readAheadExecutor.isShutdown())) {
+                Collection<Runnable> runners = readAheadExecutor.shutdownNow();
+                if (debugEnabled) {
+                    log.debug("destroy(" + session + ") - shutdown read-ahead executor - runners count=" + runners.size());
+                }
+            }
+        }
+
         try {
             fileSystem.close();
         } catch (UnsupportedOperationException e) {
@@ -28,5 +28,13 @@ public interface SftpSubsystemConfigurator
         extends ExecutorServiceCarrier, SftpFileSystemAccessorProvider,
         SftpUnsupportedAttributePolicyProvider, SftpErrorStatusDataHandlerProvider,
         SftpErrorDataChannelReceiverProvider {
-    // Nothing extra
+    /**
+     * @return Maximum number of requests that may be processed concurrently. Requests referring to the same handle are
+     *         still processed in the order they were received, and any other request (e.g., path based ones) waits
+     *         for all the preceding ones to complete before being processed. A value below 2 (default) processes all
+     *         the requests sequentially.
+     */
+    default int getMaxConcurrentRequests() {
+        return SftpSubsystemFactory.DEFAULT_MAX_CONCURRENT_REQUESTS;
+    }
 }
@@ -44,6 +44,7 @@ public class SftpSubsystemFactory
 
     public static final String NAME = SftpConstants.SFTP_SUBSYSTEM_NAME;
     public static final UnsupportedAttributePolicy DEFAULT_POLICY = UnsupportedAttributePolicy.Warn;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 1;
 
     public static class Builder extends AbstractSftpEventListenerManager implements ObjectBuilder<SftpSubsystemFactory> {
         private Supplier<? extends CloseableExecutorService> executorsProvider;
@@ -51,6 +52,7 @@ public class SftpSubsystemFactory
         private SftpFileSystemAccessor fileSystemAccessor = SftpFileSystemAccessor.DEFAULT;
         private SftpErrorStatusDataHandler errorStatusDataHandler = SftpErrorStatusDataHandler.DEFAULT;
         private ChannelDataReceiver errorChannelDataReceiver;
+        private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
 
         public Builder() {
             super();
@@ -81,6 +83,11 @@ public class SftpSubsystemFactory
             return this;
         }
 
+        public Builder withMaxConcurrentRequests(int maxRequests) {
+            maxConcurrentRequests = maxRequests;
+            return this;
+        }
+
         @Override
         public SftpSubsystemFactory build() {
             SftpSubsystemFactory factory = new SftpSubsystemFactory();
@@ -89,6 +96,7 @@ public class SftpSubsystemFactory
             factory.setFileSystemAccessor(fileSystemAccessor);
             factory.setErrorStatusDataHandler(errorStatusDataHandler);
             factory.setErrorChannelDataReceiver(errorChannelDataReceiver);
+            factory.setMaxConcurrentRequests(maxConcurrentRequests);
             GenericUtils.forEach(getRegisteredListeners(), factory::addSftpEventListener);
             return factory;
         }
@@ -99,6 +107,7 @@ public class SftpSubsystemFactory
     private SftpFileSystemAccessor fileSystemAccessor = SftpFileSystemAccessor.DEFAULT;
     private SftpErrorStatusDataHandler errorStatusDataHandler = SftpErrorStatusDataHandler.DEFAULT;
     private ChannelDataReceiver errorChannelDataReceiver;
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
 
     public SftpSubsystemFactory() {
         super();
@@ -166,6 +175,19 @@ public class SftpSubsystemFactory
         this.errorChannelDataReceiver = errorChannelDataReceiver;
     }
 
+    @Override
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * @param maxRequests Maximum number of requests that may be processed concurrently - see
+     *                    {@link SftpSubsystemConfigurator#getMaxConcurrentRequests()}
+     */
+    public void setMaxConcurrentRequests(int maxRequests) {
+        maxConcurrentRequests = maxRequests;
+    }
+
     @Override
     public Command createSubsystem(ChannelSession channel) throws IOException {
         SftpSubsystem subsystem = new SftpSubsystem(this);
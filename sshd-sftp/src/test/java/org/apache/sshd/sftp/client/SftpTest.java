@@ -51,6 +51,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -527,6 +528,79 @@ public class SftpTest extends AbstractSftpClientTestSupport {
                 buffer.getBytes(), "Null/empty handle in buffer", GenericUtils.EMPTY_OBJECT_ARRAY);
     }
 
+    @Test
+    public void testRawReceiveAsyncOutOfOrder() throws Exception {
+        try (SftpClient sftpClient = createSingleSessionClient()) {
+            RawSftpClient sftp = assertObjectInstanceOf(
+                    "Not a raw SFTP client used", RawSftpClient.class, sftpClient);
+            int numRequests = Byte.SIZE;
+            int[] ids = new int[numRequests];
+            for (int index = 0; index < numRequests; index++) {
+                Buffer buffer = new ByteArrayBuffer(Long.SIZE, false);
+                buffer.putString(".", StandardCharsets.UTF_8);
+                ids[index] = sftp.send(SftpConstants.SSH_FXP_REALPATH, buffer);
+            }
+
+            List<CompletableFuture<Buffer>> replies = new ArrayList<>(numRequests);
+            for (int index = numRequests - 1; index >= 0; index--) {
+                replies.add(sftp.receiveAsync(ids[index]));
+            }
+
+            for (int index = 0; index < numRequests; index++) {
+                Buffer response = replies.get(index).get(DEFAULT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                response.getInt(); // length
+                assertEquals("Mismatched response type", SftpConstants.SSH_FXP_NAME, response.getUByte());
+                assertEquals("Mismatched response id", ids[numRequests - 1 - index], response.getInt());
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncClientReadWrite() throws Exception {
+        Path targetPath = detectTargetFolder();
+        Path parentPath = targetPath.getParent();
+        Path localFile = CommonTestSupportUtils.resolve(
+                targetPath, SftpConstants.SFTP_SUBSYSTEM_NAME, getClass().getSimpleName(), getCurrentTestName());
+        Files.createDirectories(localFile.getParent());
+        Files.deleteIfExists(localFile);
+
+        byte[] data = new byte[3 * SftpModuleProperties.WRITE_CHUNK_SIZE.getRequiredDefault() + Byte.SIZE];
+        for (int index = 0; index < data.length; index++) {
+            data[index] = (byte) index;
+        }
+
+        String remotePath = CommonTestSupportUtils.resolveRelativeRemotePath(parentPath, localFile);
+        long timeout = DEFAULT_TIMEOUT.toMillis();
+        try (ClientSession session = createAuthenticatedClientSession();
+             SftpClient sftpClient = createSftpClient(session)) {
+            AsyncSftpClient sftp = assertObjectInstanceOf(
+                    "Not an async SFTP client used", AsyncSftpClient.class, sftpClient);
+            CloseableHandle handle = sftp.openAsync(remotePath, OpenMode.Write, OpenMode.Create)
+                    .get(timeout, TimeUnit.MILLISECONDS);
+            sftp.writeAsync(handle, 0L, data, 0, data.length).get(timeout, TimeUnit.MILLISECONDS);
+            sftp.closeAsync(handle).get(timeout, TimeUnit.MILLISECONDS);
+
+            Attributes attrs = sftp.statAsync(remotePath).get(timeout, TimeUnit.MILLISECONDS);
+            assertEquals("Mismatched written size", data.length, attrs.getSize());
+
+            handle = sftp.openAsync(remotePath, OpenMode.Read).get(timeout, TimeUnit.MILLISECONDS);
+            int chunkSize = data.length / 4;
+            byte[] actual = new byte[data.length];
+            List<CompletableFuture<Integer>> reads = new ArrayList<>();
+            for (int offset = 0; offset < data.length; offset += chunkSize) {
+                reads.add(sftp.readAsync(handle, offset, actual, offset, Math.min(chunkSize, data.length - offset)));
+            }
+            for (CompletableFuture<Integer> read : reads) {
+                assertTrue("No data read", read.get(timeout, TimeUnit.MILLISECONDS) > 0);
+            }
+            sftp.closeAsync(handle).get(timeout, TimeUnit.MILLISECONDS);
+            assertArrayEquals("Mismatched read data", data, actual);
+
+            sftp.removeAsync(remotePath).get(timeout, TimeUnit.MILLISECONDS);
+            assertFalse("File not removed: " + localFile, Files.exists(localFile));
+        }
+    }
+
     @Test
     public void testInputStreamSkipAndReset() throws Exception {
         Path targetPath = detectTargetFolder();
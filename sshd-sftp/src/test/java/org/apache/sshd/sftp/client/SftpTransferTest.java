@@ -21,13 +21,33 @@ package org.apache.sshd.sftp.client;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.util.buffer.LeakDetectingBufferAllocator;
+import org.apache.sshd.common.util.buffer.PooledBufferAllocator;
+import org.apache.sshd.server.subsystem.SubsystemFactory;
+import org.apache.sshd.sftp.SftpModuleProperties;
+import org.apache.sshd.sftp.client.SftpClient.Handle;
 import org.apache.sshd.sftp.client.fs.SftpFileSystem;
+import org.apache.sshd.sftp.server.SftpCacheMemoryBudget;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.apache.sshd.util.test.CommonTestSupportUtils;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
@@ -55,6 +75,217 @@ public class SftpTransferTest extends AbstractSftpClientTestSupport {
         }
     }
 
+    @Test
+    public void testTransferIntegrityWithZeroCopyRead() throws IOException {
+        SftpModuleProperties.ZERO_COPY_READ.set(sshd, true);
+        try {
+            doTestTransferIntegrity(0);
+            doTestTransferIntegrity(65536);
+        } finally {
+            SftpModuleProperties.ZERO_COPY_READ.remove(sshd);
+        }
+    }
+
+    @Test
+    public void testTransferIntegrityWithReadAheadAndWriteBehind() throws IOException {
+        SftpModuleProperties.FILE_HANDLE_READ_AHEAD_SIZE.set(sshd, 256 * 1024);
+        SftpModuleProperties.FILE_HANDLE_WRITE_BEHIND_SIZE.set(sshd, 256 * 1024);
+        try {
+            doTestTransferIntegrity(0);
+            doTestTransferIntegrity(65536);
+        } finally {
+            SftpModuleProperties.FILE_HANDLE_READ_AHEAD_SIZE.remove(sshd);
+            SftpModuleProperties.FILE_HANDLE_WRITE_BEHIND_SIZE.remove(sshd);
+        }
+
+        SftpCacheMemoryBudget budget = sshd.getAttribute(SftpCacheMemoryBudget.GLOBAL_BUDGET);
+        assertNotNull("No global cache budget", budget);
+        assertEquals("Cache memory not released: " + budget, 0L, budget.getUsed());
+    }
+
+    @Test
+    public void testTransferIntegrityWithPooledBuffers() throws Exception {
+        PooledBufferAllocator serverPool = new PooledBufferAllocator();
+        PooledBufferAllocator clientPool = new PooledBufferAllocator();
+        LeakDetectingBufferAllocator serverAllocator = new LeakDetectingBufferAllocator(serverPool);
+        sshd.setBufferAllocator(serverAllocator);
+        client.setBufferAllocator(clientPool);
+        try {
+            doTestTransferIntegrity(0);
+        } finally {
+            sshd.setBufferAllocator(null);
+            client.setBufferAllocator(null);
+        }
+
+        assertTrue("No server buffers re-used: " + serverPool, serverPool.getReusedCount() > 0L);
+        assertTrue("No client buffers re-used: " + clientPool, clientPool.getReusedCount() > 0L);
+
+        // the last packets may still be written while the session is closing
+        long maxWait = System.currentTimeMillis() + CLOSE_TIMEOUT.toMillis();
+        while ((!serverAllocator.getLeaks().isEmpty()) && (System.currentTimeMillis() < maxWait)) {
+            Thread.sleep(10L);
+        }
+        serverAllocator.assertNoLeaks();
+    }
+
+    @Test
+    public void testConcurrentRequestsTransferIntegrity() throws Exception {
+        Path localRoot = detectTargetFolder().resolve("sftp").resolve(getCurrentTestName());
+        CommonTestSupportUtils.deleteRecursive(localRoot);
+        // the server's default folder is the same as ours
+        Files.createDirectories(localRoot.resolve("remote"));
+
+        int numFiles = 8;
+        Path[] sources = new Path[numFiles];
+        for (int index = 0; index < numFiles; index++) {
+            byte[] data = new byte[1024 * 1024 + index];
+            for (int pos = 0; pos < data.length; pos++) {
+                data[pos] = (byte) (pos + index);
+            }
+            sources[index] = Files.write(localRoot.resolve("source-" + index + ".bin"), data);
+        }
+
+        List<? extends SubsystemFactory> factories = sshd.getSubsystemFactories();
+        sshd.setSubsystemFactories(Collections.singletonList(
+                new SftpSubsystemFactory.Builder()
+                        .withMaxConcurrentRequests(numFiles / 2)
+                        .build()));
+        try (ClientSession session = createAuthenticatedClientSession();
+             SftpFileSystem fs = SftpClientFactory.instance().createSftpFileSystem(session)) {
+            Path remoteRoot = fs.getDefaultDir().resolve("target/sftp").resolve(getCurrentTestName()).resolve("remote");
+            ExecutorService executor = Executors.newFixedThreadPool(numFiles);
+            try {
+                List<Future<Path>> copies = new ArrayList<>(numFiles);
+                for (Path source : sources) {
+                    copies.add(executor.submit(() -> {
+                        Path remote = remoteRoot.resolve(source.getFileName().toString());
+                        Files.copy(source, remote);
+                        Path local = source.resolveSibling("copy-" + source.getFileName());
+                        Files.copy(remote, local);
+                        return local;
+                    }));
+                }
+
+                for (int index = 0; index < numFiles; index++) {
+                    Path copy = copies.get(index).get(30L, TimeUnit.SECONDS);
+                    assertSameContent(sources[index], copy);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            sshd.setSubsystemFactories(factories);
+        }
+    }
+
+    @Test
+    public void testParallelTransferIntegrity() throws Exception {
+        Path localRoot = detectTargetFolder().resolve("sftp").resolve(getCurrentTestName());
+        CommonTestSupportUtils.deleteRecursive(localRoot);
+        Files.createDirectories(localRoot);
+
+        byte[] data = new byte[5 * 1024 * 1024 + 17];
+        for (int pos = 0; pos < data.length; pos++) {
+            data[pos] = (byte) (pos ^ (pos >>> 8));
+        }
+        Path source = Files.write(localRoot.resolve("source.bin"), data);
+        Path copy = localRoot.resolve("copy.bin");
+        String remotePath = CommonTestSupportUtils.resolveRelativeRemotePath(
+                detectTargetFolder().getParent(), localRoot.resolve("remote.bin"));
+
+        int numChannels = 3;
+        List<SftpClient> clients = new ArrayList<>(numChannels);
+        try (ClientSession session = createAuthenticatedClientSession()) {
+            for (int index = 0; index < numChannels; index++) {
+                clients.add(SftpClientFactory.instance().createSftpClient(session));
+            }
+
+            SftpParallelTransfer transfer = new SftpParallelTransfer(clients);
+            transfer.setMinChunkSize(64 * 1024);
+            transfer.setMaxChunkSize(512 * 1024);
+            transfer.setMaxBufferedSize(1024L * 1024L);
+            AtomicLong lastProgress = new AtomicLong();
+            transfer.setProgressListener((t, path, transferred, total) -> {
+                assertEquals("Mismatched total size", data.length, total);
+                lastProgress.accumulateAndGet(transferred, Math::max);
+            });
+
+            try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+                assertEquals("Mismatched uploaded size", data.length, transfer.upload(input, remotePath));
+            }
+            assertEquals("Mismatched upload progress", data.length, lastProgress.get());
+            assertTrue("No upload chunks", transfer.getChunksCount() > numChannels);
+
+            lastProgress.set(0L);
+            // the download must not leave stale data beyond the remote size
+            Files.write(copy, new byte[data.length + BUFFER_SIZE]);
+            try (FileChannel output = FileChannel.open(copy, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                assertEquals("Mismatched downloaded size", data.length, transfer.download(remotePath, output));
+            }
+            assertEquals("Mismatched download progress", data.length, lastProgress.get());
+            outputDebugMessage("%s: %s", getCurrentTestName(), transfer);
+        } finally {
+            for (SftpClient client : clients) {
+                client.close();
+            }
+        }
+
+        assertSameContent(source, localRoot.resolve("remote.bin"));
+        assertSameContent(source, copy);
+    }
+
+    @Test
+    public void testParallelDownloadFailureInNonFirstWorker() throws Exception {
+        Path localRoot = detectTargetFolder().resolve("sftp").resolve(getCurrentTestName());
+        CommonTestSupportUtils.deleteRecursive(localRoot);
+        Files.createDirectories(localRoot);
+
+        Path remoteFile = Files.write(localRoot.resolve("remote.bin"), new byte[4 * 1024 * 1024]);
+        String remotePath = CommonTestSupportUtils.resolveRelativeRemotePath(detectTargetFolder().getParent(), remoteFile);
+        String failureMessage = getCurrentTestName();
+
+        int numChannels = 3;
+        List<SftpClient> clients = new ArrayList<>(numChannels);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ClientSession session = createAuthenticatedClientSession()) {
+            for (int index = 0; index < numChannels; index++) {
+                clients.add(SftpClientFactory.instance().createSftpClient(session));
+            }
+
+            SftpClient failingClient = clients.get(1);
+            AtomicInteger failingReads = new AtomicInteger();
+            SftpParallelTransfer transfer = new SftpParallelTransfer(clients) {
+                @Override
+                protected void readChunk(SftpClient client, Handle handle, long offset, byte[] data, int length)
+                        throws IOException {
+                    // fail partway through - the other workers cannot go beyond the buffering limit without this range
+                    if ((client == failingClient) && (failingReads.incrementAndGet() > 1)) {
+                        throw new IOException(failureMessage);
+                    }
+                    super.readChunk(client, handle, offset, data, length);
+                }
+            };
+            transfer.setMinChunkSize(64 * 1024);
+            transfer.setMaxChunkSize(64 * 1024);
+            transfer.setMaxBufferedSize(256L * 1024L);
+
+            Path copy = localRoot.resolve("copy.bin");
+            try (FileChannel output = FileChannel.open(copy, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                Future<Long> download = executor.submit(() -> transfer.download(remotePath, output));
+                ExecutionException e = assertThrows(ExecutionException.class,
+                        () -> download.get(DEFAULT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+                Throwable cause = e.getCause();
+                assertObjectInstanceOf("Mismatched failure type", IOException.class, cause);
+                assertEquals("Mismatched failure", failureMessage, cause.getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+            for (SftpClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
     protected void doTestTransferIntegrity(int bufferSize) throws IOException {
         Path localRoot = detectTargetFolder().resolve("sftp");
         Files.createDirectories(localRoot);